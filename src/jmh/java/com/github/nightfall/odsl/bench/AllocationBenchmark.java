@@ -0,0 +1,124 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.ODSLConstants;
+import com.github.nightfall.odsl.bench.payload.BenchPayload;
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.ThreadLocalSerializers;
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one uncompressed write or read per serializer & deserializer, meant to be run with the GC profiler
+ * (-prof gc) so gc.alloc.rate.norm reports the bytes allocated per operation. The thread-local benchmarks
+ * reuse one serializer per thread, which is what repeated writes like network packets should do, and the pooled
+ * benchmarks make a new serializer each time but release its buffers back to the shared BufferPool.
+ *
+ * @see AllocationGate
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param
+    public PayloadShape shape;
+
+    BenchPayload payload;
+    byte[] namedBytes;
+    byte[] keylessBytes;
+
+    // Stands in for a reused socket or file buffer, so the thread-local benchmarks only count the serializer's own garbage.
+    final ExposedByteArrayOutputStream sink = new ExposedByteArrayOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        ODSLConstants.init();
+        payload = shape.create();
+        namedBytes = namedSerializer();
+        keylessBytes = keylessSerializer();
+        BufferPool.shared().resetMetrics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println(BufferPool.shared());
+    }
+
+    @Benchmark
+    public byte[] namedSerializer() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public BenchPayload namedDeserializer() throws IOException {
+        BenchPayload result = shape.newInstance();
+        result.read(INamedDeserializer.createDefault(namedBytes, false));
+        return result;
+    }
+
+    @Benchmark
+    public byte[] keylessSerializer() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public int namedThreadLocal() throws IOException {
+        NamedBinarySerializer serializer = ThreadLocalSerializers.named();
+        payload.write(serializer);
+        sink.reset();
+        serializer.writeTo(sink);
+        return sink.size();
+    }
+
+    @Benchmark
+    public int keylessThreadLocal() throws IOException {
+        KeylessBinarySerializer serializer = ThreadLocalSerializers.keyless();
+        payload.write(serializer);
+        sink.reset();
+        serializer.writeTo(sink);
+        return sink.size();
+    }
+
+    @Benchmark
+    public int namedPooled() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        payload.write(serializer);
+        sink.reset();
+        serializer.writeTo(sink);
+        serializer.release();
+        return sink.size();
+    }
+
+    @Benchmark
+    public int keylessPooled() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        payload.write(serializer);
+        sink.reset();
+        serializer.writeTo(sink);
+        serializer.release();
+        return sink.size();
+    }
+
+    @Benchmark
+    public BenchPayload keylessDeserializer() throws IOException {
+        BenchPayload result = shape.newInstance();
+        result.read(IKeylessDeserializer.createDefault(keylessBytes, false));
+        return result;
+    }
+
+}
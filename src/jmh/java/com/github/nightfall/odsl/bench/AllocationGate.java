@@ -0,0 +1,130 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Runs AllocationBenchmark with the GC profiler & fails when the bytes allocated per operation grow past
+ * the stored baseline by more than the tolerance plus a few bytes of noise.
+ * <p>
+ * Arguments are {@code [--baseline path] [--tolerance fraction] [--update]}, where --update rewrites
+ * the baseline from this run instead of checking it.
+ */
+public class AllocationGate {
+
+    static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    static final String DEFAULT_BASELINE = "src/jmh/resources/allocation-baseline.properties";
+    static final double DEFAULT_TOLERANCE = 0.10;
+    // Benchmarks that allocate next to nothing wobble by a few bytes per run, more than any fraction of their baseline.
+    static final double NOISE_BYTES = 64;
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Path baselinePath = Paths.get(DEFAULT_BASELINE);
+        double tolerance = DEFAULT_TOLERANCE;
+        boolean update = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baselinePath = Paths.get(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "--update" -> update = true;
+                default -> throw new RuntimeException("unknown argument \"" + args[i] + "\".");
+            }
+        }
+
+        Map<String, Double> measured = measure();
+
+        if (update) {
+            // Written by hand instead of Properties.store so the lines stay sorted & diffs stay small.
+            try (Writer writer = Files.newBufferedWriter(baselinePath)) {
+                writer.write("# Bytes allocated per operation, from AllocationGate --update\n");
+                for (Map.Entry<String, Double> entry : measured.entrySet()) writer.write(entry.getKey() + "=" + Math.round(entry.getValue()) + "\n");
+            }
+            System.out.println("Wrote " + measured.size() + " baselines to " + baselinePath);
+            return;
+        }
+
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(baselinePath)) {
+            baseline.load(reader);
+        }
+
+        int failures = check(measured, baseline, tolerance);
+        if (failures > 0) {
+            System.out.println(failures + " benchmarks have no baseline or allocate more than " + Math.round(tolerance * 100) + "% over it.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compares the measured allocation with the baseline & prints a line for each benchmark.
+     *
+     * @return The amount of benchmarks that have no baseline or allocate more than it allows.
+     */
+    static int check(Map<String, Double> measured, Properties baseline, double tolerance) {
+        int failures = 0;
+        for (Map.Entry<String, Double> entry : measured.entrySet()) {
+            String key = entry.getKey();
+            double bytes = entry.getValue();
+            String stored = baseline.getProperty(key);
+
+            // A missing baseline would let a new or renamed benchmark go unchecked for good.
+            if (stored == null) {
+                failures++;
+                System.out.printf("%-45s %12.0f B/op  no baseline, record it with --update%n", key, bytes);
+                continue;
+            }
+
+            double limit = Double.parseDouble(stored) * (1 + tolerance) + NOISE_BYTES;
+            boolean failed = bytes > limit;
+            if (failed) failures++;
+            System.out.printf("%-45s %12.0f B/op  baseline %12s  %s%n", key, bytes, stored, failed ? "FAIL" : "ok");
+        }
+        return failures;
+    }
+
+    /**
+     * Runs the benchmarks & gets the bytes allocated per operation, keyed by benchmark & shape.
+     */
+    static Map<String, Double> measure() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(AllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+
+        Map<String, Double> measured = new TreeMap<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            PayloadShape shape = PayloadShape.valueOf(result.getParams().getParam("shape"));
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION_METRIC);
+            if (allocation == null) throw new RuntimeException("the gc profiler did not report " + ALLOCATION_METRIC + ".");
+
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1) + "." + shape;
+            measured.put(key, allocation.getScore());
+
+            System.out.printf(
+                    "%-45s %12.0f B/op %10.1f B/field%n",
+                    key, allocation.getScore(), allocation.getScore() / shape.create().getFieldCount()
+            );
+        }
+        return measured;
+    }
+
+}
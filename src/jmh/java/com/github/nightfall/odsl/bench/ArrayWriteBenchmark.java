@@ -0,0 +1,114 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old element-by-element DataOutputStream loop against the bulk array writers for every primitive type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayWriteBenchmark {
+
+    static final int ELEMENT_COUNT = 1 << 20;
+
+    @Param({"byte", "short", "int", "long", "float", "double", "boolean", "packedBoolean", "char"})
+    public String type;
+
+    byte[] bytes;
+    short[] shorts;
+    int[] ints;
+    long[] longs;
+    float[] floats;
+    double[] doubles;
+    boolean[] booleans;
+    char[] chars;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        bytes = new byte[ELEMENT_COUNT];
+        shorts = new short[ELEMENT_COUNT];
+        ints = new int[ELEMENT_COUNT];
+        longs = new long[ELEMENT_COUNT];
+        floats = new float[ELEMENT_COUNT];
+        doubles = new double[ELEMENT_COUNT];
+        booleans = new boolean[ELEMENT_COUNT];
+        chars = new char[ELEMENT_COUNT];
+
+        random.nextBytes(bytes);
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            shorts[i] = (short) random.nextInt();
+            ints[i] = random.nextInt();
+            longs[i] = random.nextLong();
+            floats[i] = random.nextFloat();
+            doubles[i] = random.nextDouble();
+            booleans[i] = random.nextBoolean();
+            chars[i] = (char) random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int legacy() throws IOException {
+        DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+        switch (type) {
+            case "byte" -> { for (byte i : bytes) out.writeByte(i); }
+            case "short" -> { for (short i : shorts) out.writeShort(i); }
+            case "int" -> { for (int i : ints) out.writeInt(i); }
+            case "long" -> { for (long i : longs) out.writeLong(i); }
+            case "float" -> { for (float i : floats) out.writeFloat(i); }
+            case "double" -> { for (double i : doubles) out.writeDouble(i); }
+            case "boolean", "packedBoolean" -> { for (boolean b : booleans) out.writeBoolean(b); }
+            case "char" -> { for (char c : chars) out.writeChar(c); }
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public byte[] named() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doBooleanPacking = type.equals("packedBoolean");
+        switch (type) {
+            case "byte" -> serializer.writeByteArray("array", bytes);
+            case "short" -> serializer.writeShortArray("array", shorts);
+            case "int" -> serializer.writeIntArray("array", ints);
+            case "long" -> serializer.writeLongArray("array", longs);
+            case "float" -> serializer.writeFloatArray("array", floats);
+            case "double" -> serializer.writeDoubleArray("array", doubles);
+            case "boolean", "packedBoolean" -> serializer.writeBooleanArray("array", booleans);
+            case "char" -> serializer.writeCharArray("array", chars);
+        }
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] keyless() throws IOException {
+        IKeylessSerializer serializer = new KeylessBinarySerializer();
+        switch (type) {
+            case "byte" -> serializer.writeByteArray(bytes);
+            case "short" -> serializer.writeShortArray(shorts);
+            case "int" -> serializer.writeIntArray(ints);
+            case "long" -> serializer.writeLongArray(longs);
+            case "float" -> serializer.writeFloatArray(floats);
+            case "double" -> serializer.writeDoubleArray(doubles);
+            case "boolean" -> serializer.writeBooleanArray(booleans);
+            case "packedBoolean" -> serializer.writePackedBooleanArray(booleans);
+            case "char" -> serializer.writeCharArray(chars);
+        }
+        return serializer.toBytes();
+    }
+
+}
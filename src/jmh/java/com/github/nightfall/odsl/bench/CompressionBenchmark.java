@@ -0,0 +1,77 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.compression.DeflateCodec;
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Compares the speed of each compression codec on a save-like payload, the ratio is printed once per codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    static final int CHUNK_COUNT = 1024;
+
+    @Param({"none", "lz4", "deflate-1", "deflate", "gzip", "parallel-lz4", "parallel-deflate"})
+    public String codecName;
+
+    ICompressionCodec codec;
+    byte[] payload;
+    byte[] compressed;
+
+    @Setup
+    public void setup() throws IOException {
+        codec = switch (codecName) {
+            case "none" -> CompressionCodecs.NONE;
+            case "lz4" -> CompressionCodecs.LZ4;
+            case "deflate-1" -> new DeflateCodec(Deflater.BEST_SPEED, Deflater.DEFAULT_STRATEGY);
+            case "deflate" -> CompressionCodecs.DEFLATE;
+            case "gzip" -> CompressionCodecs.GZIP;
+            case "parallel-lz4" -> CompressionCodecs.PARALLEL_LZ4;
+            case "parallel-deflate" -> CompressionCodecs.PARALLEL_DEFLATE;
+            default -> throw new RuntimeException("unknown codec \"" + codecName + "\".");
+        };
+        payload = createPayload();
+        compressed = CompressionCodecs.compress(codec, payload);
+
+        System.out.printf("%n%s ratio %.2f (%d -> %d bytes)%n", codecName, payload.length / (double) compressed.length, payload.length, compressed.length);
+    }
+
+    static byte[] createPayload() throws IOException {
+        Random random = new Random(42);
+        INamedSerializer serializer = new NamedBinarySerializer();
+
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            short[] blocks = new short[4096];
+            for (int j = 0; j < blocks.length; j++) blocks[j] = (short) (j < 2048 ? random.nextInt(8) : 0);
+            serializer.writeShortArray("blocks" + i, blocks);
+            serializer.writeString("biome" + i, "base:plains");
+            serializer.writeLong("time" + i, random.nextLong());
+        }
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] compress() throws IOException {
+        return CompressionCodecs.compress(codec, payload);
+    }
+
+    @Benchmark
+    public byte[] decompress() throws IOException {
+        return CompressionCodecs.decompress(compressed);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.ODSLConstants;
+import com.github.nightfall.odsl.bench.payload.BenchPayload;
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding each payload shape from raw, compressed & Base64 bytes & reading every field back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializerBenchmark {
+
+    @Param
+    public PayloadShape shape;
+
+    byte[] namedBytes;
+    byte[] namedCompressedBytes;
+    String namedBase64;
+
+    byte[] keylessBytes;
+    byte[] keylessCompressedBytes;
+    String keylessBase64;
+
+    @Setup
+    public void setup() throws IOException {
+        ODSLConstants.init();
+        BenchPayload payload = shape.create();
+
+        INamedSerializer named = new NamedBinarySerializer();
+        payload.write(named);
+        namedBytes = named.toBytes();
+        namedCompressedBytes = named.toCompressedBytes();
+        namedBase64 = named.toBase64();
+
+        IKeylessSerializer keyless = new KeylessBinarySerializer();
+        payload.write(keyless);
+        keylessBytes = keyless.toBytes();
+        keylessCompressedBytes = keyless.toCompressedBytes();
+        keylessBase64 = keyless.toBase64();
+    }
+
+    BenchPayload readNamed(byte[] bytes, boolean isCompressed) throws IOException {
+        BenchPayload payload = shape.newInstance();
+        payload.read(INamedDeserializer.createDefault(bytes, isCompressed));
+        return payload;
+    }
+
+    BenchPayload readKeyless(byte[] bytes, boolean isCompressed) throws IOException {
+        BenchPayload payload = shape.newInstance();
+        payload.read(IKeylessDeserializer.createDefault(bytes, isCompressed));
+        return payload;
+    }
+
+    @Benchmark
+    public BenchPayload namedRaw() throws IOException {
+        return readNamed(namedBytes, false);
+    }
+
+    @Benchmark
+    public BenchPayload namedCompressed() throws IOException {
+        return readNamed(namedCompressedBytes, true);
+    }
+
+    @Benchmark
+    public BenchPayload namedBase64() throws IOException {
+        return readNamed(Base64.getDecoder().decode(namedBase64), false);
+    }
+
+    @Benchmark
+    public BenchPayload namedParallel() throws IOException {
+        BenchPayload payload = shape.newInstance();
+        payload.read(INamedDeserializer.createParallel(namedBytes, false, ForkJoinPool.commonPool()));
+        return payload;
+    }
+
+    @Benchmark
+    public BenchPayload keylessRaw() throws IOException {
+        return readKeyless(keylessBytes, false);
+    }
+
+    @Benchmark
+    public BenchPayload keylessCompressed() throws IOException {
+        return readKeyless(keylessCompressedBytes, true);
+    }
+
+    @Benchmark
+    public BenchPayload keylessBase64() throws IOException {
+        return readKeyless(Base64.getDecoder().decode(keylessBase64), false);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.ODSLConstants;
+import com.github.nightfall.odsl.bench.payload.BenchPayload;
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing each payload shape & encoding it as raw, compressed & Base64 bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param
+    public PayloadShape shape;
+
+    BenchPayload payload;
+
+    @Setup
+    public void setup() {
+        ODSLConstants.init();
+        payload = shape.create();
+    }
+
+    INamedSerializer writeNamed() throws IOException {
+        INamedSerializer serializer = new NamedBinarySerializer();
+        payload.write(serializer);
+        return serializer;
+    }
+
+    IKeylessSerializer writeKeyless() throws IOException {
+        IKeylessSerializer serializer = new KeylessBinarySerializer();
+        payload.write(serializer);
+        return serializer;
+    }
+
+    @Benchmark
+    public byte[] namedRaw() throws IOException {
+        return writeNamed().toBytes();
+    }
+
+    @Benchmark
+    public byte[] namedCompressed() throws IOException {
+        return writeNamed().toCompressedBytes();
+    }
+
+    @Benchmark
+    public String namedBase64() throws IOException {
+        return writeNamed().toBase64();
+    }
+
+    @Benchmark
+    public byte[] namedVarInt() throws IOException {
+        INamedSerializer serializer = new NamedBinarySerializer(NumberEncoding.VARINT);
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] namedKeySchema() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doKeySchema = true;
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] namedParallel() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.parallelExecutor = ForkJoinPool.commonPool();
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] keylessRaw() throws IOException {
+        return writeKeyless().toBytes();
+    }
+
+    @Benchmark
+    public byte[] keylessVarInt() throws IOException {
+        IKeylessSerializer serializer = new KeylessBinarySerializer(NumberEncoding.VARINT);
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public byte[] keylessCompressed() throws IOException {
+        return writeKeyless().toCompressedBytes();
+    }
+
+    @Benchmark
+    public String keylessBase64() throws IOException {
+        return writeKeyless().toBase64();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how writing strings through the string schema scales with the number of distinct strings,
+ * next to the old ArrayList.indexOf lookup it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringTableBenchmark {
+
+    static final int WRITES_PER_STRING = 4;
+
+    // The old lookup grows quadratically, so larger tables only make the legacy runs take minutes.
+    @Param({"1000", "4000", "16000"})
+    public int distinct;
+
+    String[] strings;
+
+    @Setup
+    public void setup() {
+        strings = new String[distinct];
+        for (int i = 0; i < distinct; i++) strings[i] = "base:block_" + i + "[facing=north]";
+    }
+
+    @Benchmark
+    public byte[] serializer() throws IOException {
+        INamedSerializer serializer = new NamedBinarySerializer();
+        for (int i = 0; i < WRITES_PER_STRING; i++)
+            for (String s : strings) serializer.writeString("s", s);
+        return serializer.toBytes();
+    }
+
+    @Benchmark
+    public List<String> legacyLookup() {
+        List<String> table = new ArrayList<>();
+        for (int i = 0; i < WRITES_PER_STRING; i++)
+            for (String s : strings) {
+                if (table.indexOf(s) == -1) table.add(s);
+            }
+        return table;
+    }
+
+}
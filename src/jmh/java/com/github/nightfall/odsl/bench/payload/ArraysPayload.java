@@ -0,0 +1,83 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class ArraysPayload implements BenchPayload {
+
+    static final int LENGTH = 1 << 16;
+
+    public byte[] light;
+    public short[] blocks;
+    public int[] heights;
+    public long[] times;
+    public float[] positions;
+
+    public ArraysPayload() {}
+
+    static ArraysPayload create(Random random) {
+        ArraysPayload payload = new ArraysPayload();
+        payload.light = new byte[LENGTH];
+        payload.blocks = new short[LENGTH];
+        payload.heights = new int[LENGTH];
+        payload.times = new long[LENGTH / 4];
+        payload.positions = new float[LENGTH];
+
+        random.nextBytes(payload.light);
+        for (int i = 0; i < LENGTH; i++) {
+            // Mostly a few small palette ids & air, like a real chunk.
+            payload.blocks[i] = (short) (i < LENGTH / 2 ? random.nextInt(8) : 0);
+            payload.heights[i] = 64 + random.nextInt(32);
+            payload.positions[i] = random.nextFloat();
+        }
+        for (int i = 0; i < payload.times.length; i++) payload.times[i] = random.nextLong();
+        return payload;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return 5;
+    }
+
+    @Override
+    public void read(INamedDeserializer in) {
+        light = in.readByteArrayAsNative("light");
+        blocks = in.readShortArrayAsNative("blocks");
+        heights = in.readIntArrayAsNative("heights");
+        times = in.readLongArrayAsNative("times");
+        positions = in.readFloatArrayAsNative("positions");
+    }
+
+    @Override
+    public void write(INamedSerializer out) throws IOException {
+        out.writeByteArray("light", light);
+        out.writeShortArray("blocks", blocks);
+        out.writeIntArray("heights", heights);
+        out.writeLongArray("times", times);
+        out.writeFloatArray("positions", positions);
+    }
+
+    @Override
+    public void read(IKeylessDeserializer in) throws IOException {
+        light = in.readByteArrayAsNative();
+        blocks = in.readShortArrayAsNative();
+        heights = in.readIntArrayAsNative();
+        times = in.readLongArrayAsNative();
+        positions = in.readFloatArrayAsNative();
+    }
+
+    @Override
+    public void write(IKeylessSerializer out) throws IOException {
+        out.writeByteArray(light);
+        out.writeShortArray(blocks);
+        out.writeIntArray(heights);
+        out.writeLongArray(times);
+        out.writeFloatArray(positions);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+/**
+ * A benchmark document that can be written by the named & keyless serializers.
+ */
+public interface BenchPayload extends INamedSerializable, IKeylessSerializable {
+
+    /**
+     * Gets the amount of values written for this payload, arrays counting as one, used to report allocation per field.
+     */
+    int getFieldCount();
+
+}
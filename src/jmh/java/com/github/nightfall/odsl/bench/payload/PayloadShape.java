@@ -0,0 +1,54 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The payload shapes every serializer benchmark is run against, each created from a fixed seed so runs compare.
+ */
+public enum PayloadShape {
+
+    /**
+     * Thousands of small objects with a handful of scalar fields, like entities in a save.
+     */
+    SMALL_RECORDS(RecordsPayload::new, RecordsPayload::create),
+
+    /**
+     * A deep binary tree of nested objects, every level carrying its own length & schema.
+     */
+    DEEP_NESTING(TreePayload::new, TreePayload::create),
+
+    /**
+     * A few large primitive arrays, like chunk block & light data.
+     */
+    PRIMITIVE_ARRAYS(ArraysPayload::new, ArraysPayload::create),
+
+    /**
+     * Many repeated & distinct strings, like block state ids & tags.
+     */
+    STRING_HEAVY(StringsPayload::new, StringsPayload::create);
+
+    final Supplier<BenchPayload> constructor;
+    final Function<Random, BenchPayload> factory;
+
+    PayloadShape(Supplier<BenchPayload> constructor, Function<Random, BenchPayload> factory) {
+        this.constructor = constructor;
+        this.factory = factory;
+    }
+
+    /**
+     * Creates the filled payload that is written by the serializer benchmarks.
+     */
+    public BenchPayload create() {
+        return factory.apply(new Random(42));
+    }
+
+    /**
+     * Creates an empty payload for the deserializer benchmarks to read into.
+     */
+    public BenchPayload newInstance() {
+        return constructor.get();
+    }
+
+}
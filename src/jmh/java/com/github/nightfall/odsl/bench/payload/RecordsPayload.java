@@ -0,0 +1,120 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class RecordsPayload implements BenchPayload {
+
+    static final int RECORD_COUNT = 2_000;
+    static final String[] KINDS = {"base:player", "base:zombie", "base:item", "base:drone"};
+
+    public Record[] records;
+
+    public RecordsPayload() {}
+
+    static RecordsPayload create(Random random) {
+        RecordsPayload payload = new RecordsPayload();
+        payload.records = new Record[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            Record record = new Record();
+            record.id = i;
+            record.time = random.nextLong();
+            record.x = random.nextFloat() * 512;
+            record.y = random.nextFloat() * 128;
+            record.z = random.nextFloat() * 512;
+            record.active = random.nextBoolean();
+            record.kind = KINDS[random.nextInt(KINDS.length)];
+            payload.records[i] = record;
+        }
+        return payload;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return 1 + records.length * 7;
+    }
+
+    @Override
+    public void read(INamedDeserializer in) {
+        records = in.readNamedObjectArray("records", Record.class);
+    }
+
+    @Override
+    public void write(INamedSerializer out) throws IOException {
+        out.writeNamedObjectArray("records", records);
+    }
+
+    @Override
+    public void read(IKeylessDeserializer in) throws IOException {
+        records = in.readKeylessObjectArray(Record.class);
+    }
+
+    @Override
+    public void write(IKeylessSerializer out) throws IOException {
+        out.writeKeylessObjectArray(records);
+    }
+
+    public static class Record implements INamedSerializable, IKeylessSerializable {
+
+        public int id;
+        public long time;
+        public float x, y, z;
+        public boolean active;
+        public String kind;
+
+        public Record() {}
+
+        @Override
+        public void read(INamedDeserializer in) {
+            id = in.readInt("id");
+            time = in.readLong("time");
+            x = in.readFloat("x");
+            y = in.readFloat("y");
+            z = in.readFloat("z");
+            active = in.readBoolean("active");
+            kind = in.readString("kind");
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("id", id);
+            out.writeLong("time", time);
+            out.writeFloat("x", x);
+            out.writeFloat("y", y);
+            out.writeFloat("z", z);
+            out.writeBoolean("active", active);
+            out.writeString("kind", kind);
+        }
+
+        @Override
+        public void read(IKeylessDeserializer in) throws IOException {
+            id = in.readInt();
+            time = in.readLong();
+            x = in.readFloat();
+            y = in.readFloat();
+            z = in.readFloat();
+            active = in.readBoolean();
+            kind = in.readString();
+        }
+
+        @Override
+        public void write(IKeylessSerializer out) throws IOException {
+            out.writeInt(id);
+            out.writeLong(time);
+            out.writeFloat(x);
+            out.writeFloat(y);
+            out.writeFloat(z);
+            out.writeBoolean(active);
+            out.writeString(kind);
+        }
+
+    }
+
+}
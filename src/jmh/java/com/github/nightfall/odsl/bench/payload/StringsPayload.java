@@ -0,0 +1,68 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class StringsPayload implements BenchPayload {
+
+    static final int STATE_COUNT = 8_192;
+    static final int DISTINCT_STATES = 256;
+    static final int TAG_COUNT = 512;
+    static final String[] TAG_KEYS = new String[TAG_COUNT];
+
+    static {
+        for (int i = 0; i < TAG_COUNT; i++) TAG_KEYS[i] = "tag_" + i;
+    }
+
+    public String[] states;
+    public String[] tags;
+
+    public StringsPayload() {}
+
+    static StringsPayload create(Random random) {
+        StringsPayload payload = new StringsPayload();
+        payload.states = new String[STATE_COUNT];
+        for (int i = 0; i < STATE_COUNT; i++) payload.states[i] = "base:block_" + random.nextInt(DISTINCT_STATES) + "[facing=north,slab_type=bottom]";
+
+        payload.tags = new String[TAG_COUNT];
+        for (int i = 0; i < TAG_COUNT; i++) payload.tags[i] = Long.toHexString(random.nextLong());
+        return payload;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return 1 + TAG_COUNT;
+    }
+
+    @Override
+    public void read(INamedDeserializer in) {
+        states = in.readStringArray("states");
+        tags = new String[TAG_COUNT];
+        for (int i = 0; i < TAG_COUNT; i++) tags[i] = in.readString(TAG_KEYS[i]);
+    }
+
+    @Override
+    public void write(INamedSerializer out) throws IOException {
+        out.writeStringArray("states", states);
+        for (int i = 0; i < TAG_COUNT; i++) out.writeString(TAG_KEYS[i], tags[i]);
+    }
+
+    @Override
+    public void read(IKeylessDeserializer in) throws IOException {
+        states = in.readStringArray();
+        tags = new String[TAG_COUNT];
+        for (int i = 0; i < TAG_COUNT; i++) tags[i] = in.readString();
+    }
+
+    @Override
+    public void write(IKeylessSerializer out) throws IOException {
+        out.writeStringArray(states);
+        for (int i = 0; i < TAG_COUNT; i++) out.writeString(tags[i]);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class TreePayload implements BenchPayload {
+
+    static final int DEPTH = 10;
+    static final int BRANCHES = 2;
+
+    public Node root;
+
+    public TreePayload() {}
+
+    static TreePayload create(Random random) {
+        TreePayload payload = new TreePayload();
+        payload.root = createNode(random, DEPTH);
+        return payload;
+    }
+
+    static Node createNode(Random random, int depth) {
+        Node node = new Node();
+        node.value = random.nextInt();
+        node.children = new Node[depth == 0 ? 0 : BRANCHES];
+        for (int i = 0; i < node.children.length; i++) node.children[i] = createNode(random, depth - 1);
+        return node;
+    }
+
+    @Override
+    public int getFieldCount() {
+        return 1 + countFields(root);
+    }
+
+    static int countFields(Node node) {
+        int count = 2;
+        for (Node child : node.children) count += countFields(child);
+        return count;
+    }
+
+    @Override
+    public void read(INamedDeserializer in) {
+        root = in.readNamedObject("root", Node.class);
+    }
+
+    @Override
+    public void write(INamedSerializer out) throws IOException {
+        out.writeNamedObject("root", root);
+    }
+
+    @Override
+    public void read(IKeylessDeserializer in) throws IOException {
+        root = in.readKeylessObject(Node.class);
+    }
+
+    @Override
+    public void write(IKeylessSerializer out) throws IOException {
+        out.writeKeylessObject(root);
+    }
+
+    public static class Node implements INamedSerializable, IKeylessSerializable {
+
+        public int value;
+        public Node[] children;
+
+        public Node() {}
+
+        @Override
+        public void read(INamedDeserializer in) {
+            value = in.readInt("value");
+            children = in.readNamedObjectArray("children", Node.class);
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("value", value);
+            out.writeNamedObjectArray("children", children);
+        }
+
+        @Override
+        public void read(IKeylessDeserializer in) throws IOException {
+            value = in.readInt();
+            children = in.readKeylessObjectArray(Node.class);
+        }
+
+        @Override
+        public void write(IKeylessSerializer out) throws IOException {
+            out.writeInt(value);
+            out.writeKeylessObjectArray(children);
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.bench.payload.CRBinPayloads;
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import com.github.nightfall.odsl.cr.*;
+import finalforeach.cosmicreach.savelib.IByteArray;
+import finalforeach.cosmicreach.savelib.crbin.CRBinDeserializer;
+import finalforeach.cosmicreach.savelib.crbin.CRBinSerializer;
+import finalforeach.cosmicreach.savelib.crbin.ICRBinSerializable;
+import finalforeach.cosmicreach.savelib.utils.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing & reading each payload shape through CRBin, with the same settings as {@link SerializerBenchmark}
+ * & {@link DeserializerBenchmark} so their results compare. CRBin is read from Base64, the entry point it has.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CRBinBenchmark {
+
+    @Param
+    public PayloadShape shape;
+
+    ICRBinSerializable payload;
+    String base64;
+
+    @Setup
+    public void setup() throws IOException {
+        // CRBin cannot serialize without its array & map instantiators, which are the libgdx backed ones Main uses.
+        DynamicArrays.instantiator = new IDynamicArrayInstantiator() {
+            public <E> IDynamicArray<E> create(Class<E> clazz) {
+                return new DynamicArray<>(clazz);
+            }
+
+            public <E> IDynamicArray<E> create(Class<E> clazz, int initialCapacity) {
+                return new DynamicArray<>(clazz, initialCapacity);
+            }
+
+            public IByteArray createByteArray() {
+                return new DynamicByteArray();
+            }
+        };
+
+        ObjectMaps.instantiator = new IObjectMapInstantiator() {
+            public <K> IObjectLongMap<K> createObjectLongMap() {
+                return new CRObjectLongMap<>();
+            }
+
+            public <K> IObjectIntMap<K> createObjectIntMap() {
+                return new CRObjectIntMap<>();
+            }
+
+            public <K> IObjectFloatMap<K> createObjectFloatMap() {
+                return new CRObjectFloatMap<>();
+            }
+
+            public <K, V> IObjectMap<K, V> create() {
+                return new CRObjectMap<>();
+            }
+
+            public <K, V> IObjectMap<K, V> create(IObjectMap<K, V> srcMap) {
+                if (srcMap instanceof CRObjectMap<K, V> m) {
+                    return new CRObjectMap<>(m);
+                } else {
+                    CRObjectMap<K, V> m = new CRObjectMap<>();
+                    m.putAll(srcMap);
+                    return m;
+                }
+            }
+        };
+
+        payload = CRBinPayloads.create(shape);
+        base64 = write().toBase64();
+    }
+
+    CRBinSerializer write() {
+        CRBinSerializer serializer = new CRBinSerializer();
+        payload.write(serializer);
+        return serializer;
+    }
+
+    @Benchmark
+    public byte[] writeRaw() throws IOException {
+        return write().toBytes();
+    }
+
+    @Benchmark
+    public String writeBase64() throws IOException {
+        return write().toBase64();
+    }
+
+    @Benchmark
+    public ICRBinSerializable readBase64() throws IOException {
+        ICRBinSerializable read = CRBinPayloads.newInstance(shape);
+        read.read(CRBinDeserializer.fromBase64(base64));
+        return read;
+    }
+
+}
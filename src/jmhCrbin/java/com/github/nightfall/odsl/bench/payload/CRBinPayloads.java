@@ -0,0 +1,200 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import finalforeach.cosmicreach.savelib.crbin.CRBinDeserializer;
+import finalforeach.cosmicreach.savelib.crbin.CRBinSerializer;
+import finalforeach.cosmicreach.savelib.crbin.ICRBinSerializable;
+
+/**
+ * The payload shapes written through CRBin, each a subclass of its payload holding the same data as {@link PayloadShape#create()}.
+ */
+public class CRBinPayloads {
+
+    private CRBinPayloads() {}
+
+    /**
+     * Creates the filled payload that is written by the CRBin benchmarks.
+     */
+    public static ICRBinSerializable create(PayloadShape shape) {
+        BenchPayload payload = shape.create();
+        return switch (shape) {
+            case SMALL_RECORDS -> new CRBinRecords((RecordsPayload) payload);
+            case DEEP_NESTING -> new CRBinTree((TreePayload) payload);
+            case PRIMITIVE_ARRAYS -> new CRBinArrays((ArraysPayload) payload);
+            case STRING_HEAVY -> new CRBinStrings((StringsPayload) payload);
+        };
+    }
+
+    /**
+     * Creates an empty payload for the CRBin benchmarks to read into.
+     */
+    public static ICRBinSerializable newInstance(PayloadShape shape) {
+        return switch (shape) {
+            case SMALL_RECORDS -> new CRBinRecords();
+            case DEEP_NESTING -> new CRBinTree();
+            case PRIMITIVE_ARRAYS -> new CRBinArrays();
+            case STRING_HEAVY -> new CRBinStrings();
+        };
+    }
+
+    // The records are always CRBinRecords, so the array can be handed to CRBin as one.
+    public static class CRBinRecords extends RecordsPayload implements ICRBinSerializable {
+
+        public CRBinRecords() {}
+
+        CRBinRecords(RecordsPayload source) {
+            records = new CRBinRecord[source.records.length];
+            for (int i = 0; i < records.length; i++) records[i] = new CRBinRecord(source.records[i]);
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            records = in.readObjArray("records", CRBinRecord.class);
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeObjArray("records", (CRBinRecord[]) records);
+        }
+
+    }
+
+    public static class CRBinRecord extends RecordsPayload.Record implements ICRBinSerializable {
+
+        public CRBinRecord() {}
+
+        CRBinRecord(RecordsPayload.Record source) {
+            id = source.id;
+            time = source.time;
+            x = source.x;
+            y = source.y;
+            z = source.z;
+            active = source.active;
+            kind = source.kind;
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            id = in.readInt("id", 0);
+            time = in.readLong("time", 0);
+            x = in.readFloat("x", 0);
+            y = in.readFloat("y", 0);
+            z = in.readFloat("z", 0);
+            active = in.readBoolean("active", false);
+            kind = in.readString("kind");
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeInt("id", id);
+            out.writeLong("time", time);
+            out.writeFloat("x", x);
+            out.writeFloat("y", y);
+            out.writeFloat("z", z);
+            out.writeBoolean("active", active);
+            out.writeString("kind", kind);
+        }
+
+    }
+
+    public static class CRBinTree extends TreePayload implements ICRBinSerializable {
+
+        public CRBinTree() {}
+
+        CRBinTree(TreePayload source) {
+            root = new CRBinNode(source.root);
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            root = in.readObj("root", CRBinNode.class);
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeObj("root", (CRBinNode) root);
+        }
+
+    }
+
+    // Like the records, the children are always CRBinNodes.
+    public static class CRBinNode extends TreePayload.Node implements ICRBinSerializable {
+
+        public CRBinNode() {}
+
+        CRBinNode(TreePayload.Node source) {
+            value = source.value;
+            children = new CRBinNode[source.children.length];
+            for (int i = 0; i < children.length; i++) children[i] = new CRBinNode(source.children[i]);
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            value = in.readInt("value", 0);
+            children = in.readObjArray("children", CRBinNode.class);
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeInt("value", value);
+            out.writeObjArray("children", (CRBinNode[]) children);
+        }
+
+    }
+
+    public static class CRBinArrays extends ArraysPayload implements ICRBinSerializable {
+
+        public CRBinArrays() {}
+
+        CRBinArrays(ArraysPayload source) {
+            light = source.light;
+            blocks = source.blocks;
+            heights = source.heights;
+            times = source.times;
+            positions = source.positions;
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            light = in.readByteArray("light");
+            blocks = in.readShortArray("blocks");
+            heights = in.readIntArray("heights");
+            times = in.readLongArray("times");
+            positions = in.readFloatArray("positions");
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeByteArray("light", light);
+            out.writeShortArray("blocks", blocks);
+            out.writeIntArray("heights", heights);
+            out.writeLongArray("times", times);
+            out.writeFloatArray("positions", positions);
+        }
+
+    }
+
+    public static class CRBinStrings extends StringsPayload implements ICRBinSerializable {
+
+        public CRBinStrings() {}
+
+        CRBinStrings(StringsPayload source) {
+            states = source.states;
+            tags = source.tags;
+        }
+
+        @Override
+        public void read(CRBinDeserializer in) {
+            states = in.readStringArray("states");
+            tags = new String[TAG_COUNT];
+            for (int i = 0; i < TAG_COUNT; i++) tags[i] = in.readString(TAG_KEYS[i]);
+        }
+
+        @Override
+        public void write(CRBinSerializer out) {
+            out.writeStringArray("states", states);
+            for (int i = 0; i < TAG_COUNT; i++) out.writeString(TAG_KEYS[i], tags[i]);
+        }
+
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.github.nightfall.odsl;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
 import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
 import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
@@ -40,6 +42,8 @@ public class ODSLConstants {
 
         register(IKeylessCustomSerializable.class, IKeylessSerializer::registerSerializer);
         register(IKeylessCustomSerializable.class, IKeylessDeserializer::registerDeserializer);
+
+        register(ICompressionCodec.class, CompressionCodecs::register);
     }
 
     /**
@@ -1,15 +1,19 @@
 package com.github.nightfall.odsl.io;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
 import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
 import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
 import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
 import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.api.IResettableSerializer;
 import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
 import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.Instantiators;
 import com.github.nightfall.odsl.util.NativeArrayUtil;
 
 import java.io.ByteArrayInputStream;
@@ -17,11 +21,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -31,7 +33,7 @@ import java.util.zip.GZIPOutputStream;
  * @since 1.0.0
  */
 @SuppressWarnings("unchecked")
-public class CompoundObject implements INamedSerializable, INamedDeserializer, INamedSerializer, IKeylessSerializable {
+public class CompoundObject implements INamedSerializable, INamedDeserializer, INamedSerializer, IResettableSerializer, IKeylessSerializable {
 
     Map<String, Object> OBJECT_MAP = new HashMap<>();
 
@@ -66,7 +68,7 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
      * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
      */
     public static CompoundObject fromBytes(byte[] bytes, boolean isCompressed) throws IOException {
-        if (isCompressed) return new CompoundObject(NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes)), Integer.MAX_VALUE));
+        if (isCompressed) return new CompoundObject(CompressionCodecs.decompress(bytes));
         else return new CompoundObject(bytes);
     }
 
@@ -92,15 +94,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Byte[] readByteArray(String name) {
-        return (Byte[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof byte[]) return NativeArrayUtil.toObjectLikeArray((byte[]) o);
+        return (Byte[]) o;
     }
 
     @Override
     public byte[] readByteArrayAsNative(String name) {
-        Byte[] array = (Byte[]) OBJECT_MAP.get(name);
-        byte[] pArray = new byte[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof byte[]) return (byte[]) o;
+        return NativeArrayUtil.toNativeArray((Byte[]) o);
     }
 
     @Override
@@ -110,15 +115,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Short[] readShortArray(String name) {
-        return (Short[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof short[]) return NativeArrayUtil.toObjectLikeArray((short[]) o);
+        return (Short[]) o;
     }
 
     @Override
     public short[] readShortArrayAsNative(String name) {
-        Short[] array = (Short[]) OBJECT_MAP.get(name);
-        short[] pArray = new short[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof short[]) return (short[]) o;
+        return NativeArrayUtil.toNativeArray((Short[]) o);
     }
 
     @Override
@@ -128,15 +136,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Integer[] readIntArray(String name) {
-        return (Integer[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof int[]) return NativeArrayUtil.toObjectLikeArray((int[]) o);
+        return (Integer[]) o;
     }
 
     @Override
     public int[] readIntArrayAsNative(String name) {
-        Integer[] array = (Integer[]) OBJECT_MAP.get(name);
-        int[] pArray = new int[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof int[]) return (int[]) o;
+        return NativeArrayUtil.toNativeArray((Integer[]) o);
     }
 
     @Override
@@ -146,15 +157,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Long[] readLongArray(String name) {
-        return (Long[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof long[]) return NativeArrayUtil.toObjectLikeArray((long[]) o);
+        return (Long[]) o;
     }
 
     @Override
     public long[] readLongArrayAsNative(String name) {
-        Long[] array = (Long[]) OBJECT_MAP.get(name);
-        long[] pArray = new long[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof long[]) return (long[]) o;
+        return NativeArrayUtil.toNativeArray((Long[]) o);
     }
 
     @Override
@@ -164,15 +178,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Float[] readFloatArray(String name) {
-        return (Float[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof float[]) return NativeArrayUtil.toObjectLikeArray((float[]) o);
+        return (Float[]) o;
     }
 
     @Override
     public float[] readFloatArrayAsNative(String name) {
-        Float[] array = (Float[]) OBJECT_MAP.get(name);
-        float[] pArray = new float[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof float[]) return (float[]) o;
+        return NativeArrayUtil.toNativeArray((Float[]) o);
     }
 
     @Override
@@ -182,15 +199,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Double[] readDoubleArray(String name) {
-        return (Double[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof double[]) return NativeArrayUtil.toObjectLikeArray((double[]) o);
+        return (Double[]) o;
     }
 
     @Override
     public double[] readDoubleArrayAsNative(String name) {
-        Double[] array = (Double[]) OBJECT_MAP.get(name);
-        double[] pArray = new double[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof double[]) return (double[]) o;
+        return NativeArrayUtil.toNativeArray((Double[]) o);
     }
 
     @Override
@@ -200,15 +220,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Boolean[] readBooleanArray(String name) {
-        return (Boolean[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof boolean[]) return NativeArrayUtil.toObjectLikeArray((boolean[]) o);
+        return (Boolean[]) o;
     }
 
     @Override
     public boolean[] readBooleanArrayAsNative(String name) {
-        Boolean[] array = (Boolean[]) OBJECT_MAP.get(name);
-        boolean[] pArray = new boolean[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof boolean[]) return (boolean[]) o;
+        return NativeArrayUtil.toNativeArray((Boolean[]) o);
     }
 
     @Override
@@ -218,15 +241,18 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public Character[] readCharArray(String name) {
-        return (Character[]) OBJECT_MAP.get(name);
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof char[]) return NativeArrayUtil.toObjectLikeArray((char[]) o);
+        return (Character[]) o;
     }
 
     @Override
     public char[] readCharArrayAsNative(String name) {
-        Character[] array = (Character[]) OBJECT_MAP.get(name);
-        char[] pArray = new char[array.length];
-        for (int i = 0; i < pArray.length; i++) pArray[i] = array[i];
-        return pArray;
+        Object o = OBJECT_MAP.get(name);
+
+        if (o instanceof char[]) return (char[]) o;
+        return NativeArrayUtil.toNativeArray((Character[]) o);
     }
 
     @Override
@@ -256,14 +282,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         if (type.isAssignableFrom(o.getClass())) return (T) o;
 
         try {
-            T obj = type.getDeclaredConstructor().newInstance();
-            obj.read(new DataInputStream(new ByteArrayInputStream(NativeArrayUtil.toNativeArray((Byte[]) o))));
+            T obj = Instantiators.newInstance(type);
+            obj.read(new DataInputStream(new ByteArrayInputStream(readByteArrayAsNative(name))));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -277,19 +301,17 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         if (!type.isArray() && type.isAssignableFrom(o.getClass().getComponentType())) return (T[]) o;
 
         try {
-            Byte[][] objs = (Byte[][]) OBJECT_MAP.get(name);
+            byte[][] objs = (byte[][]) OBJECT_MAP.get(name);
             T[] t = (T[]) Array.newInstance(type, objs.length);
             for (int i = 0; i < t.length; i++) {
-                T obj = type.getDeclaredConstructor().newInstance();
-                obj.read(new DataInputStream(new ByteArrayInputStream(NativeArrayUtil.toNativeArray(objs[i]))));
+                T obj = Instantiators.newInstance(type);
+                obj.read(new DataInputStream(new ByteArrayInputStream(objs[i])));
                 t[i] = obj;
             }
             return t;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -302,14 +324,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         if (type.isAssignableFrom(o.getClass())) return (T) o;
 
         try {
-            T obj = type.getDeclaredConstructor().newInstance();
+            T obj = Instantiators.newInstance(type);
             obj.read((INamedDeserializer) o);
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -328,14 +348,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
         for (int i = 0; i < t.length; i++) {
             try {
-                T obj = type.getDeclaredConstructor().newInstance();
+                T obj = Instantiators.newInstance(type);
                 obj.read(objs[i]);
                 t[i] = obj;
             } catch (
-                    InstantiationException | IllegalAccessException
-                    | IllegalArgumentException | InvocationTargetException
-                    | NoSuchMethodException | SecurityException
-                    | IOException e
+                    ReflectiveOperationException | IllegalArgumentException
+                    | SecurityException | IOException e
             ) {
                 objs[i] = null;
             }
@@ -352,14 +370,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         if (type.isAssignableFrom(o.getClass())) return (T) o;
 
         try {
-            T obj = type.getDeclaredConstructor().newInstance();
+            T obj = Instantiators.newInstance(type);
             obj.read((IKeylessDeserializer) o);
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -379,14 +395,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         for (int i = 0; i < t.length; i++) {
             T obj = null;
             try {
-                obj = type.getDeclaredConstructor().newInstance();
+                obj = Instantiators.newInstance(type);
                 obj.read(objs[i]);
                 t[i] = obj;
             } catch (
-                    InstantiationException | IllegalAccessException
-                    | IllegalArgumentException | InvocationTargetException
-                    | NoSuchMethodException | SecurityException
-                    | IOException e
+                    ReflectiveOperationException | IllegalArgumentException
+                    | SecurityException | IOException e
             ) {
                 objs[i] = null;
             }
@@ -398,10 +412,13 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public <T> T readCustomObject(String name, Class<T> type) {
-        if (!INamedDeserializer.hasDeserializer(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
-
-        Object o = getObject(name);
+        Object o = getExisting(name, "custom object");
+        if (o == null) return null;
+        if (isTyped(o)) return type.cast(readTyped(name, o));
+        // Typed objects written to this compound are kept as they are, & need no deserializer of the class asked for.
+        if (hasTypeIds(o, false)) return type.cast(o);
 
+        if (!INamedDeserializer.hasDeserializer(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
 
         if (type.isAssignableFrom(o.getClass()))
             return (T) o;
@@ -417,9 +434,32 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
 
     @Override
     public <T> T[] readCustomObjectArray(String name, Class<T> type) {
-        if (!INamedDeserializer.hasDeserializer(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+        Object o = getExisting(name, "custom object array");
+        if (o == null) return null;
 
-        Object o = OBJECT_MAP.get(name);
+        if (isTypedArray(o)) {
+            INamedDeserializer[] objs = (INamedDeserializer[]) o;
+            T[] t = (T[]) Array.newInstance(type, objs.length);
+
+            for (int i = 0; i < t.length; i++) {
+                if (!isTyped(objs[i])) throw new RuntimeException("cannot read element " + i + " of field \"" + name + "\" as a typed object due to it not being written with a type id.");
+                t[i] = type.cast(readTyped(name, objs[i]));
+            }
+            return t;
+        }
+
+        // Typed arrays written to this compound are kept as they are, neither they nor empty arrays need a deserializer of the class asked for.
+        if (hasTypeIds(o, true) || o instanceof Object[] && ((Object[]) o).length == 0) {
+            Object[] objs = (Object[]) o;
+            T[] t = (T[]) Array.newInstance(type, objs.length);
+
+            for (int i = 0; i < t.length; i++) {
+                t[i] = type.cast(objs[i]);
+            }
+            return t;
+        }
+
+        if (!INamedDeserializer.hasDeserializer(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
 
         if (type.isArray() && type.isAssignableFrom(o.getClass())) return (T[]) o;
         if (!type.isArray() && type.isAssignableFrom(o.getClass().getComponentType())) return (T[]) o;
@@ -436,6 +476,59 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         return t;
     }
 
+    @Override
+    public <T> T readTypedObject(String name) {
+        Object o = getExisting(name, "typed object");
+        if (o instanceof NamedBinaryDeserializer && !isTyped(o)) throw new RuntimeException("cannot read field \"" + name + "\" as a typed object due to it not being written with a type id.");
+
+        return (T) (isTyped(o) ? readTyped(name, o) : o);
+    }
+
+    // Fields that were never written fail naming the field, where a field written as null is read as null.
+    private Object getExisting(String name, String kind) {
+        Object o = OBJECT_MAP.get(name);
+        if (o == null && !OBJECT_MAP.containsKey(name)) throw new RuntimeException("cannot read field \"" + name + "\" as a " + kind + " due to it not existing.");
+        return o;
+    }
+
+    // Typed objects read from bytes are kept as deserializers that know the type id they were written with.
+    private static boolean isTyped(Object o) {
+        return o instanceof NamedBinaryDeserializer && ((NamedBinaryDeserializer) o).getTypeId() != -1;
+    }
+
+    // Objects & object arrays whose elements all have custom type ids are written as typed objects.
+    private static boolean hasTypeIds(Object o, boolean isArrayType) {
+        if (!isArrayType) return CustomTypeIds.getId(o.getClass()) != -1;
+        if (!(o instanceof Object[]) || ((Object[]) o).length == 0) return false;
+
+        for (Object element : (Object[]) o) {
+            if (element == null || CustomTypeIds.getId(element.getClass()) == -1) return false;
+        }
+        return true;
+    }
+
+    // An array is typed if any element is, so an element written without a type id fails instead of being misread.
+    private static boolean isTypedArray(Object o) {
+        if (!(o instanceof INamedDeserializer[])) return false;
+
+        for (INamedDeserializer element : (INamedDeserializer[]) o) {
+            if (isTyped(element)) return true;
+        }
+        return false;
+    }
+
+    private static Object readTyped(String name, Object o) {
+        NamedBinaryDeserializer deserializer = (NamedBinaryDeserializer) o;
+        int typeId = deserializer.getTypeId();
+
+        Class<?> type = CustomTypeIds.getType(typeId);
+        if (type == null) throw new RuntimeException("cannot read field \"" + name + "\" due to its type id " + typeId + " not being registered in CustomTypeIds.");
+
+        INamedCustomSerializable<?> customDeserializer = INamedDeserializer.getDeserializer(type);
+        if (customDeserializer == null) throw new RuntimeException("cannot read field \"" + name + "\" with type id " + typeId + " due to class \"" + type.getName() + "\" not having a registered deserializer.");
+        return customDeserializer.read(deserializer);
+    }
+
     @Override
     public Object getObject(String name) {
         return OBJECT_MAP.get(name);
@@ -464,6 +557,19 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         return new CompoundObject();
     }
 
+    @Override
+    public void clear() {
+        OBJECT_MAP.clear();
+    }
+
+    /**
+     * Clears the compound object, it has no options to restore.
+     */
+    @Override
+    public void reset() {
+        clear();
+    }
+
     public void writeByte(String name, byte i) {
         OBJECT_MAP.put(name, i);
     }
@@ -616,6 +722,16 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         OBJECT_MAP.put(name, array);
     }
 
+    @Override
+    public <T> void writeTypedObject(String name, T object) {
+        OBJECT_MAP.put(name, object);
+    }
+
+    @Override
+    public <T> void writeTypedObjectArray(String name, T[] array) {
+        OBJECT_MAP.put(name, array);
+    }
+
     @Override
     public int getObjectCount() {
         return OBJECT_MAP.size();
@@ -631,6 +747,7 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         INamedSerializer miniSerializer = INamedSerializer.createDefault();
         write(miniSerializer);
         serializer.writeByteArray(miniSerializer.toBytes());
+        miniSerializer.release();
     }
 
     @Override
@@ -655,6 +772,12 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
             boolean isArrayType = o.getClass().isArray();
             Class<?> clazz = o.getClass().isArray() ? o.getClass().getComponentType() : o.getClass();
 
+            if (hasTypeIds(o, isArrayType)) {
+                if (isArrayType) miniSerializer.writeTypedObjectArray(key, (Object[]) o);
+                else miniSerializer.writeTypedObject(key, o);
+                continue;
+            }
+
             if (INamedSerializer.hasSerializer(clazz)) {
                 if (isArrayType) miniSerializer.writeCustomObjectArray(key, (Object[]) o);
                 else miniSerializer.writeCustomObject(key, o);
@@ -693,6 +816,10 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
             if (o instanceof boolean[]) miniSerializer.writeBooleanArray(key, ((boolean[]) o));
             if (o instanceof Boolean[]) miniSerializer.writeBooleanArray(key, ((Boolean[]) o));
 
+            if (o instanceof Character) miniSerializer.writeChar(key, ((Character) o));
+            if (o instanceof char[]) miniSerializer.writeCharArray(key, ((char[]) o));
+            if (o instanceof Character[]) miniSerializer.writeCharArray(key, ((Character[]) o));
+
             if (o instanceof String) miniSerializer.writeString(key, ((String) o));
             if (o instanceof String[]) miniSerializer.writeStringArray(key, ((String[]) o));
 
@@ -705,13 +832,16 @@ public class CompoundObject implements INamedSerializable, INamedDeserializer, I
         }
 
         serializer.writeByteArray("data", miniSerializer.toBytes());
+        miniSerializer.release();
     }
 
     @Override
     public byte[] toBytes() throws IOException {
         NamedBinarySerializer serializer = new NamedBinarySerializer();
         write(serializer);
-        return serializer.toBytes();
+        byte[] bytes = serializer.toBytes();
+        serializer.release();
+        return bytes;
     }
 
     @Override
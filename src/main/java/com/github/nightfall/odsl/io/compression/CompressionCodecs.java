@@ -0,0 +1,152 @@
+package com.github.nightfall.odsl.io.compression;
+
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+
+import java.io.IOException;
+
+/**
+ * The registry of compression codecs, which writes & reads the header byte in front of compressed data.
+ * <p>
+ * Data starting with the GZIP magic number has no header byte, it was written by toCompressedBytes()
+ * before codecs existed and is decompressed as GZIP.
+ *
+ * @see ICompressionCodec
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class CompressionCodecs {
+
+    /**
+     * The first byte of GZIP data, which can never be used as a codec id.
+     */
+    public static final int GZIP_MAGIC = 0x1f;
+
+    static final ICompressionCodec[] CODECS = new ICompressionCodec[256];
+
+    /**
+     * Stores the bytes as they are.
+     */
+    public static final ICompressionCodec NONE = new NoCompressionCodec();
+
+    /**
+     * Raw Deflate at the default level, about as small as GZIP but without its header & checksum.
+     */
+    public static final ICompressionCodec DEFLATE = new DeflateCodec();
+
+    /**
+     * The LZ4 block format, much faster than Deflate with a lower ratio.
+     */
+    public static final ICompressionCodec LZ4 = new LZ4Codec();
+
+    /**
+     * GZIP with a header byte.
+     */
+    public static final ICompressionCodec GZIP = new GZipCodec();
+
+    /**
+     * LZ4 compressed in independent blocks on the common fork-join pool.
+     */
+    public static final ICompressionCodec PARALLEL_LZ4 = new ParallelCodec(LZ4);
+
+    /**
+     * Raw Deflate compressed in independent blocks on the common fork-join pool, for large saves
+     * that want Deflate's ratio without its single core speed.
+     */
+    public static final ICompressionCodec PARALLEL_DEFLATE = new ParallelCodec(DEFLATE);
+
+    static {
+        register(NONE);
+        register(DEFLATE);
+        register(LZ4);
+        register(GZIP);
+        register(PARALLEL_DEFLATE);
+    }
+
+    /**
+     * Registers a codec so data compressed with it can be decompressed, replacing any codec with the same id.
+     *
+     * @param codec The codec being registered.
+     */
+    public static void register(ICompressionCodec codec) {
+        int id = codec.getId();
+        if (id < 0 || id > 255) throw new RuntimeException("cannot register codec \"" + codec.getClass().getName() + "\", its id " + id + " does not fit in a byte.");
+        if (id == GZIP_MAGIC) throw new RuntimeException("cannot register codec \"" + codec.getClass().getName() + "\", the id " + id + " is reserved for legacy GZIP data.");
+        CODECS[id] = codec;
+    }
+
+    /**
+     * Gets the codec registered with an id, or null if there is none.
+     *
+     * @param id The header byte of compressed data.
+     */
+    public static ICompressionCodec getCodec(int id) {
+        return CODECS[id & 0xFF];
+    }
+
+    /**
+     * Compresses bytes with a codec, putting its header byte in front.
+     *
+     * @param codec The codec to compress with.
+     * @param bytes The bytes being compressed.
+     */
+    public static byte[] compress(ICompressionCodec codec, byte[] bytes) throws IOException {
+        return compress(codec, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Compresses part of an array with a codec, putting its header byte in front.
+     *
+     * @param codec The codec to compress with.
+     * @param bytes The bytes being compressed.
+     * @param offset The offset of the first byte being compressed.
+     * @param length The amount of bytes being compressed.
+     */
+    public static byte[] compress(ICompressionCodec codec, byte[] bytes, int offset, int length) throws IOException {
+        // The stream only lives until its bytes are copied out, so its buffer is borrowed.
+        ExposedByteArrayOutputStream stream = new ExposedByteArrayOutputStream(BufferPool.shared());
+        try {
+            stream.write(codec.getId());
+            codec.compress(bytes, offset, length, stream);
+            return stream.toByteArray();
+        } finally {
+            stream.release();
+        }
+    }
+
+    /**
+     * Decompresses bytes, finding the codec from the header byte or the GZIP magic number.
+     *
+     * @param bytes The compressed bytes.
+     */
+    public static byte[] decompress(byte[] bytes) throws IOException {
+        return decompress(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Decompresses part of an array, finding the codec from the header byte or the GZIP magic number.
+     *
+     * @param bytes The compressed bytes.
+     * @param offset The offset of the header byte.
+     * @param length The amount of compressed bytes, including the header byte.
+     */
+    public static byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        if (length <= 0) throw new IOException("cannot decompress an empty array.");
+
+        int id = bytes[offset] & 0xFF;
+        if (id == GZIP_MAGIC) return GZIP.decompress(bytes, offset, length);
+
+        ICompressionCodec codec = getCodec(id);
+        if (codec == null) throw new IOException("cannot decompress data with unknown codec id " + id + ".");
+        return codec.decompress(bytes, offset + 1, length - 1);
+    }
+
+    /**
+     * Reads a big-endian int, which is how the built-in codecs store the uncompressed length.
+     */
+    static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+
+}
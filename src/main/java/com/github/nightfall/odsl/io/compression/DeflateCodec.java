@@ -0,0 +1,96 @@
+package com.github.nightfall.odsl.io.compression;
+
+import com.github.nightfall.odsl.util.BufferPool;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A codec that uses raw Deflate with a configurable level & strategy, skipping GZIP's header and checksum.
+ * The payload is the uncompressed length as an int followed by the deflated bytes.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class DeflateCodec implements ICompressionCodec {
+
+    public static final int ID = 1;
+
+    final int level;
+    final int strategy;
+
+    public DeflateCodec() {
+        this(Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    }
+
+    /**
+     * @param level The compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     * @param strategy The Deflater strategy, such as {@link Deflater#FILTERED} or {@link Deflater#HUFFMAN_ONLY}.
+     */
+    public DeflateCodec(int level, int strategy) {
+        this.level = level;
+        this.strategy = strategy;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+        new DataOutputStream(out).writeInt(length);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setStrategy(strategy);
+            deflater.setInput(bytes, offset, length);
+            deflater.finish();
+
+            BufferPool pool = BufferPool.shared();
+            byte[] chunk = pool.acquire(Math.max(64, Math.min(length, 65536)));
+            try {
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(chunk);
+                    out.write(chunk, 0, count);
+                }
+            } finally {
+                pool.release(chunk);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        if (length < Integer.BYTES) throw new IOException("deflate data is too short to hold its length.");
+
+        byte[] result = new byte[CompressionCodecs.readInt(bytes, offset)];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, offset + Integer.BYTES, length - Integer.BYTES);
+
+            // The stream has to reach its end, or data missing only its last bytes would look whole.
+            int count = 0;
+            while (!inflater.finished()) {
+                int n = count < result.length ? inflater.inflate(result, count, result.length - count) : inflater.inflate(new byte[1]);
+                if (count == result.length && n > 0) throw new IOException("deflate data is longer than its stored length.");
+                count += n;
+
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) throw new IOException("deflate data ended early.");
+            }
+            if (count != result.length) throw new IOException("deflate data is shorter than its stored length.");
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt deflate data.", e);
+        } finally {
+            inflater.end();
+        }
+        return result;
+    }
+
+}
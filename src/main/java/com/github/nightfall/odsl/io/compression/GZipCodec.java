@@ -0,0 +1,42 @@
+package com.github.nightfall.odsl.io.compression;
+
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A codec that uses GZIP, the format toCompressedBytes() has always written.
+ * Data written by older versions has no header byte, and is still recognized by its GZIP magic number.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class GZipCodec implements ICompressionCodec {
+
+    public static final int ID = 3;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        GZIPOutputStream stream = new GZIPOutputStream(byteStream);
+        stream.write(bytes, offset, length);
+        stream.close();
+        byteStream.writeTo(out);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        return NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes, offset, length)), Integer.MAX_VALUE);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.github.nightfall.odsl.io.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A compression codec that serializers can compress their bytes with. Compressed data starts with
+ * the codec's id as a header byte, so it can be decompressed without knowing which codec was used.
+ * <p>
+ * Custom codecs are registered with {@link CompressionCodecs#register(ICompressionCodec)} or as a service.
+ *
+ * @see CompressionCodecs
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public interface ICompressionCodec {
+
+    /**
+     * Gets the id written as the header byte in front of data compressed with this codec.
+     */
+    int getId();
+
+    /**
+     * Compresses bytes, without the header byte.
+     *
+     * @param bytes The bytes being compressed.
+     * @param offset The offset of the first byte being compressed.
+     * @param length The amount of bytes being compressed.
+     * @param out The stream the compressed bytes are written to.
+     */
+    void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException;
+
+    /**
+     * Decompresses bytes that were compressed with this codec, without the header byte.
+     *
+     * @param bytes The compressed bytes.
+     * @param offset The offset of the first compressed byte.
+     * @param length The amount of compressed bytes.
+     */
+    byte[] decompress(byte[] bytes, int offset, int length) throws IOException;
+
+}
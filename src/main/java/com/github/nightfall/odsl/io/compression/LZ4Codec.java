@@ -0,0 +1,207 @@
+package com.github.nightfall.odsl.io.compression;
+
+import com.github.nightfall.odsl.util.BufferPool;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A fast pure Java codec using the LZ4 block format, which trades compression ratio for much faster
+ * compression & decompression than Deflate. The payload is the uncompressed length as an int followed by one LZ4 block.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class LZ4Codec implements ICompressionCodec {
+
+    public static final int ID = 2;
+
+    static final int MIN_MATCH = 4;
+    static final int LAST_LITERALS = 5;
+    static final int MATCH_FIND_LIMIT = 12;
+    static final int MAX_OFFSET = 65535;
+    static final int HASH_LOG = 16;
+
+    // The 256KiB hash table is refilled on every block, so each thread keeps one instead of allocating it per block.
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+        new DataOutputStream(out).writeInt(length);
+
+        BufferPool pool = BufferPool.shared();
+        byte[] block = pool.acquire(maxCompressedLength(length));
+        try {
+            int blockLength = compressBlock(bytes, offset, length, block);
+            out.write(block, 0, blockLength);
+        } finally {
+            pool.release(block);
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        if (length < Integer.BYTES) throw new IOException("lz4 data is too short to hold its length.");
+
+        byte[] result = new byte[CompressionCodecs.readInt(bytes, offset)];
+        try {
+            decompressBlock(bytes, offset + Integer.BYTES, offset + length, result);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("corrupt lz4 data.", e);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the most bytes a block of the given length can compress to.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    private static int hash(int i) {
+        return (i * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] bytes, int i) {
+        return (bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24;
+    }
+
+    private static int writeLength(byte[] dst, int op, int length) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    /**
+     * Compresses bytes into a single LZ4 block.
+     *
+     * @return The length of the block.
+     */
+    public static int compressBlock(byte[] src, int offset, int length, byte[] dst) {
+        int end = offset + length;
+        int matchLimit = end - LAST_LITERALS;
+        int matchFindLimit = end - MATCH_FIND_LIMIT;
+
+        int anchor = offset;
+        int ip = offset;
+        int op = 0;
+
+        if (length > MATCH_FIND_LIMIT) {
+            int[] table = HASH_TABLE.get();
+            Arrays.fill(table, -1);
+
+            while (ip < matchFindLimit) {
+                int sequence = readInt(src, ip);
+                int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+
+                while (ip > anchor && ref > offset && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) matchLength++;
+
+                int literalLength = ip - anchor;
+                int token = op++;
+                dst[token] = (byte) ((Math.min(literalLength, 15) << 4) | Math.min(matchLength - MIN_MATCH, 15));
+                if (literalLength >= 15) op = writeLength(dst, op, literalLength - 15);
+                System.arraycopy(src, anchor, dst, op, literalLength);
+                op += literalLength;
+
+                int matchOffset = ip - ref;
+                dst[op++] = (byte) matchOffset;
+                dst[op++] = (byte) (matchOffset >>> 8);
+                if (matchLength - MIN_MATCH >= 15) op = writeLength(dst, op, matchLength - MIN_MATCH - 15);
+
+                ip += matchLength;
+                anchor = ip;
+                if (ip - 2 >= offset && ip - 2 < matchFindLimit) table[hash(readInt(src, ip - 2))] = ip - 2;
+            }
+        }
+
+        int literalLength = end - anchor;
+        dst[op++] = (byte) (Math.min(literalLength, 15) << 4);
+        if (literalLength >= 15) op = writeLength(dst, op, literalLength - 15);
+        System.arraycopy(src, anchor, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    /**
+     * Decompresses a single LZ4 block into an array of exactly the uncompressed length.
+     */
+    public static void decompressBlock(byte[] src, int offset, int end, byte[] dst) throws IOException {
+        int ip = offset;
+        int op = 0;
+
+        // Reads are checked against the end rather than the array, which can hold more data after the block.
+        while (true) {
+            if (ip >= end) throw new IOException("lz4 data ended early.");
+            int token = src[ip++] & 0xFF;
+
+            int literalLength = token >>> 4;
+            if (literalLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) throw new IOException("lz4 data ended early.");
+                    b = src[ip++] & 0xFF;
+                    literalLength += b;
+                } while (b == 255);
+            }
+
+            if (literalLength > end - ip) throw new IOException("lz4 data ended early.");
+            System.arraycopy(src, ip, dst, op, literalLength);
+            ip += literalLength;
+            op += literalLength;
+
+            if (ip == end) break;
+
+            if (end - ip < 2) throw new IOException("lz4 data ended early.");
+            int matchOffset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+            ip += 2;
+
+            int matchLength = token & 15;
+            if (matchLength == 15) {
+                int b;
+                do {
+                    if (ip >= end) throw new IOException("lz4 data ended early.");
+                    b = src[ip++] & 0xFF;
+                    matchLength += b;
+                } while (b == 255);
+            }
+            matchLength += MIN_MATCH;
+
+            int ref = op - matchOffset;
+            if (matchOffset == 0 || ref < 0) throw new IOException("corrupt lz4 data, bad match offset " + matchOffset + ".");
+
+            if (matchOffset >= matchLength) {
+                System.arraycopy(dst, ref, dst, op, matchLength);
+                op += matchLength;
+            } else {
+                // Overlapping matches repeat the bytes just written, so they are copied one at a time.
+                for (int i = 0; i < matchLength; i++) dst[op++] = dst[ref++];
+            }
+        }
+
+        if (op != dst.length) throw new IOException("corrupt lz4 data, decompressed " + op + " bytes instead of " + dst.length + ".");
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.github.nightfall.odsl.io.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A codec that stores bytes as they are, for callers that want the header byte without paying for compression.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class NoCompressionCodec implements ICompressionCodec {
+
+    public static final int ID = 0;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length) {
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.github.nightfall.odsl.io.compression;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A codec that splits data into independent blocks & compresses them with another codec on a fork-join pool.
+ * <p>
+ * The payload is a frame of the uncompressed length, the block size, the block count and the compressed length
+ * of each block, followed by the blocks. Each block carries its own codec header byte, so any ParallelCodec
+ * decompresses any frame, also spreading the blocks over its pool.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class ParallelCodec implements ICompressionCodec {
+
+    public static final int ID = 4;
+
+    /**
+     * The default amount of uncompressed bytes in each block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    final ICompressionCodec blockCodec;
+    final int blockSize;
+    final ForkJoinPool pool;
+
+    public ParallelCodec(ICompressionCodec blockCodec) {
+        this(blockCodec, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ParallelCodec(ICompressionCodec blockCodec, int blockSize) {
+        this(blockCodec, blockSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param blockCodec The codec each block is compressed with.
+     * @param blockSize The amount of uncompressed bytes in each block, smaller blocks spread better but compress worse.
+     * @param pool The pool the blocks are compressed & decompressed on.
+     */
+    public ParallelCodec(ICompressionCodec blockCodec, int blockSize, ForkJoinPool pool) {
+        if (blockCodec instanceof ParallelCodec) throw new RuntimeException("cannot nest parallel codecs.");
+        if (blockSize <= 0) throw new RuntimeException("block size must be positive, got " + blockSize + ".");
+
+        this.blockCodec = blockCodec;
+        this.blockSize = blockSize;
+        this.pool = pool;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+        int blockCount = (int) (((long) length + blockSize - 1) / blockSize);
+
+        List<Callable<byte[]>> tasks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int blockOffset = offset + i * blockSize;
+            int blockLength = Math.min(blockSize, offset + length - blockOffset);
+            tasks.add(() -> CompressionCodecs.compress(blockCodec, bytes, blockOffset, blockLength));
+        }
+        List<byte[]> blocks = invokeAll(tasks);
+
+        DataOutputStream output = new DataOutputStream(out);
+        output.writeInt(length);
+        output.writeInt(blockSize);
+        output.writeInt(blockCount);
+        for (byte[] block : blocks) output.writeInt(block.length);
+        for (byte[] block : blocks) output.write(block);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        if (length < Integer.BYTES * 3) throw new IOException("parallel frame is too short to hold its header.");
+
+        int totalLength = CompressionCodecs.readInt(bytes, offset);
+        int frameBlockSize = CompressionCodecs.readInt(bytes, offset + 4);
+        int blockCount = CompressionCodecs.readInt(bytes, offset + 8);
+        if (totalLength < 0 || frameBlockSize <= 0 || blockCount != (int) (((long) totalLength + frameBlockSize - 1) / frameBlockSize) || blockCount > length / Integer.BYTES) throw new IOException("corrupt parallel frame header.");
+
+        byte[] result = new byte[totalLength];
+
+        // The block offsets are found up front so every block can be decompressed independently.
+        int blockOffset = offset + Integer.BYTES * (3 + blockCount);
+        List<Callable<byte[]>> tasks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            int compressedOffset = blockOffset;
+            int compressedLength = CompressionCodecs.readInt(bytes, offset + Integer.BYTES * (3 + i));
+            int resultOffset = i * frameBlockSize;
+            int resultLength = Math.min(frameBlockSize, totalLength - resultOffset);
+            if (compressedLength < 0 || compressedOffset + compressedLength > offset + length) throw new IOException("corrupt parallel frame, block " + i + " is out of bounds.");
+
+            tasks.add(() -> {
+                byte[] block = CompressionCodecs.decompress(bytes, compressedOffset, compressedLength);
+                if (block.length != resultLength) throw new IOException("corrupt parallel frame, block " + (resultOffset / frameBlockSize) + " decompressed to " + block.length + " bytes instead of " + resultLength + ".");
+                System.arraycopy(block, 0, result, resultOffset, resultLength);
+                return block;
+            });
+            blockOffset += compressedLength;
+        }
+        invokeAll(tasks);
+
+        return result;
+    }
+
+    private List<byte[]> invokeAll(List<Callable<byte[]>> tasks) throws IOException {
+        List<byte[]> results = new ArrayList<>(tasks.size());
+
+        // A single block is not worth handing to the pool.
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            return results;
+        }
+
+        List<ForkJoinTask<byte[]>> futures = new ArrayList<>(tasks.size());
+        for (Callable<byte[]> task : tasks) futures.add(pool.submit(task));
+
+        try {
+            for (ForkJoinTask<byte[]> future : futures) results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for blocks.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("failed to process a block.", e.getCause());
+        }
+        return results;
+    }
+
+}
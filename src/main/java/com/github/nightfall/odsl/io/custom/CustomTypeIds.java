@@ -0,0 +1,128 @@
+package com.github.nightfall.odsl.io.custom;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+
+import java.util.Arrays;
+
+/**
+ * Gives custom serializable classes a compact numeric id, which typed custom objects are written with
+ * so they can be read back without the reader naming their class, & arrays of them can mix classes.
+ * <p>
+ * Ids index straight into a table of classes, so readers find the class of an id without hashing.
+ * The writing & reading side have to give each class the same id, either by registering
+ * them with fixed ids or by registering them in the same order.
+ *
+ * @see com.github.nightfall.odsl.io.serial.api.INamedSerializer#writeTypedObject(String, Object)
+ * @see com.github.nightfall.odsl.io.serial.api.IKeylessSerializer#writeTypedObject(Object)
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class CustomTypeIds {
+
+    private static final SerializerRegistry<Integer> IDS = new SerializerRegistry<>();
+    private static volatile Class<?>[] types = new Class<?>[0];
+
+    private CustomTypeIds() {}
+
+    /**
+     * Gives a class the lowest free id, or gives back the id it already has.
+     *
+     * @return the id of the class.
+     */
+    public static synchronized int register(Class<?> type) {
+        Integer existing = IDS.getExact(type);
+        if (existing != null) return existing;
+
+        int id = 0;
+        while (id < types.length && types[id] != null) id++;
+        register(type, id);
+        return id;
+    }
+
+    /**
+     * Gives a class a fixed id.
+     *
+     * @param type The class, subclasses & implementations without an id of their own are written with it.
+     * @param id The id, small ids keep the dispatch table small.
+     */
+    public static synchronized void register(Class<?> type, int id) {
+        if (id < 0) throw new RuntimeException("cannot register class of type \"" + type.getName() + "\" with negative id " + id + ".");
+        if (type.isArray()) throw new RuntimeException("cannot register class of type \"" + type.getName() + "\" since it is an array.");
+
+        Integer existing = IDS.getExact(type);
+        if (existing != null && existing != id) throw new RuntimeException("cannot register class of type \"" + type.getName() + "\" with id " + id + ", it already has id " + existing + ".");
+        if (id < types.length && types[id] != null && types[id] != type) throw new RuntimeException("cannot register class of type \"" + type.getName() + "\" with id " + id + ", it is already used by \"" + types[id].getName() + "\".");
+
+        Class<?>[] newTypes = Arrays.copyOf(types, Math.max(types.length, id + 1));
+        newTypes[id] = type;
+        types = newTypes;
+        IDS.put(type, id);
+    }
+
+    /**
+     * Removes the id of a class, freeing it for another class.
+     */
+    public static synchronized void unregister(Class<?> type) {
+        Integer id = IDS.remove(type);
+        if (id == null) return;
+
+        Class<?>[] newTypes = types.clone();
+        newTypes[id] = null;
+        types = newTypes;
+    }
+
+    /**
+     * Gets the id a typed object of the given class is written with, which is the id of the class itself
+     * or of its nearest superclass or interface with one.
+     *
+     * @return the id, or -1 if neither the class nor any of its supertypes has one.
+     */
+    public static int getId(Class<?> type) {
+        Integer id = IDS.get(type);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the class registered with an id.
+     *
+     * @return the class, or null if no class has the id.
+     */
+    public static Class<?> getType(int id) {
+        Class<?>[] types = CustomTypeIds.types;
+        return id >= 0 && id < types.length ? types[id] : null;
+    }
+
+    /**
+     * Gets the named deserializer of the class registered with an id.
+     */
+    public static INamedCustomSerializable<?> getNamedDeserializer(int id) {
+        INamedCustomSerializable<?> deserializer = INamedDeserializer.getDeserializer(getRegisteredType(id));
+        if (deserializer == null) throw new RuntimeException("cannot deserialize class of type \"" + getType(id).getName() + "\" due to it not having a registered deserializer.");
+        return deserializer;
+    }
+
+    /**
+     * Gets the keyless deserializer of the class registered with an id.
+     */
+    public static IKeylessCustomSerializable<?> getKeylessDeserializer(int id) {
+        IKeylessCustomSerializable<?> deserializer = IKeylessDeserializer.getDeserializer(getRegisteredType(id));
+        if (deserializer == null) throw new RuntimeException("cannot deserialize class of type \"" + getType(id).getName() + "\" due to it not having a registered deserializer.");
+        return deserializer;
+    }
+
+    private static Class<?> getRegisteredType(int id) {
+        Class<?> type = getType(id);
+        if (type == null) throw new RuntimeException("cannot deserialize typed object with id " + id + " due to no class being registered with it.");
+        return type;
+    }
+
+    /**
+     * Gets one more than the highest id in use, which is the size a dispatch table indexed by id needs.
+     */
+    public static int size() {
+        return types.length;
+    }
+
+}
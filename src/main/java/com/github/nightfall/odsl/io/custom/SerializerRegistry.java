@@ -0,0 +1,353 @@
+package com.github.nightfall.odsl.io.custom;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread safe registry of custom serializers by the class they handle, read from any amount of
+ * threads without locking while serializers are registered at runtime.
+ * <p>
+ * Registering copies the registrations into a new snapshot, so readers always see a complete one.
+ * {@link #get(Class)} also finds the serializer of a superclass or interface, and caches what it finds
+ * for each class until the next registration.
+ *
+ * @param <S> The type of serializer held.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class SerializerRegistry<S> {
+
+    private volatile Snapshot<S> snapshot = new Snapshot<>(Collections.emptyMap());
+
+    private final ClassValue<Slot<S>> slots = new ClassValue<Slot<S>>() {
+        @Override
+        protected Slot<S> computeValue(Class<?> type) {
+            return new Slot<>();
+        }
+    };
+
+    /**
+     * Registers a serializer, replacing the one the class already had.
+     *
+     * @return the serializer that was replaced, or null if there was none.
+     */
+    public synchronized S put(Class<?> type, S serializer) {
+        Map<Class<?>, S> serializers = new HashMap<>(snapshot.serializers);
+        S previous = serializers.put(type, serializer);
+        snapshot = new Snapshot<>(serializers);
+        return previous;
+    }
+
+    /**
+     * Registers a serializer if the class does not have one yet.
+     *
+     * @return the serializer the class already had, or null if the given one was registered.
+     */
+    public synchronized S putIfAbsent(Class<?> type, S serializer) {
+        S existing = snapshot.serializers.get(type);
+        if (existing != null) return existing;
+
+        put(type, serializer);
+        return null;
+    }
+
+    /**
+     * Removes the serializer registered for a class.
+     *
+     * @return the serializer that was removed, or null if there was none.
+     */
+    public synchronized S remove(Class<?> type) {
+        if (!snapshot.serializers.containsKey(type)) return null;
+
+        Map<Class<?>, S> serializers = new HashMap<>(snapshot.serializers);
+        S previous = serializers.remove(type);
+        snapshot = new Snapshot<>(serializers);
+        return previous;
+    }
+
+    /**
+     * Gets the serializer of a class, or of its nearest superclass or interface that has one.
+     *
+     * @return the serializer, or null if neither the class nor any of its supertypes has one.
+     */
+    public S get(Class<?> type) {
+        Snapshot<S> current = snapshot;
+        Slot<S> slot = slots.get(type);
+
+        Resolution<S> resolution = slot.resolution;
+        if (resolution == null || resolution.snapshot != current) {
+            resolution = new Resolution<>(current, current.resolve(type));
+            slot.resolution = resolution;
+        }
+        return resolution.serializer;
+    }
+
+    /**
+     * Gets the serializer registered for exactly the given class, without looking at its supertypes.
+     */
+    public S getExact(Class<?> type) {
+        return snapshot.serializers.get(type);
+    }
+
+    /**
+     * Checks if a class or any of its supertypes has a serializer.
+     */
+    public boolean contains(Class<?> type) {
+        return get(type) != null;
+    }
+
+    /**
+     * Gets the registrations as they are right now, later registrations do not change it.
+     */
+    public Map<Class<?>, S> snapshot() {
+        return snapshot.serializers;
+    }
+
+    /**
+     * Gets a map that reads & writes this registry, for code written against the serializer maps the registries replaced.
+     * Its key, value & entry views are snapshots that cannot be changed.
+     */
+    public HashMap<Class<?>, S> asHashMap() {
+        return new MapView<>(this);
+    }
+
+    private static class Snapshot<S> {
+
+        final Map<Class<?>, S> serializers;
+
+        Snapshot(Map<Class<?>, S> serializers) {
+            this.serializers = Collections.unmodifiableMap(serializers);
+        }
+
+        /**
+         * Finds the serializer of the class, then of its superclasses nearest first, then of their interfaces.
+         */
+        S resolve(Class<?> type) {
+            if (serializers.isEmpty()) return null;
+
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                S serializer = serializers.get(c);
+                if (serializer != null) return serializer;
+            }
+
+            Queue<Class<?>> interfaces = new ArrayDeque<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) Collections.addAll(interfaces, c.getInterfaces());
+
+            Set<Class<?>> visited = new HashSet<>();
+            while (!interfaces.isEmpty()) {
+                Class<?> i = interfaces.poll();
+                if (!visited.add(i)) continue;
+
+                S serializer = serializers.get(i);
+                if (serializer != null) return serializer;
+                Collections.addAll(interfaces, i.getInterfaces());
+            }
+            return null;
+        }
+
+    }
+
+    private static class Resolution<S> {
+
+        final Snapshot<S> snapshot;
+        final S serializer;
+
+        Resolution(Snapshot<S> snapshot, S serializer) {
+            this.snapshot = snapshot;
+            this.serializer = serializer;
+        }
+
+    }
+
+    // Extends HashMap since that is the type the old serializer map fields had, its own table always stays empty.
+    private static class MapView<S> extends HashMap<Class<?>, S> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SerializerRegistry<S> registry;
+
+        MapView(SerializerRegistry<S> registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public int size() {
+            return registry.snapshot().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return registry.snapshot().isEmpty();
+        }
+
+        @Override
+        public S get(Object key) {
+            return registry.snapshot().get(key);
+        }
+
+        @Override
+        public S getOrDefault(Object key, S defaultValue) {
+            return registry.snapshot().getOrDefault(key, defaultValue);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return registry.snapshot().containsKey(key);
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return registry.snapshot().containsValue(value);
+        }
+
+        @Override
+        public S put(Class<?> key, S value) {
+            return registry.put(key, value);
+        }
+
+        @Override
+        public void putAll(Map<? extends Class<?>, ? extends S> map) {
+            synchronized (registry) {
+                for (Map.Entry<? extends Class<?>, ? extends S> entry : map.entrySet()) registry.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public S putIfAbsent(Class<?> key, S value) {
+            return registry.putIfAbsent(key, value);
+        }
+
+        @Override
+        public S remove(Object key) {
+            return key instanceof Class ? registry.remove((Class<?>) key) : null;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            synchronized (registry) {
+                if (!containsKey(key) || !registry.snapshot().get(key).equals(value)) return false;
+                remove(key);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean replace(Class<?> key, S oldValue, S newValue) {
+            synchronized (registry) {
+                if (!containsKey(key) || !registry.snapshot().get(key).equals(oldValue)) return false;
+                registry.put(key, newValue);
+                return true;
+            }
+        }
+
+        @Override
+        public S replace(Class<?> key, S value) {
+            synchronized (registry) {
+                return containsKey(key) ? registry.put(key, value) : null;
+            }
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super Class<?>, ? super S, ? extends S> function) {
+            synchronized (registry) {
+                for (Map.Entry<Class<?>, S> entry : registry.snapshot().entrySet()) registry.put(entry.getKey(), function.apply(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        @Override
+        public S computeIfAbsent(Class<?> key, Function<? super Class<?>, ? extends S> function) {
+            synchronized (registry) {
+                S value = get(key);
+                if (value != null) return value;
+
+                value = function.apply(key);
+                if (value != null) registry.put(key, value);
+                return value;
+            }
+        }
+
+        @Override
+        public S computeIfPresent(Class<?> key, BiFunction<? super Class<?>, ? super S, ? extends S> function) {
+            synchronized (registry) {
+                S value = get(key);
+                return value == null ? null : store(key, function.apply(key, value));
+            }
+        }
+
+        @Override
+        public S compute(Class<?> key, BiFunction<? super Class<?>, ? super S, ? extends S> function) {
+            synchronized (registry) {
+                return store(key, function.apply(key, get(key)));
+            }
+        }
+
+        @Override
+        public S merge(Class<?> key, S value, BiFunction<? super S, ? super S, ? extends S> function) {
+            synchronized (registry) {
+                S current = get(key);
+                return store(key, current == null ? value : function.apply(current, value));
+            }
+        }
+
+        private S store(Class<?> key, S value) {
+            if (value == null) registry.remove(key);
+            else registry.put(key, value);
+            return value;
+        }
+
+        @Override
+        public void clear() {
+            synchronized (registry) {
+                for (Class<?> type : registry.snapshot().keySet()) registry.remove(type);
+            }
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super Class<?>, ? super S> action) {
+            registry.snapshot().forEach(action);
+        }
+
+        @Override
+        public Set<Class<?>> keySet() {
+            return registry.snapshot().keySet();
+        }
+
+        @Override
+        public Collection<S> values() {
+            return registry.snapshot().values();
+        }
+
+        @Override
+        public Set<Map.Entry<Class<?>, S>> entrySet() {
+            return registry.snapshot().entrySet();
+        }
+
+        @Override
+        public Object clone() {
+            return new HashMap<>(registry.snapshot());
+        }
+
+        private Object writeReplace() {
+            return new HashMap<>(registry.snapshot());
+        }
+
+    }
+
+    // A racing thread may overwrite a newer resolution with an older one, which only costs resolving it again.
+    private static class Slot<S> {
+
+        volatile Resolution<S> resolution;
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.github.nightfall.odsl.io.custom;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+
+import java.io.IOException;
+
+/**
+ * Holds a custom object together with the id {@link CustomTypeIds} gives its class, which is how
+ * serializers without a typed format of their own write typed objects, as a plain object of two fields.
+ *
+ * @see INamedSerializer#writeTypedObject(String, Object)
+ * @see IKeylessSerializer#writeTypedObject(Object)
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class TypedCustomObject implements INamedSerializable, IKeylessSerializable {
+
+    private Object object;
+
+    public TypedCustomObject() {}
+
+    public TypedCustomObject(Object object) {
+        this.object = object;
+    }
+
+    /**
+     * Gets the held custom object.
+     */
+    public Object getObject() {
+        return object;
+    }
+
+    @Override
+    public void read(INamedDeserializer in) {
+        object = in.readCustomObject("object", getType(in.readInt("type")));
+    }
+
+    @Override
+    public void write(INamedSerializer out) throws IOException {
+        out.writeInt("type", getId(object));
+        out.writeCustomObject("object", object);
+    }
+
+    @Override
+    public void read(IKeylessDeserializer in) throws IOException {
+        object = in.readCustomObject(getType(in.readInt()));
+    }
+
+    @Override
+    public void write(IKeylessSerializer out) throws IOException {
+        out.writeInt(getId(object));
+        out.writeCustomObject(object);
+    }
+
+    /**
+     * Wraps each element of an array, keeping null elements null.
+     */
+    public static TypedCustomObject[] wrap(Object[] array) {
+        TypedCustomObject[] typed = new TypedCustomObject[array.length];
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] != null) typed[i] = new TypedCustomObject(array[i]);
+        }
+        return typed;
+    }
+
+    /**
+     * Gets the object held by a read holder, or null if the holder itself was null.
+     */
+    // The caller names the type it expects, a wrong one fails with a ClassCastException where it's used.
+    @SuppressWarnings("unchecked")
+    public static <T> T unwrap(TypedCustomObject typed) {
+        return typed == null ? null : (T) typed.object;
+    }
+
+    /**
+     * Gets the objects held by an array of read holders.
+     * @param type The class every object is an instance of.
+     */
+    public static <T> T[] unwrap(TypedCustomObject[] typed, Class<T> type) {
+        if (typed == null) return null;
+
+        T[] array = NativeArrayUtil.newArray(type, typed.length);
+        for (int i = 0; i < typed.length; i++) {
+            if (typed[i] != null) array[i] = type.cast(typed[i].object);
+        }
+        return array;
+    }
+
+    private static int getId(Object object) {
+        int typeId = CustomTypeIds.getId(object.getClass());
+        if (typeId == -1) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" as a typed object due to it not having a registered type id.");
+        return typeId;
+    }
+
+    private static Class<?> getType(int typeId) {
+        Class<?> type = CustomTypeIds.getType(typeId);
+        if (type == null) throw new RuntimeException("cannot deserialize typed object with id " + typeId + " due to no class being registered with it.");
+        return type;
+    }
+
+}
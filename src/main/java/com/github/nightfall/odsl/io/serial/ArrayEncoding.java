@@ -0,0 +1,84 @@
+package com.github.nightfall.odsl.io.serial;
+
+/**
+ * How int & long arrays are packed, picked per array by {@link com.github.nightfall.odsl.util.ArrayEncodingUtil#choose(int[])}
+ * when a serializer has array encoding turned on.
+ *
+ * @see com.github.nightfall.odsl.util.ArrayEncodingUtil
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public enum ArrayEncoding {
+
+    /**
+     * Every element at its full big-endian width, the same as an array written without encoding.
+     */
+    PLAIN(SerializationType.INT_ARRAY_sBYTE, SerializationType.LONG_ARRAY_sBYTE),
+
+    /**
+     * The first element followed by the difference to each next element, as zigzag varints.
+     * Suits sorted ids, timestamps & coordinates that move a little at a time.
+     */
+    DELTA(SerializationType.DELTA_INT_ARRAY_sBYTE, SerializationType.DELTA_LONG_ARRAY_sBYTE),
+
+    /**
+     * The smallest element as a zigzag varint, then each element minus the smallest packed into as few bits
+     * as the largest one needs. Suits values clustered in a small range in any order.
+     */
+    FRAME_OF_REFERENCE(SerializationType.FOR_INT_ARRAY_sBYTE, SerializationType.FOR_LONG_ARRAY_sBYTE),
+
+    /**
+     * Each run of equal elements as a zigzag varint value & an unsigned varint count.
+     * Suits arrays that are mostly one value, like masks & ids of empty slots.
+     */
+    RUN_LENGTH(SerializationType.RLE_INT_ARRAY_sBYTE, SerializationType.RLE_LONG_ARRAY_sBYTE);
+
+    private static final ArrayEncoding[] VALUES = values();
+
+    private final SerializationType intArrayType;
+    private final SerializationType longArrayType;
+
+    ArrayEncoding(SerializationType intArrayType, SerializationType longArrayType) {
+        this.intArrayType = intArrayType;
+        this.longArrayType = longArrayType;
+    }
+
+    /**
+     * Gets the sBYTE type a named int array with this encoding is written as.
+     */
+    public SerializationType getIntArrayType() {
+        return intArrayType;
+    }
+
+    /**
+     * Gets the sBYTE type a named long array with this encoding is written as.
+     */
+    public SerializationType getLongArrayType() {
+        return longArrayType;
+    }
+
+    /**
+     * Gets the encoding written as the given id, which is its ordinal.
+     *
+     * @param id The id read from the stream.
+     */
+    public static ArrayEncoding fromId(int id) {
+        if (id < 0 || id >= VALUES.length) throw new RuntimeException("unknown array encoding id " + id + ".");
+        return VALUES[id];
+    }
+
+    /**
+     * Gets the encoding of a named int or long array type, or null if the type is not one.
+     *
+     * @param type The type of the field, any of its sized variants works.
+     */
+    public static ArrayEncoding fromArrayType(SerializationType type) {
+        SerializationType baseType = type.getBaseType();
+        for (ArrayEncoding encoding : VALUES) {
+            if (encoding.intArrayType == baseType || encoding.longArrayType == baseType) return encoding;
+        }
+        return null;
+    }
+
+}
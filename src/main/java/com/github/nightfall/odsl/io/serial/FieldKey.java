@@ -0,0 +1,56 @@
+package com.github.nightfall.odsl.io.serial;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A field name encoded once up front, so writing it does not encode it again on every call.
+ * Keys are immutable & can be kept in a static field and shared between threads.
+ *
+ * @see com.github.nightfall.odsl.io.serial.api.INamedSerializer#key(String)
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public final class FieldKey {
+
+    private final String name;
+    private final byte[] encoded;
+
+    /**
+     * @param name The name of the field.
+     */
+    public FieldKey(String name) {
+        this.name = name;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(name.length() + 2);
+        try {
+            new DataOutputStream(bytes).writeUTF(name);
+        } catch (IOException e) {
+            throw new RuntimeException("cannot use \"" + name.substring(0, 32) + "...\" as a key since it is longer than 65535 bytes.", e);
+        }
+        encoded = bytes.toByteArray();
+    }
+
+    /**
+     * Gets the name of the field.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the name as it is written by {@link java.io.DataOutput#writeUTF(String)}, with its length first.
+     * This is not a copy.
+     */
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
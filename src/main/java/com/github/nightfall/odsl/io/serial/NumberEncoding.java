@@ -0,0 +1,38 @@
+package com.github.nightfall.odsl.io.serial;
+
+/**
+ * How serializers write ints, longs, shorts, lengths & string indices.
+ *
+ * @see com.github.nightfall.odsl.util.VarIntUtil
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public enum NumberEncoding {
+
+    /**
+     * Big-endian numbers of a fixed width, the named format picks the width with the type byte.
+     * This is the default and how every version before 1.0.3 wrote numbers.
+     */
+    FIXED,
+
+    /**
+     * LEB128 varints, zigzag encoded for values that can be negative, so small numbers of either sign take
+     * one or two bytes. Named data written this way starts with a {@link SerializationType#NUMBER_ENCODING} field,
+     * keyless data has no header so its deserializer has to be told.
+     */
+    VARINT;
+
+    private static final NumberEncoding[] VALUES = values();
+
+    /**
+     * Gets the encoding written as the given id, which is its ordinal.
+     *
+     * @param id The id read from the stream.
+     */
+    public static NumberEncoding fromId(int id) {
+        if (id < 0 || id >= VALUES.length) throw new RuntimeException("unknown number encoding id " + id + ".");
+        return VALUES[id];
+    }
+
+}
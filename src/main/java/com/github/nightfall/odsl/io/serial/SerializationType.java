@@ -105,6 +105,117 @@ public enum SerializationType {
 
     CUSTOM_OBJECT_ARRAY_sINT,
     CUSTOM_OBJECT_ARRAY_sSHORT,
-    CUSTOM_OBJECT_ARRAY_sBYTE
+    CUSTOM_OBJECT_ARRAY_sBYTE,
+
+    // New types go after this line so the ids of older types never change.
+
+    /**
+     * Written first by serializers that do not use {@link NumberEncoding#FIXED}, followed by an empty name & the encoding's id.
+     */
+    NUMBER_ENCODING,
+
+    /**
+     * A boolean array with 8 booleans per byte, its length is the amount of booleans rather than bytes.
+     */
+    PACKED_BOOLEAN_ARRAY_sINT,
+    PACKED_BOOLEAN_ARRAY_sSHORT,
+    PACKED_BOOLEAN_ARRAY_sBYTE,
+
+    /**
+     * Int & long arrays written with an {@link ArrayEncoding}, their length is the amount of elements & is followed
+     * by the amount of bytes the encoded elements take, as an unsigned varint.
+     */
+    DELTA_INT_ARRAY_sINT,
+    DELTA_INT_ARRAY_sSHORT,
+    DELTA_INT_ARRAY_sBYTE,
+
+    DELTA_LONG_ARRAY_sINT,
+    DELTA_LONG_ARRAY_sSHORT,
+    DELTA_LONG_ARRAY_sBYTE,
+
+    FOR_INT_ARRAY_sINT,
+    FOR_INT_ARRAY_sSHORT,
+    FOR_INT_ARRAY_sBYTE,
+
+    FOR_LONG_ARRAY_sINT,
+    FOR_LONG_ARRAY_sSHORT,
+    FOR_LONG_ARRAY_sBYTE,
+
+    RLE_INT_ARRAY_sINT,
+    RLE_INT_ARRAY_sSHORT,
+    RLE_INT_ARRAY_sBYTE,
+
+    RLE_LONG_ARRAY_sINT,
+    RLE_LONG_ARRAY_sSHORT,
+    RLE_LONG_ARRAY_sBYTE,
+
+    /**
+     * A string array written as a {@link StringPalette}, its length is the amount of elements.
+     */
+    PALETTE_STRING_ARRAY_sINT,
+    PALETTE_STRING_ARRAY_sSHORT,
+    PALETTE_STRING_ARRAY_sBYTE,
+
+    /**
+     * The table of every field name in a document, written after the number encoding with an empty name.
+     * Once it is read every field name, nested ones included, is an unsigned varint index into it.
+     */
+    KEY_SCHEMA_sINT,
+    KEY_SCHEMA_sSHORT,
+    KEY_SCHEMA_sBYTE,
+
+    /**
+     * A custom object written with the unsigned varint id {@link com.github.nightfall.odsl.io.custom.CustomTypeIds}
+     * gives its class, between its name & its length.
+     */
+    TYPED_CUSTOM_OBJECT_sINT,
+    TYPED_CUSTOM_OBJECT_sSHORT,
+    TYPED_CUSTOM_OBJECT_sBYTE,
+
+    /**
+     * An array of typed custom objects, whose classes may differ from each other.
+     */
+    TYPED_CUSTOM_OBJECT_ARRAY_sINT,
+    TYPED_CUSTOM_OBJECT_ARRAY_sSHORT,
+    TYPED_CUSTOM_OBJECT_ARRAY_sBYTE;
+
+    private static final SerializationType[] VALUES = values();
+    private static final SerializationType[] BASE_TYPES = new SerializationType[VALUES.length];
+
+    static {
+        for (SerializationType type : VALUES) {
+            int sizeIndex = type.name().lastIndexOf("_s");
+            BASE_TYPES[type.ordinal()] = sizeIndex == -1 ? type : valueOf(type.name().substring(0, sizeIndex) + "_sBYTE");
+        }
+    }
+
+    /**
+     * Gets the type written as the given id, which is its ordinal.
+     *
+     * @param id The id read from the stream.
+     */
+    public static SerializationType fromId(int id) {
+        if (id < 0 || id >= VALUES.length) throw new RuntimeException("unknown serialization type id " + id + ".");
+        return VALUES[id];
+    }
+
+    /**
+     * Gets the sBYTE variant of a sized type, or the type itself if it has no size variants.
+     */
+    public SerializationType getBaseType() {
+        return BASE_TYPES[ordinal()];
+    }
+
+    /**
+     * Gets the amount of bytes of the number that follows a sized type.
+     */
+    public int getWidth() {
+        switch (getBaseType().ordinal() - ordinal()) {
+            case 1: return Short.BYTES;
+            case 2: return Integer.BYTES;
+            case 3: return Long.BYTES;
+            default: return Byte.BYTES;
+        }
+    }
 
 }
@@ -0,0 +1,106 @@
+package com.github.nightfall.odsl.io.serial;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A string array kept as a palette of its distinct strings & an index into the palette for each element,
+ * so arrays of millions of entries drawn from a few hundred strings never need a String reference per entry.
+ *
+ * @see com.github.nightfall.odsl.util.ArrayEncodingUtil#writePalette(java.io.DataOutputStream, StringPalette)
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class StringPalette {
+
+    final String[] palette;
+    final int[] indices;
+
+    /**
+     * @param palette The distinct strings.
+     * @param indices The index into the palette of each element.
+     */
+    public StringPalette(String[] palette, int[] indices) {
+        this.palette = palette;
+        this.indices = indices;
+    }
+
+    /**
+     * Builds the palette of a string array, with the strings in the order they are first seen.
+     */
+    public static StringPalette of(String[] array) {
+        return of(array, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds the palette of a string array, or gives null once it has more than the given amount of strings.
+     *
+     * @param array The array to build the palette of.
+     * @param maxPaletteSize The most distinct strings the array may have.
+     */
+    public static StringPalette of(String[] array, int maxPaletteSize) {
+        Map<String, Integer> paletteIndices = new HashMap<>();
+        int[] indices = new int[array.length];
+
+        for (int i = 0; i < array.length; i++) {
+            Integer index = paletteIndices.get(array[i]);
+            if (index == null) {
+                if (paletteIndices.size() == maxPaletteSize) return null;
+
+                index = paletteIndices.size();
+                paletteIndices.put(array[i], index);
+            }
+            indices[i] = index;
+        }
+
+        String[] palette = new String[paletteIndices.size()];
+        for (Map.Entry<String, Integer> entry : paletteIndices.entrySet()) palette[entry.getValue()] = entry.getKey();
+        return new StringPalette(palette, indices);
+    }
+
+    /**
+     * Gets the amount of elements.
+     */
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * Gets the string of an element.
+     */
+    public String get(int i) {
+        return palette[indices[i]];
+    }
+
+    /**
+     * Gets the palette index of an element.
+     */
+    public int getIndex(int i) {
+        return indices[i];
+    }
+
+    /**
+     * Gets the distinct strings, which is not a copy.
+     */
+    public String[] getPalette() {
+        return palette;
+    }
+
+    /**
+     * Gets the palette index of every element, which is not a copy.
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Creates the string array this palette stands for.
+     */
+    public String[] toArray() {
+        String[] array = new String[indices.length];
+        for (int i = 0; i < array.length; i++) array[i] = palette[indices[i]];
+        return array;
+    }
+
+}
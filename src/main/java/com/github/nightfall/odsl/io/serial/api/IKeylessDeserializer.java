@@ -1,21 +1,25 @@
 package com.github.nightfall.odsl.io.serial.api;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
 import com.github.nightfall.odsl.ODSLConstants;
 import com.github.nightfall.odsl.io.CompoundObject;
 import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
-import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.custom.SerializerRegistry;
+import com.github.nightfall.odsl.io.custom.TypedCustomObject;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.impl.KeylessBinaryDeserializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
 import com.github.nightfall.odsl.util.NativeArrayUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 /**
  * An API class for creating deserializers with keyless binary objects.
@@ -25,7 +29,18 @@ import java.util.zip.GZIPInputStream;
  */
 public interface IKeylessDeserializer {
 
-    HashMap<Class<?>, IKeylessCustomSerializable<?>> KEYLESS_DESERIALIZER_MAP = new HashMap<>();
+    /**
+     * The registered custom deserializers, a class is only read with the one registered for exactly it.
+     */
+    SerializerRegistry<IKeylessCustomSerializable<?>> KEYLESS_DESERIALIZER_REGISTRY = new SerializerRegistry<>();
+
+    /**
+     * A map view of {@link #KEYLESS_DESERIALIZER_REGISTRY}, writing to it registers in the registry.
+     *
+     * @deprecated use {@link #KEYLESS_DESERIALIZER_REGISTRY} instead.
+     */
+    @Deprecated
+    HashMap<Class<?>, IKeylessCustomSerializable<?>> KEYLESS_DESERIALIZER_MAP = KEYLESS_DESERIALIZER_REGISTRY.asHashMap();
 
     /**
      * Registers a deserializer for non-user owned objects.
@@ -35,9 +50,9 @@ public interface IKeylessDeserializer {
      * @param deserializer The serializer being registered.
      */
     static void registerDeserializer(IKeylessCustomSerializable<?> deserializer) {
-        if (hasDeserializer(deserializer.getSerializableType()) && !ODSLConstants.allowDeserializerOverwriting) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowDeserializerOverwriting\" true.");
         if (deserializer.getSerializableType().isArray()) throw new RuntimeException("cannot register deserializer of array type, I recommend registering the component type instead.");
-        KEYLESS_DESERIALIZER_MAP.put(deserializer.getSerializableType(), deserializer);
+        if (ODSLConstants.allowDeserializerOverwriting) KEYLESS_DESERIALIZER_REGISTRY.put(deserializer.getSerializableType(), deserializer);
+        else if (KEYLESS_DESERIALIZER_REGISTRY.putIfAbsent(deserializer.getSerializableType(), deserializer) != null) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowDeserializerOverwriting\" true.");
     }
 
     /**
@@ -45,9 +60,10 @@ public interface IKeylessDeserializer {
      *
      * @param clazz the class that may have a custom deserializer built for it.
      */
-    static <T> INamedCustomSerializable<T> getDeserializer(Class<T> clazz) {
-        //noinspection unchecked
-        return (INamedCustomSerializable<T>) KEYLESS_DESERIALIZER_MAP.get(clazz);
+    // Deserializers are only registered under the class they read.
+    @SuppressWarnings("unchecked")
+    static <T> IKeylessCustomSerializable<T> getDeserializer(Class<T> clazz) {
+        return (IKeylessCustomSerializable<T>) KEYLESS_DESERIALIZER_REGISTRY.getExact(clazz);
     }
 
     /**
@@ -56,7 +72,7 @@ public interface IKeylessDeserializer {
      * @param clazz the class that may have a custom deserializer built for it.
      */
     static boolean hasDeserializer(Class<?> clazz) {
-        return !KEYLESS_DESERIALIZER_MAP.containsKey(clazz);
+        return KEYLESS_DESERIALIZER_REGISTRY.getExact(clazz) != null;
     }
 
     /**
@@ -75,10 +91,20 @@ public interface IKeylessDeserializer {
      */
     static IKeylessDeserializer createDefault(byte[] bytes, boolean isCompressed) throws IOException {
         if (isCompressed)
-            return new KeylessBinaryDeserializer(NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes)), Integer.MAX_VALUE));
+            return new KeylessBinaryDeserializer(CompressionCodecs.decompress(bytes));
         return new KeylessBinaryDeserializer(bytes);
     }
 
+    /**
+     * Instances the default keyless deserializer implementation.
+     * @param bytes The content bytes to deserialize.
+     * @param isCompressed The option to allow decompression to the bytes.
+     * @param numberEncoding The number encoding the bytes were serialized with.
+     */
+    static IKeylessDeserializer createDefault(byte[] bytes, boolean isCompressed, NumberEncoding numberEncoding) throws IOException {
+        return KeylessBinaryDeserializer.fromBytes(bytes, isCompressed, numberEncoding);
+    }
+
     /**
      * Instances the default named deserializer implementation.
      * @param bytes The content bytes to deserialize.
@@ -88,6 +114,14 @@ public interface IKeylessDeserializer {
         return createDefault(NativeArrayUtil.toNativeArray(bytes), isCompressed);
     }
 
+    /**
+     * Instances the default keyless deserializer implementation over a memory mapped file.
+     * @param path The file to deserialize.
+     */
+    static IKeylessDeserializer createMapped(Path path) throws IOException {
+        return KeylessBinaryDeserializer.fromFile(path);
+    }
+
     /**
      * Instances the default named deserializer implementation.
      * @param bytes The content bytes to deserialize.
@@ -282,6 +316,34 @@ public interface IKeylessDeserializer {
         return Arrays.asList(readBooleanArray());
     }
 
+    /**
+     * Reads a native int array written by {@link IKeylessSerializer#writeEncodedIntArray(int[])}.
+     */
+    default int[] readEncodedIntArrayAsNative() throws IOException {
+        return readIntArrayAsNative();
+    }
+
+    /**
+     * Reads a native long array written by {@link IKeylessSerializer#writeEncodedLongArray(long[])}.
+     */
+    default long[] readEncodedLongArrayAsNative() throws IOException {
+        return readLongArrayAsNative();
+    }
+
+    /**
+     * Reads a native boolean array written by {@link IKeylessSerializer#writePackedBooleanArray(boolean[])}.
+     */
+    default boolean[] readPackedBooleanArrayAsNative() throws IOException {
+        return readBooleanArrayAsNative();
+    }
+
+    /**
+     * Reads a boolean array written by {@link IKeylessSerializer#writePackedBooleanArray(boolean[])} as a bit set.
+     */
+    default BitSet readPackedBooleanArrayAsBitSet() throws IOException {
+        return NativeArrayUtil.toBitSet(readPackedBooleanArrayAsNative());
+    }
+
     /**
      * Reads a single character.
      */
@@ -323,6 +385,14 @@ public interface IKeylessDeserializer {
         return Arrays.asList(readStringArray());
     }
 
+    /**
+     * Reads a string array written by {@link IKeylessSerializer#writePaletteStringArray(StringPalette)}
+     * without creating a String reference per element.
+     */
+    default StringPalette readPaletteStringArray() throws IOException {
+        return StringPalette.of(readStringArray());
+    }
+
     /**
      * Reads a single compound object.
      */
@@ -408,4 +478,27 @@ public interface IKeylessDeserializer {
         return Arrays.asList(readCustomObjectArray(type));
     }
 
+    /**
+     * Reads a typed custom-object, with the deserializer of the class its id belongs to.
+     */
+    default <T> T readTypedObject() throws IOException {
+        return TypedCustomObject.unwrap(readKeylessObject(TypedCustomObject.class));
+    }
+
+    /**
+     * Reads a typed custom-object array, each element with the deserializer of its own class.
+     * @param type the class every element is an instance of.
+     */
+    default <T> T[] readTypedObjectArray(Class<T> type) throws IOException {
+        return TypedCustomObject.unwrap(readKeylessObjectArray(TypedCustomObject.class), type);
+    }
+
+    /**
+     * Reads a list of typed custom-objects.
+     * @param type the class every element is an instance of.
+     */
+    default <T> List<T> readTypedObjectArrayAsList(Class<T> type) throws IOException {
+        return Arrays.asList(readTypedObjectArray(type));
+    }
+
 }
@@ -1,9 +1,19 @@
 package com.github.nightfall.odsl.io.serial.api;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
 import com.github.nightfall.odsl.ODSLConstants;
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.custom.SerializerRegistry;
+import com.github.nightfall.odsl.io.custom.TypedCustomObject;
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.impl.ThreadLocalSerializers;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
@@ -12,7 +22,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Base64;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.zip.GZIPOutputStream;
@@ -25,7 +37,18 @@ import java.util.zip.GZIPOutputStream;
  */
 public interface IKeylessSerializer {
 
-    HashMap<Class<?>, IKeylessCustomSerializable<?>> KEYLESS_SERIALIZER_MAP = new HashMap<>();
+    /**
+     * The registered custom serializers, a class without its own uses the one of its nearest superclass or interface.
+     */
+    SerializerRegistry<IKeylessCustomSerializable<?>> KEYLESS_SERIALIZER_REGISTRY = new SerializerRegistry<>();
+
+    /**
+     * A map view of {@link #KEYLESS_SERIALIZER_REGISTRY}, writing to it registers in the registry.
+     *
+     * @deprecated use {@link #KEYLESS_SERIALIZER_REGISTRY} instead.
+     */
+    @Deprecated
+    HashMap<Class<?>, IKeylessCustomSerializable<?>> KEYLESS_SERIALIZER_MAP = KEYLESS_SERIALIZER_REGISTRY.asHashMap();
 
     /**
      * Registers a serializer for non-user owned objects.
@@ -35,19 +58,20 @@ public interface IKeylessSerializer {
      * @param serializer The serializer being registered.
      */
     static void registerSerializer(IKeylessCustomSerializable<?> serializer) {
-        if (INamedSerializer.hasSerializer(serializer.getSerializableType()) && !ODSLConstants.allowSerializerOverwriting) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowSerializerOverwriting\" true.");
         if (serializer.getSerializableType().isArray()) throw new RuntimeException("cannot register serializer of array type, I recommend registering the component type instead.");
-        KEYLESS_SERIALIZER_MAP.put(serializer.getSerializableType(), serializer);
+        if (ODSLConstants.allowSerializerOverwriting) KEYLESS_SERIALIZER_REGISTRY.put(serializer.getSerializableType(), serializer);
+        else if (KEYLESS_SERIALIZER_REGISTRY.putIfAbsent(serializer.getSerializableType(), serializer) != null) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowSerializerOverwriting\" true.");
     }
 
     /**
-     * Gets the serializer for a custom object class.
+     * Gets the serializer for a custom object class, or for its nearest superclass or interface that has one.
      *
      * @param clazz the class that may have a custom serializer built for it.
      */
+    // Serializers are only registered under the class they write, which a subclass of it can be written with too.
+    @SuppressWarnings("unchecked")
     static <T> IKeylessCustomSerializable<T> getSerializer(Class<T> clazz) {
-        //noinspection unchecked
-        return (IKeylessCustomSerializable<T>) KEYLESS_SERIALIZER_MAP.get(clazz);
+        return (IKeylessCustomSerializable<T>) KEYLESS_SERIALIZER_REGISTRY.get(clazz);
     }
 
     /**
@@ -56,7 +80,7 @@ public interface IKeylessSerializer {
      * @param clazz the class that may have a custom serializer built for it.
      */
     static boolean hasSerializer(Class<?> clazz) {
-        return !KEYLESS_SERIALIZER_MAP.containsKey(clazz);
+        return KEYLESS_SERIALIZER_REGISTRY.contains(clazz);
     }
 
     /**
@@ -75,8 +99,46 @@ public interface IKeylessSerializer {
         return new KeylessBinarySerializer();
     }
 
+    /**
+     * Instances the default keyless serializer implementation, writing its numbers with the given encoding.
+     * Keyless data does not record its encoding, so it has to be read with the same one.
+     */
+    static IKeylessSerializer createDefault(NumberEncoding numberEncoding) {
+        return new KeylessBinarySerializer(numberEncoding);
+    }
+
+    /**
+     * Instances a keyless serializer that writes straight to a stream instead of keeping its data in memory.
+     *
+     * @see StreamingKeylessSerializer
+     *
+     * @param out The stream being written to, it is closed when the serializer is closed.
+     */
+    static StreamingKeylessSerializer createStreaming(OutputStream out) {
+        return new StreamingKeylessSerializer(out);
+    }
+
+    /**
+     * Gets this thread's reusable keyless serializer, reset & ready to write, so repeated writes do not allocate new buffers.
+     * It is only valid until the next call on the same thread, so it must not be kept or asked for again while still being written to.
+     *
+     * @see ThreadLocalSerializers
+     */
+    static KeylessBinarySerializer createThreadLocal() {
+        return ThreadLocalSerializers.keyless();
+    }
+
     IKeylessSerializer newInstance();
 
+    /**
+     * Gives the serializer's buffers back to the {@link com.github.nightfall.odsl.util.BufferPool},
+     * call it once the bytes are taken out of a serializer that will not be written to for a while.
+     * Serializers without pooled buffers have nothing to give back, so by default this does nothing.
+     *
+     * @see IResettableSerializer
+     */
+    default void release() {}
+
     /**
      * Writes a byte to the serializer.
      * @param i The byte to be written.
@@ -273,6 +335,42 @@ public interface IKeylessSerializer {
         writeBooleanArray(NativeArrayUtil.toNativeArray(list.toArray(new Boolean[0])));
     }
 
+    /**
+     * Writes an array of ints with whichever {@link ArrayEncoding} makes it smallest, it has to be read with
+     * {@link IKeylessDeserializer#readEncodedIntArrayAsNative()}.
+     * @param array The array to be written.
+     */
+    default void writeEncodedIntArray(int[] array) throws IOException {
+        writeIntArray(array);
+    }
+
+    /**
+     * Writes an array of longs with whichever {@link ArrayEncoding} makes it smallest, it has to be read with
+     * {@link IKeylessDeserializer#readEncodedLongArrayAsNative()}.
+     * @param array The array to be written.
+     */
+    default void writeEncodedLongArray(long[] array) throws IOException {
+        writeLongArray(array);
+    }
+
+    /**
+     * Writes an array of booleans packed into 8 booleans per byte, it has to be read with {@link IKeylessDeserializer#readPackedBooleanArrayAsNative()}
+     * or {@link IKeylessDeserializer#readPackedBooleanArrayAsBitSet()}.
+     * @param array The array to be written.
+     */
+    default void writePackedBooleanArray(boolean[] array) throws IOException {
+        writeBooleanArray(array);
+    }
+
+    /**
+     * Writes the first length bits of a bit set packed into 8 bits per byte.
+     * @param bits The bits to be written.
+     * @param length The amount of bits to write.
+     */
+    default void writePackedBooleanArray(BitSet bits, int length) throws IOException {
+        writePackedBooleanArray(NativeArrayUtil.toNativeArray(bits, length));
+    }
+
     /**
      * Writes a character to the serializer.
      * @param c The character to be written.
@@ -321,6 +419,23 @@ public interface IKeylessSerializer {
         writeStringArray(list.toArray(new String[0]));
     }
 
+    /**
+     * Writes a string array as its palette of distinct strings & a bit-packed index per element,
+     * it has to be read with {@link IKeylessDeserializer#readPaletteStringArray()}.
+     * @param palette The palette to be written.
+     */
+    default void writePaletteStringArray(StringPalette palette) throws IOException {
+        writeStringArray(palette.toArray());
+    }
+
+    /**
+     * Writes an array of strings as a palette, which suits arrays that repeat a few strings many times.
+     * @param array The array to be written.
+     */
+    default void writePaletteStringArray(String[] array) throws IOException {
+        writePaletteStringArray(StringPalette.of(array));
+    }
+
     /**
      * Writes a compound object.
      * @param object The object to be written.
@@ -425,22 +540,74 @@ public interface IKeylessSerializer {
         writeCustomObjectArray(list.toArray(new Object[0]));
     }
 
+    /**
+     * Writes a custom object after the id {@link CustomTypeIds} gives its class, so it can be read back without naming its class.
+     * Unless overridden the pair is written as a keyless {@link TypedCustomObject}.
+     * @param object The object to be written, with the serializer of the class its id belongs to.
+     */
+    default <T> void writeTypedObject(T object) throws IOException {
+        writeKeylessObject(new TypedCustomObject(object));
+    }
+
+    /**
+     * Writes an array of custom-objects each after the id of its class, so the elements may be of different classes.
+     * @param array The array to be written.
+     */
+    default <T> void writeTypedObjectArray(T[] array) throws IOException {
+        writeKeylessObjectArray(TypedCustomObject.wrap(array));
+    }
+
+    /**
+     * Writes a list of custom-objects each after the id of its class.
+     * @param list The list to be written.
+     */
+    default <T> void writeTypedObjectList(@NotNull List<T> list) throws IOException {
+        writeTypedObjectArray(list.toArray(new Object[0]));
+    }
+
     /**
      * Creates a primitive byte array from the serialized data.
      */
     byte[] toBytes() throws IOException;
 
+    /**
+     * Writes the serialized data to a stream, the same bytes {@link #toBytes()} creates.
+     *
+     * @param out The stream being written to.
+     */
+    default void writeTo(OutputStream out) throws IOException {
+        out.write(toBytes());
+    }
+
+    /**
+     * Gets the amount of bytes {@link #toBytes()} would create.
+     */
+    default int size() throws IOException {
+        return toBytes().length;
+    }
+
     /**
      * Creates a gzip compressed bytes from the serialized data.
      */
     default byte[] toCompressedBytes() throws IOException {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         GZIPOutputStream stream1 = new GZIPOutputStream(stream);
-        stream1.write(toBytes());
+        writeTo(stream1);
         stream1.close();
         return stream.toByteArray();
     }
 
+    /**
+     * Creates compressed bytes with the given codec, starting with the codec's header byte.
+     *
+     * @see CompressionCodecs
+     *
+     * @param codec The codec to compress with, such as {@link CompressionCodecs#LZ4} for speed.
+     */
+    default byte[] toCompressedBytes(ICompressionCodec codec) throws IOException {
+        return CompressionCodecs.compress(codec, toBytes());
+    }
+
     /**
      * Creates a base64 string from uncompressed bytes.
      */
@@ -1,20 +1,27 @@
 package com.github.nightfall.odsl.io.serial.api;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
 import com.github.nightfall.odsl.ODSLConstants;
 import com.github.nightfall.odsl.io.CompoundObject;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.custom.SerializerRegistry;
+import com.github.nightfall.odsl.io.custom.TypedCustomObject;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryReader;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
 import com.github.nightfall.odsl.util.NativeArrayUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
 
 /**
  * An API class for creating deserializers with named binary objects.
@@ -24,7 +31,18 @@ import java.util.zip.GZIPInputStream;
  */
 public interface INamedDeserializer {
 
-    HashMap<Class<?>, INamedCustomSerializable<?>> NAMED_DESERIALIZER_MAP = new HashMap<>();
+    /**
+     * The registered custom deserializers, a class is only read with the one registered for exactly it.
+     */
+    SerializerRegistry<INamedCustomSerializable<?>> NAMED_DESERIALIZER_REGISTRY = new SerializerRegistry<>();
+
+    /**
+     * A map view of {@link #NAMED_DESERIALIZER_REGISTRY}, writing to it registers in the registry.
+     *
+     * @deprecated use {@link #NAMED_DESERIALIZER_REGISTRY} instead.
+     */
+    @Deprecated
+    HashMap<Class<?>, INamedCustomSerializable<?>> NAMED_DESERIALIZER_MAP = NAMED_DESERIALIZER_REGISTRY.asHashMap();
 
     /**
      * Registers a deserializer for non-user owned objects.
@@ -34,9 +52,9 @@ public interface INamedDeserializer {
      * @param deserializer The serializer being registered.
      */
     static void registerDeserializer(INamedCustomSerializable<?> deserializer) {
-        if (hasDeserializer(deserializer.getSerializableType()) && !ODSLConstants.allowDeserializerOverwriting) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowDeserializerOverwriting\" true.");
         if (deserializer.getSerializableType().isArray()) throw new RuntimeException("cannot register deserializer of array type, I recommend registering the component type instead.");
-        NAMED_DESERIALIZER_MAP.put(deserializer.getSerializableType(), deserializer);
+        if (ODSLConstants.allowDeserializerOverwriting) NAMED_DESERIALIZER_REGISTRY.put(deserializer.getSerializableType(), deserializer);
+        else if (NAMED_DESERIALIZER_REGISTRY.putIfAbsent(deserializer.getSerializableType(), deserializer) != null) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowDeserializerOverwriting\" true.");
     }
 
     /**
@@ -44,9 +62,10 @@ public interface INamedDeserializer {
      *
      * @param clazz the class that may have a custom deserializer built for it.
      */
+    // Deserializers are only registered under the class they read.
+    @SuppressWarnings("unchecked")
     static <T> INamedCustomSerializable<T> getDeserializer(Class<T> clazz) {
-        //noinspection unchecked
-        return (INamedCustomSerializable<T>) NAMED_DESERIALIZER_MAP.get(clazz);
+        return (INamedCustomSerializable<T>) NAMED_DESERIALIZER_REGISTRY.getExact(clazz);
     }
 
     /**
@@ -55,7 +74,7 @@ public interface INamedDeserializer {
      * @param clazz the class that may have a custom deserializer built for it.
      */
     static boolean hasDeserializer(Class<?> clazz) {
-        return !NAMED_DESERIALIZER_MAP.containsKey(clazz);
+        return NAMED_DESERIALIZER_REGISTRY.getExact(clazz) != null;
     }
 
     /**
@@ -74,7 +93,7 @@ public interface INamedDeserializer {
      */
     static INamedDeserializer createDefault(byte[] bytes, boolean isCompressed) throws IOException {
         if (isCompressed)
-            return new NamedBinaryDeserializer(NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes)), Integer.MAX_VALUE));
+            return new NamedBinaryDeserializer(CompressionCodecs.decompress(bytes));
         return new NamedBinaryDeserializer(bytes);
     }
 
@@ -87,6 +106,54 @@ public interface INamedDeserializer {
         return createDefault(NativeArrayUtil.toNativeArray(bytes), isCompressed);
     }
 
+    /**
+     * Instances the default named deserializer implementation in lazy mode, where only the offset of each key
+     * is indexed up front and values (including nested objects) are decoded the first time they are read.
+     * @param bytes The content bytes to deserialize.
+     * @param isCompressed The option to allow decompression to the bytes.
+     */
+    static INamedDeserializer createLazy(byte[] bytes, boolean isCompressed) throws IOException {
+        return NamedBinaryDeserializer.fromBytesLazy(bytes, isCompressed);
+    }
+
+    /**
+     * Instances the default named deserializer implementation, decoding large object arrays in chunks on an executor.
+     * @param bytes The content bytes to deserialize.
+     * @param isCompressed The option to allow decompression to the bytes.
+     * @param parallelExecutor The executor to decode on, such as a ForkJoinPool, or null to decode on the calling thread.
+     */
+    static INamedDeserializer createParallel(byte[] bytes, boolean isCompressed, ExecutorService parallelExecutor) throws IOException {
+        return NamedBinaryDeserializer.fromBytesParallel(bytes, isCompressed, parallelExecutor);
+    }
+
+    /**
+     * Instances the default named deserializer implementation, decoding object arrays of at least a given length on an executor.
+     * @param bytes The content bytes to deserialize.
+     * @param isCompressed The option to allow decompression to the bytes.
+     * @param parallelExecutor The executor to decode on, or null to decode on the calling thread.
+     * @param parallelThreshold The least amount of elements an object array needs to be decoded on the executor.
+     */
+    static INamedDeserializer createParallel(byte[] bytes, boolean isCompressed, ExecutorService parallelExecutor, int parallelThreshold) throws IOException {
+        return NamedBinaryDeserializer.fromBytesParallel(bytes, isCompressed, parallelExecutor, parallelThreshold);
+    }
+
+    /**
+     * Instances the default named deserializer implementation over a memory mapped file.
+     * @param path The file to deserialize.
+     * @param isLazy The option to only decode values the first time they are read.
+     */
+    static INamedDeserializer createMapped(Path path, boolean isLazy) throws IOException {
+        return NamedBinaryDeserializer.fromFile(path, isLazy);
+    }
+
+    /**
+     * Instances a pull-style reader that walks named data one field at a time without loading all of it.
+     * @param in The stream to read from, it is closed when the reader is closed.
+     */
+    static NamedBinaryReader createReader(InputStream in) {
+        return new NamedBinaryReader(in);
+    }
+
     /**
      * Instances the default named deserializer implementation.
      * @param bytes The content bytes to deserialize.
@@ -309,6 +376,14 @@ public interface INamedDeserializer {
         return Arrays.asList(readBooleanArray(name));
     }
 
+    /**
+     * Reads a boolean array as a bit set, with a bit set for each true element.
+     * @param name the name of the boolean array.
+     */
+    default BitSet readBooleanArrayAsBitSet(String name) {
+        return NativeArrayUtil.toBitSet(readBooleanArrayAsNative(name));
+    }
+
     /**
      * Reads a single character.
      * @param name the name of the byte.
@@ -357,6 +432,15 @@ public interface INamedDeserializer {
         return Arrays.asList(readStringArray(name));
     }
 
+    /**
+     * Reads a string array as a palette of its distinct strings & an index per element,
+     * which does not create a String reference per element when the array was written as a palette.
+     * @param name the name of the string array.
+     */
+    default StringPalette readStringArrayAsPalette(String name) {
+        return StringPalette.of(readStringArray(name));
+    }
+
     /**
      * Reads a single compound object.
      * @param name the name of the byte.
@@ -438,13 +522,21 @@ public interface INamedDeserializer {
     }
 
     /**
-     * Reads a single custom-object.
+     * Reads a single custom-object, a typed object is read by the deserializer of its own class.
      * @param name the name of the byte.
      */
     <T> T readCustomObject(String name, Class<T> type);
 
     /**
-     * Reads a custom-object array.
+     * Reads a typed custom-object, with the deserializer of the class its id belongs to.
+     * @param name the name of the object.
+     */
+    default <T> T readTypedObject(String name) {
+        return TypedCustomObject.unwrap(readNamedObject(name, TypedCustomObject.class));
+    }
+
+    /**
+     * Reads a custom-object array, the elements of a typed array are each read by the deserializer of their own class.
      * @param name the name of the custom-object array.
      */
     <T> T[] readCustomObjectArray(String name, Class<T> type);
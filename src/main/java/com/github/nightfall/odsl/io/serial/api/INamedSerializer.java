@@ -1,9 +1,19 @@
 package com.github.nightfall.odsl.io.serial.api;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
 import com.github.nightfall.odsl.ODSLConstants;
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.custom.SerializerRegistry;
+import com.github.nightfall.odsl.io.custom.TypedCustomObject;
+import com.github.nightfall.odsl.io.serial.FieldKey;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingNamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.ThreadLocalSerializers;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
@@ -13,7 +23,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Base64;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.zip.GZIPOutputStream;
@@ -26,7 +38,18 @@ import java.util.zip.GZIPOutputStream;
  */
 public interface INamedSerializer {
 
-    HashMap<Class<?>, INamedCustomSerializable<?>> NAMED_SERIALIZER_MAP = new HashMap<>();
+    /**
+     * The registered custom serializers, a class without its own uses the one of its nearest superclass or interface.
+     */
+    SerializerRegistry<INamedCustomSerializable<?>> NAMED_SERIALIZER_REGISTRY = new SerializerRegistry<>();
+
+    /**
+     * A map view of {@link #NAMED_SERIALIZER_REGISTRY}, writing to it registers in the registry.
+     *
+     * @deprecated use {@link #NAMED_SERIALIZER_REGISTRY} instead.
+     */
+    @Deprecated
+    HashMap<Class<?>, INamedCustomSerializable<?>> NAMED_SERIALIZER_MAP = NAMED_SERIALIZER_REGISTRY.asHashMap();
 
     /**
      * Registers a serializer for non-user owned objects.
@@ -36,19 +59,20 @@ public interface INamedSerializer {
      * @param serializer The serializer being registered.
      */
     static void registerSerializer(@NotNull INamedCustomSerializable<?> serializer) {
-        if (INamedSerializer.hasSerializer(serializer.getSerializableType()) && !ODSLConstants.allowSerializerOverwriting) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowSerializerOverwriting\" true.");
         if (serializer.getSerializableType().isArray()) throw new RuntimeException("cannot register serializer of array type, I recommend registering the component type instead.");
-        NAMED_SERIALIZER_MAP.put(serializer.getSerializableType(), serializer);
+        if (ODSLConstants.allowSerializerOverwriting) NAMED_SERIALIZER_REGISTRY.put(serializer.getSerializableType(), serializer);
+        else if (NAMED_SERIALIZER_REGISTRY.putIfAbsent(serializer.getSerializableType(), serializer) != null) ODSLConstants.LOGGER.warn("Cannot overwrite pre-existing serializers, try turning \"com.github.nightfall.odsl.ODSLConstants.allowSerializerOverwriting\" true.");
     }
 
     /**
-     * Gets the serializer for a custom object class.
+     * Gets the serializer for a custom object class, or for its nearest superclass or interface that has one.
      *
      * @param clazz the class that may have a custom serializer built for it.
      */
+    // Serializers are only registered under the class they write, which a subclass of it can be written with too.
+    @SuppressWarnings("unchecked")
     static <T> INamedCustomSerializable<T> getSerializer(Class<T> clazz) {
-        //noinspection unchecked
-        return (INamedCustomSerializable<T>) NAMED_SERIALIZER_MAP.get(clazz);
+        return (INamedCustomSerializable<T>) NAMED_SERIALIZER_REGISTRY.get(clazz);
     }
 
     /**
@@ -57,7 +81,7 @@ public interface INamedSerializer {
      * @param clazz the class that may have a custom serializer built for it.
      */
     static boolean hasSerializer(Class<?> clazz) {
-        return !NAMED_SERIALIZER_MAP.containsKey(clazz);
+        return NAMED_SERIALIZER_REGISTRY.contains(clazz);
     }
 
     /**
@@ -77,11 +101,60 @@ public interface INamedSerializer {
         return new NamedBinarySerializer();
     }
 
+    /**
+     * Instances the default named serializer implementation, writing its numbers with the given encoding.
+     */
+    @Contract("_ -> new")
+    static @NotNull INamedSerializer createDefault(NumberEncoding numberEncoding) {
+        return new NamedBinarySerializer(numberEncoding);
+    }
+
+    /**
+     * Instances a named serializer that writes straight to a stream instead of keeping its data in memory.
+     *
+     * @see StreamingNamedSerializer
+     *
+     * @param out The stream being written to, it is closed when the serializer is closed.
+     */
+    @Contract("_ -> new")
+    static @NotNull StreamingNamedSerializer createStreaming(@NotNull OutputStream out) {
+        return new StreamingNamedSerializer(out);
+    }
+
+    /**
+     * Gets this thread's reusable named serializer, reset & ready to write, so repeated writes do not allocate new buffers.
+     * It is only valid until the next call on the same thread, so it must not be kept or asked for again while still being written to.
+     *
+     * @see ThreadLocalSerializers
+     */
+    static @NotNull NamedBinarySerializer createThreadLocal() {
+        return ThreadLocalSerializers.named();
+    }
+
+    /**
+     * Encodes a field name once so it can be written many times without being encoded again,
+     * keep the key in a static field & pass it to the write methods instead of the name.
+     * @param name The name of the field.
+     */
+    @Contract("_ -> new")
+    static @NotNull FieldKey key(@NotNull String name) {
+        return new FieldKey(name);
+    }
+
     /**
      * Creates new instances of the parent/current serializer.
      */
     INamedSerializer newInstance();
 
+    /**
+     * Gives the serializer's buffers back to the {@link com.github.nightfall.odsl.util.BufferPool},
+     * call it once the bytes are taken out of a serializer that will not be written to for a while.
+     * Serializers without pooled buffers have nothing to give back, so by default this does nothing.
+     *
+     * @see IResettableSerializer
+     */
+    default void release() {}
+
     /**
      * Writes a byte to the serializer.
      * @param name The name of the byte.
@@ -89,6 +162,15 @@ public interface INamedSerializer {
      */
     void writeByte(String name, byte i) throws IOException;
 
+    /**
+     * Writes a byte to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the byte.
+     * @param i The byte to be written.
+     */
+    default void writeByte(FieldKey key, byte i) throws IOException {
+        writeByte(key.getName(), i);
+    }
+
     /**
      * Writes an array of bytes.
      * @param name The name of the array.
@@ -121,6 +203,15 @@ public interface INamedSerializer {
      */
     void writeShort(String name, short i) throws IOException;
 
+    /**
+     * Writes a short to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the short.
+     * @param i The short to be written.
+     */
+    default void writeShort(FieldKey key, short i) throws IOException {
+        writeShort(key.getName(), i);
+    }
+
     /**
      * Writes an array of shorts.
      * @param name The name of the array.
@@ -153,6 +244,15 @@ public interface INamedSerializer {
      */
     void writeInt(String name, int i) throws IOException;
 
+    /**
+     * Writes a integer to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the integer.
+     * @param i The integer to be written.
+     */
+    default void writeInt(FieldKey key, int i) throws IOException {
+        writeInt(key.getName(), i);
+    }
+
     /**
      * Writes an array of integers.
      * @param name The name of the array.
@@ -185,6 +285,15 @@ public interface INamedSerializer {
      */
     void writeLong(String name, long i) throws IOException;
 
+    /**
+     * Writes a long to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the long.
+     * @param i The long to be written.
+     */
+    default void writeLong(FieldKey key, long i) throws IOException {
+        writeLong(key.getName(), i);
+    }
+
     /**
      * Writes an array of longs.
      * @param name The name of the array.
@@ -217,6 +326,15 @@ public interface INamedSerializer {
      */
     void writeFloat(String name, float i) throws IOException;
 
+    /**
+     * Writes a float to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the float.
+     * @param i The float to be written.
+     */
+    default void writeFloat(FieldKey key, float i) throws IOException {
+        writeFloat(key.getName(), i);
+    }
+
     /**
      * Writes an array of floats.
      * @param name The name of the array.
@@ -249,6 +367,15 @@ public interface INamedSerializer {
      */
     void writeDouble(String name, double i) throws IOException;
 
+    /**
+     * Writes a double to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the double.
+     * @param i The double to be written.
+     */
+    default void writeDouble(FieldKey key, double i) throws IOException {
+        writeDouble(key.getName(), i);
+    }
+
     /**
      * Writes an array of doubles.
      * @param name The name of the array.
@@ -281,6 +408,15 @@ public interface INamedSerializer {
      */
     void writeBoolean(String name, boolean b) throws IOException;
 
+    /**
+     * Writes a boolean to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the boolean.
+     * @param b The boolean to be written.
+     */
+    default void writeBoolean(FieldKey key, boolean b) throws IOException {
+        writeBoolean(key.getName(), b);
+    }
+
     /**
      * Writes an array of booleans.
      * @param name The name of the array.
@@ -297,6 +433,16 @@ public interface INamedSerializer {
         writeBooleanArray(name, NativeArrayUtil.toNativeArray(array));
     }
 
+    /**
+     * Writes the first length bits of a bit set as an array of booleans.
+     * @param name The name of the array.
+     * @param bits The bits to be written.
+     * @param length The amount of bits to write.
+     */
+    default void writeBooleanArray(String name, BitSet bits, int length) throws IOException {
+        writeBooleanArray(name, NativeArrayUtil.toNativeArray(bits, length));
+    }
+
     /**
      * Writes a list of booleans.
      * @param name The name of the list.
@@ -313,6 +459,15 @@ public interface INamedSerializer {
      */
     void writeChar(String name, char c) throws IOException;
 
+    /**
+     * Writes a character to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the character.
+     * @param c The character to be written.
+     */
+    default void writeChar(FieldKey key, char c) throws IOException {
+        writeChar(key.getName(), c);
+    }
+
     /**
      * Writes an array of characters.
      * @param name The name of the array.
@@ -345,6 +500,15 @@ public interface INamedSerializer {
      */
     void writeString(String name, String v) throws IOException;
 
+    /**
+     * Writes a string to the serializer under a key made by {@link #key(String)}.
+     * @param key The name of the string.
+     * @param v The string to be written.
+     */
+    default void writeString(FieldKey key, String v) throws IOException {
+        writeString(key.getName(), v);
+    }
+
     /**
      * Writes an array of strings.
      * @param name The name of the array.
@@ -361,6 +525,24 @@ public interface INamedSerializer {
         writeStringArray(name, list.toArray(new String[0]));
     }
 
+    /**
+     * Writes a string array as its palette of distinct strings & a bit-packed index per element.
+     * @param name The name of the array.
+     * @param palette The palette to be written.
+     */
+    default void writePaletteStringArray(String name, StringPalette palette) throws IOException {
+        writeStringArray(name, palette.toArray());
+    }
+
+    /**
+     * Writes an array of strings as a palette, which suits arrays that repeat a few strings many times.
+     * @param name The name of the array.
+     * @param array The array to be written.
+     */
+    default void writePaletteStringArray(String name, String[] array) throws IOException {
+        writePaletteStringArray(name, StringPalette.of(array));
+    }
+
     /**
      * Writes a compound object.
      * @param name The name of the object.
@@ -480,22 +662,77 @@ public interface INamedSerializer {
         writeCustomObjectArray(name, list.toArray(new Object[0]));
     }
 
+    /**
+     * Writes a custom object along with the id {@link CustomTypeIds} gives its class, so it can be read back without naming its class.
+     * By default it's written as a named {@link TypedCustomObject}, for serializers without a typed format of their own.
+     * @param name The name of the object.
+     * @param object The object to be written, with the serializer of the class its id belongs to.
+     */
+    default <T> void writeTypedObject(String name, T object) throws IOException {
+        writeNamedObject(name, new TypedCustomObject(object));
+    }
+
+    /**
+     * Writes an array of custom-objects each along with the id of its class, so the elements may be of different classes.
+     * @param name The name of the array.
+     * @param array The array to be written.
+     */
+    default <T> void writeTypedObjectArray(String name, T[] array) throws IOException {
+        writeNamedObjectArray(name, TypedCustomObject.wrap(array));
+    }
+
+    /**
+     * Writes a list of custom-objects each along with the id of its class.
+     * @param name The name of the list.
+     * @param list The list to be written.
+     */
+    default <T> void writeTypedObjectList(String name, @NotNull List<T> list) throws IOException {
+        writeTypedObjectArray(name, list.toArray(new Object[0]));
+    }
+
     /**
      * Creates a primitive byte array from the serialized data.
      */
     byte[] toBytes() throws IOException;
 
+    /**
+     * Writes the serialized data to a stream, the same bytes {@link #toBytes()} creates.
+     *
+     * @param out The stream being written to.
+     */
+    default void writeTo(OutputStream out) throws IOException {
+        out.write(toBytes());
+    }
+
+    /**
+     * Gets the amount of bytes {@link #toBytes()} would create.
+     */
+    default int size() throws IOException {
+        return toBytes().length;
+    }
+
     /**
      * Creates a gzip compressed bytes from the serialized data.
      */
     default byte[] toCompressedBytes() throws IOException {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         GZIPOutputStream stream1 = new GZIPOutputStream(stream);
-        stream1.write(toBytes());
+        writeTo(stream1);
         stream1.close();
         return stream.toByteArray();
     }
 
+    /**
+     * Creates compressed bytes with the given codec, starting with the codec's header byte.
+     *
+     * @see CompressionCodecs
+     *
+     * @param codec The codec to compress with, such as {@link CompressionCodecs#LZ4} for speed.
+     */
+    default byte[] toCompressedBytes(ICompressionCodec codec) throws IOException {
+        return CompressionCodecs.compress(codec, toBytes());
+    }
+
     /**
      * Creates a base64 string from uncompressed bytes.
      */
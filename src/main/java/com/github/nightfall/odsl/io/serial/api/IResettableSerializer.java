@@ -0,0 +1,23 @@
+package com.github.nightfall.odsl.io.serial.api;
+
+/**
+ * A serializer that can be cleared & written again, keeping its grown buffers so it is reused without allocating.
+ * {@link com.github.nightfall.odsl.io.serial.impl.ThreadLocalSerializers} only hands out serializers of this kind,
+ * other serializers are written once.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public interface IResettableSerializer {
+
+    /**
+     * Discards everything written so far, keeping the grown buffers.
+     */
+    void clear();
+
+    /**
+     * Clears the serializer & restores its options to their defaults, so it can be reused like a new one.
+     */
+    void reset();
+
+}
@@ -0,0 +1,46 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The deserializer of each custom type id met while reading typed objects, indexed by id so
+ * each element of a typed array finds its deserializer without a lookup by class.
+ *
+ * @param <S> The type of deserializer held.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+class CustomTypeTable<S> {
+
+    private final IntFunction<S> lookup;
+    private Object[] table = new Object[CustomTypeIds.size()];
+
+    /**
+     * @param lookup Gets the deserializer of an id the first time it is met.
+     */
+    CustomTypeTable(IntFunction<S> lookup) {
+        this.lookup = lookup;
+    }
+
+    // Every entry comes from the lookup, so it is an S.
+    @SuppressWarnings("unchecked")
+    S get(int typeId) {
+        // Ids past the table are looked up before it grows, so an id no class has fails rather than sizing the table.
+        if (typeId < 0 || typeId >= table.length) {
+            S deserializer = lookup.apply(typeId);
+            table = Arrays.copyOf(table, Math.max(table.length, CustomTypeIds.size()));
+            if (typeId < table.length) table[typeId] = deserializer;
+            return deserializer;
+        }
+
+        Object deserializer = table[typeId];
+        if (deserializer == null) table[typeId] = deserializer = lookup.apply(typeId);
+
+        return (S) deserializer;
+    }
+
+}
@@ -1,22 +1,31 @@
 package com.github.nightfall.odsl.io.serial.impl;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
+import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
-import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.BinaryArrayUtil;
+import com.github.nightfall.odsl.util.ByteBufferInputStream;
+import com.github.nightfall.odsl.util.Instantiators;
 import com.github.nightfall.odsl.util.NativeArrayUtil;
 import com.github.nightfall.odsl.util.ThrowableSupplier;
+import com.github.nightfall.odsl.util.VarIntUtil;
 
-import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
-import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
+import java.nio.*;
+import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.function.Function;
-import java.util.zip.GZIPInputStream;
 
 /**
  * The default & fast implementation of the IKeylessDeserializer.
@@ -29,7 +38,8 @@ import java.util.zip.GZIPInputStream;
 public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     DataInputStream input;
-    ByteArrayInputStream byteStream;
+    ByteBufferInputStream byteStream;
+    final NumberEncoding numberEncoding;
 
     /**
      * A helper method for creating a keyless deserializer.
@@ -56,10 +66,21 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
      * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
      */
     public static KeylessBinaryDeserializer fromBytes(byte[] bytes, boolean isCompressed) throws IOException {
-        if (isCompressed) return new KeylessBinaryDeserializer(NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes)), Integer.MAX_VALUE));
+        if (isCompressed) return new KeylessBinaryDeserializer(CompressionCodecs.decompress(bytes));
         else return fromBytes(bytes);
     }
 
+    /**
+     * A helper method for creating a keyless binary deserializer for data written with a number encoding.
+     *
+     * @param bytes the bytes to deserialize.
+     * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
+     * @param numberEncoding the number encoding the data was serialized with.
+     */
+    public static KeylessBinaryDeserializer fromBytes(byte[] bytes, boolean isCompressed, NumberEncoding numberEncoding) throws IOException {
+        return new KeylessBinaryDeserializer(isCompressed ? CompressionCodecs.decompress(bytes) : bytes, numberEncoding);
+    }
+
     /**
      * A helper method for creating a keyless binary deserializer.
      *
@@ -70,18 +91,76 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
         return fromBytes(NativeArrayUtil.toNativeArray(bytes), isCompressed);
     }
 
+    /**
+     * A helper method for creating a keyless binary deserializer that decodes straight from a memory mapped file.
+     *
+     * @param path the file to map.
+     */
+    public static KeylessBinaryDeserializer fromFile(Path path) throws IOException {
+        return new KeylessBinaryDeserializer(ByteBufferInputStream.mapFile(path));
+    }
+
     public KeylessBinaryDeserializer(byte[] bytes) {
-        byteStream = new ByteArrayInputStream(bytes);
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public KeylessBinaryDeserializer(byte[] bytes, NumberEncoding numberEncoding) {
+        this(ByteBuffer.wrap(bytes), numberEncoding);
+    }
+
+    /**
+     * Creates a keyless binary deserializer over the remaining bytes of a buffer, such as a MappedByteBuffer.
+     *
+     * @param buffer the buffer to deserialize, its position is left unchanged.
+     */
+    public KeylessBinaryDeserializer(ByteBuffer buffer) {
+        this(buffer, NumberEncoding.FIXED);
+    }
+
+    /**
+     * Creates a keyless binary deserializer over the remaining bytes of a buffer, such as a MappedByteBuffer.
+     *
+     * @param buffer the buffer to deserialize, its position is left unchanged.
+     * @param numberEncoding the number encoding the data was serialized with, keyless data does not say which.
+     */
+    public KeylessBinaryDeserializer(ByteBuffer buffer, NumberEncoding numberEncoding) {
+        this.numberEncoding = numberEncoding;
+        byteStream = new ByteBufferInputStream(buffer);
         input = new DataInputStream(byteStream);
     }
 
+    /**
+     * Creates a deserializer with the same number encoding as this one, which is what nested objects are read with.
+     */
     @Override
     public IKeylessDeserializer newInstance(byte[] bytes, boolean isCompressed) throws IOException {
-        return fromBytes(bytes, isCompressed);
+        return fromBytes(bytes, isCompressed, numberEncoding);
+    }
+
+    /**
+     * Gets how this deserializer reads ints, longs, shorts & lengths.
+     */
+    public NumberEncoding getNumberEncoding() {
+        return numberEncoding;
+    }
+
+    /**
+     * Reads the length of an array or nested object.
+     */
+    int readLength() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readUnsignedVarInt(input);
+        return input.readInt();
+    }
+
+    /**
+     * Reads the bytes of a nested object as a view of this deserializer's buffer, rather than a copy.
+     */
+    private ByteBuffer readNested() throws IOException {
+        return byteStream.slice(readLength());
     }
 
     private <T> T[] readArray(Function<Integer, T[]> arrayCreator, ThrowableSupplier<T> supplier) throws IOException {
-        T[] array = arrayCreator.apply(input.readInt());
+        T[] array = arrayCreator.apply(readLength());
         for (int i = 0; i < array.length; i++) {
             array[i] = supplier.get();
         }
@@ -95,37 +174,100 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public Byte[] readByteArray() throws IOException {
-        return readArray(Byte[]::new, input::readByte);
+        return NativeArrayUtil.toObjectLikeArray(readByteArrayAsNative());
+    }
+
+    @Override
+    public byte[] readByteArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readBytes(input, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a byte array straight from the source bytes without copying it.
+     */
+    public ByteBuffer readByteArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Byte.BYTES);
     }
 
     @Override
     public short readShort() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return (short) VarIntUtil.readVarInt(input);
         return input.readShort();
     }
 
     @Override
     public Short[] readShortArray() throws IOException {
-        return readArray(Short[]::new, input::readShort);
+        return NativeArrayUtil.toObjectLikeArray(readShortArrayAsNative());
+    }
+
+    @Override
+    public short[] readShortArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readShorts(input, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a short array straight from the source bytes without copying it.
+     */
+    public ShortBuffer readShortArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Short.BYTES).asShortBuffer();
     }
 
     @Override
     public int readInt() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readVarInt(input);
         return input.readInt();
     }
 
     @Override
     public Integer[] readIntArray() throws IOException {
-        return readArray(Integer[]::new, input::readInt);
+        return NativeArrayUtil.toObjectLikeArray(readIntArrayAsNative());
+    }
+
+    @Override
+    public int[] readIntArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readInts(input, readLength());
+    }
+
+    @Override
+    public int[] readEncodedIntArrayAsNative() throws IOException {
+        ArrayEncoding encoding = ArrayEncoding.fromId(input.readUnsignedByte());
+        return ArrayEncodingUtil.readInts(input, encoding, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a int array straight from the source bytes without copying it.
+     */
+    public IntBuffer readIntArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Integer.BYTES).asIntBuffer();
     }
 
     @Override
     public long readLong() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readVarLong(input);
         return input.readLong();
     }
 
     @Override
     public Long[] readLongArray() throws IOException {
-        return readArray(Long[]::new, input::readLong);
+        return NativeArrayUtil.toObjectLikeArray(readLongArrayAsNative());
+    }
+
+    @Override
+    public long[] readLongArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readLongs(input, readLength());
+    }
+
+    @Override
+    public long[] readEncodedLongArrayAsNative() throws IOException {
+        ArrayEncoding encoding = ArrayEncoding.fromId(input.readUnsignedByte());
+        return ArrayEncodingUtil.readLongs(input, encoding, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a long array straight from the source bytes without copying it.
+     */
+    public LongBuffer readLongArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Long.BYTES).asLongBuffer();
     }
 
     @Override
@@ -135,7 +277,19 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public Float[] readFloatArray() throws IOException {
-        return readArray(Float[]::new, input::readFloat);
+        return NativeArrayUtil.toObjectLikeArray(readFloatArrayAsNative());
+    }
+
+    @Override
+    public float[] readFloatArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readFloats(input, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a float array straight from the source bytes without copying it.
+     */
+    public FloatBuffer readFloatArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Float.BYTES).asFloatBuffer();
     }
 
     @Override
@@ -145,7 +299,19 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public Double[] readDoubleArray() throws IOException {
-        return readArray(Double[]::new, input::readDouble);
+        return NativeArrayUtil.toObjectLikeArray(readDoubleArrayAsNative());
+    }
+
+    @Override
+    public double[] readDoubleArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readDoubles(input, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a double array straight from the source bytes without copying it.
+     */
+    public DoubleBuffer readDoubleArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Double.BYTES).asDoubleBuffer();
     }
 
     @Override
@@ -155,7 +321,22 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public Boolean[] readBooleanArray() throws IOException {
-        return readArray(Boolean[]::new, input::readBoolean);
+        return NativeArrayUtil.toObjectLikeArray(readBooleanArrayAsNative());
+    }
+
+    @Override
+    public boolean[] readBooleanArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readBooleans(input, readLength());
+    }
+
+    @Override
+    public boolean[] readPackedBooleanArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readPackedBooleans(input, readLength());
+    }
+
+    @Override
+    public BitSet readPackedBooleanArrayAsBitSet() throws IOException {
+        return BinaryArrayUtil.readPackedBitSet(input, readLength());
     }
 
     @Override
@@ -165,7 +346,19 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public Character[] readCharArray() throws IOException {
-        return readArray(Character[]::new, input::readChar);
+        return NativeArrayUtil.toObjectLikeArray(readCharArrayAsNative());
+    }
+
+    @Override
+    public char[] readCharArrayAsNative() throws IOException {
+        return BinaryArrayUtil.readChars(input, readLength());
+    }
+
+    /**
+     * Reads a read-only view of a char array straight from the source bytes without copying it.
+     */
+    public CharBuffer readCharArrayAsBuffer() throws IOException {
+        return byteStream.slice(readLength(), Character.BYTES).asCharBuffer();
     }
 
     @Override
@@ -178,6 +371,11 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
         return readArray(String[]::new, input::readUTF);
     }
 
+    @Override
+    public StringPalette readPaletteStringArray() throws IOException {
+        return ArrayEncodingUtil.readPalette(input, readLength());
+    }
+
     @Override
     public CompoundObject readCompoundObject() {
         return readNamedObject(CompoundObject.class);
@@ -193,14 +391,12 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
         T obj = null;
 
         try {
-            obj = type.getDeclaredConstructor().newInstance();
-            obj.read(new DataInputStream(new ByteArrayInputStream(readByteArrayAsNative())));
+            obj = Instantiators.newInstance(type);
+            obj.read(new DataInputStream(new ByteBufferInputStream(readNested())));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             if (e instanceof EOFException) return obj;
             return null;
@@ -209,9 +405,8 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public <T extends IDataStreamSerializable> T[] readRawObjectArray(Class<T> type) throws IOException {
-        int length = readInt();
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, length);
+        int length = readLength();
+        T[] t = NativeArrayUtil.newArray(type, length);
         for (int i = 0; i < t.length; i++) {
             t[i] = readRawObject(type);
         }
@@ -222,14 +417,12 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
     public <T extends INamedSerializable> T readNamedObject(Class<T> type) {
         T obj = null;
         try {
-            obj = type.getDeclaredConstructor().newInstance();
-            obj.read(INamedDeserializer.createDefault(readByteArrayAsNative(), false));
+            obj = Instantiators.newInstance(type);
+            obj.read(new NamedBinaryDeserializer(readNested(), false));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             if (e instanceof EOFException) return obj;
             return null;
@@ -238,9 +431,8 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public <T extends INamedSerializable> T[] readNamedObjectArray(Class<T> type) throws IOException {
-        int length = readInt();
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, length);
+        int length = readLength();
+        T[] t = NativeArrayUtil.newArray(type, length);
         for (int i = 0; i < t.length; i++) {
             t[i] = readNamedObject(type);
         }
@@ -252,14 +444,12 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
         T obj = null;
         try {
-            obj = type.getDeclaredConstructor().newInstance();
-            obj.read(newInstance(readByteArrayAsNative(), false));
+            obj = Instantiators.newInstance(type);
+            obj.read(new KeylessBinaryDeserializer(readNested(), numberEncoding));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             if (e instanceof EOFException) return obj;
             return null;
@@ -268,9 +458,8 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public <T extends IKeylessSerializable> T[] readKeylessObjectArray(Class<T> type) throws IOException {
-        int length = readInt();
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, length);
+        int length = readLength();
+        T[] t = NativeArrayUtil.newArray(type, length);
         for (int i = 0; i < t.length; i++) {
             t[i] = readKeylessObject(type);
         }
@@ -279,11 +468,15 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public <T> T readCustomObject(Class<T> type) throws IOException {
-        if (!KEYLESS_DESERIALIZER_MAP.containsKey(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+        IKeylessCustomSerializable<T> customDeserializer = IKeylessDeserializer.getDeserializer(type);
+        if (customDeserializer == null) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+
+        return readCustomObject(customDeserializer);
+    }
 
+    private <T> T readCustomObject(IKeylessCustomSerializable<T> customDeserializer) throws IOException {
         try {
-            //noinspection unchecked
-            return (T) KEYLESS_DESERIALIZER_MAP.get(type).read(newInstance(readByteArrayAsNative()));
+            return customDeserializer.read(new KeylessBinaryDeserializer(readNested(), numberEncoding));
         } catch (
                 IllegalArgumentException | SecurityException e
         ) {
@@ -293,15 +486,34 @@ public class KeylessBinaryDeserializer implements IKeylessDeserializer {
 
     @Override
     public <T> T[] readCustomObjectArray(Class<T> type) throws IOException {
-        if (!KEYLESS_DESERIALIZER_MAP.containsKey(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+        if (!IKeylessDeserializer.hasDeserializer(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
 
-        int length = readInt();
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, length);
+        int length = readLength();
+        T[] t = NativeArrayUtil.newArray(type, length);
         for (int i = 0; i < t.length; i++) {
             t[i] = readCustomObject(type);
         }
         return t;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readTypedObject() throws IOException {
+        int typeId = VarIntUtil.readUnsignedVarInt(input);
+        return (T) readCustomObject(CustomTypeIds.getKeylessDeserializer(typeId));
+    }
+
+    @Override
+    public <T> T[] readTypedObjectArray(Class<T> type) throws IOException {
+        int length = readLength();
+        T[] t = NativeArrayUtil.newArray(type, length);
+
+        CustomTypeTable<IKeylessCustomSerializable<?>> typeTable = new CustomTypeTable<>(CustomTypeIds::getKeylessDeserializer);
+        for (int i = 0; i < t.length; i++) {
+            int typeId = VarIntUtil.readUnsignedVarInt(input);
+            t[i] = type.cast(readCustomObject(typeTable.get(typeId)));
+        }
+        return t;
+    }
+
 }
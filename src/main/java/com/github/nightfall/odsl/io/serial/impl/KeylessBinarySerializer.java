@@ -1,17 +1,31 @@
 package com.github.nightfall.odsl.io.serial.impl;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
-import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.api.IResettableSerializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.BinaryArrayUtil;
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+import com.github.nightfall.odsl.util.VarIntUtil;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Base64;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -22,19 +36,164 @@ import java.util.zip.GZIPOutputStream;
  * @author Mr Zombii
  * @since 1.0.0
  */
-public class KeylessBinarySerializer implements IKeylessSerializer {
+public class KeylessBinarySerializer implements IKeylessSerializer, IResettableSerializer {
 
     final DataOutputStream output;
-    final ByteArrayOutputStream byteStream;
+    final ExposedByteArrayOutputStream byteStream;
+    final NumberEncoding numberEncoding;
+
+    // Reused for nested named objects & for streamed nested objects instead of being created per write, made on first use.
+    private NamedBinarySerializer namedChild;
+    private KeylessBinarySerializer scratch;
+
+    // The varint length of the nested object being ended, before it goes in as an insert.
+    private final byte[] lengthBytes = new byte[VarIntUtil.MAX_VAR_INT_SIZE];
 
     public KeylessBinarySerializer() {
-        byteStream = new ByteArrayOutputStream();
+        this(NumberEncoding.FIXED);
+    }
+
+    /**
+     * Creates a serializer that writes its ints, longs, shorts & lengths with the given encoding.
+     * Keyless data has no header, so it has to be read by a deserializer made with the same encoding.
+     */
+    public KeylessBinarySerializer(NumberEncoding numberEncoding) {
+        this.numberEncoding = numberEncoding;
+        byteStream = new ExposedByteArrayOutputStream(BufferPool.shared());
         output = new DataOutputStream(byteStream);
     }
 
+    /**
+     * Creates a serializer for a nested object that writes straight into its parent's buffer.
+     */
+    KeylessBinarySerializer(ExposedByteArrayOutputStream byteStream, DataOutputStream output, NumberEncoding numberEncoding) {
+        this.numberEncoding = numberEncoding;
+        this.byteStream = byteStream;
+        this.output = output;
+    }
+
+    /**
+     * The executor the elements of large object arrays are encoded on at the same time, the same as
+     * {@link NamedBinarySerializer#parallelExecutor}. Null writes them on the calling thread.
+     */
+    public ExecutorService parallelExecutor = null;
+
+    /**
+     * The least amount of elements an object array needs to be written on {@link #parallelExecutor}.
+     */
+    public int parallelThreshold = NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Packs the boolean arrays of the named objects nested in this data, the same as {@link NamedBinarySerializer#doBooleanPacking}.
+     * Keyless boolean arrays cannot say how they were written, so they are only packed through {@link #writePackedBooleanArray(boolean[])}.
+     */
+    public boolean doBooleanPacking = false;
+
+    private boolean isParallel(Object[] array) {
+        return parallelExecutor != null && array.length >= parallelThreshold && array.length > 1;
+    }
+
+    private <T> void writeParallel(T[] array, ParallelArrayWriter.ElementWriter<KeylessBinarySerializer, T> elementWriter) throws IOException {
+        ParallelArrayWriter.write(parallelExecutor, array, buffer -> {
+            KeylessBinarySerializer worker = new KeylessBinarySerializer(buffer, new DataOutputStream(buffer), numberEncoding);
+            worker.doBooleanPacking = doBooleanPacking;
+            return worker;
+        }, elementWriter, output);
+    }
+
     @Override
     public IKeylessSerializer newInstance() {
-        return new KeylessBinarySerializer();
+        return new KeylessBinarySerializer(numberEncoding);
+    }
+
+    /**
+     * Gets how this serializer writes ints, longs, shorts & lengths.
+     */
+    public NumberEncoding getNumberEncoding() {
+        return numberEncoding;
+    }
+
+    /**
+     * Writes the length of an array or nested object.
+     */
+    void writeLength(int length) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.writeUnsignedVarInt(output, length);
+        else output.writeInt(length);
+    }
+
+    /**
+     * Discards everything written so far, keeping the grown buffer so the serializer can be reused without allocating.
+     */
+    @Override
+    public void clear() {
+        byteStream.reset();
+    }
+
+    /**
+     * Clears the serializer & turns boolean packing and parallel arrays back off.
+     */
+    @Override
+    public void reset() {
+        clear();
+        doBooleanPacking = false;
+        parallelExecutor = null;
+        parallelThreshold = NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * Clears the serializer & gives its buffer and its nested object buffers back to the BufferPool.
+     */
+    @Override
+    public void release() {
+        if (byteStream != null) byteStream.release();
+        if (namedChild != null) namedChild.release();
+        if (scratch != null) scratch.release();
+    }
+
+    /**
+     * Gets the serializer a nested object is written with, which is this one, or a cleared scratch serializer
+     * when there is no buffer to put the length in.
+     */
+    private KeylessBinarySerializer nestedTarget() {
+        if (byteStream != null) return this;
+
+        if (scratch == null) scratch = new KeylessBinarySerializer(numberEncoding);
+        else scratch.clear();
+        scratch.doBooleanPacking = doBooleanPacking;
+        return scratch;
+    }
+
+    /**
+     * Starts the body of a nested object, a varint length goes in as an insert once the body is written,
+     * an int length is reserved & back-patched.
+     *
+     * @return The insert of the varint length, the position after the int length, or -1 for a scratch serializer.
+     */
+    private int beginNested(KeylessBinarySerializer target) throws IOException {
+        if (target != this) return -1;
+        if (numberEncoding == NumberEncoding.VARINT) return byteStream.beginInsert();
+
+        output.writeInt(0);
+        return byteStream.size();
+    }
+
+    private void endNested(KeylessBinarySerializer target, int body) throws IOException {
+        if (target != this) {
+            writeLength(target.byteStream.size());
+            target.byteStream.writeTo(output);
+            return;
+        }
+
+        if (numberEncoding != NumberEncoding.VARINT) {
+            byteStream.writeIntAt(body - Integer.BYTES, byteStream.size() - body);
+            return;
+        }
+
+        int length = byteStream.sizeSince(body);
+        int lengthSize = VarIntUtil.unsignedVarIntSize(length);
+        VarIntUtil.writePaddedUnsignedVarInt(lengthBytes, 0, length, lengthSize);
+        byteStream.writeInsert(body, lengthBytes, 0, lengthSize);
+        byteStream.endInsert(body);
     }
 
     public void writeByte(byte i) throws IOException {
@@ -42,35 +201,54 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeByteArray(byte[] array) throws IOException {
-        output.writeInt(array.length);
-        for (byte i : array) output.writeByte(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeShort(short i) throws IOException {
-        output.writeShort(i);
+        if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.writeVarInt(output, i);
+        else output.writeShort(i);
     }
 
     public void writeShortArray(short[] array) throws IOException {
-        output.writeInt(array.length);
-        for (short i : array) output.writeShort(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeInt(int i) throws IOException {
-        output.writeInt(i);
+        if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.writeVarInt(output, i);
+        else output.writeInt(i);
     }
 
     public void writeIntArray(int[] array) throws IOException {
-        output.writeInt(array.length);
-        for (int i : array) output.writeInt(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
+    }
+
+    @Override
+    public void writeEncodedIntArray(int[] array) throws IOException {
+        ArrayEncoding encoding = ArrayEncodingUtil.choose(array);
+        output.writeByte(encoding.ordinal());
+        writeLength(array.length);
+        ArrayEncodingUtil.write(output, encoding, array);
     }
 
     public void writeLong(long i) throws IOException {
-        output.writeLong(i);
+        if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.writeVarLong(output, i);
+        else output.writeLong(i);
     }
 
     public void writeLongArray(long[] array) throws IOException {
-        output.writeInt(array.length);
-        for (long i : array) output.writeLong(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
+    }
+
+    @Override
+    public void writeEncodedLongArray(long[] array) throws IOException {
+        ArrayEncoding encoding = ArrayEncodingUtil.choose(array);
+        output.writeByte(encoding.ordinal());
+        writeLength(array.length);
+        ArrayEncodingUtil.write(output, encoding, array);
     }
 
     public void writeFloat(float i) throws IOException {
@@ -78,8 +256,8 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeFloatArray(float[] array) throws IOException {
-        output.writeInt(array.length);
-        for (float i : array) output.writeFloat(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeDouble(double i) throws IOException {
@@ -87,8 +265,8 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeDoubleArray(double[] array) throws IOException {
-        output.writeInt(array.length);
-        for (double i : array) output.writeDouble(i);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeBoolean(boolean b) throws IOException {
@@ -96,8 +274,20 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeBooleanArray(boolean[] array) throws IOException {
-        output.writeInt(array.length);
-        for (boolean b : array) output.writeBoolean(b);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
+    }
+
+    @Override
+    public void writePackedBooleanArray(boolean[] array) throws IOException {
+        writeLength(array.length);
+        BinaryArrayUtil.writePacked(output, array);
+    }
+
+    @Override
+    public void writePackedBooleanArray(BitSet bits, int length) throws IOException {
+        writeLength(length);
+        BinaryArrayUtil.writePacked(output, bits, length);
     }
 
     public void writeChar(char c) throws IOException {
@@ -105,8 +295,8 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeCharArray(char[] array) throws IOException {
-        output.writeInt(array.length);
-        for (char c : array) output.writeChar(c);
+        writeLength(array.length);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeString(String v) throws IOException {
@@ -114,10 +304,16 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public void writeStringArray(String[] array) throws IOException {
-        output.writeInt(array.length);
+        writeLength(array.length);
         for (String s : array) output.writeUTF(s);
     }
 
+    @Override
+    public void writePaletteStringArray(StringPalette palette) throws IOException {
+        writeLength(palette.size());
+        ArrayEncodingUtil.writePalette(output, palette);
+    }
+
     public void writeCompoundObject(CompoundObject object) throws IOException {
         writeKeylessObject(object);
     }
@@ -127,15 +323,14 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
     }
 
     public <T extends IDataStreamSerializable> void writeRawObject(T object) throws IOException {
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        DataOutputStream stream = new DataOutputStream(byteOut);
-        object.write(stream);
-
-        writeByteArray(byteOut.toByteArray());
+        KeylessBinarySerializer target = nestedTarget();
+        int body = beginNested(target);
+        object.write(target.output);
+        endNested(target, body);
     }
 
     public <T extends IDataStreamSerializable> void writeRawObjectArray(T[] array) throws IOException {
-        output.writeInt(array.length);
+        writeLength(array.length);
         for (T obj : array) {
             writeRawObject(obj);
         }
@@ -143,64 +338,120 @@ public class KeylessBinarySerializer implements IKeylessSerializer {
 
     @Override
     public <T extends INamedSerializable> void writeNamedObject(T object) throws IOException {
-        INamedSerializer miniSerializer = INamedSerializer.createDefault();
-        object.write(miniSerializer);
+        // The named object's string schema goes in front of its body, so it is written on its own first.
+        if (namedChild == null) namedChild = new NamedBinarySerializer(numberEncoding);
+        else namedChild.reset();
+        namedChild.doBooleanPacking = doBooleanPacking;
 
-        writeByteArray(miniSerializer.toBytes());
+        object.write(namedChild);
+        writeLength(namedChild.size());
+        namedChild.writeTo(output);
     }
 
     @Override
     public <T extends INamedSerializable> void writeNamedObjectArray(T[] array) throws IOException {
-        output.writeInt(array.length);
+        writeLength(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, KeylessBinarySerializer::writeNamedObject);
+            return;
+        }
         for (T obj : array) {
             writeNamedObject(obj);
         }
     }
 
     public <T extends IKeylessSerializable> void writeKeylessObject(T object) throws IOException {
-        IKeylessSerializer miniSerializer = newInstance();
-        object.write(miniSerializer);
-
-        writeByteArray(miniSerializer.toBytes());
+        KeylessBinarySerializer target = nestedTarget();
+        int body = beginNested(target);
+        object.write(target);
+        endNested(target, body);
     }
 
     public <T extends IKeylessSerializable> void writeKeylessObjectArray(T[] array) throws IOException {
-        output.writeInt(array.length);
+        writeLength(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, KeylessBinarySerializer::writeKeylessObject);
+            return;
+        }
         for (T obj : array) {
             writeKeylessObject(obj);
         }
     }
 
     public <T> void writeCustomObject(T object) throws IOException {
-        if (!KEYLESS_SERIALIZER_MAP.containsKey(object.getClass())) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" due to it not having a registered serializer.");
+        // getClass() of a T is a Class<? extends T>, which the serializer of T takes.
+        @SuppressWarnings("unchecked") IKeylessCustomSerializable<T> serializer = IKeylessSerializer.getSerializer((Class<T>) object.getClass());
+        if (serializer == null) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" due to it not having a registered serializer.");
 
-        IKeylessSerializer miniSerializer = newInstance();
-        //noinspection unchecked
-        IKeylessCustomSerializable<T> serializer = IKeylessSerializer.getSerializer((Class<T>) object.getClass());
-        serializer.write(miniSerializer, object);
+        writeCustomObject(serializer, object);
+    }
 
-        writeByteArray(miniSerializer.toBytes());
+    private <T> void writeCustomObject(IKeylessCustomSerializable<T> serializer, T object) throws IOException {
+        KeylessBinarySerializer target = nestedTarget();
+        int body = beginNested(target);
+        serializer.write(target, object);
+        endNested(target, body);
     }
 
     public <T> void writeCustomObjectArray(T[] array) throws IOException {
-        output.writeInt(array.length);
+        writeLength(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, KeylessBinarySerializer::writeCustomObject);
+            return;
+        }
         for (T obj : array) {
             writeCustomObject(obj);
         }
     }
 
+    public <T> void writeTypedObject(T object) throws IOException {
+        int typeId = CustomTypeIds.getId(object.getClass());
+        Class<?> idType = CustomTypeIds.getType(typeId);
+        if (idType == null) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" as a typed object due to it not having a registered type id.");
+
+        // The object is an instance of the class its id is registered for, which this serializer writes.
+        @SuppressWarnings("unchecked") IKeylessCustomSerializable<T> serializer = (IKeylessCustomSerializable<T>) IKeylessSerializer.getSerializer(idType);
+        if (serializer == null) throw new RuntimeException("cannot serialize class of type \"" + idType.getName() + "\" due to it not having a registered serializer.");
+
+        VarIntUtil.writeUnsignedVarInt(output, typeId);
+        writeCustomObject(serializer, object);
+    }
+
+    public <T> void writeTypedObjectArray(T[] array) throws IOException {
+        writeLength(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, KeylessBinarySerializer::writeTypedObject);
+            return;
+        }
+        for (T obj : array) {
+            writeTypedObject(obj);
+        }
+    }
+
     public byte[] toBytes() {
         return byteStream.toByteArray();
     }
 
+    public void writeTo(OutputStream out) throws IOException {
+        byteStream.writeTo(out);
+    }
+
+    public int size() {
+        return byteStream.size();
+    }
+
     public byte[] toCompressedBytes() throws IOException {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
         GZIPOutputStream stream1 = new GZIPOutputStream(stream);
-        stream1.write(byteStream.toByteArray());
+        byteStream.writeTo(stream1);
         stream1.close();
         return stream.toByteArray();
     }
 
+    public byte[] toCompressedBytes(ICompressionCodec codec) throws IOException {
+        return CompressionCodecs.compress(codec, byteStream.getBuffer(), 0, byteStream.size());
+    }
+
     public String toBase64() {
         return Base64.getEncoder().encodeToString(toBytes());
     }
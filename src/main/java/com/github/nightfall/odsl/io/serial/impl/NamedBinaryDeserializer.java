@@ -1,26 +1,36 @@
 package com.github.nightfall.odsl.io.serial.impl;
 
+import com.github.nightfall.odsl.io.compression.CompressionCodecs;
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
 import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
 import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.BinaryArrayUtil;
+import com.github.nightfall.odsl.util.ByteBufferInputStream;
+import com.github.nightfall.odsl.util.Instantiators;
 import com.github.nightfall.odsl.util.NativeArrayUtil;
 import com.github.nightfall.odsl.util.ThrowableSupplier;
+import com.github.nightfall.odsl.util.VarIntUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
+import java.nio.*;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
-import java.util.zip.GZIPInputStream;
 
 import static com.github.nightfall.odsl.io.serial.SerializationType.*;
 
@@ -35,9 +45,27 @@ import static com.github.nightfall.odsl.io.serial.SerializationType.*;
 public class NamedBinaryDeserializer implements INamedDeserializer {
 
     DataInputStream input;
-    ByteArrayInputStream byteStream;
+    ByteBufferInputStream byteStream;
 
     Map<String, Object> keyToValue;
+    Map<String, Integer> keyToOffset;
+    final boolean isLazy;
+
+    boolean isUsingStringSchema;
+    final List<String> schema;
+    NumberEncoding numberEncoding;
+
+    // Set once a key schema is read, from then on field names are indices into it.
+    String[] keys;
+
+    // The custom type id of a typed custom object, or -1 for any other object.
+    int typeId = -1;
+
+    // Decodes large object arrays in chunks at the same time, nested objects decode theirs on the thread they are on.
+    final ExecutorService parallelExecutor;
+
+    // The least amount of elements an object array needs to be decoded on the parallel executor.
+    final int parallelThreshold;
 
     /**
      * A helper method for creating a named binary deserializer.
@@ -65,7 +93,7 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
      */
     public static NamedBinaryDeserializer fromBytes(byte[] bytes, boolean isCompressed) throws IOException {
         if (isCompressed) {
-            return new NamedBinaryDeserializer(NativeArrayUtil.readNBytes(new GZIPInputStream(new ByteArrayInputStream(bytes)), Integer.MAX_VALUE));
+            return new NamedBinaryDeserializer(CompressionCodecs.decompress(bytes));
         }
         else return fromBytes(bytes);
     }
@@ -80,332 +108,913 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
         return fromBytes(NativeArrayUtil.toNativeArray(bytes), isCompressed);
     }
 
-    @SuppressWarnings("ReassignedVariable")
+    /**
+     * A helper method for creating a lazy named binary deserializer that only indexes where each key is,
+     * and decodes a value the first time it is read. Its fields may be read from several threads at once.
+     *
+     * @param bytes the bytes to deserialize.
+     * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
+     */
+    public static NamedBinaryDeserializer fromBytesLazy(byte[] bytes, boolean isCompressed) throws IOException {
+        if (isCompressed) {
+            return new NamedBinaryDeserializer(CompressionCodecs.decompress(bytes), true);
+        }
+        else return new NamedBinaryDeserializer(bytes, true);
+    }
+
+    /**
+     * A helper method for creating a named binary deserializer that decodes large object arrays in parallel.
+     *
+     * @param bytes the bytes to deserialize.
+     * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
+     * @param parallelExecutor the executor to decode on, see {@link #NamedBinaryDeserializer(ByteBuffer, boolean, ExecutorService)}.
+     */
+    public static NamedBinaryDeserializer fromBytesParallel(byte[] bytes, boolean isCompressed, ExecutorService parallelExecutor) throws IOException {
+        return fromBytesParallel(bytes, isCompressed, parallelExecutor, NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * A helper method for creating a named binary deserializer that decodes object arrays of at least a given length in parallel.
+     *
+     * @param bytes the bytes to deserialize.
+     * @param isCompressed the option to choose weather if the bytes are treated as compressed or decompressed bytes.
+     * @param parallelExecutor the executor to decode on, see {@link #NamedBinaryDeserializer(ByteBuffer, boolean, ExecutorService)}.
+     * @param parallelThreshold the least amount of elements an object array needs to be decoded on the executor.
+     */
+    public static NamedBinaryDeserializer fromBytesParallel(byte[] bytes, boolean isCompressed, ExecutorService parallelExecutor, int parallelThreshold) throws IOException {
+        if (isCompressed) bytes = CompressionCodecs.decompress(bytes);
+        return new NamedBinaryDeserializer(ByteBuffer.wrap(bytes), false, parallelExecutor, parallelThreshold);
+    }
+
+    /**
+     * A helper method for creating a named binary deserializer that decodes straight from a memory mapped file.
+     *
+     * @param path the file to map.
+     * @param isLazy the option to only index the field offsets up front and decode each value the first time it is read,
+     *               which is needed for {@link #readIntArrayAsBuffer(String)} & the other buffer views.
+     */
+    public static NamedBinaryDeserializer fromFile(Path path, boolean isLazy) throws IOException {
+        return new NamedBinaryDeserializer(ByteBufferInputStream.mapFile(path), isLazy);
+    }
+
     public NamedBinaryDeserializer(byte[] bytes) throws IOException {
-        byteStream = new ByteArrayInputStream(bytes);
+        this(bytes, false);
+    }
+
+    /**
+     * Creates a named binary deserializer.
+     *
+     * @param bytes the bytes to deserialize.
+     * @param isLazy the option to only index the field offsets up front and decode each value the first time it is read.
+     */
+    public NamedBinaryDeserializer(byte[] bytes, boolean isLazy) throws IOException {
+        this(ByteBuffer.wrap(bytes), isLazy);
+    }
+
+    /**
+     * Creates a named binary deserializer over the remaining bytes of a buffer, such as a MappedByteBuffer.
+     *
+     * @param buffer the buffer to deserialize, its position is left unchanged.
+     * @param isLazy the option to only index the field offsets up front and decode each value the first time it is read.
+     */
+    public NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy) throws IOException {
+        this(buffer, isLazy, NumberEncoding.FIXED);
+    }
+
+    /**
+     * Creates a named binary deserializer that decodes large named, keyless, custom & typed object arrays in chunks
+     * at the same time, first finding where each element is, then creating the element deserializers & calling the
+     * elements' read methods on the executor.
+     *
+     * @param buffer the buffer to deserialize, its position is left unchanged.
+     * @param isLazy the option to only index the field offsets up front and decode each value the first time it is read.
+     * @param parallelExecutor the executor to decode on, such as a ForkJoinPool or a virtual thread executor,
+     *                         or null to decode on the calling thread. The elements' read methods & custom
+     *                         deserializers are called from several threads at once.
+     */
+    public NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy, ExecutorService parallelExecutor) throws IOException {
+        this(buffer, isLazy, parallelExecutor, NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Creates a named binary deserializer that decodes object arrays of at least parallelThreshold elements in parallel,
+     * as {@link #NamedBinaryDeserializer(ByteBuffer, boolean, ExecutorService)} describes.
+     *
+     * @param buffer the buffer to deserialize, its position is left unchanged.
+     * @param isLazy the option to only index the field offsets up front and decode each value the first time it is read.
+     * @param parallelExecutor the executor to decode on, or null to decode on the calling thread.
+     * @param parallelThreshold the least amount of elements an object array needs to be decoded on the executor,
+     *                          smaller arrays aren't worth handing to other threads.
+     */
+    public NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy, ExecutorService parallelExecutor, int parallelThreshold) throws IOException {
+        this(buffer, isLazy, NumberEncoding.FIXED, null, parallelExecutor, parallelThreshold);
+    }
+
+    NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy, NumberEncoding numberEncoding) throws IOException {
+        this(buffer, isLazy, numberEncoding, null);
+    }
+
+    /**
+     * Creates a deserializer for a nested object, which has no header of its own & uses its parent's number encoding & key schema.
+     */
+    NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy, NumberEncoding numberEncoding, String[] keys) throws IOException {
+        this(buffer, isLazy, numberEncoding, keys, null, NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    private NamedBinaryDeserializer(ByteBuffer buffer, boolean isLazy, NumberEncoding numberEncoding, String[] keys, ExecutorService parallelExecutor, int parallelThreshold) throws IOException {
+        this.isLazy = isLazy;
+        this.parallelExecutor = parallelExecutor;
+        this.parallelThreshold = parallelThreshold;
+        this.numberEncoding = numberEncoding;
+        this.keys = keys;
+        schema = new ArrayList<>();
+
+        byteStream = new ByteBufferInputStream(buffer);
         input = new DataInputStream(byteStream);
 
         keyToValue = new HashMap<>();
+        keyToOffset = isLazy ? new LinkedHashMap<>() : null;
 
-        AtomicBoolean isUsingStringSchema = new AtomicBoolean();
-        List<String> schema = new ArrayList<>();
-
-        SerializationType type = null;
+        SerializationType type;
         while (true) {
+            int fieldOffset = position();
             try {
                 type = readType();
             } catch (EOFException ignore) {
                 break;
             }
-            String name = readString();
-
-            Object obj = null;
+            String name = readName();
 
             switch (type) {
+                case NUMBER_ENCODING: {
+                    this.numberEncoding = NumberEncoding.fromId(input.readUnsignedByte());
+                    continue;
+                }
+
                 case STRING_SCHEMA_sBYTE:
                 case STRING_SCHEMA_sSHORT:
                 case STRING_SCHEMA_sINT: {
-                    isUsingStringSchema.set(true);
+                    isUsingStringSchema = true;
                     schema.addAll(Arrays.asList(readArray(String[]::new, this::readString, STRING_SCHEMA_sBYTE, type)));
                     continue;
                 }
 
-                case BYTE: {
-                    obj = input.readByte();
-                    break;
+                case KEY_SCHEMA_sBYTE:
+                case KEY_SCHEMA_sSHORT:
+                case KEY_SCHEMA_sINT: {
+                    this.keys = readArray(String[]::new, this::readString, KEY_SCHEMA_sBYTE, type);
+                    continue;
                 }
+            }
 
-                case BYTE_ARRAY_sBYTE:
-                case BYTE_ARRAY_sSHORT:
-                case BYTE_ARRAY_sINT: {
-                    obj = readArray(Byte[]::new, input::readByte, BYTE_ARRAY_sBYTE, type);
-                    break;
-                }
+            if (isLazy) {
+                keyToOffset.put(name, fieldOffset);
+                skipValue(type);
+            } else keyToValue.put(name, readValue(type));
+        }
+    }
 
-                case SHORT_sBYTE:
-                case SHORT_sSHORT: {
-                    obj = getNumber(SHORT_sBYTE, type);
-                    break;
-                }
+    /**
+     * Creates a cursor over the bytes & schemas of a lazy deserializer with a stream of its own, so lazy reads
+     * from several threads never move each other's position.
+     */
+    private NamedBinaryDeserializer(NamedBinaryDeserializer source, int offset) {
+        isLazy = source.isLazy;
+        parallelExecutor = source.parallelExecutor;
+        parallelThreshold = source.parallelThreshold;
+        numberEncoding = source.numberEncoding;
+        keys = source.keys;
+        isUsingStringSchema = source.isUsingStringSchema;
+        schema = source.schema;
+        keyToValue = source.keyToValue;
+        keyToOffset = source.keyToOffset;
+
+        byteStream = source.byteStream.duplicate();
+        input = new DataInputStream(byteStream);
+        seek(offset);
+    }
 
-                case SHORT_ARRAY_sBYTE:
-                case SHORT_ARRAY_sSHORT:
-                case SHORT_ARRAY_sINT: {
-                    obj = readArray(Short[]::new, input::readShort, STRING_ARRAY_sBYTE, type);
-                    break;
-                }
+    private Object readValue(SerializationType type) throws IOException {
+        Object obj = null;
 
-                case INT_sBYTE:
-                case INT_sSHORT:
-                case INT_sINT: {
-                    obj = getNumber(INT_sBYTE, type);
-                    break;
-                }
+        switch (type) {
+            case BYTE: {
+                obj = input.readByte();
+                break;
+            }
 
-                case INT_ARRAY_sBYTE:
-                case INT_ARRAY_sSHORT:
-                case INT_ARRAY_sINT: {
-                    obj = readArray(Integer[]::new, input::readInt, INT_ARRAY_sBYTE, type);
-                    break;
-                }
+            case BYTE_ARRAY_sBYTE:
+            case BYTE_ARRAY_sSHORT:
+            case BYTE_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readBytes(input, getIndex(BYTE_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case LONG_sBYTE:
-                case LONG_sSHORT:
-                case LONG_sINT:
-                case LONG_sLONG: {
-                    obj = getNumber(LONG_sBYTE, type);
-                    break;
-                }
+            case SHORT_sBYTE:
+            case SHORT_sSHORT: {
+                obj = (short) readNumber(SHORT_sBYTE, type);
+                break;
+            }
 
-                case LONG_ARRAY_sBYTE:
-                case LONG_ARRAY_sSHORT:
-                case LONG_ARRAY_sINT: {
-                    obj = readArray(Long[]::new, input::readLong, LONG_ARRAY_sBYTE, type);
-                    break;
-                }
+            case SHORT_ARRAY_sBYTE:
+            case SHORT_ARRAY_sSHORT:
+            case SHORT_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readShorts(input, getIndex(SHORT_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case FLOAT: {
-                    obj = input.readFloat();
-                    break;
-                }
+            case INT_sBYTE:
+            case INT_sSHORT:
+            case INT_sINT: {
+                obj = (int) readNumber(INT_sBYTE, type);
+                break;
+            }
 
-                case FLOAT_ARRAY_sBYTE:
-                case FLOAT_ARRAY_sSHORT:
-                case FLOAT_ARRAY_sINT: {
-                    obj = readArray(Float[]::new, input::readFloat, FLOAT_ARRAY_sBYTE, type);
-                    break;
-                }
+            case INT_ARRAY_sBYTE:
+            case INT_ARRAY_sSHORT:
+            case INT_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readInts(input, getIndex(INT_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case DOUBLE: {
-                    obj = input.readDouble();
-                    break;
-                }
+            case LONG_sBYTE:
+            case LONG_sSHORT:
+            case LONG_sINT:
+            case LONG_sLONG: {
+                obj = readNumber(LONG_sBYTE, type);
+                break;
+            }
 
-                case DOUBLE_ARRAY_sBYTE:
-                case DOUBLE_ARRAY_sSHORT:
-                case DOUBLE_ARRAY_sINT: {
-                    obj = readArray(Double[]::new, input::readDouble, DOUBLE_ARRAY_sBYTE, type);
-                    break;
-                }
+            case LONG_ARRAY_sBYTE:
+            case LONG_ARRAY_sSHORT:
+            case LONG_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readLongs(input, getIndex(LONG_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case BOOLEAN: {
-                    obj = input.readBoolean();
-                    break;
-                }
+            case DELTA_INT_ARRAY_sBYTE:
+            case DELTA_INT_ARRAY_sSHORT:
+            case DELTA_INT_ARRAY_sINT:
+            case FOR_INT_ARRAY_sBYTE:
+            case FOR_INT_ARRAY_sSHORT:
+            case FOR_INT_ARRAY_sINT:
+            case RLE_INT_ARRAY_sBYTE:
+            case RLE_INT_ARRAY_sSHORT:
+            case RLE_INT_ARRAY_sINT: {
+                obj = ArrayEncodingUtil.readInts(input, ArrayEncoding.fromArrayType(type), getIndex(type.getBaseType(), type));
+                break;
+            }
 
-                case BOOLEAN_ARRAY_sBYTE:
-                case BOOLEAN_ARRAY_sSHORT:
-                case BOOLEAN_ARRAY_sINT: {
-                    obj = readArray(Boolean[]::new, input::readBoolean, BOOLEAN_ARRAY_sBYTE, type);
-                    break;
-                }
+            case DELTA_LONG_ARRAY_sBYTE:
+            case DELTA_LONG_ARRAY_sSHORT:
+            case DELTA_LONG_ARRAY_sINT:
+            case FOR_LONG_ARRAY_sBYTE:
+            case FOR_LONG_ARRAY_sSHORT:
+            case FOR_LONG_ARRAY_sINT:
+            case RLE_LONG_ARRAY_sBYTE:
+            case RLE_LONG_ARRAY_sSHORT:
+            case RLE_LONG_ARRAY_sINT: {
+                obj = ArrayEncodingUtil.readLongs(input, ArrayEncoding.fromArrayType(type), getIndex(type.getBaseType(), type));
+                break;
+            }
 
-                case CHAR: {
-                    obj = input.readChar();
-                    break;
-                }
+            case PALETTE_STRING_ARRAY_sBYTE:
+            case PALETTE_STRING_ARRAY_sSHORT:
+            case PALETTE_STRING_ARRAY_sINT: {
+                // Kept as a palette, readStringArray() only creates the strings when asked for them.
+                obj = ArrayEncodingUtil.readPalette(input, getIndex(PALETTE_STRING_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case CHAR_ARRAY_sBYTE:
-                case CHAR_ARRAY_sSHORT:
-                case CHAR_ARRAY_sINT: {
-                    obj = readArray(Character[]::new, input::readChar, CHAR_ARRAY_sBYTE, type);
-                    break;
-                }
+            case FLOAT: {
+                obj = input.readFloat();
+                break;
+            }
 
-                case STRING_REGULAR: {
-                    obj = readString();
-                    break;
-                }
+            case FLOAT_ARRAY_sBYTE:
+            case FLOAT_ARRAY_sSHORT:
+            case FLOAT_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readFloats(input, getIndex(FLOAT_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case STRING_sBYTE:
-                case STRING_sSHORT:
-                case STRING_sINT: {
-                    obj = schema.get(getIndex(STRING_sBYTE, type));
-                    break;
-                }
+            case DOUBLE: {
+                obj = input.readDouble();
+                break;
+            }
 
-                case STRING_ARRAY_sBYTE:
-                case STRING_ARRAY_sSHORT:
-                case STRING_ARRAY_sINT: {
-                    obj = readArray(String[]::new, () -> {
-                        if (isUsingStringSchema.get()) return schema.get(input.readInt());
-                        else return readString();
-                    }, STRING_ARRAY_sBYTE, type);
-                    break;
-                }
+            case DOUBLE_ARRAY_sBYTE:
+            case DOUBLE_ARRAY_sSHORT:
+            case DOUBLE_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readDoubles(input, getIndex(DOUBLE_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case RAW_OBJECT_sBYTE:
-                case RAW_OBJECT_sSHORT:
-                case RAW_OBJECT_sINT: {
-                    obj = readArray(Byte[]::new, input::readByte, RAW_OBJECT_sBYTE, type);
-                    break;
-                }
+            case BOOLEAN: {
+                obj = input.readBoolean();
+                break;
+            }
 
-                case NAMED_OBJECT_sBYTE:
-                case NAMED_OBJECT_sSHORT:
-                case NAMED_OBJECT_sINT: {
-                    obj = newInstance(readArray(Byte[]::new, input::readByte, NAMED_OBJECT_sBYTE, type));
-                    break;
-                }
+            case BOOLEAN_ARRAY_sBYTE:
+            case BOOLEAN_ARRAY_sSHORT:
+            case BOOLEAN_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readBooleans(input, getIndex(BOOLEAN_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case UNNAMED_OBJECT_sBYTE:
-                case UNNAMED_OBJECT_sSHORT:
-                case UNNAMED_OBJECT_sINT: {
-                    obj = IKeylessDeserializer.createDefault(readArray(Byte[]::new, input::readByte, UNNAMED_OBJECT_sBYTE, type), false);
-                    break;
-                }
+            case PACKED_BOOLEAN_ARRAY_sBYTE:
+            case PACKED_BOOLEAN_ARRAY_sSHORT:
+            case PACKED_BOOLEAN_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readPackedBooleans(input, getIndex(PACKED_BOOLEAN_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case CUSTOM_OBJECT_sBYTE:
-                case CUSTOM_OBJECT_sSHORT:
-                case CUSTOM_OBJECT_sINT: {
-                    obj = newInstance(readArray(Byte[]::new, input::readByte, CUSTOM_OBJECT_sBYTE, type));
-                    break;
-                }
+            case CHAR: {
+                obj = input.readChar();
+                break;
+            }
 
-                case CUSTOM_OBJECT_ARRAY_sBYTE:
-                case CUSTOM_OBJECT_ARRAY_sSHORT:
-                case CUSTOM_OBJECT_ARRAY_sINT: {
-                    obj = processObjectArray(CUSTOM_OBJECT_sBYTE, CUSTOM_OBJECT_ARRAY_sBYTE, type);
-                    break;
-                }
+            case CHAR_ARRAY_sBYTE:
+            case CHAR_ARRAY_sSHORT:
+            case CHAR_ARRAY_sINT: {
+                obj = BinaryArrayUtil.readChars(input, getIndex(CHAR_ARRAY_sBYTE, type));
+                break;
+            }
 
-                case NAMED_OBJECT_ARRAY_sBYTE:
-                case NAMED_OBJECT_ARRAY_sSHORT:
-                case NAMED_OBJECT_ARRAY_sINT: {
-                    obj = processObjectArray(NAMED_OBJECT_sBYTE, NAMED_OBJECT_ARRAY_sBYTE, type);
-                    break;
-                }
+            case STRING_REGULAR: {
+                obj = readString();
+                break;
+            }
+
+            case STRING_sBYTE:
+            case STRING_sSHORT:
+            case STRING_sINT: {
+                obj = schema.get(getIndex(STRING_sBYTE, type));
+                break;
+            }
 
-                case UNNAMED_OBJECT_ARRAY_sBYTE:
-                case UNNAMED_OBJECT_ARRAY_sSHORT:
-                case UNNAMED_OBJECT_ARRAY_sINT: {
-                    IKeylessDeserializer[] deserializers = new IKeylessDeserializer[getIndex(UNNAMED_OBJECT_ARRAY_sBYTE, type)];
+            case STRING_ARRAY_sBYTE:
+            case STRING_ARRAY_sSHORT:
+            case STRING_ARRAY_sINT: {
+                obj = readArray(String[]::new, () -> {
+                    if (isUsingStringSchema) return schema.get(readStringIndex());
+                    else return readString();
+                }, STRING_ARRAY_sBYTE, type);
+                break;
+            }
 
-                    for (int i = 0; i < deserializers.length; i++) {
-                        SerializationType type0 = readType();
+            case RAW_OBJECT_sBYTE:
+            case RAW_OBJECT_sSHORT:
+            case RAW_OBJECT_sINT: {
+                obj = BinaryArrayUtil.readBytes(input, getIndex(RAW_OBJECT_sBYTE, type));
+                break;
+            }
 
-                        deserializers[i] = IKeylessDeserializer.createDefault(readArray(Byte[]::new, input::readByte, UNNAMED_OBJECT_sBYTE, type0), false);
-                    }
+            case NAMED_OBJECT_sBYTE:
+            case NAMED_OBJECT_sSHORT:
+            case NAMED_OBJECT_sINT: {
+                obj = readNamedChild(getIndex(NAMED_OBJECT_sBYTE, type));
+                break;
+            }
 
-                    obj = deserializers;
-                    break;
-                }
+            case UNNAMED_OBJECT_sBYTE:
+            case UNNAMED_OBJECT_sSHORT:
+            case UNNAMED_OBJECT_sINT: {
+                obj = new KeylessBinaryDeserializer(byteStream.slice(getIndex(UNNAMED_OBJECT_sBYTE, type)), numberEncoding);
+                break;
+            }
+
+            case CUSTOM_OBJECT_sBYTE:
+            case CUSTOM_OBJECT_sSHORT:
+            case CUSTOM_OBJECT_sINT: {
+                obj = readNamedChild(getIndex(CUSTOM_OBJECT_sBYTE, type));
+                break;
+            }
+
+            case CUSTOM_OBJECT_ARRAY_sBYTE:
+            case CUSTOM_OBJECT_ARRAY_sSHORT:
+            case CUSTOM_OBJECT_ARRAY_sINT: {
+                obj = processObjectArray(CUSTOM_OBJECT_sBYTE, CUSTOM_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
+
+            case TYPED_CUSTOM_OBJECT_sBYTE:
+            case TYPED_CUSTOM_OBJECT_sSHORT:
+            case TYPED_CUSTOM_OBJECT_sINT: {
+                obj = readTypedChild(type);
+                break;
+            }
+
+            case TYPED_CUSTOM_OBJECT_ARRAY_sBYTE:
+            case TYPED_CUSTOM_OBJECT_ARRAY_sSHORT:
+            case TYPED_CUSTOM_OBJECT_ARRAY_sINT: {
+                obj = processObjectArray(TYPED_CUSTOM_OBJECT_sBYTE, TYPED_CUSTOM_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
 
-                case RAW_OBJECT_ARRAY_sBYTE:
-                case RAW_OBJECT_ARRAY_sSHORT:
-                case RAW_OBJECT_ARRAY_sINT: {
-                    Byte[][] deserializers = new Byte[input.readInt()][0];
+            case NAMED_OBJECT_ARRAY_sBYTE:
+            case NAMED_OBJECT_ARRAY_sSHORT:
+            case NAMED_OBJECT_ARRAY_sINT: {
+                obj = processObjectArray(NAMED_OBJECT_sBYTE, NAMED_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
 
-                    for (int i = 0; i < deserializers.length; i++) {
-                        SerializationType type0 = readType();
+            case UNNAMED_OBJECT_ARRAY_sBYTE:
+            case UNNAMED_OBJECT_ARRAY_sSHORT:
+            case UNNAMED_OBJECT_ARRAY_sINT: {
+                IKeylessDeserializer[] deserializers = new IKeylessDeserializer[getIndex(UNNAMED_OBJECT_ARRAY_sBYTE, type)];
 
-                        deserializers[i] = readArray(Byte[]::new, input::readByte, RAW_OBJECT_sBYTE, type0);
-                    }
+                for (int i = 0; i < deserializers.length; i++) {
+                    SerializationType type0 = readType();
 
-                    obj = deserializers;
-                    break;
+                    deserializers[i] = new KeylessBinaryDeserializer(byteStream.slice(getIndex(UNNAMED_OBJECT_sBYTE, type0)), numberEncoding);
                 }
+
+                obj = deserializers;
+                break;
             }
 
-            keyToValue.put(name, obj);
+            case RAW_OBJECT_ARRAY_sBYTE:
+            case RAW_OBJECT_ARRAY_sSHORT:
+            case RAW_OBJECT_ARRAY_sINT: {
+                byte[][] deserializers = new byte[getIndex(RAW_OBJECT_ARRAY_sBYTE, type)][];
+
+                for (int i = 0; i < deserializers.length; i++) {
+                    SerializationType type0 = readType();
+
+                    deserializers[i] = BinaryArrayUtil.readBytes(input, getIndex(RAW_OBJECT_sBYTE, type0));
+                }
+
+                obj = deserializers;
+                break;
+            }
         }
+
+        return obj;
     }
 
+    private void skipValue(SerializationType type) throws IOException {
+        switch (type) {
+            case BYTE:
+            case BOOLEAN: {
+                skip(Byte.BYTES);
+                break;
+            }
 
-    private String readString() throws IOException {
-        return input.readUTF();
-    }
+            case CHAR: {
+                skip(Character.BYTES);
+                break;
+            }
 
-    private Object processObjectArray(SerializationType objBaseType, SerializationType baseType, SerializationType type) throws IOException {
-        INamedDeserializer[] deserializers = new INamedDeserializer[getIndex(baseType, type)];
+            case FLOAT: {
+                skip(Float.BYTES);
+                break;
+            }
 
-        for (int i = 0; i < deserializers.length; i++) {
-            SerializationType type0 = readType();
+            case DOUBLE: {
+                skip(Double.BYTES);
+                break;
+            }
 
-            deserializers[i] = newInstance(readArray(Byte[]::new, input::readByte, objBaseType, type0));
-        }
+            case SHORT_sBYTE:
+            case SHORT_sSHORT: {
+                skipNumber(SHORT_sBYTE, type);
+                break;
+            }
 
-        return deserializers;
-    }
+            case INT_sBYTE:
+            case INT_sSHORT:
+            case INT_sINT: {
+                skipNumber(INT_sBYTE, type);
+                break;
+            }
 
-    private <T> T[] readArray(Function<Integer, T[]> arrayCreator, ThrowableSupplier<T> supplier) throws Exception {
-        T[] array = arrayCreator.apply(input.readInt());
-        for (int i = 0; i < array.length; i++) {
-            array[i] = supplier.get();
-        }
-        return array;
-    }
+            case LONG_sBYTE:
+            case LONG_sSHORT:
+            case LONG_sINT:
+            case LONG_sLONG: {
+                skipNumber(LONG_sBYTE, type);
+                break;
+            }
 
-    private Number getNumber(SerializationType baseType, SerializationType currentType) throws IOException {
-        int ordinal = baseType.ordinal();
-        int cOrdinal = currentType.ordinal();
+            case STRING_sBYTE:
+            case STRING_sSHORT:
+            case STRING_sINT: {
+                skipNumber(STRING_sBYTE, type);
+                break;
+            }
 
-        ThrowableSupplier<Number> getIndexMethod = input::readByte;
+            case STRING_REGULAR: {
+                skip(input.readUnsignedShort());
+                break;
+            }
 
-        switch (ordinal - cOrdinal) {
-            case 1: {
-                getIndexMethod = input::readShort;
+            case BYTE_ARRAY_sBYTE:
+            case BYTE_ARRAY_sSHORT:
+            case BYTE_ARRAY_sINT: {
+                skip((long) getIndex(BYTE_ARRAY_sBYTE, type) * Byte.BYTES);
                 break;
             }
-            case 2: {
-                getIndexMethod = input::readInt;
+
+            case SHORT_ARRAY_sBYTE:
+            case SHORT_ARRAY_sSHORT:
+            case SHORT_ARRAY_sINT: {
+                skip((long) getIndex(SHORT_ARRAY_sBYTE, type) * Short.BYTES);
                 break;
             }
-            case 3: {
-                getIndexMethod = input::readLong;
+
+            case INT_ARRAY_sBYTE:
+            case INT_ARRAY_sSHORT:
+            case INT_ARRAY_sINT: {
+                skip((long) getIndex(INT_ARRAY_sBYTE, type) * Integer.BYTES);
                 break;
             }
-        }
-        return getIndexMethod.get();
-    }
 
-    private Integer getIndex(SerializationType baseType, SerializationType currentType) throws IOException {
-        int ordinal = baseType.ordinal();
-        int cOrdinal = currentType.ordinal();
+            case LONG_ARRAY_sBYTE:
+            case LONG_ARRAY_sSHORT:
+            case LONG_ARRAY_sINT: {
+                skip((long) getIndex(LONG_ARRAY_sBYTE, type) * Long.BYTES);
+                break;
+            }
 
-        ThrowableSupplier<Number> getIndexMethod = input::readByte;
+            case DELTA_INT_ARRAY_sBYTE:
+            case DELTA_INT_ARRAY_sSHORT:
+            case DELTA_INT_ARRAY_sINT:
+            case DELTA_LONG_ARRAY_sBYTE:
+            case DELTA_LONG_ARRAY_sSHORT:
+            case DELTA_LONG_ARRAY_sINT:
+            case FOR_INT_ARRAY_sBYTE:
+            case FOR_INT_ARRAY_sSHORT:
+            case FOR_INT_ARRAY_sINT:
+            case FOR_LONG_ARRAY_sBYTE:
+            case FOR_LONG_ARRAY_sSHORT:
+            case FOR_LONG_ARRAY_sINT:
+            case RLE_INT_ARRAY_sBYTE:
+            case RLE_INT_ARRAY_sSHORT:
+            case RLE_INT_ARRAY_sINT:
+            case RLE_LONG_ARRAY_sBYTE:
+            case RLE_LONG_ARRAY_sSHORT:
+            case RLE_LONG_ARRAY_sINT: {
+                getIndex(type.getBaseType(), type);
+                skip(VarIntUtil.readUnsignedVarInt(input));
+                break;
+            }
 
-        switch (ordinal - cOrdinal) {
-            case 1: {
-                getIndexMethod = input::readShort;
+            case PALETTE_STRING_ARRAY_sBYTE:
+            case PALETTE_STRING_ARRAY_sSHORT:
+            case PALETTE_STRING_ARRAY_sINT: {
+                int length = getIndex(PALETTE_STRING_ARRAY_sBYTE, type);
+                int paletteSize = VarIntUtil.readUnsignedVarInt(input);
+                for (int i = 0; i < paletteSize; i++) skip(input.readUnsignedShort());
+                skip(ArrayEncodingUtil.paletteIndicesSize(length, paletteSize));
                 break;
             }
-            case 2: {
-                getIndexMethod = input::readInt;
+
+            case FLOAT_ARRAY_sBYTE:
+            case FLOAT_ARRAY_sSHORT:
+            case FLOAT_ARRAY_sINT: {
+                skip((long) getIndex(FLOAT_ARRAY_sBYTE, type) * Float.BYTES);
                 break;
             }
-            case 3: {
-                getIndexMethod = input::readLong;
+
+            case DOUBLE_ARRAY_sBYTE:
+            case DOUBLE_ARRAY_sSHORT:
+            case DOUBLE_ARRAY_sINT: {
+                skip((long) getIndex(DOUBLE_ARRAY_sBYTE, type) * Double.BYTES);
                 break;
             }
-        }
-        return getIndexMethod.get().intValue();
-    }
 
-    private <T> T[] readArray(Function<Integer, T[]> arrayCreator, ThrowableSupplier<T> supplier, SerializationType baseType, SerializationType currentType) throws IOException {
-        int ordinal = baseType.ordinal();
-        int cOrdinal = currentType.ordinal();
+            case BOOLEAN_ARRAY_sBYTE:
+            case BOOLEAN_ARRAY_sSHORT:
+            case BOOLEAN_ARRAY_sINT: {
+                skip(getIndex(BOOLEAN_ARRAY_sBYTE, type));
+                break;
+            }
+
+            case PACKED_BOOLEAN_ARRAY_sBYTE:
+            case PACKED_BOOLEAN_ARRAY_sSHORT:
+            case PACKED_BOOLEAN_ARRAY_sINT: {
+                skip(BinaryArrayUtil.packedSize(getIndex(PACKED_BOOLEAN_ARRAY_sBYTE, type)));
+                break;
+            }
+
+            case CHAR_ARRAY_sBYTE:
+            case CHAR_ARRAY_sSHORT:
+            case CHAR_ARRAY_sINT: {
+                skip((long) getIndex(CHAR_ARRAY_sBYTE, type) * Character.BYTES);
+                break;
+            }
+
+            case STRING_ARRAY_sBYTE:
+            case STRING_ARRAY_sSHORT:
+            case STRING_ARRAY_sINT: {
+                int length = getIndex(STRING_ARRAY_sBYTE, type);
 
-        ThrowableSupplier<Number> getIndexMethod = input::readByte;
+                if (isUsingStringSchema) {
+                    if (numberEncoding == NumberEncoding.VARINT) for (int i = 0; i < length; i++) VarIntUtil.readUnsignedVarInt(input);
+                    else skip((long) length * Integer.BYTES);
+                } else for (int i = 0; i < length; i++) skip(input.readUnsignedShort());
+                break;
+            }
+
+            case RAW_OBJECT_sBYTE:
+            case RAW_OBJECT_sSHORT:
+            case RAW_OBJECT_sINT: {
+                skip(getIndex(RAW_OBJECT_sBYTE, type));
+                break;
+            }
+
+            case NAMED_OBJECT_sBYTE:
+            case NAMED_OBJECT_sSHORT:
+            case NAMED_OBJECT_sINT: {
+                skip(getIndex(NAMED_OBJECT_sBYTE, type));
+                break;
+            }
 
-        switch (ordinal - cOrdinal) {
-            case 1: {
-                getIndexMethod = input::readShort;
+            case UNNAMED_OBJECT_sBYTE:
+            case UNNAMED_OBJECT_sSHORT:
+            case UNNAMED_OBJECT_sINT: {
+                skip(getIndex(UNNAMED_OBJECT_sBYTE, type));
                 break;
             }
-            case 2: {
-                getIndexMethod = input::readInt;
+
+            case CUSTOM_OBJECT_sBYTE:
+            case CUSTOM_OBJECT_sSHORT:
+            case CUSTOM_OBJECT_sINT: {
+                skip(getIndex(CUSTOM_OBJECT_sBYTE, type));
                 break;
             }
-            case 3: {
-                getIndexMethod = input::readLong;
+
+            case RAW_OBJECT_ARRAY_sBYTE:
+            case RAW_OBJECT_ARRAY_sSHORT:
+            case RAW_OBJECT_ARRAY_sINT: {
+                skipObjectArray(RAW_OBJECT_sBYTE, RAW_OBJECT_ARRAY_sBYTE, type);
                 break;
             }
+
+            case NAMED_OBJECT_ARRAY_sBYTE:
+            case NAMED_OBJECT_ARRAY_sSHORT:
+            case NAMED_OBJECT_ARRAY_sINT: {
+                skipObjectArray(NAMED_OBJECT_sBYTE, NAMED_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
+
+            case UNNAMED_OBJECT_ARRAY_sBYTE:
+            case UNNAMED_OBJECT_ARRAY_sSHORT:
+            case UNNAMED_OBJECT_ARRAY_sINT: {
+                skipObjectArray(UNNAMED_OBJECT_sBYTE, UNNAMED_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
+
+            case CUSTOM_OBJECT_ARRAY_sBYTE:
+            case CUSTOM_OBJECT_ARRAY_sSHORT:
+            case CUSTOM_OBJECT_ARRAY_sINT: {
+                skipObjectArray(CUSTOM_OBJECT_sBYTE, CUSTOM_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
+
+            case TYPED_CUSTOM_OBJECT_sBYTE:
+            case TYPED_CUSTOM_OBJECT_sSHORT:
+            case TYPED_CUSTOM_OBJECT_sINT: {
+                VarIntUtil.readUnsignedVarInt(input);
+                skip(getIndex(TYPED_CUSTOM_OBJECT_sBYTE, type));
+                break;
+            }
+
+            case TYPED_CUSTOM_OBJECT_ARRAY_sBYTE:
+            case TYPED_CUSTOM_OBJECT_ARRAY_sSHORT:
+            case TYPED_CUSTOM_OBJECT_ARRAY_sINT: {
+                skipObjectArray(TYPED_CUSTOM_OBJECT_sBYTE, TYPED_CUSTOM_OBJECT_ARRAY_sBYTE, type);
+                break;
+            }
+        }
+    }
+
+    private void skipObjectArray(SerializationType objBaseType, SerializationType baseType, SerializationType type) throws IOException {
+        int length = getIndex(baseType, type);
+
+        for (int i = 0; i < length; i++) {
+            SerializationType type0 = readType();
+            if (objBaseType == TYPED_CUSTOM_OBJECT_sBYTE) VarIntUtil.readUnsignedVarInt(input);
+            skip(getIndex(objBaseType, type0));
+        }
+    }
+
+    private NamedBinaryDeserializer readNamedChild(int length) throws IOException {
+        return new NamedBinaryDeserializer(byteStream.slice(length), isLazy, numberEncoding, keys);
+    }
+
+    private NamedBinaryDeserializer readTypedChild(SerializationType type) throws IOException {
+        int typeId = VarIntUtil.readUnsignedVarInt(input);
+
+        NamedBinaryDeserializer child = readNamedChild(getIndex(TYPED_CUSTOM_OBJECT_sBYTE, type));
+        child.typeId = typeId;
+        return child;
+    }
+
+    private int position() {
+        return byteStream.position();
+    }
+
+    private void seek(int offset) {
+        byteStream.position(offset);
+    }
+
+    /**
+     * Creates a read-only view of an array field's elements without decoding or copying them.
+     */
+    private ByteBuffer getSlice(String name, SerializationType baseType, int elementSize) {
+        if (!isLazy) throw new RuntimeException("cannot create a buffer view of \"" + name + "\" since only lazy deserializers keep field offsets.");
+
+        Integer offset = keyToOffset.get(name);
+        if (offset == null) return null;
+
+        try {
+            NamedBinaryDeserializer cursor = new NamedBinaryDeserializer(this, offset);
+            SerializationType type = cursor.readType();
+            if (type.getBaseType() != baseType) throw new RuntimeException("cannot create a buffer view of \"" + name + "\" since it is a " + type + " rather than a " + baseType + ".");
+            cursor.skipName();
+
+            return cursor.byteStream.slice(cursor.getIndex(baseType, type), elementSize);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to decode key \"" + name + "\"", e);
+        }
+    }
+
+    private void skip(long count) throws IOException {
+        if (byteStream.skip(count) != count) throw new EOFException();
+    }
+
+    private Object get(String name) {
+        if (!isLazy) return keyToValue.get(name);
+
+        synchronized (keyToValue) {
+            if (keyToValue.containsKey(name)) return keyToValue.get(name);
+        }
+
+        Integer offset = keyToOffset.get(name);
+        if (offset == null) return null;
+
+        try {
+            NamedBinaryDeserializer cursor = new NamedBinaryDeserializer(this, offset);
+            SerializationType type = cursor.readType();
+            cursor.skipName();
+
+            Object obj = cursor.readValue(type);
+            // Threads that decode the same field at once all get the value cached first, like an eager read would.
+            synchronized (keyToValue) {
+                if (keyToValue.containsKey(name)) return keyToValue.get(name);
+                keyToValue.put(name, obj);
+            }
+            return obj;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to decode key \"" + name + "\"", e);
+        }
+    }
+
+    // Custom & typed fields that were never written fail naming the field, like they do on a CompoundObject.
+    private Object getExisting(String name, String kind) {
+        Object obj = get(name);
+        if (obj == null) throw new RuntimeException("cannot read field \"" + name + "\" as a " + kind + " due to it not existing.");
+        return obj;
+    }
+
+    private boolean isDecoded(String name) {
+        synchronized (keyToValue) {
+            return keyToValue.containsKey(name);
         }
+    }
 
-        int arrayLength = getIndexMethod.get().intValue();
+    private String readString() throws IOException {
+        return input.readUTF();
+    }
 
-        T[] array = arrayCreator.apply(arrayLength);
+    /**
+     * Reads a field name, which is an index into the key schema if there is one.
+     */
+    private String readName() throws IOException {
+        if (keys == null) return input.readUTF();
+
+        int index = VarIntUtil.readUnsignedVarInt(input);
+        if (index >= keys.length) throw new IOException("malformed field name, key " + index + " is outside its " + keys.length + " keys.");
+        return keys[index];
+    }
+
+    private void skipName() throws IOException {
+        if (keys == null) skip(input.readUnsignedShort());
+        else VarIntUtil.readUnsignedVarInt(input);
+    }
+
+    private Object processObjectArray(SerializationType objBaseType, SerializationType baseType, SerializationType type) throws IOException {
+        INamedDeserializer[] deserializers = new INamedDeserializer[getIndex(baseType, type)];
+        if (isParallel(deserializers.length)) {
+            processObjectArrayParallel(objBaseType, deserializers);
+            return deserializers;
+        }
+
+        for (int i = 0; i < deserializers.length; i++) {
+            SerializationType type0 = readType();
+
+            if (objBaseType == TYPED_CUSTOM_OBJECT_sBYTE) deserializers[i] = readTypedChild(type0);
+            else deserializers[i] = readNamedChild(getIndex(objBaseType, type0));
+        }
+
+        return deserializers;
+    }
+
+    /**
+     * Finds the bytes of each element first, which only walks their headers, so the elements can be decoded at the same time.
+     */
+    private void processObjectArrayParallel(SerializationType objBaseType, INamedDeserializer[] deserializers) throws IOException {
+        ByteBuffer[] elements = new ByteBuffer[deserializers.length];
+        int[] typeIds = objBaseType == TYPED_CUSTOM_OBJECT_sBYTE ? new int[elements.length] : null;
+
+        for (int i = 0; i < elements.length; i++) {
+            SerializationType type0 = readType();
+
+            if (typeIds != null) typeIds[i] = VarIntUtil.readUnsignedVarInt(input);
+            elements[i] = byteStream.slice(getIndex(objBaseType, type0));
+        }
+
+        ParallelArrayReader.read(parallelExecutor, elements.length, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                NamedBinaryDeserializer child = new NamedBinaryDeserializer(elements[i], isLazy, numberEncoding, keys);
+                if (typeIds != null) child.typeId = typeIds[i];
+                deserializers[i] = child;
+            }
+        });
+    }
+
+    private boolean isParallel(int length) {
+        return parallelExecutor != null && length >= parallelThreshold;
+    }
+
+    /**
+     * Calls the elements' read methods in chunks on the parallel executor if the array is large enough.
+     */
+    private void readElements(int length, ParallelArrayReader.ChunkReader chunkReader) {
+        try {
+            if (isParallel(length)) ParallelArrayReader.read(parallelExecutor, length, chunkReader);
+            else chunkReader.read(0, length);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read object array.", e);
+        }
+    }
+
+    private <T> T[] readArray(Function<Integer, T[]> arrayCreator, ThrowableSupplier<T> supplier) throws Exception {
+        T[] array = arrayCreator.apply(input.readInt());
+        for (int i = 0; i < array.length; i++) {
+            array[i] = supplier.get();
+        }
+        return array;
+    }
+
+    /**
+     * Reads a short, int or long value, whose width comes from how far the type is from its sBYTE base type.
+     */
+    private long readNumber(SerializationType baseType, SerializationType currentType) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readVarLong(input);
+
+        switch (baseType.ordinal() - currentType.ordinal()) {
+            case 1: return input.readShort();
+            case 2: return input.readInt();
+            case 3: return input.readLong();
+            default: return input.readByte();
+        }
+    }
+
+    private void skipNumber(SerializationType baseType, SerializationType currentType) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.readUnsignedVarLong(input);
+        else skip(getWidth(baseType, currentType));
+    }
+
+    private int getWidth(SerializationType baseType, SerializationType currentType) {
+        switch (baseType.ordinal() - currentType.ordinal()) {
+            case 1: return Short.BYTES;
+            case 2: return Integer.BYTES;
+            case 3: return Long.BYTES;
+            default: return Byte.BYTES;
+        }
+    }
+
+    /**
+     * Reads a length or string index.
+     */
+    private int getIndex(SerializationType baseType, SerializationType currentType) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readUnsignedVarInt(input);
+        return (int) readNumber(baseType, currentType);
+    }
+
+    /**
+     * Reads an element of a string array written with the string schema.
+     */
+    private int readStringIndex() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readUnsignedVarInt(input);
+        return input.readInt();
+    }
+
+    private <T> T[] readArray(Function<Integer, T[]> arrayCreator, ThrowableSupplier<T> supplier, SerializationType baseType, SerializationType currentType) throws IOException {
+        T[] array = arrayCreator.apply(getIndex(baseType, currentType));
         for (int i = 0; i < array.length; i++) {
             array[i] = supplier.get();
         }
@@ -414,70 +1023,174 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
 
     @Override
     public INamedDeserializer newInstance(byte[] bytes, boolean isCompressed) throws IOException {
+        if (isLazy) return fromBytesLazy(bytes, isCompressed);
         return fromBytes(bytes, isCompressed);
     }
 
     public byte readByte(String name) {
-        return (byte) keyToValue.get(name);
+        return (byte) get(name);
     }
     public Byte[] readByteArray(String name) {
-        return (Byte[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readByteArrayAsNative(name));
+    }
+    public byte[] readByteArrayAsNative(String name) {
+        return (byte[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a byte array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public ByteBuffer readByteArrayAsBuffer(String name) {
+        return getSlice(name, BYTE_ARRAY_sBYTE, Byte.BYTES);
     }
 
     public short readShort(String name) {
-        return (short) keyToValue.get(name);
+        return (short) get(name);
     }
     public Short[] readShortArray(String name) {
-        return (Short[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readShortArrayAsNative(name));
+    }
+    public short[] readShortArrayAsNative(String name) {
+        return (short[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a short array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public ShortBuffer readShortArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, SHORT_ARRAY_sBYTE, Short.BYTES);
+        return slice == null ? null : slice.asShortBuffer();
     }
 
     public int readInt(String name) {
-        return (int) keyToValue.get(name);
+        return (int) get(name);
     }
     public Integer[] readIntArray(String name) {
-        return (Integer[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readIntArrayAsNative(name));
+    }
+    public int[] readIntArrayAsNative(String name) {
+        return (int[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a int array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public IntBuffer readIntArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, INT_ARRAY_sBYTE, Integer.BYTES);
+        return slice == null ? null : slice.asIntBuffer();
     }
 
     public long readLong(String name) {
-        return (long) keyToValue.get(name);
+        return (long) get(name);
     }
     public Long[] readLongArray(String name) {
-        return (Long[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readLongArrayAsNative(name));
+    }
+    public long[] readLongArrayAsNative(String name) {
+        return (long[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a long array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public LongBuffer readLongArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, LONG_ARRAY_sBYTE, Long.BYTES);
+        return slice == null ? null : slice.asLongBuffer();
     }
 
     public float readFloat(String name) {
-        return (float) keyToValue.get(name);
+        return (float) get(name);
     }
     public Float[] readFloatArray(String name) {
-        return (Float[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readFloatArrayAsNative(name));
+    }
+    public float[] readFloatArrayAsNative(String name) {
+        return (float[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a float array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public FloatBuffer readFloatArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, FLOAT_ARRAY_sBYTE, Float.BYTES);
+        return slice == null ? null : slice.asFloatBuffer();
     }
 
     public double readDouble(String name) {
-        return (double) keyToValue.get(name);
+        return (double) get(name);
     }
     public Double[] readDoubleArray(String name) {
-        return (Double[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readDoubleArrayAsNative(name));
+    }
+    public double[] readDoubleArrayAsNative(String name) {
+        return (double[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a double array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public DoubleBuffer readDoubleArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, DOUBLE_ARRAY_sBYTE, Double.BYTES);
+        return slice == null ? null : slice.asDoubleBuffer();
     }
 
     public boolean readBoolean(String name) {
-        return (boolean) keyToValue.get(name);
+        return (boolean) get(name);
     }
     public Boolean[] readBooleanArray(String name) {
-        return (Boolean[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readBooleanArrayAsNative(name));
+    }
+    public boolean[] readBooleanArrayAsNative(String name) {
+        return (boolean[]) get(name);
+    }
+
+    @Override
+    public BitSet readBooleanArrayAsBitSet(String name) {
+        // In lazy mode a packed array that has not been read yet goes straight into a BitSet instead of through a boolean[].
+        if (isLazy && !isDecoded(name)) {
+            Integer offset = keyToOffset.get(name);
+            if (offset == null) return null;
+
+            try {
+                NamedBinaryDeserializer cursor = new NamedBinaryDeserializer(this, offset);
+                SerializationType type = cursor.readType();
+                cursor.skipName();
+
+                if (type.getBaseType() == PACKED_BOOLEAN_ARRAY_sBYTE) return BinaryArrayUtil.readPackedBitSet(cursor.input, cursor.getIndex(PACKED_BOOLEAN_ARRAY_sBYTE, type));
+            } catch (IOException e) {
+                throw new RuntimeException("failed to decode key \"" + name + "\"", e);
+            }
+        }
+
+        boolean[] array = readBooleanArrayAsNative(name);
+        return array == null ? null : NativeArrayUtil.toBitSet(array);
     }
 
     public char readChar(String name) {
-        return (char) keyToValue.get(name);
+        return (char) get(name);
     }
     public Character[] readCharArray(String name) {
-        return (Character[]) keyToValue.get(name);
+        return NativeArrayUtil.toObjectLikeArray(readCharArrayAsNative(name));
+    }
+    public char[] readCharArrayAsNative(String name) {
+        return (char[]) get(name);
+    }
+    /**
+     * Gets a read-only view of a char array straight from the source bytes, this needs a lazy deserializer.
+     */
+    public CharBuffer readCharArrayAsBuffer(String name) {
+        ByteBuffer slice = getSlice(name, CHAR_ARRAY_sBYTE, Character.BYTES);
+        return slice == null ? null : slice.asCharBuffer();
     }
 
     public String readString(String name) {
-        return (String) keyToValue.get(name);
+        return (String) get(name);
     }
     public String[] readStringArray(String name) {
-        return (String[]) keyToValue.get(name);
+        Object value = get(name);
+        if (value instanceof StringPalette) return ((StringPalette) value).toArray();
+        return (String[]) value;
+    }
+
+    @Override
+    public StringPalette readStringArrayAsPalette(String name) {
+        Object value = get(name);
+        if (value == null || value instanceof StringPalette) return (StringPalette) value;
+        return StringPalette.of((String[]) value);
     }
 
     public CompoundObject readCompoundObject(String name) {
@@ -489,14 +1202,12 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
 
     public <T extends IDataStreamSerializable> T readRawObject(String name, Class<T> type) {
         try {
-            T obj = type.getDeclaredConstructor().newInstance();
+            T obj = Instantiators.newInstance(type);
             obj.read(new DataInputStream(new ByteArrayInputStream(readByteArrayAsNative(name))));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -504,20 +1215,17 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
 
     public <T extends IDataStreamSerializable> T[] readRawObjectArray(String name, Class<T> type) {
         try {
-            Byte[][] objs = (Byte[][]) keyToValue.get(name);
-            //noinspection unchecked
-            T[] t = (T[]) Array.newInstance(type, objs.length);
+            byte[][] objs = (byte[][]) get(name);
+            T[] t = NativeArrayUtil.newArray(type, objs.length);
             for (int i = 0; i < t.length; i++) {
-                T obj = type.getDeclaredConstructor().newInstance();
-                obj.read(new DataInputStream(new ByteArrayInputStream(NativeArrayUtil.toNativeArray(objs[i]))));
+                T obj = Instantiators.newInstance(type);
+                obj.read(new DataInputStream(new ByteArrayInputStream(objs[i])));
                 t[i] = obj;
             }
             return t;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -526,54 +1234,49 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
     public <T extends INamedSerializable> T readNamedObject(String name, Class<T> type) {
         T obj = null;
         try {
-            obj = type.getDeclaredConstructor().newInstance();
-            obj.read((INamedDeserializer) keyToValue.get(name));
+            obj = Instantiators.newInstance(type);
+            obj.read((INamedDeserializer) get(name));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
     }
 
     public <T extends INamedSerializable> T[] readNamedObjectArray(String name, Class<T> type) {
-        INamedDeserializer[] objs = (INamedDeserializer[]) keyToValue.get(name);
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, objs.length);
-
-        for (int i = 0; i < t.length; i++) {
-            T obj;
-            try {
-                obj = type.getDeclaredConstructor().newInstance();
-                obj.read(objs[i]);
-                t[i] = obj;
-            } catch (
-                    InstantiationException | IllegalAccessException
-                    | IllegalArgumentException | InvocationTargetException
-                    | NoSuchMethodException | SecurityException
-                    | IOException e
-            ) {
-
-                objs[i] = null;
+        INamedDeserializer[] objs = (INamedDeserializer[]) get(name);
+        T[] t = NativeArrayUtil.newArray(type, objs.length);
+
+        readElements(t.length, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                T obj;
+                try {
+                    obj = Instantiators.newInstance(type);
+                    obj.read(objs[i]);
+                    t[i] = obj;
+                } catch (
+                        ReflectiveOperationException | IllegalArgumentException
+                        | SecurityException | IOException e
+                ) {
+
+                    objs[i] = null;
+                }
             }
-        }
+        });
         return t;
     }
 
     @Override
     public <T extends IKeylessSerializable> T readKeylessObject(String name, Class<T> type) {
         try {
-            T obj = type.getDeclaredConstructor().newInstance();
-            obj.read((IKeylessDeserializer) keyToValue.get(name));
+            T obj = Instantiators.newInstance(type);
+            obj.read((IKeylessDeserializer) get(name));
             return obj;
         } catch (
-                InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException
-                | IOException e
+                ReflectiveOperationException | IllegalArgumentException
+                | SecurityException | IOException e
         ) {
             return null;
         }
@@ -581,33 +1284,35 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
 
     @Override
     public <T extends IKeylessSerializable> T[] readKeylessObjectArray(String name, Class<T> type) {
-        IKeylessDeserializer[] objs = (IKeylessDeserializer[]) keyToValue.get(name);
-        //noinspection unchecked
-        T[] t = (T[]) Array.newInstance(type, objs.length);
-
-        for (int i = 0; i < t.length; i++) {
-            try {
-                T obj = type.getDeclaredConstructor().newInstance();
-                obj.read(objs[i]);
-                t[i] = obj;
-            } catch (
-                    InstantiationException | IllegalAccessException
-                    | IllegalArgumentException | InvocationTargetException
-                    | NoSuchMethodException | SecurityException
-                    | IOException e
-            ) {
-                objs[i] = null;
+        IKeylessDeserializer[] objs = (IKeylessDeserializer[]) get(name);
+        T[] t = NativeArrayUtil.newArray(type, objs.length);
+
+        readElements(t.length, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                try {
+                    T obj = Instantiators.newInstance(type);
+                    obj.read(objs[i]);
+                    t[i] = obj;
+                } catch (
+                        ReflectiveOperationException | IllegalArgumentException
+                        | SecurityException | IOException e
+                ) {
+                    objs[i] = null;
+                }
             }
-        }
+        });
         return t;
     }
 
     public <T> T readCustomObject(String name, Class<T> type) {
-        if (!NAMED_DESERIALIZER_MAP.containsKey(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+        NamedBinaryDeserializer obj = (NamedBinaryDeserializer) getExisting(name, "custom object");
+        if (obj.typeId != -1) return type.cast(CustomTypeIds.getNamedDeserializer(obj.typeId).read(obj));
+
+        INamedCustomSerializable<T> customDeserializer = INamedDeserializer.getDeserializer(type);
+        if (customDeserializer == null) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
 
         try {
-            //noinspection unchecked
-            return (T) NAMED_DESERIALIZER_MAP.get(type).read((INamedDeserializer) keyToValue.get(name));
+            return customDeserializer.read(obj);
         } catch (
                 IllegalArgumentException | SecurityException e
         ) {
@@ -616,38 +1321,72 @@ public class NamedBinaryDeserializer implements INamedDeserializer {
     }
 
     @SuppressWarnings("unchecked")
-    public <T> T[] readCustomObjectArray(String name, Class<T> type) {
-        if (!NAMED_DESERIALIZER_MAP.containsKey(type)) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+    public <T> T readTypedObject(String name) {
+        NamedBinaryDeserializer obj = (NamedBinaryDeserializer) getExisting(name, "typed object");
+        if (obj.typeId == -1) throw new RuntimeException("cannot read field \"" + name + "\" as a typed object due to it not being written with a type id.");
 
-        INamedDeserializer[] objs = (INamedDeserializer[]) keyToValue.get(name);
-        INamedCustomSerializable<T> customDeserializer = (INamedCustomSerializable<T>) NAMED_DESERIALIZER_MAP.get(type);
+        return (T) CustomTypeIds.getNamedDeserializer(obj.typeId).read(obj);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T[] readCustomObjectArray(String name, Class<T> type) {
+        INamedDeserializer[] objs = (INamedDeserializer[]) getExisting(name, "custom object array");
 
         T[] t = (T[]) Array.newInstance(type, objs.length);
 
-        for (int i = 0; i < t.length; i++) {
-            T obj = customDeserializer.read(objs[i]);
-            t[i] = obj;
-        }
+        readElements(t.length, (start, end) -> readCustomElements(objs, t, type, start, end));
         return t;
     }
 
+    private <T> void readCustomElements(INamedDeserializer[] objs, T[] t, Class<T> type, int start, int end) {
+        INamedCustomSerializable<T> customDeserializer = null;
+        // Each chunk has its own table, since the table is not thread safe.
+        CustomTypeTable<INamedCustomSerializable<?>> typeTable = null;
+
+        for (int i = start; i < end; i++) {
+            NamedBinaryDeserializer obj = (NamedBinaryDeserializer) objs[i];
+
+            if (obj.typeId != -1) {
+                // Typed elements each go to the deserializer of their own id.
+                if (typeTable == null) typeTable = new CustomTypeTable<>(CustomTypeIds::getNamedDeserializer);
+                t[i] = type.cast(typeTable.get(obj.typeId).read(obj));
+                continue;
+            }
+
+            if (customDeserializer == null) {
+                customDeserializer = INamedDeserializer.getDeserializer(type);
+                if (customDeserializer == null) throw new RuntimeException("cannot deserialize class of type \"" + type.getName() + "\" due to it not having a registered deserializer.");
+            }
+            t[i] = customDeserializer.read(obj);
+        }
+    }
+
+    /**
+     * Gets the custom type id this object was written with, or -1 if it is not a typed custom object.
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
     @Override
     public Object getObject(String name) {
-        return keyToValue.get(name);
+        return get(name);
     }
 
     @Override
     public int getObjectCount() {
+        if (isLazy) return keyToOffset.size();
         return keyToValue.size();
     }
 
     @Override
     public String[] getKeys() {
+        if (isLazy) return keyToOffset.keySet().toArray(new String[0]);
         return keyToValue.keySet().toArray(new String[0]);
     }
 
     private SerializationType readType() throws IOException {
-        return SerializationType.values()[input.readByte()];
+        return SerializationType.fromId(input.readUnsignedByte());
     }
 
 }
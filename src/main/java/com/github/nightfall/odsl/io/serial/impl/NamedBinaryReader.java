@@ -0,0 +1,496 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.BinaryArrayUtil;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+import com.github.nightfall.odsl.util.VarIntUtil;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.nightfall.odsl.io.serial.SerializationType.*;
+
+/**
+ * A pull-style reader for named binary data that walks one field at a time over a stream or channel,
+ * so only the current field is ever held in memory.
+ * <p>
+ * Call {@link #next()} to move to the next field, then either decode it with {@link #readValue()},
+ * walk into it with {@link #enterObject()}, or leave it and let the next call to {@link #next()} skip it
+ * using its length prefixes without decoding it.
+ *
+ * @see INamedDeserializer
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class NamedBinaryReader implements Closeable {
+
+    /**
+     * The default size of the read buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    final FieldInputStream stream;
+    final DataInputStream input;
+
+    boolean isUsingStringSchema;
+    final List<String> schema = new ArrayList<>();
+    NumberEncoding numberEncoding = NumberEncoding.FIXED;
+
+    // Set once a key schema is read, from then on field names are indices into it.
+    String[] keys;
+
+    SerializationType type;
+    String name;
+    int nameIndex;
+    boolean isConsumed = true;
+    NamedBinaryReader child;
+
+    // The custom type id of the typed object this reader was entered into, or -1.
+    int typeId = -1;
+
+    public NamedBinaryReader(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    public NamedBinaryReader(InputStream in, int bufferSize) {
+        this(new FieldInputStream(new BufferedInputStream(in, bufferSize), -1));
+    }
+
+    public NamedBinaryReader(ReadableByteChannel channel) {
+        this(Channels.newInputStream(channel), DEFAULT_BUFFER_SIZE);
+    }
+
+    public NamedBinaryReader(ReadableByteChannel channel, int bufferSize) {
+        this(Channels.newInputStream(channel), bufferSize);
+    }
+
+    private NamedBinaryReader(FieldInputStream stream) {
+        this.stream = stream;
+        this.input = new DataInputStream(stream);
+    }
+
+    /**
+     * Moves to the next field, skipping whatever is left of the current one.
+     *
+     * @return false when there are no fields left.
+     */
+    public boolean next() throws IOException {
+        if (child != null) {
+            child.stream.skipRemaining();
+            child = null;
+        }
+        if (!isConsumed) skip();
+
+        while (true) {
+            int id = stream.read();
+            if (id == -1) {
+                type = null;
+                name = null;
+                return false;
+            }
+
+            type = SerializationType.fromId(id);
+            name = readName();
+
+            if (type == NUMBER_ENCODING) {
+                numberEncoding = NumberEncoding.fromId(input.readUnsignedByte());
+                continue;
+            }
+
+            if (type.getBaseType() == STRING_SCHEMA_sBYTE) {
+                isUsingStringSchema = true;
+                long length = readLength(type);
+                for (long i = 0; i < length; i++) schema.add(input.readUTF());
+                continue;
+            }
+
+            if (type.getBaseType() == KEY_SCHEMA_sBYTE) {
+                keys = new String[(int) readLength(type)];
+                for (int i = 0; i < keys.length; i++) keys[i] = input.readUTF();
+                continue;
+            }
+
+            isConsumed = false;
+            return true;
+        }
+    }
+
+    /**
+     * Moves forward until a field with the given name is found on this level.
+     *
+     * @param name The name of the field being looked for.
+     * @return false if no field with the name was left.
+     */
+    public boolean skipTo(String name) throws IOException {
+        while (next()) {
+            if (this.name.equals(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the type of the current field.
+     */
+    public SerializationType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the name of the current field.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the custom type id of the typed custom object this reader was entered into, or -1 if it was not entered into one.
+     */
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Skips the current field without decoding it.
+     */
+    public void skip() throws IOException {
+        requireValue();
+        isConsumed = true;
+        skipValue(type);
+    }
+
+    /**
+     * Decodes the current field, giving the same value {@link INamedDeserializer#getObject(String)} would.
+     */
+    public Object readValue() throws IOException {
+        requireValue();
+        isConsumed = true;
+
+        switch (type.getBaseType()) {
+            case STRING_sBYTE: {
+                return schema.get((int) readLength(type));
+            }
+
+            case STRING_ARRAY_sBYTE: {
+                String[] array = new String[(int) readLength(type)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = isUsingStringSchema ? schema.get(readStringIndex()) : input.readUTF();
+                }
+                return array;
+            }
+        }
+
+        // Everything else is captured as a single field document & decoded by the regular deserializer.
+        ExposedByteArrayOutputStream capture = new ExposedByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(capture);
+        header.writeByte(type.ordinal());
+        if (keys == null) header.writeUTF(name);
+        else VarIntUtil.writeUnsignedVarInt(header, nameIndex);
+
+        stream.capture = capture;
+        try {
+            skipValue(type);
+        } finally {
+            stream.capture = null;
+        }
+
+        return new NamedBinaryDeserializer(ByteBuffer.wrap(capture.toByteArray()), false, numberEncoding, keys).getObject(name);
+    }
+
+    /**
+     * Walks into the current named or custom object field without reading it into memory.
+     * The returned reader stays valid until this reader moves to the next field.
+     */
+    public NamedBinaryReader enterObject() throws IOException {
+        requireValue();
+
+        SerializationType baseType = type.getBaseType();
+        if (baseType != NAMED_OBJECT_sBYTE && baseType != CUSTOM_OBJECT_sBYTE && baseType != TYPED_CUSTOM_OBJECT_sBYTE) throw new RuntimeException("cannot enter field \"" + name + "\" of type " + type + ", only named & custom objects can be entered.");
+
+        isConsumed = true;
+        int typeId = baseType == TYPED_CUSTOM_OBJECT_sBYTE ? VarIntUtil.readUnsignedVarInt(input) : -1;
+        child = new NamedBinaryReader(new FieldInputStream(stream, readLength(type)));
+        child.typeId = typeId;
+        child.numberEncoding = numberEncoding;
+        child.keys = keys;
+        return child;
+    }
+
+    /**
+     * Closes the stream or channel being read, readers made by {@link #enterObject()} do not close anything.
+     */
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    private void requireValue() {
+        if (type == null) throw new RuntimeException("there is no current field, call next() first.");
+        if (isConsumed) throw new RuntimeException("the field \"" + name + "\" has already been read.");
+    }
+
+    /**
+     * Reads a field name, which is an index into the key schema if there is one.
+     */
+    private String readName() throws IOException {
+        if (keys == null) return input.readUTF();
+
+        nameIndex = VarIntUtil.readUnsignedVarInt(input);
+        if (nameIndex >= keys.length) throw new IOException("malformed field name, key " + nameIndex + " is outside its " + keys.length + " keys.");
+        return keys[nameIndex];
+    }
+
+    private long readLength(SerializationType type) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readUnsignedVarInt(input);
+
+        switch (type.getWidth()) {
+            case Short.BYTES: return input.readShort();
+            case Integer.BYTES: return input.readInt();
+            case Long.BYTES: return input.readLong();
+            default: return input.readByte();
+        }
+    }
+
+    private int readStringIndex() throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) return VarIntUtil.readUnsignedVarInt(input);
+        return input.readInt();
+    }
+
+    private void skipValue(SerializationType type) throws IOException {
+        switch (type.getBaseType()) {
+            case BYTE:
+            case BOOLEAN: {
+                stream.skipFully(Byte.BYTES);
+                break;
+            }
+
+            case CHAR: {
+                stream.skipFully(Character.BYTES);
+                break;
+            }
+
+            case FLOAT: {
+                stream.skipFully(Float.BYTES);
+                break;
+            }
+
+            case DOUBLE: {
+                stream.skipFully(Double.BYTES);
+                break;
+            }
+
+            case SHORT_sBYTE:
+            case INT_sBYTE:
+            case LONG_sBYTE: {
+                if (numberEncoding == NumberEncoding.VARINT) VarIntUtil.readUnsignedVarLong(input);
+                else stream.skipFully(type.getWidth());
+                break;
+            }
+
+            case STRING_sBYTE: {
+                readLength(type);
+                break;
+            }
+
+            case STRING_REGULAR: {
+                stream.skipFully(input.readUnsignedShort());
+                break;
+            }
+
+            case BYTE_ARRAY_sBYTE:
+            case BOOLEAN_ARRAY_sBYTE:
+            case RAW_OBJECT_sBYTE:
+            case NAMED_OBJECT_sBYTE:
+            case UNNAMED_OBJECT_sBYTE:
+            case CUSTOM_OBJECT_sBYTE: {
+                stream.skipFully(readLength(type));
+                break;
+            }
+
+            case SHORT_ARRAY_sBYTE:
+            case CHAR_ARRAY_sBYTE: {
+                stream.skipFully(readLength(type) * Short.BYTES);
+                break;
+            }
+
+            case INT_ARRAY_sBYTE:
+            case FLOAT_ARRAY_sBYTE: {
+                stream.skipFully(readLength(type) * Integer.BYTES);
+                break;
+            }
+
+            case LONG_ARRAY_sBYTE:
+            case DOUBLE_ARRAY_sBYTE: {
+                stream.skipFully(readLength(type) * Long.BYTES);
+                break;
+            }
+
+            case DELTA_INT_ARRAY_sBYTE:
+            case DELTA_LONG_ARRAY_sBYTE:
+            case FOR_INT_ARRAY_sBYTE:
+            case FOR_LONG_ARRAY_sBYTE:
+            case RLE_INT_ARRAY_sBYTE:
+            case RLE_LONG_ARRAY_sBYTE: {
+                readLength(type);
+                stream.skipFully(VarIntUtil.readUnsignedVarInt(input));
+                break;
+            }
+
+            case PALETTE_STRING_ARRAY_sBYTE: {
+                long length = readLength(type);
+                int paletteSize = VarIntUtil.readUnsignedVarInt(input);
+                for (int i = 0; i < paletteSize; i++) stream.skipFully(input.readUnsignedShort());
+                stream.skipFully(ArrayEncodingUtil.paletteIndicesSize((int) length, paletteSize));
+                break;
+            }
+
+            case PACKED_BOOLEAN_ARRAY_sBYTE: {
+                stream.skipFully(BinaryArrayUtil.packedSize((int) readLength(type)));
+                break;
+            }
+
+            case STRING_ARRAY_sBYTE: {
+                long length = readLength(type);
+
+                if (isUsingStringSchema) {
+                    if (numberEncoding == NumberEncoding.VARINT) for (long i = 0; i < length; i++) readStringIndex();
+                    else stream.skipFully(length * Integer.BYTES);
+                } else for (long i = 0; i < length; i++) stream.skipFully(input.readUnsignedShort());
+                break;
+            }
+
+            case RAW_OBJECT_ARRAY_sBYTE:
+            case NAMED_OBJECT_ARRAY_sBYTE:
+            case UNNAMED_OBJECT_ARRAY_sBYTE:
+            case CUSTOM_OBJECT_ARRAY_sBYTE:
+            case TYPED_CUSTOM_OBJECT_ARRAY_sBYTE: {
+                long length = readLength(type);
+
+                for (long i = 0; i < length; i++) {
+                    SerializationType elementType = SerializationType.fromId(input.readUnsignedByte());
+                    if (elementType.getBaseType() == TYPED_CUSTOM_OBJECT_sBYTE) VarIntUtil.readUnsignedVarInt(input);
+                    stream.skipFully(readLength(elementType));
+                }
+                break;
+            }
+
+            case TYPED_CUSTOM_OBJECT_sBYTE: {
+                VarIntUtil.readUnsignedVarInt(input);
+                stream.skipFully(readLength(type));
+                break;
+            }
+
+            default: throw new RuntimeException("cannot skip field \"" + name + "\" of type " + type + ".");
+        }
+    }
+
+    /**
+     * A stream that can be limited to the length of a nested object, and can copy what passes through
+     * it so a single field can be handed to the regular deserializer.
+     */
+    static class FieldInputStream extends FilterInputStream {
+
+        long remaining;
+        ExposedByteArrayOutputStream capture;
+
+        /**
+         * @param remaining The amount of bytes this stream may read, or -1 for no limit.
+         */
+        FieldInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) return -1;
+
+            int b = in.read();
+            if (b == -1) return -1;
+
+            if (remaining > 0) remaining--;
+            if (capture != null) capture.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) return -1;
+            if (remaining > 0) len = (int) Math.min(len, remaining);
+
+            int n = in.read(b, off, len);
+            if (n == -1) return -1;
+
+            if (remaining > 0) remaining -= n;
+            if (capture != null) capture.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (remaining >= 0) n = Math.min(n, remaining);
+            if (n <= 0) return 0;
+
+            if (capture != null) {
+                byte[] chunk = new byte[(int) Math.min(n, 8192)];
+                int read = read(chunk, 0, chunk.length);
+                return Math.max(read, 0);
+            }
+
+            long skipped = in.skip(n);
+            if (skipped == 0) {
+                // Some streams never skip, so fall back to reading one byte to make progress or find the end.
+                if (in.read() == -1) return 0;
+                skipped = 1;
+            }
+
+            if (remaining > 0) remaining -= skipped;
+            return skipped;
+        }
+
+        void skipFully(long n) throws IOException {
+            while (n > 0) {
+                long skipped = skip(n);
+                if (skipped <= 0) throw new EOFException();
+                n -= skipped;
+            }
+        }
+
+        void skipRemaining() throws IOException {
+            if (remaining > 0) skipFully(remaining);
+        }
+
+        @Override
+        public int available() throws IOException {
+            int available = in.available();
+            return remaining >= 0 ? (int) Math.min(available, remaining) : available;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Nested objects share their parent's stream, so only the outer stream closes it.
+            if (remaining < 0) super.close();
+        }
+
+    }
+
+}
@@ -1,19 +1,34 @@
 package com.github.nightfall.odsl.io.serial.impl;
 
 import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
 import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.FieldKey;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
 import com.github.nightfall.odsl.io.serial.SerializationType;
-import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.StringPalette;
 import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.api.IResettableSerializer;
 import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
 import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
 import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.BinaryArrayUtil;
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+import com.github.nightfall.odsl.util.VarIntUtil;
 
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The default & fast implementation of the INamedSerializer.
@@ -23,201 +38,545 @@ import java.util.List;
  * @author Mr Zombii
  * @since 1.0.0
  */
-public class NamedBinarySerializer implements INamedSerializer {
+public class NamedBinarySerializer implements INamedSerializer, IResettableSerializer {
 
     DataOutputStream output;
-    ByteArrayOutputStream byteStream;
+    ExposedByteArrayOutputStream byteStream;
     final List<String> strings = new ArrayList<>();
+    final Map<String, Integer> stringIndices = new HashMap<>();
+    final NumberEncoding numberEncoding;
+
+    // The key schema belongs to the outermost serializer, nested objects add their names to their parent's.
+    final List<String> keys;
+    final Map<String, Integer> keyIndices;
+
+    // Nested objects use their parent's number encoding, so only the outermost serializer writes it.
+    boolean writesNumberEncoding = true;
+
+    // Whether the first name written went in the key schema, null until then.
+    private Boolean wroteKeySchemaNames;
+
+    // Set on serializers encoding a chunk of a parallel array write & their nested ones, which add to the key schema at the same time.
+    final boolean isParallelWorker;
+
+    // Reused for every nested object & string schema instead of being created per write, made on first use.
+    private NamedBinarySerializer child;
+    private KeylessBinarySerializer keylessChild;
+    private NamedBinarySerializer schemaWriter;
+
+    // The length of the nested object being ended, before it goes in as an insert.
+    private final byte[] lengthBytes = new byte[VarIntUtil.MAX_VAR_INT_SIZE];
 
     public NamedBinarySerializer() {
-        byteStream = new ByteArrayOutputStream();
+        this(NumberEncoding.FIXED);
+    }
+
+    /**
+     * Creates a serializer that writes its ints, longs, shorts, lengths & string indices with the given encoding.
+     * The deserializer finds the encoding on its own, since it is written at the front of the data.
+     */
+    public NamedBinarySerializer(NumberEncoding numberEncoding) {
+        this.numberEncoding = numberEncoding;
+        byteStream = new ExposedByteArrayOutputStream(BufferPool.shared());
+        output = new DataOutputStream(byteStream);
+        keys = new ArrayList<>();
+        keyIndices = new HashMap<>();
+        isParallelWorker = false;
+    }
+
+    /**
+     * Creates a serializer for a nested object that writes straight into its parent's buffer.
+     */
+    private NamedBinarySerializer(NamedBinarySerializer parent) {
+        numberEncoding = parent.numberEncoding;
+        writesNumberEncoding = false;
+        byteStream = parent.byteStream;
+        output = parent.output;
+        keys = parent.keys;
+        keyIndices = parent.keyIndices;
+        isParallelWorker = parent.isParallelWorker;
+    }
+
+    /**
+     * Creates a serializer that writes a chunk of a parallel array write into its own buffer, adding its names to the parent's key schema.
+     */
+    private NamedBinarySerializer(NamedBinarySerializer parent, ExposedByteArrayOutputStream byteStream) {
+        numberEncoding = parent.numberEncoding;
+        writesNumberEncoding = false;
+        this.byteStream = byteStream;
         output = new DataOutputStream(byteStream);
+        keys = parent.keys;
+        keyIndices = parent.keyIndices;
+        isParallelWorker = true;
+        doArrayEncoding = parent.doArrayEncoding;
+        doBooleanPacking = parent.doBooleanPacking;
+        doKeySchema = parent.usesKeySchema();
     }
 
-    private void writeType(SerializationType type) throws IOException {
-        output.writeByte(type.ordinal());
+    /**
+     * Creates a serializer that writes to the given stream instead of its own buffer.
+     */
+    NamedBinarySerializer(DataOutputStream output, NumberEncoding numberEncoding) {
+        this.numberEncoding = numberEncoding;
+        this.byteStream = null;
+        this.output = output;
+        keys = new ArrayList<>();
+        keyIndices = new HashMap<>();
+        isParallelWorker = false;
+    }
+
+    /**
+     * Gets how this serializer writes ints, longs, shorts, lengths & string indices.
+     */
+    public NumberEncoding getNumberEncoding() {
+        return numberEncoding;
     }
 
-    private void writeType(SerializationType baseType, Number i) throws IOException {
-        long v = i.longValue();
+    /**
+     * Checks if strings are written to the string schema rather than inline.
+     */
+    boolean usesStringSchema() {
+        return doStringArray;
+    }
 
-        if (v > Integer.MAX_VALUE) {
-            output.writeByte(baseType.ordinal() - 3);
-            return;
-        }
-        if (v > Short.MAX_VALUE) {
-            output.writeByte(baseType.ordinal() - 2);
-            return;
-        }
-        if (v > Byte.MAX_VALUE) {
-            output.writeByte(baseType.ordinal() - 1);
-            return;
+    /**
+     * Checks if field names are written as indices into the key schema rather than inline.
+     */
+    boolean usesKeySchema() {
+        return doKeySchema;
+    }
+
+    void writeName(String name) throws IOException {
+        writeName(output, name);
+    }
+
+    void writeName(FieldKey key) throws IOException {
+        if (namesUseKeySchema()) VarIntUtil.writeUnsignedVarInt(output, indexOfKey(key.getName()));
+        else output.write(key.getEncoded());
+    }
+
+    private void writeName(DataOutputStream output, String name) throws IOException {
+        if (namesUseKeySchema()) VarIntUtil.writeUnsignedVarInt(output, indexOfKey(name));
+        else output.writeUTF(name);
+    }
+
+    /**
+     * Checks if the next name goes in the key schema, failing if {@link #doKeySchema} changed since the first name was written,
+     * since data with names of both kinds cannot be read.
+     */
+    private boolean namesUseKeySchema() {
+        boolean usesKeySchema = usesKeySchema();
+        if (wroteKeySchemaNames == null) wroteKeySchemaNames = usesKeySchema;
+        else if (wroteKeySchemaNames != usesKeySchema) throw new RuntimeException("cannot turn the key schema " + (usesKeySchema ? "on" : "off") + " after the first field was written.");
+        return usesKeySchema;
+    }
+
+    /**
+     * Gets the index of a field name in the key schema, adding it if it is not there yet.
+     */
+    private int indexOfKey(String name) {
+        if (isParallelWorker) {
+            synchronized (keyIndices) {
+                return addKey(name);
+            }
         }
-        output.writeByte(baseType.ordinal());
+        return addKey(name);
     }
-    
-    private void writeDynamicInt(Number i) throws IOException {
-        long v = i.longValue();
 
-        if (v > Integer.MAX_VALUE) {
-            output.writeLong(v);
+    private int addKey(String name) {
+        Integer index = keyIndices.get(name);
+        if (index != null) return index;
+
+        keys.add(name);
+        keyIndices.put(name, keys.size() - 1);
+        return keys.size() - 1;
+    }
+
+    void writeType(SerializationType type) throws IOException {
+        output.writeByte(type.ordinal());
+    }
+
+    /**
+     * Gets how many sizes up from a byte a value needs, checking both bounds so negative values keep their width.
+     */
+    private static int widthOf(long v) {
+        if (v != (int) v) return 3;
+        if (v != (short) v) return 2;
+        if (v != (byte) v) return 1;
+        return 0;
+    }
+
+    // Takes a long rather than a Number so writing a field does not box its value.
+    void writeType(SerializationType baseType, long v) throws IOException {
+        // Varints carry their own length, so there is only the base type.
+        if (numberEncoding == NumberEncoding.VARINT) output.writeByte(baseType.ordinal());
+        else output.writeByte(baseType.ordinal() - widthOf(v));
+    }
+
+    /**
+     * Writes a length or string index, which are never negative.
+     */
+    void writeDynamicInt(long v) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) {
+            VarIntUtil.writeUnsignedVarInt(output, (int) v);
             return;
         }
-        if (v > Short.MAX_VALUE) {
-            output.writeInt(i.intValue());
+        writeFixedNumber(v);
+    }
+
+    /**
+     * Writes a short, int or long value.
+     */
+    void writeNumber(long v) throws IOException {
+        if (numberEncoding == NumberEncoding.VARINT) {
+            VarIntUtil.writeVarLong(output, v);
             return;
         }
-        if (v > Byte.MAX_VALUE) {
-            output.writeShort(i.shortValue());
-            return;
+        writeFixedNumber(v);
+    }
+
+    private void writeFixedNumber(long v) throws IOException {
+        switch (widthOf(v)) {
+            case 3: output.writeLong(v); break;
+            case 2: output.writeInt((int) v); break;
+            case 1: output.writeShort((short) v); break;
+            default: output.writeByte((byte) v);
         }
-        output.writeByte(i.byteValue());
     }
 
     @Override
     public INamedSerializer newInstance() {
-        return new NamedBinarySerializer();
+        return new NamedBinarySerializer(numberEncoding);
+    }
+
+    /**
+     * Discards everything written so far, keeping the grown buffer so the serializer can be reused without allocating.
+     */
+    @Override
+    public void clear() {
+        byteStream.reset();
+        strings.clear();
+        stringIndices.clear();
+        keys.clear();
+        keyIndices.clear();
+        wroteKeySchemaNames = null;
+    }
+
+    /**
+     * Clears the serializer, turns the string schema back on & array encoding, boolean packing, the key schema and parallel arrays back off.
+     */
+    @Override
+    public void reset() {
+        clear();
+        doStringArray = true;
+        doArrayEncoding = false;
+        doBooleanPacking = false;
+        doKeySchema = false;
+        parallelExecutor = null;
+        parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * Resets the serializer & gives its buffer and its string schema buffer back to the BufferPool.
+     */
+    @Override
+    public void release() {
+        reset();
+        byteStream.release();
+        if (schemaWriter != null) schemaWriter.release();
+    }
+
+    /**
+     * Gets the serializer nested named & custom objects are written with, it writes into this serializer's buffer.
+     */
+    private NamedBinarySerializer child() {
+        if (child == null) child = new NamedBinarySerializer(this);
+
+        // Each nested object has its own string schema, so it starts as empty as a new serializer would.
+        child.strings.clear();
+        child.stringIndices.clear();
+        child.doStringArray = true;
+        child.doArrayEncoding = doArrayEncoding;
+        child.doBooleanPacking = doBooleanPacking;
+        child.doKeySchema = usesKeySchema();
+        child.wroteKeySchemaNames = null;
+        return child;
     }
 
     public void writeByte(String name, byte i) throws IOException {
         writeType(SerializationType.BYTE);
-        output.writeUTF(name);
+        writeName(name);
+        output.writeByte(i);
+    }
+
+    @Override
+    public void writeByte(FieldKey key, byte i) throws IOException {
+        writeType(SerializationType.BYTE);
+        writeName(key);
         output.writeByte(i);
     }
 
     public void writeByteArray(String name, byte[] array) throws IOException {
         writeType(SerializationType.BYTE_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (byte i : array) output.writeByte(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeShort(String name, short i) throws IOException {
         writeType(SerializationType.SHORT_sBYTE, i);
-        output.writeUTF(name);
-        writeDynamicInt(i);
+        writeName(name);
+        writeNumber(i);
+    }
+
+    @Override
+    public void writeShort(FieldKey key, short i) throws IOException {
+        writeType(SerializationType.SHORT_sBYTE, i);
+        writeName(key);
+        writeNumber(i);
     }
 
     public void writeShortArray(String name, short[] array) throws IOException {
         writeType(SerializationType.SHORT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (short i : array) output.writeShort(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeInt(String name, int i) throws IOException {
         writeType(SerializationType.INT_sBYTE, i);
-        output.writeUTF(name);
-        writeDynamicInt(i);
+        writeName(name);
+        writeNumber(i);
+    }
+
+    @Override
+    public void writeInt(FieldKey key, int i) throws IOException {
+        writeType(SerializationType.INT_sBYTE, i);
+        writeName(key);
+        writeNumber(i);
     }
 
     public void writeIntArray(String name, int[] array) throws IOException {
+        if (doArrayEncoding) {
+            ArrayEncoding encoding = ArrayEncodingUtil.choose(array);
+            if (encoding != ArrayEncoding.PLAIN) {
+                writeType(encoding.getIntArrayType(), array.length);
+                writeName(name);
+                writeDynamicInt(array.length);
+                ArrayEncodingUtil.write(output, encoding, array);
+                return;
+            }
+        }
+
         writeType(SerializationType.INT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (int i : array) output.writeShort(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeLong(String name, long i) throws IOException {
         writeType(SerializationType.LONG_sBYTE, i);
-        output.writeUTF(name);
-        writeDynamicInt(i);
+        writeName(name);
+        writeNumber(i);
+    }
+
+    @Override
+    public void writeLong(FieldKey key, long i) throws IOException {
+        writeType(SerializationType.LONG_sBYTE, i);
+        writeName(key);
+        writeNumber(i);
     }
 
     public void writeLongArray(String name, long[] array) throws IOException {
+        if (doArrayEncoding) {
+            ArrayEncoding encoding = ArrayEncodingUtil.choose(array);
+            if (encoding != ArrayEncoding.PLAIN) {
+                writeType(encoding.getLongArrayType(), array.length);
+                writeName(name);
+                writeDynamicInt(array.length);
+                ArrayEncodingUtil.write(output, encoding, array);
+                return;
+            }
+        }
+
         writeType(SerializationType.LONG_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (long i : array) output.writeLong(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeFloat(String name, float i) throws IOException {
         writeType(SerializationType.FLOAT);
-        output.writeUTF(name);
+        writeName(name);
+        output.writeFloat(i);
+    }
+
+    @Override
+    public void writeFloat(FieldKey key, float i) throws IOException {
+        writeType(SerializationType.FLOAT);
+        writeName(key);
         output.writeFloat(i);
     }
 
     public void writeFloatArray(String name, float[] array) throws IOException {
         writeType(SerializationType.FLOAT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (float i : array) output.writeFloat(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeDouble(String name, double i) throws IOException {
         writeType(SerializationType.DOUBLE);
-        output.writeUTF(name);
+        writeName(name);
+        output.writeDouble(i);
+    }
+
+    @Override
+    public void writeDouble(FieldKey key, double i) throws IOException {
+        writeType(SerializationType.DOUBLE);
+        writeName(key);
         output.writeDouble(i);
     }
 
     public void writeDoubleArray(String name, double[] array) throws IOException {
         writeType(SerializationType.DOUBLE_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (double i : array) output.writeDouble(i);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeBoolean(String name, boolean b) throws IOException {
         writeType(SerializationType.BOOLEAN);
-        output.writeUTF(name);
+        writeName(name);
+        output.writeBoolean(b);
+    }
+
+    @Override
+    public void writeBoolean(FieldKey key, boolean b) throws IOException {
+        writeType(SerializationType.BOOLEAN);
+        writeName(key);
         output.writeBoolean(b);
     }
 
+    /**
+     * Writes a boolean array, packed into 8 booleans per byte if {@link #doBooleanPacking} is on.
+     */
     public void writeBooleanArray(String name, boolean[] array) throws IOException {
-        writeType(SerializationType.BOOLEAN_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        if (!doBooleanPacking) {
+            writeType(SerializationType.BOOLEAN_ARRAY_sBYTE, array.length);
+            writeName(name);
+            writeDynamicInt(array.length);
+            BinaryArrayUtil.write(output, array);
+            return;
+        }
+
+        writeType(SerializationType.PACKED_BOOLEAN_ARRAY_sBYTE, array.length);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (boolean b : array) output.writeBoolean(b);
+        BinaryArrayUtil.writePacked(output, array);
+    }
+
+    @Override
+    public void writeBooleanArray(String name, BitSet bits, int length) throws IOException {
+        if (!doBooleanPacking) {
+            writeBooleanArray(name, NativeArrayUtil.toNativeArray(bits, length));
+            return;
+        }
+
+        writeType(SerializationType.PACKED_BOOLEAN_ARRAY_sBYTE, length);
+        writeName(name);
+        writeDynamicInt(length);
+        BinaryArrayUtil.writePacked(output, bits, length);
     }
 
     public void writeChar(String name, char c) throws IOException {
         writeType(SerializationType.CHAR);
-        output.writeUTF(name);
+        writeName(name);
+        output.writeChar(c);
+    }
+
+    @Override
+    public void writeChar(FieldKey key, char c) throws IOException {
+        writeType(SerializationType.CHAR);
+        writeName(key);
         output.writeChar(c);
     }
 
     public void writeCharArray(String name, char[] array) throws IOException {
         writeType(SerializationType.CHAR_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        for (char c : array) output.writeChar(c);
+        BinaryArrayUtil.write(output, array);
     }
 
     public void writeString(String name, String v) throws IOException {
-        if (!doStringArray) {
+        if (!usesStringSchema()) {
             writeType(SerializationType.STRING_REGULAR);
-            output.writeUTF(name);
+            writeName(name);
             output.writeUTF(v);
             return;
         }
-        int index = strings.indexOf(v);
-        if (index == -1) {
-            strings.add(v);
-            index = strings.size() - 1;
+        int index = indexOfString(v);
+
+        writeType(SerializationType.STRING_sBYTE, index);
+        writeName(name);
+        writeDynamicInt(index);
+    }
+
+    @Override
+    public void writeString(FieldKey key, String v) throws IOException {
+        if (!usesStringSchema()) {
+            writeType(SerializationType.STRING_REGULAR);
+            writeName(key);
+            output.writeUTF(v);
+            return;
         }
+        int index = indexOfString(v);
 
         writeType(SerializationType.STRING_sBYTE, index);
-        output.writeUTF(name);
+        writeName(key);
         writeDynamicInt(index);
     }
 
+    /**
+     * Gets the index of a string in the string schema, adding it if it is not there yet.
+     */
+    private int indexOfString(String v) {
+        Integer index = stringIndices.get(v);
+        if (index != null) return index;
+
+        strings.add(v);
+        stringIndices.put(v, strings.size() - 1);
+        return strings.size() - 1;
+    }
+
     public void writeStringArray(String name, String[] array) throws IOException {
+        if (doArrayEncoding && array.length >= ArrayEncodingUtil.MIN_ENCODED_LENGTH) {
+            // Only arrays that repeat each string 4 times on average are worth a palette.
+            StringPalette palette = StringPalette.of(array, array.length / 4);
+            if (palette != null) {
+                writePaletteStringArray(name, palette);
+                return;
+            }
+        }
+
         writeType(SerializationType.STRING_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
-        if (doStringArray) {
-            int index;
-            for (String v : array) {
-                index = strings.indexOf(v);
-                if (index == -1) {
-                    strings.add(v);
-                    index = strings.size() - 1;
-                }
-                output.writeInt(index);
-            }
+        if (usesStringSchema()) {
+            if (numberEncoding == NumberEncoding.VARINT) for (String v : array) VarIntUtil.writeUnsignedVarInt(output, indexOfString(v));
+            else for (String v : array) output.writeInt(indexOfString(v));
         } else for (String s : array) output.writeUTF(s);
     }
 
+    @Override
+    public void writePaletteStringArray(String name, StringPalette palette) throws IOException {
+        writeType(SerializationType.PALETTE_STRING_ARRAY_sBYTE, palette.size());
+        writeName(name);
+        writeDynamicInt(palette.size());
+        ArrayEncodingUtil.writePalette(output, palette);
+    }
+
     public void writeCompoundObject(String name, CompoundObject object) throws IOException {
         this.writeNamedObject(name, object);
     }
@@ -226,18 +585,97 @@ public class NamedBinarySerializer implements INamedSerializer {
         this.writeNamedObjectArray(name, array);
     }
 
-    private <T extends IDataStreamSerializable> void _writeRawObj(String name, T object) throws IOException {
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        DataOutputStream stream = new DataOutputStream(byteOut);
-        object.write(stream);
+    private int beginNested(SerializationType baseType, String name) throws IOException {
+        return beginNested(baseType, name, -1);
+    }
+
+    /**
+     * Writes the type, name & custom type id of a nested object, its length goes in once its body is written.
+     *
+     * @param typeId The custom type id written between the name & the length, or -1 to write none.
+     * @return The position of the type, which {@link #endNested(int, int, NamedBinarySerializer)} takes.
+     */
+    private int beginNested(SerializationType baseType, String name, int typeId) throws IOException {
+        int typePosition = byteStream.size();
+
+        // Fixed lengths start out as the int variant, which endNested narrows to fit the body.
+        output.writeByte(numberEncoding == NumberEncoding.VARINT ? baseType.ordinal() : baseType.ordinal() - 2);
+        if (name != null) writeName(name);
+        if (typeId != -1) VarIntUtil.writeUnsignedVarInt(output, typeId);
+        return typePosition;
+    }
+
+    /**
+     * Puts the length of a nested object & the string schema of the serializer it was written with in front of its body.
+     * Both go in as an insert, so the body is only moved once the outermost nested object ends, however deep it is.
+     *
+     * @param insert The insert begun right before the body.
+     * @param child The serializer the body was written with, or null if it has no string schema.
+     */
+    private void endNested(int typePosition, int insert, NamedBinarySerializer child) throws IOException {
+        ExposedByteArrayOutputStream schema = child != null && child.doStringArray && !child.strings.isEmpty() ? child.encodeStringSchema() : null;
+        int schemaSize = schema == null ? 0 : schema.size();
+        int length = byteStream.sizeSince(insert) + schemaSize;
+
+        byte[] lengthBytes = this.lengthBytes;
+        int lengthSize;
+        if (numberEncoding == NumberEncoding.VARINT) {
+            lengthSize = VarIntUtil.unsignedVarIntSize(length);
+            VarIntUtil.writePaddedUnsignedVarInt(lengthBytes, 0, length, lengthSize);
+        } else if (length > Short.MAX_VALUE) {
+            lengthSize = Integer.BYTES;
+            lengthBytes[0] = (byte) (length >>> 24);
+            lengthBytes[1] = (byte) (length >>> 16);
+            lengthBytes[2] = (byte) (length >>> 8);
+            lengthBytes[3] = (byte) length;
+        } else if (length > Byte.MAX_VALUE) {
+            byteStream.getBuffer()[typePosition] += 1;
+            lengthSize = Short.BYTES;
+            lengthBytes[0] = (byte) (length >>> 8);
+            lengthBytes[1] = (byte) length;
+        } else {
+            byteStream.getBuffer()[typePosition] += 2;
+            lengthSize = Byte.BYTES;
+            lengthBytes[0] = (byte) length;
+        }
+
+        byteStream.writeInsert(insert, lengthBytes, 0, lengthSize);
+        if (schema != null) byteStream.writeInsert(insert, schema.getBuffer(), 0, schemaSize);
+        byteStream.endInsert(insert);
+    }
+
+    /**
+     * Gets the emptied serializer headers & string schemas are encoded with, its buffer is only valid until the next call.
+     */
+    private NamedBinarySerializer schemaWriter() {
+        if (schemaWriter == null) schemaWriter = new NamedBinarySerializer(numberEncoding);
+        else schemaWriter.byteStream.reset();
+        return schemaWriter;
+    }
+
+    /**
+     * Encodes the string schema into a reused buffer, which is only valid until the next call.
+     */
+    private ExposedByteArrayOutputStream encodeStringSchema() throws IOException {
+        NamedBinarySerializer writer = schemaWriter();
+        writeStringSchema(writer);
+        return writer.byteStream;
+    }
+
+    private void writeStringSchema(NamedBinarySerializer writer) throws IOException {
+        writer.writeType(SerializationType.STRING_SCHEMA_sBYTE, strings.size());
+        writeName(writer.output, "STRINGS");
+        writer.writeDynamicInt(strings.size());
+        for (String s : strings) writer.output.writeUTF(s);
+    }
 
-        byte[] bytes = byteOut.toByteArray();
+    <T extends IDataStreamSerializable> void _writeRawObj(String name, T object) throws IOException {
+        int typePosition = beginNested(SerializationType.RAW_OBJECT_sBYTE, name);
+        int insert = byteStream.beginInsert();
 
-        writeType(SerializationType.RAW_OBJECT_sBYTE, bytes.length);
-        if (name != null) output.writeUTF(name);
+        object.write(output);
 
-        writeDynamicInt(bytes.length);
-        for (byte i : bytes) output.writeByte(i);
+        endNested(typePosition, insert, null);
     }
 
     public <T extends IDataStreamSerializable> void writeRawObject(String name, T object) throws IOException {
@@ -246,24 +684,21 @@ public class NamedBinarySerializer implements INamedSerializer {
 
     public <T extends IDataStreamSerializable> void writeRawObjectArray(String name, T[] array) throws IOException {
         writeType(SerializationType.RAW_OBJECT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
         for (T obj : array) {
             _writeRawObj(null, obj);
         }
     }
 
-    private <T extends INamedSerializable> void _writeNamedObj(String name, T object) throws IOException {
-        INamedSerializer miniSerializer = newInstance();
-        object.write(miniSerializer);
-
-        byte[] bytes = miniSerializer.toBytes();
+    <T extends INamedSerializable> void _writeNamedObj(String name, T object) throws IOException {
+        int typePosition = beginNested(SerializationType.NAMED_OBJECT_sBYTE, name);
+        int insert = byteStream.beginInsert();
 
-        writeType(SerializationType.NAMED_OBJECT_sBYTE, bytes.length);
-        if (name != null) output.writeUTF(name);
+        NamedBinarySerializer miniSerializer = child();
+        object.write(miniSerializer);
 
-        writeDynamicInt(bytes.length);
-        for (byte i : bytes) output.writeByte(i);
+        endNested(typePosition, insert, miniSerializer);
     }
 
     public <T extends INamedSerializable> void writeNamedObject(String name, T object) throws IOException {
@@ -272,24 +707,26 @@ public class NamedBinarySerializer implements INamedSerializer {
 
     public <T extends INamedSerializable> void writeNamedObjectArray(String name, T[] array) throws IOException {
         writeType(SerializationType.NAMED_OBJECT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, (worker, obj) -> worker._writeNamedObj(null, obj));
+            return;
+        }
         for (T obj : array) {
             _writeNamedObj(null, obj);
         }
     }
 
-    private <T extends IKeylessSerializable> void _writeUnNamedObj(String name, T object) throws IOException {
-        IKeylessSerializer miniSerializer = IKeylessSerializer.createDefault();
-        object.write(miniSerializer);
+    <T extends IKeylessSerializable> void _writeUnNamedObj(String name, T object) throws IOException {
+        int typePosition = beginNested(SerializationType.UNNAMED_OBJECT_sBYTE, name);
+        int insert = byteStream.beginInsert();
 
-        byte[] bytes = miniSerializer.toBytes();
+        if (keylessChild == null) keylessChild = new KeylessBinarySerializer(byteStream, output, numberEncoding);
+        keylessChild.doBooleanPacking = doBooleanPacking;
+        object.write(keylessChild);
 
-        writeType(SerializationType.UNNAMED_OBJECT_sBYTE, bytes.length);
-        if (name != null) output.writeUTF(name);
-
-        writeDynamicInt(bytes.length);
-        for (byte i : bytes) output.writeByte(i);
+        endNested(typePosition, insert, null);
     }
 
     @Override
@@ -300,28 +737,50 @@ public class NamedBinarySerializer implements INamedSerializer {
     @Override
     public <T extends IKeylessSerializable> void writeKeylessObjectArray(String name, T[] array) throws IOException {
         writeType(SerializationType.UNNAMED_OBJECT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, (worker, obj) -> worker._writeUnNamedObj(null, obj));
+            return;
+        }
         for (T obj : array) {
             _writeUnNamedObj(null, obj);
         }
     }
 
-    private <T> void _writeCustomObj(String name, T object) throws IOException {
-        if (!NAMED_SERIALIZER_MAP.containsKey(object.getClass())) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" due to it not having a registered serializer.");
+    <T> void _writeCustomObj(String name, T object) throws IOException {
+        // The serializer found for the object's class or a supertype of it takes the object.
+        @SuppressWarnings("unchecked") INamedCustomSerializable<T> serializer = (INamedCustomSerializable<T>) INamedSerializer.getSerializer(object.getClass());
+        if (serializer == null) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" due to it not having a registered serializer.");
 
-        INamedSerializer miniSerializer = newInstance();
-        //noinspection unchecked
-        INamedCustomSerializable<T> serializer = (INamedCustomSerializable<T>) INamedSerializer.getSerializer(object.getClass());
-        serializer.write(miniSerializer, object);
+        _writeCustomObj(SerializationType.CUSTOM_OBJECT_sBYTE, name, -1, serializer, object);
+    }
 
-        byte[] bytes = miniSerializer.toBytes();
+    <T> void _writeTypedObj(String name, T object) throws IOException {
+        int typeId = CustomTypeIds.getId(object.getClass());
+        Class<?> idType = CustomTypeIds.getType(typeId);
+        if (idType == null) throw new RuntimeException("cannot serialize class of type \"" + object.getClass().getName() + "\" as a typed object due to it not having a registered type id.");
 
-        writeType(SerializationType.CUSTOM_OBJECT_sBYTE, bytes.length);
-        if (name != null) output.writeUTF(name);
+        // The object is an instance of the class its id is registered for, which this serializer writes.
+        @SuppressWarnings("unchecked") INamedCustomSerializable<T> serializer = (INamedCustomSerializable<T>) INamedSerializer.getSerializer(idType);
+        if (serializer == null) throw new RuntimeException("cannot serialize class of type \"" + idType.getName() + "\" due to it not having a registered serializer.");
 
-        writeDynamicInt(bytes.length);
-        for (byte i : bytes) output.writeByte(i);
+        _writeCustomObj(SerializationType.TYPED_CUSTOM_OBJECT_sBYTE, name, typeId, serializer, object);
+    }
+
+    /**
+     * Writes a custom or typed custom object with an already looked up serializer.
+     *
+     * @param typeId The custom type id of a typed object, or -1.
+     */
+    <T> void _writeCustomObj(SerializationType baseType, String name, int typeId, INamedCustomSerializable<T> serializer, T object) throws IOException {
+        int typePosition = beginNested(baseType, name, typeId);
+        int insert = byteStream.beginInsert();
+
+        NamedBinarySerializer miniSerializer = child();
+        serializer.write(miniSerializer, object);
+
+        endNested(typePosition, insert, miniSerializer);
     }
 
     public <T> void writeCustomObject(String name, T object) throws IOException {
@@ -330,32 +789,143 @@ public class NamedBinarySerializer implements INamedSerializer {
 
     public <T> void writeCustomObjectArray(String name, T[] array) throws IOException {
         writeType(SerializationType.CUSTOM_OBJECT_ARRAY_sBYTE, array.length);
-        output.writeUTF(name);
+        writeName(name);
         writeDynamicInt(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, (worker, obj) -> worker._writeCustomObj(null, obj));
+            return;
+        }
         for (T obj : array) {
             _writeCustomObj(null, obj);
         }
     }
 
+    public <T> void writeTypedObject(String name, T object) throws IOException {
+        _writeTypedObj(name, object);
+    }
+
+    public <T> void writeTypedObjectArray(String name, T[] array) throws IOException {
+        writeType(SerializationType.TYPED_CUSTOM_OBJECT_ARRAY_sBYTE, array.length);
+        writeName(name);
+        writeDynamicInt(array.length);
+        if (isParallel(array)) {
+            writeParallel(array, (worker, obj) -> worker._writeTypedObj(null, obj));
+            return;
+        }
+        for (T obj : array) {
+            _writeTypedObj(null, obj);
+        }
+    }
+
     public boolean doStringArray = true;
 
-    public byte[] toBytes() throws IOException {
-        if (doStringArray && !strings.isEmpty()) {
-            byte[] bytes = byteStream.toByteArray();
-            byteStream = new ByteArrayOutputStream();
-            output = new DataOutputStream(byteStream);
+    /**
+     * Lets int & long arrays be written with whichever {@link ArrayEncoding} makes each one smallest,
+     * which suits sorted ids, timestamps & coordinates, and string arrays with few distinct strings as a {@link StringPalette}.
+     * Nested objects follow this serializer's setting.
+     */
+    public boolean doArrayEncoding = false;
+
+    /**
+     * Writes boolean arrays packed into 8 booleans per byte, which readers from before packed boolean arrays
+     * cannot read. Nested objects follow this serializer's setting.
+     */
+    public boolean doBooleanPacking = false;
+
+    /**
+     * Writes each field name once in a key schema at the front of the data, so every field after that only
+     * writes a small index, which suits arrays of named objects that repeat the same names. Nested objects share
+     * the outermost serializer's key schema. It has to be set before the first field is written, changing it later fails.
+     */
+    public boolean doKeySchema = false;
+
+    /**
+     * The default least amount of elements an object array needs to be written in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Encodes the elements of large named, keyless, custom & typed object arrays in chunks at the same time on this
+     * executor, such as a ForkJoinPool or a virtual thread executor, then writes them in order, giving the same data
+     * as writing them one by one apart from the order of the key schema. Null writes them on the calling thread.
+     * The elements' write methods are called from several threads at once, and nested objects write their own
+     * arrays on the thread they are on.
+     */
+    public ExecutorService parallelExecutor = null;
+
+    /**
+     * The least amount of elements an object array needs to be written on {@link #parallelExecutor}.
+     */
+    public int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private boolean isParallel(Object[] array) {
+        return parallelExecutor != null && array.length >= parallelThreshold && array.length > 1;
+    }
+
+    private <T> void writeParallel(T[] array, ParallelArrayWriter.ElementWriter<NamedBinarySerializer, T> elementWriter) throws IOException {
+        ParallelArrayWriter.write(parallelExecutor, array, buffer -> new NamedBinarySerializer(this, buffer), elementWriter, output);
+    }
+
+    /**
+     * Encodes the number encoding & string schema that go in front of the body, or null if there are none.
+     */
+    private ExposedByteArrayOutputStream header() throws IOException {
+        boolean hasStringSchema = usesStringSchema() && !strings.isEmpty();
+        boolean hasKeySchema = usesKeySchema() && !keys.isEmpty();
+        if (!hasStringSchema && !hasKeySchema && !hasNumberEncodingHeader()) return null;
+
+        NamedBinarySerializer writer = schemaWriter();
+
+        // The encoding goes first since the schemas' lengths are written with it.
+        if (hasNumberEncodingHeader()) writeNumberEncoding(writer.output);
+        if (hasKeySchema) {
+            // The string schema's name is one of the keys, so it has to be added before the key schema is written.
+            if (hasStringSchema) indexOfKey("STRINGS");
+            writeKeySchema(writer);
+        }
+        if (hasStringSchema) writeStringSchema(writer);
+        return writer.byteStream;
+    }
 
-            writeType(SerializationType.STRING_SCHEMA_sBYTE, strings.size());
-            output.writeUTF("STRINGS");
-            writeDynamicInt(strings.size());
-            for (String s : strings) output.writeUTF(s);
+    private void writeKeySchema(NamedBinarySerializer writer) throws IOException {
+        writer.writeType(SerializationType.KEY_SCHEMA_sBYTE, keys.size());
+        writer.output.writeUTF("");
+        writer.writeDynamicInt(keys.size());
+        for (String key : keys) writer.output.writeUTF(key);
+    }
 
-            byteStream.write(bytes);
+    boolean hasNumberEncodingHeader() {
+        return writesNumberEncoding && numberEncoding != NumberEncoding.FIXED;
+    }
 
-            return byteStream.toByteArray();
-        }
+    /**
+     * Writes the field telling deserializers which number encoding follows, its name is empty to keep it at 4 bytes.
+     */
+    void writeNumberEncoding(DataOutputStream output) throws IOException {
+        output.writeByte(SerializationType.NUMBER_ENCODING.ordinal());
+        output.writeUTF("");
+        output.writeByte(numberEncoding.ordinal());
+    }
+
+    public byte[] toBytes() throws IOException {
+        ExposedByteArrayOutputStream header = header();
+        if (header == null) return byteStream.toByteArray();
+
+        byte[] bytes = new byte[header.size() + byteStream.size()];
+        System.arraycopy(header.getBuffer(), 0, bytes, 0, header.size());
+        System.arraycopy(byteStream.getBuffer(), 0, bytes, header.size(), byteStream.size());
+        return bytes;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        ExposedByteArrayOutputStream header = header();
+        if (header != null) header.writeTo(out);
+        byteStream.writeTo(out);
+    }
 
-        return byteStream.toByteArray();
+    public int size() throws IOException {
+        ExposedByteArrayOutputStream header = header();
+        return (header == null ? 0 : header.size()) + byteStream.size();
     }
 
 }
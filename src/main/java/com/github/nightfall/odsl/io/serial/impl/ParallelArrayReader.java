@@ -0,0 +1,85 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Splits the indices of an array into chunks that are decoded at the same time on an executor,
+ * for elements whose bytes were already found so each one can be decoded on its own.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+class ParallelArrayReader {
+
+    /**
+     * Decodes the elements from start, inclusive, to end, exclusive.
+     */
+    @FunctionalInterface
+    interface ChunkReader {
+
+        void read(int start, int end) throws IOException;
+
+    }
+
+    private ParallelArrayReader() {}
+
+    /**
+     * Waits until every chunk is decoded, then rethrows the failure of the first chunk that failed.
+     *
+     * @param executor The executor the chunks are decoded on.
+     * @param length The amount of elements.
+     * @param chunkReader Decodes a chunk, which has to only touch its own elements.
+     */
+    static void read(ExecutorService executor, int length, ChunkReader chunkReader) throws IOException {
+        int chunkCount = ParallelArrayWriter.chunkCount(executor, length);
+        AtomicBoolean abandoned = new AtomicBoolean();
+
+        List<Future<Throwable>> futures = new ArrayList<>(chunkCount);
+        int read = 0;
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                int start = (int) ((long) length * i / chunkCount);
+                int end = (int) ((long) length * (i + 1) / chunkCount);
+
+                futures.add(executor.submit(() -> {
+                    if (abandoned.get()) return null;
+
+                    try {
+                        chunkReader.read(start, end);
+                        return null;
+                    } catch (IOException | RuntimeException | Error e) {
+                        // Handed back as is, since some executors rethrow a copy of what a task throws.
+                        return e;
+                    }
+                }));
+            }
+
+            while (read < futures.size()) {
+                Throwable failure = futures.get(read).get();
+                read++;
+                if (failure instanceof IOException) throw (IOException) failure;
+                if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+                if (failure != null) throw (Error) failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for array elements.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("failed to read array elements.", e.getCause());
+        } finally {
+            // Chunks still running write into the same result as the caller reads from, so the ones
+            // after a failure are skipped if they didn't start yet & waited for if they did.
+            if (read < futures.size()) {
+                abandoned.set(true);
+                for (int i = read; i < futures.size(); i++) ParallelArrayWriter.getUninterruptibly(futures.get(i));
+            }
+        }
+    }
+
+}
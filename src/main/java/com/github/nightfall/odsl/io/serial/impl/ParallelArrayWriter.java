@@ -0,0 +1,156 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Splits the elements of an object array into chunks that are encoded at the same time on an executor,
+ * each into its own buffer with its own serializer, then writes the buffers out in order so the elements
+ * end up exactly where writing them one after another would have put them.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+class ParallelArrayWriter {
+
+    /**
+     * The amount of chunks each thread of the executor gets, so threads that finish early can take another.
+     */
+    static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Writes a single element of an array with the serializer of its chunk.
+     */
+    @FunctionalInterface
+    interface ElementWriter<S, T> {
+
+        void write(S serializer, T element) throws IOException;
+
+    }
+
+    private ParallelArrayWriter() {}
+
+    /**
+     * @param executor The executor the chunks are encoded on.
+     * @param array The elements, which are not written with their array length.
+     * @param serializerFactory Creates the serializer of a chunk, which has to write into the given buffer.
+     * @param elementWriter Writes an element with the serializer of its chunk.
+     * @param out Where the encoded chunks are written in order.
+     */
+    static <S, T> void write(
+            ExecutorService executor, T[] array,
+            Function<ExposedByteArrayOutputStream, S> serializerFactory, ElementWriter<S, T> elementWriter,
+            OutputStream out
+    ) throws IOException {
+        int chunkCount = chunkCount(executor, array.length);
+        AtomicBoolean abandoned = new AtomicBoolean();
+
+        List<Future<Chunk>> futures = new ArrayList<>(chunkCount);
+        int written = 0;
+        try {
+            for (int i = 0; i < chunkCount; i++) {
+                int start = (int) ((long) array.length * i / chunkCount);
+                int end = (int) ((long) array.length * (i + 1) / chunkCount);
+
+                futures.add(executor.submit(() -> {
+                    if (abandoned.get()) return new Chunk(null, null);
+
+                    ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream(BufferPool.shared());
+                    try {
+                        S serializer = serializerFactory.apply(buffer);
+                        for (int j = start; j < end && !abandoned.get(); j++) elementWriter.write(serializer, array[j]);
+                        return new Chunk(buffer, null);
+                    } catch (IOException | RuntimeException | Error e) {
+                        // Handed back as is, since some executors rethrow a copy of what a task throws.
+                        buffer.release();
+                        return new Chunk(null, e);
+                    }
+                }));
+            }
+
+            while (written < futures.size()) {
+                Chunk chunk = futures.get(written).get();
+                written++;
+                if (chunk.failure instanceof IOException) throw (IOException) chunk.failure;
+                if (chunk.failure instanceof RuntimeException) throw (RuntimeException) chunk.failure;
+                if (chunk.failure != null) throw (Error) chunk.failure;
+
+                try {
+                    chunk.buffer.writeTo(out);
+                } finally {
+                    chunk.buffer.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for array elements.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("failed to write array elements.", e.getCause());
+        } finally {
+            // Chunks after a failure are not needed anymore, but may still be using what they share with the caller,
+            // so they stop early & are all waited for, giving back their buffers, before the failure reaches it.
+            if (written < futures.size()) {
+                abandoned.set(true);
+                for (int i = written; i < futures.size(); i++) {
+                    Chunk chunk = getUninterruptibly(futures.get(i));
+                    if (chunk != null && chunk.buffer != null) chunk.buffer.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a task that may still be running, keeping the interrupt status of the thread for after it finished.
+     *
+     * @return the result of the task, or null if it threw or was cancelled.
+     */
+    static <V> V getUninterruptibly(Future<V> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets how many chunks an array is split into, which is at most one per element.
+     */
+    static int chunkCount(ExecutorService executor, int length) {
+        int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        return (int) Math.min(length, (long) parallelism * CHUNKS_PER_THREAD);
+    }
+
+    private static class Chunk {
+
+        final ExposedByteArrayOutputStream buffer;
+        final Throwable failure;
+
+        Chunk(ExposedByteArrayOutputStream buffer, Throwable failure) {
+            this.buffer = buffer;
+            this.failure = failure;
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.compression.ICompressionCodec;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An IKeylessSerializer that writes each value to a stream or channel as it is written, instead of
+ * keeping the whole document in memory.
+ * <p>
+ * Nested objects are buffered on their own so their length can be written first, so memory use is the
+ * write buffer plus the largest single nested object. The output is read back with any IKeylessDeserializer.
+ *
+ * @see IKeylessSerializer
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class StreamingKeylessSerializer extends KeylessBinarySerializer implements Closeable, Flushable {
+
+    public StreamingKeylessSerializer(OutputStream out) {
+        this(out, StreamingNamedSerializer.DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingKeylessSerializer(OutputStream out, int bufferSize) {
+        this(out, bufferSize, NumberEncoding.FIXED);
+    }
+
+    /**
+     * Creates a serializer that writes its ints, longs, shorts & lengths with the given encoding,
+     * the data has to be read by a deserializer made with the same encoding.
+     */
+    public StreamingKeylessSerializer(OutputStream out, int bufferSize, NumberEncoding numberEncoding) {
+        super(null, new DataOutputStream(new BufferedOutputStream(out, bufferSize)), numberEncoding);
+    }
+
+    /**
+     * Creates a serializer that writes to a channel, FileChannels write from their current position.
+     */
+    public StreamingKeylessSerializer(WritableByteChannel channel) {
+        this(Channels.newOutputStream(channel), StreamingNamedSerializer.DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingKeylessSerializer(WritableByteChannel channel, int bufferSize) {
+        this(Channels.newOutputStream(channel), bufferSize);
+    }
+
+    /**
+     * Gets the amount of bytes written so far.
+     */
+    @Override
+    public int size() {
+        return output.size();
+    }
+
+    @Override
+    public byte[] toBytes() {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public byte[] toCompressedBytes() {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public byte[] toCompressedBytes(ICompressionCodec codec) {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public String toBase64() {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public String toCompressedBase64() {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void writeTo(OutputStream out) {
+        throw new UnsupportedOperationException("cannot copy a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("cannot clear a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Flushes the remaining data, closes the stream or channel being written to & releases the nested object buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            output.close();
+        } finally {
+            release();
+        }
+    }
+
+}
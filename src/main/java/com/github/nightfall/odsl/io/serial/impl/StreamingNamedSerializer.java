@@ -0,0 +1,203 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.util.BufferPool;
+import com.github.nightfall.odsl.util.ExposedByteArrayOutputStream;
+import com.github.nightfall.odsl.util.VarIntUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An INamedSerializer that writes each field to a stream or channel as it is written, instead of
+ * keeping the whole document in memory.
+ * <p>
+ * Strings & field names are always written inline since their schemas have to come before the body, and nested
+ * objects are buffered on their own so their length can be written first. Memory use is the write buffer
+ * plus the largest single nested object, no matter how big the document is.
+ * The output is read back with any INamedDeserializer.
+ *
+ * @see INamedSerializer
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class StreamingNamedSerializer extends NamedBinarySerializer implements Closeable, Flushable {
+
+    /**
+     * The default size of the write buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    // Nested objects are buffered in these before being written out, they are reused so only the first nested object allocates.
+    private ExposedByteArrayOutputStream rawScratch;
+    private DataOutputStream rawScratchOutput;
+    private NamedBinarySerializer namedScratch;
+    private KeylessBinarySerializer keylessScratch;
+
+    public StreamingNamedSerializer(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingNamedSerializer(OutputStream out, int bufferSize) {
+        super(new DataOutputStream(new BufferedOutputStream(out, bufferSize)), NumberEncoding.FIXED);
+        doStringArray = false;
+    }
+
+    /**
+     * Creates a serializer that writes its ints, longs, shorts & lengths with the given encoding,
+     * a non fixed encoding is written out straight away.
+     */
+    public StreamingNamedSerializer(OutputStream out, int bufferSize, NumberEncoding numberEncoding) throws IOException {
+        super(new DataOutputStream(new BufferedOutputStream(out, bufferSize)), numberEncoding);
+        doStringArray = false;
+        if (hasNumberEncodingHeader()) writeNumberEncoding(output);
+    }
+
+    /**
+     * Creates a serializer that writes to a channel, FileChannels write from their current position.
+     */
+    public StreamingNamedSerializer(WritableByteChannel channel) {
+        this(Channels.newOutputStream(channel), DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingNamedSerializer(WritableByteChannel channel, int bufferSize) {
+        this(Channels.newOutputStream(channel), bufferSize);
+    }
+
+    @Override
+    boolean usesStringSchema() {
+        return false;
+    }
+
+    @Override
+    boolean usesKeySchema() {
+        return false;
+    }
+
+    private void writeNested(SerializationType baseType, String name, int length) throws IOException {
+        writeNested(baseType, name, -1, length);
+    }
+
+    private void writeNested(SerializationType baseType, String name, int typeId, int length) throws IOException {
+        writeType(baseType, length);
+        if (name != null) writeName(name);
+        if (typeId != -1) VarIntUtil.writeUnsignedVarInt(output, typeId);
+        writeDynamicInt(length);
+    }
+
+    private NamedBinarySerializer namedScratch() {
+        if (namedScratch == null) {
+            namedScratch = new NamedBinarySerializer(numberEncoding);
+            namedScratch.writesNumberEncoding = false;
+        } else namedScratch.reset();
+        namedScratch.doArrayEncoding = doArrayEncoding;
+        namedScratch.doBooleanPacking = doBooleanPacking;
+        return namedScratch;
+    }
+
+    @Override
+    <T extends IDataStreamSerializable> void _writeRawObj(String name, T object) throws IOException {
+        if (rawScratch == null) {
+            rawScratch = new ExposedByteArrayOutputStream(BufferPool.shared());
+            rawScratchOutput = new DataOutputStream(rawScratch);
+        } else rawScratch.reset();
+        object.write(rawScratchOutput);
+
+        writeNested(SerializationType.RAW_OBJECT_sBYTE, name, rawScratch.size());
+        rawScratch.writeTo(output);
+    }
+
+    @Override
+    <T extends INamedSerializable> void _writeNamedObj(String name, T object) throws IOException {
+        NamedBinarySerializer miniSerializer = namedScratch();
+        object.write(miniSerializer);
+
+        writeNested(SerializationType.NAMED_OBJECT_sBYTE, name, miniSerializer.size());
+        miniSerializer.writeTo(output);
+    }
+
+    @Override
+    <T extends IKeylessSerializable> void _writeUnNamedObj(String name, T object) throws IOException {
+        if (keylessScratch == null) keylessScratch = new KeylessBinarySerializer(numberEncoding);
+        else keylessScratch.clear();
+        keylessScratch.doBooleanPacking = doBooleanPacking;
+
+        object.write(keylessScratch);
+
+        writeNested(SerializationType.UNNAMED_OBJECT_sBYTE, name, keylessScratch.size());
+        keylessScratch.writeTo(output);
+    }
+
+    @Override
+    <T> void _writeCustomObj(SerializationType baseType, String name, int typeId, INamedCustomSerializable<T> serializer, T object) throws IOException {
+        NamedBinarySerializer miniSerializer = namedScratch();
+        serializer.write(miniSerializer, object);
+
+        writeNested(baseType, name, typeId, miniSerializer.size());
+        miniSerializer.writeTo(output);
+    }
+
+    /**
+     * Gets the amount of bytes written so far.
+     */
+    @Override
+    public int size() {
+        return output.size();
+    }
+
+    @Override
+    public byte[] toBytes() {
+        throw new UnsupportedOperationException("cannot create bytes from a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void writeTo(OutputStream out) {
+        throw new UnsupportedOperationException("cannot copy a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("cannot clear a streaming serializer, its data has already been written out.");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Gives the nested object buffers back to the BufferPool, the data already written is kept.
+     */
+    @Override
+    public void release() {
+        if (rawScratch != null) rawScratch.release();
+        if (namedScratch != null) namedScratch.release();
+        if (keylessScratch != null) keylessScratch.release();
+    }
+
+    /**
+     * Flushes the remaining data, closes the stream or channel being written to & releases the nested object buffers.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            output.close();
+        } finally {
+            release();
+        }
+    }
+
+}
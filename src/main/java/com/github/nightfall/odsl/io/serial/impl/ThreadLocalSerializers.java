@@ -0,0 +1,56 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+/**
+ * Keeps one reusable named & keyless serializer per thread, so code that writes often, like network packets,
+ * reuses the same grown buffers instead of allocating new serializers for every write.
+ * <p>
+ * A serializer handed out here is reset on the next call from the same thread, so it must be finished with
+ * (turned into bytes or written out) before asking for another one, and it must never be passed to another thread.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class ThreadLocalSerializers {
+
+    /**
+     * Serializers whose buffer grew past this many bytes are replaced instead of reused,
+     * so one huge write does not keep its buffer alive on the thread forever.
+     */
+    public static int maxRetainedCapacity = 1 << 23;
+
+    static final ThreadLocal<NamedBinarySerializer> NAMED = ThreadLocal.withInitial(NamedBinarySerializer::new);
+    static final ThreadLocal<KeylessBinarySerializer> KEYLESS = ThreadLocal.withInitial(KeylessBinarySerializer::new);
+
+    /**
+     * Gets this thread's named serializer, reset & ready to write.
+     */
+    public static NamedBinarySerializer named() {
+        NamedBinarySerializer serializer = NAMED.get();
+        if (serializer.byteStream.getBuffer().length > maxRetainedCapacity) {
+            serializer.release();
+            serializer = new NamedBinarySerializer();
+            NAMED.set(serializer);
+            return serializer;
+        }
+
+        serializer.reset();
+        return serializer;
+    }
+
+    /**
+     * Gets this thread's keyless serializer, reset & ready to write.
+     */
+    public static KeylessBinarySerializer keyless() {
+        KeylessBinarySerializer serializer = KEYLESS.get();
+        if (serializer.byteStream.getBuffer().length > maxRetainedCapacity) {
+            serializer.release();
+            serializer = new KeylessBinarySerializer();
+            KEYLESS.set(serializer);
+            return serializer;
+        }
+
+        serializer.reset();
+        return serializer;
+    }
+
+}
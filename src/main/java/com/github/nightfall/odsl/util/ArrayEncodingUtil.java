@@ -0,0 +1,623 @@
+package com.github.nightfall.odsl.util;
+
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
+
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A util for packing int & long arrays with an {@link ArrayEncoding}, for picking the encoding that makes an array smallest,
+ * and for writing string arrays as a {@link StringPalette}.
+ * <p>
+ * Every encoding other than {@link ArrayEncoding#PLAIN} writes the amount of bytes its elements take as an unsigned varint
+ * first, so they can be skipped & read in one go. The length of the array is left to the serializer.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class ArrayEncodingUtil {
+
+    /**
+     * Arrays shorter than this are always written plain, since there is too little to gain.
+     */
+    public static final int MIN_ENCODED_LENGTH = 16;
+
+    // Large arrays are estimated from this many runs of consecutive elements spread over the array, consecutive so deltas & runs still show.
+    private static final int SAMPLE_RUNS = 16;
+    private static final int SAMPLE_RUN_LENGTH = 64;
+
+    /**
+     * Picks the encoding that is estimated to write the array in the fewest bytes, or {@link ArrayEncoding#PLAIN}
+     * if none saves at least an eighth, since decoding them is slower than a plain copy.
+     */
+    public static ArrayEncoding choose(int[] array) {
+        int length = array.length;
+        if (length < MIN_ENCODED_LENGTH) return ArrayEncoding.PLAIN;
+
+        int min = array[0], max = array[0];
+        for (int v : array) {
+            if (v < min) min = v;
+            else if (v > max) max = v;
+        }
+
+        Estimate estimate = new Estimate();
+        int runLength = Math.min(length, SAMPLE_RUN_LENGTH);
+        int runs = length <= SAMPLE_RUNS * SAMPLE_RUN_LENGTH ? 1 : SAMPLE_RUNS;
+        for (int r = 0; r < runs; r++) {
+            int start = runs == 1 ? 0 : (int) ((long) (length - runLength) * r / (runs - 1));
+            int end = runs == 1 ? length : start + runLength;
+
+            estimate.start(array[start]);
+            for (int i = start + 1; i < end; i++) estimate.next(array[i - 1], array[i]);
+        }
+
+        long forSize = frameOfReferenceSize(length, min, (long) max - min);
+        return estimate.pick((long) length * Integer.BYTES, length, forSize);
+    }
+
+    /**
+     * Picks the encoding that is estimated to write the array in the fewest bytes, or {@link ArrayEncoding#PLAIN}
+     * if none saves at least an eighth, since decoding them is slower than a plain copy.
+     */
+    public static ArrayEncoding choose(long[] array) {
+        int length = array.length;
+        if (length < MIN_ENCODED_LENGTH) return ArrayEncoding.PLAIN;
+
+        long min = array[0], max = array[0];
+        for (long v : array) {
+            if (v < min) min = v;
+            else if (v > max) max = v;
+        }
+
+        Estimate estimate = new Estimate();
+        int runLength = Math.min(length, SAMPLE_RUN_LENGTH);
+        int runs = length <= SAMPLE_RUNS * SAMPLE_RUN_LENGTH ? 1 : SAMPLE_RUNS;
+        for (int r = 0; r < runs; r++) {
+            int start = runs == 1 ? 0 : (int) ((long) (length - runLength) * r / (runs - 1));
+            int end = runs == 1 ? length : start + runLength;
+
+            estimate.start(array[start]);
+            for (int i = start + 1; i < end; i++) estimate.next(array[i - 1], array[i]);
+        }
+
+        long forSize = frameOfReferenceSize(length, min, max - min);
+        return estimate.pick((long) length * Long.BYTES, length, forSize);
+    }
+
+    /**
+     * Writes the elements of an int array with the given encoding, without its length.
+     */
+    public static void write(OutputStream out, ArrayEncoding encoding, int[] array) throws IOException {
+        if (encoding == ArrayEncoding.PLAIN) {
+            BinaryArrayUtil.write(out, array);
+            return;
+        }
+
+        int size = encodedSize(encoding, array);
+        ChunkWriter writer = new ChunkWriter(out, size);
+        try {
+            writer.putUnsignedVarLong(size);
+
+            switch (encoding) {
+                case DELTA: {
+                    long previous = 0;
+                    for (int v : array) {
+                        writer.putVarLong(v - previous);
+                        previous = v;
+                    }
+                    break;
+                }
+
+                case FRAME_OF_REFERENCE: {
+                    int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                    for (int v : array) {
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    }
+
+                    int bits = bitsFor((long) max - min);
+                    writer.putVarLong(min);
+                    writer.putByte(bits);
+                    if (bits != 0) for (int v : array) writer.putBits((long) v - min, bits);
+                    writer.flushBits();
+                    break;
+                }
+
+                case RUN_LENGTH: {
+                    for (int i = 0; i < array.length; ) {
+                        int v = array[i];
+                        int end = i + 1;
+                        while (end < array.length && array[end] == v) end++;
+
+                        writer.putVarLong(v);
+                        writer.putUnsignedVarLong(end - i);
+                        i = end;
+                    }
+                    break;
+                }
+            }
+            writer.flush();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Writes the elements of a long array with the given encoding, without its length.
+     */
+    public static void write(OutputStream out, ArrayEncoding encoding, long[] array) throws IOException {
+        if (encoding == ArrayEncoding.PLAIN) {
+            BinaryArrayUtil.write(out, array);
+            return;
+        }
+
+        int size = encodedSize(encoding, array);
+        ChunkWriter writer = new ChunkWriter(out, size);
+        try {
+            writer.putUnsignedVarLong(size);
+
+            switch (encoding) {
+                case DELTA: {
+                    long previous = 0;
+                    for (long v : array) {
+                        writer.putVarLong(v - previous);
+                        previous = v;
+                    }
+                    break;
+                }
+
+                case FRAME_OF_REFERENCE: {
+                    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                    for (long v : array) {
+                        min = Math.min(min, v);
+                        max = Math.max(max, v);
+                    }
+
+                    int bits = bitsFor(max - min);
+                    writer.putVarLong(min);
+                    writer.putByte(bits);
+                    if (bits != 0) for (long v : array) writer.putBits(v - min, bits);
+                    writer.flushBits();
+                    break;
+                }
+
+                case RUN_LENGTH: {
+                    for (int i = 0; i < array.length; ) {
+                        long v = array[i];
+                        int end = i + 1;
+                        while (end < array.length && array[end] == v) end++;
+
+                        writer.putVarLong(v);
+                        writer.putUnsignedVarLong(end - i);
+                        i = end;
+                    }
+                    break;
+                }
+            }
+            writer.flush();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Reads an int array of the given length written with the given encoding.
+     */
+    public static int[] readInts(DataInput in, ArrayEncoding encoding, int length) throws IOException {
+        if (encoding == ArrayEncoding.PLAIN) return BinaryArrayUtil.readInts(in, length);
+
+        int[] array = new int[length];
+        Cursor cursor = new Cursor(in);
+        try {
+            switch (encoding) {
+                case DELTA: {
+                    long v = 0;
+                    for (int i = 0; i < length; i++) array[i] = (int) (v += cursor.readVarLong());
+                    break;
+                }
+
+                case FRAME_OF_REFERENCE: {
+                    long min = cursor.readVarLong();
+                    int bits = cursor.readBitWidth();
+                    for (int i = 0; i < length; i++) array[i] = (int) (min + cursor.readBits(bits));
+                    break;
+                }
+
+                case RUN_LENGTH: {
+                    for (int i = 0; i < length; ) {
+                        int v = (int) cursor.readVarLong();
+                        int end = cursor.readRunEnd(i, length);
+                        while (i < end) array[i++] = v;
+                    }
+                    break;
+                }
+            }
+            return array;
+        } finally {
+            cursor.release();
+        }
+    }
+
+    /**
+     * Reads a long array of the given length written with the given encoding.
+     */
+    public static long[] readLongs(DataInput in, ArrayEncoding encoding, int length) throws IOException {
+        if (encoding == ArrayEncoding.PLAIN) return BinaryArrayUtil.readLongs(in, length);
+
+        long[] array = new long[length];
+        Cursor cursor = new Cursor(in);
+        try {
+            switch (encoding) {
+                case DELTA: {
+                    long v = 0;
+                    for (int i = 0; i < length; i++) array[i] = v += cursor.readVarLong();
+                    break;
+                }
+
+                case FRAME_OF_REFERENCE: {
+                    long min = cursor.readVarLong();
+                    int bits = cursor.readBitWidth();
+                    for (int i = 0; i < length; i++) array[i] = min + cursor.readBits(bits);
+                    break;
+                }
+
+                case RUN_LENGTH: {
+                    for (int i = 0; i < length; ) {
+                        long v = cursor.readVarLong();
+                        int end = cursor.readRunEnd(i, length);
+                        while (i < end) array[i++] = v;
+                    }
+                    break;
+                }
+            }
+            return array;
+        } finally {
+            cursor.release();
+        }
+    }
+
+    /**
+     * Writes a string palette as the amount of strings in it as an unsigned varint, each string with writeUTF,
+     * then the index of each element packed into as few bits as the largest index needs. The length is left to the serializer.
+     */
+    public static void writePalette(DataOutputStream out, StringPalette palette) throws IOException {
+        String[] strings = palette.getPalette();
+        int[] indices = palette.getIndices();
+
+        VarIntUtil.writeUnsignedVarInt(out, strings.length);
+        for (String s : strings) out.writeUTF(s);
+
+        int bits = paletteBits(strings.length);
+        if (bits == 0) {
+            for (int i = 0; i < indices.length; i++) checkPaletteIndex(indices, i, strings.length);
+            return;
+        }
+
+        ChunkWriter writer = new ChunkWriter(out, (int) paletteIndicesSize(indices.length, strings.length));
+        try {
+            for (int i = 0; i < indices.length; i++) {
+                checkPaletteIndex(indices, i, strings.length);
+                writer.putBits(indices[i], bits);
+            }
+            writer.flushBits();
+            writer.flush();
+        } finally {
+            writer.release();
+        }
+    }
+
+    /**
+     * Reads a string palette of the given length written by {@link #writePalette(DataOutputStream, StringPalette)}.
+     */
+    public static StringPalette readPalette(DataInput in, int length) throws IOException {
+        String[] strings = new String[VarIntUtil.readUnsignedVarInt(in)];
+        for (int i = 0; i < strings.length; i++) strings[i] = in.readUTF();
+
+        int[] indices = new int[length];
+        int bits = paletteBits(strings.length);
+        if (bits == 0) {
+            if (length > 0 && strings.length == 0) throw new IOException("malformed palette array, it has " + length + " elements but no strings.");
+            return new StringPalette(strings, indices);
+        }
+
+        Cursor cursor = new Cursor(in, (int) paletteIndicesSize(length, strings.length));
+        try {
+            for (int i = 0; i < length; i++) {
+                int index = (int) cursor.readBits(bits);
+                if (index >= strings.length) throw new IOException("malformed palette array, index " + index + " is outside its " + strings.length + " strings.");
+                indices[i] = index;
+            }
+        } finally {
+            cursor.release();
+        }
+        return new StringPalette(strings, indices);
+    }
+
+    /**
+     * Gets the amount of bytes the packed indices of a palette array take, which follow its strings.
+     */
+    public static long paletteIndicesSize(int length, int paletteSize) {
+        return ((long) length * paletteBits(paletteSize) + 7) / 8;
+    }
+
+    private static int paletteBits(int paletteSize) {
+        return paletteSize <= 1 ? 0 : bitsFor(paletteSize - 1);
+    }
+
+    private static void checkPaletteIndex(int[] indices, int i, int paletteSize) {
+        if (indices[i] < 0 || indices[i] >= paletteSize) throw new RuntimeException("cannot write palette index " + indices[i] + " of element " + i + ", the palette only has " + paletteSize + " strings.");
+    }
+
+    private static int encodedSize(ArrayEncoding encoding, int[] array) {
+        if (encoding == ArrayEncoding.FRAME_OF_REFERENCE) {
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int v : array) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            return (int) frameOfReferenceSize(array.length, min, (long) max - min);
+        }
+
+        Estimate exact = new Estimate();
+        if (array.length > 0) exact.start(array[0]);
+        for (int i = 1; i < array.length; i++) exact.next(array[i - 1], array[i]);
+        return (int) exact.size(encoding);
+    }
+
+    private static int encodedSize(ArrayEncoding encoding, long[] array) {
+        if (encoding == ArrayEncoding.FRAME_OF_REFERENCE) {
+            long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+            for (long v : array) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            return (int) frameOfReferenceSize(array.length, min, max - min);
+        }
+
+        Estimate exact = new Estimate();
+        if (array.length > 0) exact.start(array[0]);
+        for (int i = 1; i < array.length; i++) exact.next(array[i - 1], array[i]);
+        return (int) exact.size(encoding);
+    }
+
+    private static long frameOfReferenceSize(int length, long min, long range) {
+        return varLongSize(min) + 1 + ((long) length * bitsFor(range) + 7) / 8;
+    }
+
+    /**
+     * Gets how many bits the largest value of an unsigned range takes.
+     */
+    private static int bitsFor(long range) {
+        return Long.SIZE - Long.numberOfLeadingZeros(range);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static int unsignedVarLongSize(long v) {
+        return (63 - Long.numberOfLeadingZeros(v | 1)) / 7 + 1;
+    }
+
+    private static int varLongSize(long v) {
+        return unsignedVarLongSize(zigzag(v));
+    }
+
+    /**
+     * Adds up the bytes the delta & run length encodings take over runs of consecutive elements,
+     * which is exact when it is given the whole array.
+     */
+    private static final class Estimate {
+
+        long elements;
+        long deltaBytes;
+        long runBytes;
+
+        long runValue;
+        int runLength;
+
+        void start(long v) {
+            endRun();
+            deltaBytes += varLongSize(v);
+            runValue = v;
+            runLength = 1;
+            elements++;
+        }
+
+        void next(long previous, long v) {
+            deltaBytes += varLongSize(v - previous);
+            if (v == runValue) runLength++;
+            else {
+                endRun();
+                runValue = v;
+                runLength = 1;
+            }
+            elements++;
+        }
+
+        private void endRun() {
+            if (runLength == 0) return;
+            runBytes += varLongSize(runValue) + unsignedVarLongSize(runLength);
+            runLength = 0;
+        }
+
+        long size(ArrayEncoding encoding) {
+            endRun();
+            return encoding == ArrayEncoding.DELTA ? deltaBytes : runBytes;
+        }
+
+        ArrayEncoding pick(long plainSize, int length, long forSize) {
+            long deltaSize = size(ArrayEncoding.DELTA) * length / elements;
+            long runSize = size(ArrayEncoding.RUN_LENGTH) * length / elements;
+
+            ArrayEncoding best = ArrayEncoding.DELTA;
+            long bestSize = deltaSize;
+            if (forSize < bestSize) {
+                best = ArrayEncoding.FRAME_OF_REFERENCE;
+                bestSize = forSize;
+            }
+            if (runSize < bestSize) {
+                best = ArrayEncoding.RUN_LENGTH;
+                bestSize = runSize;
+            }
+
+            // Estimates can be off, so anything close to the plain size or past what a varint length holds stays plain.
+            if (bestSize > plainSize - plainSize / 8 || bestSize > Integer.MAX_VALUE / 2) return ArrayEncoding.PLAIN;
+            return best;
+        }
+
+    }
+
+    /**
+     * Buffers encoded bytes in a pooled chunk so varints & bit packed values are not written to the stream one byte at a time.
+     */
+    private static final class ChunkWriter {
+
+        final OutputStream out;
+        final byte[] chunk;
+        int position;
+
+        long bitBuffer;
+        int bitCount;
+
+        ChunkWriter(OutputStream out, int size) {
+            this.out = out;
+            this.chunk = BufferPool.shared().acquire(Math.max(VarIntUtil.MAX_VAR_LONG_SIZE, Math.min(BinaryArrayUtil.CHUNK_SIZE, size + VarIntUtil.MAX_VAR_INT_SIZE)));
+        }
+
+        void putByte(int b) throws IOException {
+            if (position == chunk.length) flush();
+            chunk[position++] = (byte) b;
+        }
+
+        void putUnsignedVarLong(long v) throws IOException {
+            if (position + VarIntUtil.MAX_VAR_LONG_SIZE > chunk.length) flush();
+            while ((v & ~0x7FL) != 0) {
+                chunk[position++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            chunk[position++] = (byte) v;
+        }
+
+        void putVarLong(long v) throws IOException {
+            putUnsignedVarLong(zigzag(v));
+        }
+
+        /**
+         * Packs the low bits of a value after the bits already written, lowest bit first.
+         */
+        void putBits(long v, int bits) throws IOException {
+            // Fewer than 8 bits are ever left over, so up to 56 new bits still fit in the long.
+            if (bits > 56) {
+                putBits(v & 0xFFFFFFFFL, 32);
+                putBits(v >>> 32, bits - 32);
+                return;
+            }
+
+            bitBuffer |= v << bitCount;
+            bitCount += bits;
+            while (bitCount >= 8) {
+                putByte((int) bitBuffer);
+                bitBuffer >>>= 8;
+                bitCount -= 8;
+            }
+        }
+
+        void flushBits() throws IOException {
+            if (bitCount > 0) putByte((int) bitBuffer);
+            bitBuffer = 0;
+            bitCount = 0;
+        }
+
+        void flush() throws IOException {
+            out.write(chunk, 0, position);
+            position = 0;
+        }
+
+        void release() {
+            BufferPool.shared().release(chunk);
+        }
+
+    }
+
+    /**
+     * Reads the encoded bytes of one array into a pooled buffer up front, then decodes from it.
+     */
+    private static final class Cursor {
+
+        final byte[] buffer;
+        final int end;
+        int position;
+
+        long bitBuffer;
+        int bitCount;
+
+        Cursor(DataInput in) throws IOException {
+            this(in, VarIntUtil.readUnsignedVarInt(in));
+        }
+
+        Cursor(DataInput in, int size) throws IOException {
+            end = size;
+            buffer = BufferPool.shared().acquire(size);
+            in.readFully(buffer, 0, size);
+        }
+
+        private int readByte() throws IOException {
+            if (position >= end) throw new IOException("malformed encoded array, it is shorter than its elements.");
+            return buffer[position++];
+        }
+
+        long readUnsignedVarLong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new IOException("malformed varint, it is longer than a long.");
+        }
+
+        long readVarLong() throws IOException {
+            long v = readUnsignedVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        int readBitWidth() throws IOException {
+            int bits = readByte();
+            if (bits < 0 || bits > Long.SIZE) throw new IOException("malformed encoded array, it packs " + bits + " bits per element.");
+            return bits;
+        }
+
+        long readBits(int bits) throws IOException {
+            if (bits > 56) {
+                long low = readBits(32);
+                return low | readBits(bits - 32) << 32;
+            }
+
+            while (bitCount < bits) {
+                bitBuffer |= (long) (readByte() & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+
+            long v = bitBuffer & ((1L << bits) - 1);
+            bitBuffer >>>= bits;
+            bitCount -= bits;
+            return v;
+        }
+
+        int readRunEnd(int start, int length) throws IOException {
+            long count = readUnsignedVarLong();
+            if (count <= 0 || count > length - start) throw new IOException("malformed encoded array, a run of " + count + " goes past its " + length + " elements.");
+            return start + (int) count;
+        }
+
+        void release() {
+            BufferPool.shared().release(buffer);
+        }
+
+    }
+
+}
@@ -0,0 +1,427 @@
+package com.github.nightfall.odsl.util;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.BitSet;
+
+/**
+ * A util for bulk writing & reading native arrays as big-endian bytes, the same layout DataOutputStream produces,
+ * without pushing each element through its own virtual call.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class BinaryArrayUtil {
+
+    /**
+     * The size of the scratch chunk each array gets encoded through.
+     */
+    public static final int CHUNK_SIZE = 8192;
+
+    // Chunks are borrowed from the shared pool, so bulk writes & reads of many arrays reuse the same few chunks.
+    private static byte[] acquireChunk(int length, int elementSize) {
+        return BufferPool.shared().acquire(chunkSize(length, elementSize));
+    }
+
+    // The byte size of an array is taken as a long, arrays past 2GB would overflow it into a single element chunk.
+    static int chunkSize(int length, int elementSize) {
+        return (int) Math.max(elementSize, Math.min(CHUNK_SIZE, (long) length * elementSize));
+    }
+
+    private static void releaseChunk(byte[] chunk) {
+        BufferPool.shared().release(chunk);
+    }
+
+    /**
+     * Writes a native byte array in one call.
+     */
+    public static void write(OutputStream out, byte[] array) throws IOException {
+        out.write(array, 0, array.length);
+    }
+
+    /**
+     * Writes a native short array as big-endian shorts.
+     */
+    public static void write(OutputStream out, short[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Short.BYTES);
+        try {
+            ShortBuffer view = ByteBuffer.wrap(chunk).asShortBuffer();
+            int perChunk = chunk.length / Short.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Short.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes a native int array as big-endian integers.
+     */
+    public static void write(OutputStream out, int[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Integer.BYTES);
+        try {
+            IntBuffer view = ByteBuffer.wrap(chunk).asIntBuffer();
+            int perChunk = chunk.length / Integer.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Integer.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes a native long array as big-endian longs.
+     */
+    public static void write(OutputStream out, long[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Long.BYTES);
+        try {
+            LongBuffer view = ByteBuffer.wrap(chunk).asLongBuffer();
+            int perChunk = chunk.length / Long.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Long.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes a native float array as big-endian IEEE 754 floats.
+     */
+    public static void write(OutputStream out, float[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Float.BYTES);
+        try {
+            FloatBuffer view = ByteBuffer.wrap(chunk).asFloatBuffer();
+            int perChunk = chunk.length / Float.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Float.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes a native double array as big-endian IEEE 754 doubles.
+     */
+    public static void write(OutputStream out, double[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Double.BYTES);
+        try {
+            DoubleBuffer view = ByteBuffer.wrap(chunk).asDoubleBuffer();
+            int perChunk = chunk.length / Double.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Double.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes a native boolean array with one byte per boolean.
+     */
+    public static void write(OutputStream out, boolean[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, 1);
+        try {
+
+            for (int i = 0; i < array.length; i += chunk.length) {
+                int count = Math.min(chunk.length, array.length - i);
+                for (int j = 0; j < count; j++) chunk[j] = (byte) (array[i + j] ? 1 : 0);
+                out.write(chunk, 0, count);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Gets the amount of bytes a packed boolean array of the given length takes.
+     */
+    public static int packedSize(int length) {
+        return (length + 7) >>> 3;
+    }
+
+    /**
+     * Writes a native boolean array with 8 booleans per byte, the first boolean going in the lowest bit.
+     * This is the same layout as {@link BitSet#toByteArray()}.
+     */
+    public static void writePacked(OutputStream out, boolean[] array) throws IOException {
+        int size = packedSize(array.length);
+        byte[] chunk = acquireChunk(size, 1);
+        try {
+
+            for (int b = 0; b < size; b += chunk.length) {
+                int count = Math.min(chunk.length, size - b);
+                for (int j = 0; j < count; j++) {
+                    int i = (b + j) << 3;
+                    int end = Math.min(i + 8, array.length);
+
+                    int packed = 0;
+                    for (int bit = 0; i < end; i++, bit++) if (array[i]) packed |= 1 << bit;
+                    chunk[j] = (byte) packed;
+                }
+                out.write(chunk, 0, count);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Writes the first length bits of a BitSet with 8 bits per byte, any bits past the length are left out.
+     */
+    public static void writePacked(OutputStream out, BitSet bits, int length) throws IOException {
+        byte[] bytes = (bits.length() > length ? bits.get(0, length) : bits).toByteArray();
+        int size = packedSize(length);
+
+        // toByteArray() stops at the last set bit, so the rest is written as zeros.
+        out.write(bytes, 0, Math.min(bytes.length, size));
+        for (int i = bytes.length; i < size; i++) out.write(0);
+    }
+
+    /**
+     * Writes a native char array as big-endian UTF-16 characters.
+     */
+    public static void write(OutputStream out, char[] array) throws IOException {
+        byte[] chunk = acquireChunk(array.length, Character.BYTES);
+        try {
+            CharBuffer view = ByteBuffer.wrap(chunk).asCharBuffer();
+            int perChunk = chunk.length / Character.BYTES;
+
+            for (int i = 0; i < array.length; i += perChunk) {
+                int count = Math.min(perChunk, array.length - i);
+                ((Buffer) view).clear();
+                view.put(array, i, count);
+                out.write(chunk, 0, count * Character.BYTES);
+            }
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native byte array of the given length.
+     */
+    public static byte[] readBytes(DataInput in, int length) throws IOException {
+        byte[] array = new byte[length];
+        in.readFully(array);
+        return array;
+    }
+
+    /**
+     * Reads a native short array of the given length from big-endian shorts.
+     */
+    public static short[] readShorts(DataInput in, int length) throws IOException {
+        short[] array = new short[length];
+        byte[] chunk = acquireChunk(length, Short.BYTES);
+        try {
+            ShortBuffer view = ByteBuffer.wrap(chunk).asShortBuffer();
+            int perChunk = chunk.length / Short.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Short.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native int array of the given length from big-endian integers.
+     */
+    public static int[] readInts(DataInput in, int length) throws IOException {
+        int[] array = new int[length];
+        byte[] chunk = acquireChunk(length, Integer.BYTES);
+        try {
+            IntBuffer view = ByteBuffer.wrap(chunk).asIntBuffer();
+            int perChunk = chunk.length / Integer.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Integer.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native long array of the given length from big-endian longs.
+     */
+    public static long[] readLongs(DataInput in, int length) throws IOException {
+        long[] array = new long[length];
+        byte[] chunk = acquireChunk(length, Long.BYTES);
+        try {
+            LongBuffer view = ByteBuffer.wrap(chunk).asLongBuffer();
+            int perChunk = chunk.length / Long.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Long.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native float array of the given length from big-endian IEEE 754 floats.
+     */
+    public static float[] readFloats(DataInput in, int length) throws IOException {
+        float[] array = new float[length];
+        byte[] chunk = acquireChunk(length, Float.BYTES);
+        try {
+            FloatBuffer view = ByteBuffer.wrap(chunk).asFloatBuffer();
+            int perChunk = chunk.length / Float.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Float.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native double array of the given length from big-endian IEEE 754 doubles.
+     */
+    public static double[] readDoubles(DataInput in, int length) throws IOException {
+        double[] array = new double[length];
+        byte[] chunk = acquireChunk(length, Double.BYTES);
+        try {
+            DoubleBuffer view = ByteBuffer.wrap(chunk).asDoubleBuffer();
+            int perChunk = chunk.length / Double.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Double.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native boolean array of the given length from one byte per boolean.
+     */
+    public static boolean[] readBooleans(DataInput in, int length) throws IOException {
+        boolean[] array = new boolean[length];
+        byte[] chunk = acquireChunk(length, 1);
+        try {
+
+            for (int i = 0; i < length; i += chunk.length) {
+                int count = Math.min(chunk.length, length - i);
+                in.readFully(chunk, 0, count);
+                for (int j = 0; j < count; j++) array[i + j] = chunk[j] != 0;
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a native boolean array of the given length from 8 booleans per byte.
+     */
+    public static boolean[] readPackedBooleans(DataInput in, int length) throws IOException {
+        boolean[] array = new boolean[length];
+        int size = packedSize(length);
+        byte[] chunk = acquireChunk(size, 1);
+        try {
+
+            for (int b = 0; b < size; b += chunk.length) {
+                int count = Math.min(chunk.length, size - b);
+                in.readFully(chunk, 0, count);
+                for (int j = 0; j < count; j++) {
+                    int packed = chunk[j];
+                    int i = (b + j) << 3;
+                    int end = Math.min(i + 8, length);
+                    for (; i < end; i++, packed >>= 1) array[i] = (packed & 1) != 0;
+                }
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+    /**
+     * Reads a BitSet of the given length from 8 bits per byte.
+     */
+    public static BitSet readPackedBitSet(DataInput in, int length) throws IOException {
+        byte[] bytes = new byte[packedSize(length)];
+        in.readFully(bytes);
+        return BitSet.valueOf(bytes);
+    }
+
+    /**
+     * Reads a native char array of the given length from big-endian UTF-16 characters.
+     */
+    public static char[] readChars(DataInput in, int length) throws IOException {
+        char[] array = new char[length];
+        byte[] chunk = acquireChunk(length, Character.BYTES);
+        try {
+            CharBuffer view = ByteBuffer.wrap(chunk).asCharBuffer();
+            int perChunk = chunk.length / Character.BYTES;
+
+            for (int i = 0; i < length; i += perChunk) {
+                int count = Math.min(perChunk, length - i);
+                in.readFully(chunk, 0, count * Character.BYTES);
+                ((Buffer) view).clear();
+                view.get(array, i, count);
+            }
+            return array;
+        } finally {
+            releaseChunk(chunk);
+        }
+    }
+
+}
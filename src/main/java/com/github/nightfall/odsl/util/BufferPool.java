@@ -0,0 +1,249 @@
+package com.github.nightfall.odsl.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread safe pool of scratch byte arrays sorted into power of two size classes, so serializers, array writers
+ * & codecs can borrow a buffer for a write and give it back instead of allocating a new one every time.
+ * <p>
+ * A borrowed array is at least as long as asked for and may hold old data. Arrays larger than the biggest
+ * size class are never pooled, and an array is dropped rather than kept once its class or the pool is full.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class BufferPool {
+
+    /**
+     * The size of the smallest size class, smaller requests are rounded up to it.
+     */
+    public static final int MIN_BUFFER_SIZE = 64;
+
+    /**
+     * The default size of the biggest size class.
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * The default amount of arrays kept in each size class.
+     */
+    public static final int DEFAULT_MAX_BUFFERS_PER_CLASS = 8;
+
+    /**
+     * The default amount of bytes kept in the pool across all size classes.
+     */
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 16L << 20;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+
+    private static volatile BufferPool shared = new BufferPool();
+
+    final int maxBufferSize;
+    final int maxBuffersPerClass;
+    final long maxRetainedBytes;
+
+    // Each size class is a stack of arrays, guarded by the stack itself.
+    private final byte[][][] classes;
+    private final int[] classCounts;
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder returns = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    public BufferPool() {
+        this(DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_BUFFERS_PER_CLASS, DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     * @param maxBufferSize The size of the biggest size class, rounded up to a power of two, larger arrays are never pooled.
+     * @param maxBuffersPerClass The most arrays kept in one size class.
+     * @param maxRetainedBytes The most bytes kept in the pool across all size classes.
+     */
+    public BufferPool(int maxBufferSize, int maxBuffersPerClass, long maxRetainedBytes) {
+        if (maxBufferSize < MIN_BUFFER_SIZE || maxBufferSize > 1 << 30) throw new RuntimeException("max buffer size must be between " + MIN_BUFFER_SIZE + " and " + (1 << 30) + ", got " + maxBufferSize + ".");
+        if (maxBuffersPerClass < 0) throw new RuntimeException("max buffers per class cannot be negative, got " + maxBuffersPerClass + ".");
+        if (maxRetainedBytes < 0) throw new RuntimeException("max retained bytes cannot be negative, got " + maxRetainedBytes + ".");
+
+        this.maxBufferSize = ceilPowerOfTwo(maxBufferSize);
+        this.maxBuffersPerClass = maxBuffersPerClass;
+        this.maxRetainedBytes = maxRetainedBytes;
+
+        int classCount = classOf(this.maxBufferSize) + 1;
+        classes = new byte[classCount][maxBuffersPerClass][];
+        classCounts = new int[classCount];
+    }
+
+    /**
+     * Gets the pool the serializers, array writers & codecs borrow from.
+     */
+    public static BufferPool shared() {
+        return shared;
+    }
+
+    /**
+     * Replaces the shared pool, streams made before the call keep using the old one.
+     * Passing a pool with no room, like {@code new BufferPool(64, 0, 0)}, turns pooling off.
+     */
+    public static void setShared(BufferPool pool) {
+        if (pool == null) throw new RuntimeException("the shared buffer pool cannot be null.");
+        shared = pool;
+    }
+
+    private static int ceilPowerOfTwo(int size) {
+        return size <= MIN_BUFFER_SIZE ? MIN_BUFFER_SIZE : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static int classOf(int powerOfTwo) {
+        return Integer.numberOfTrailingZeros(powerOfTwo) - MIN_SHIFT;
+    }
+
+    /**
+     * Borrows an array at least the given size, which should be given back with {@link #release(byte[])} once done.
+     *
+     * @param minSize The smallest size the array can be.
+     */
+    public byte[] acquire(int minSize) {
+        if (minSize < 0) throw new RuntimeException("cannot acquire a buffer of negative size " + minSize + ".");
+        if (minSize > maxBufferSize) {
+            misses.increment();
+            return new byte[minSize];
+        }
+
+        int size = ceilPowerOfTwo(minSize);
+        int sizeClass = classOf(size);
+        byte[][] stack = classes[sizeClass];
+        synchronized (stack) {
+            int count = classCounts[sizeClass];
+            if (count > 0) {
+                byte[] buffer = stack[--count];
+                stack[count] = null;
+                classCounts[sizeClass] = count;
+                retainedBytes.addAndGet(-buffer.length);
+                hits.increment();
+                return buffer;
+            }
+        }
+
+        misses.increment();
+        return new byte[size];
+    }
+
+    /**
+     * Gives an array back to the pool, it must not be used afterwards.
+     * Arrays that were not borrowed from a pool are accepted too, they go to the largest size class they fill.
+     *
+     * @param buffer The array being given back, null is ignored.
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) return;
+        if (buffer.length < MIN_BUFFER_SIZE || buffer.length > maxBufferSize) {
+            discards.increment();
+            return;
+        }
+
+        int sizeClass = classOf(Integer.highestOneBit(buffer.length));
+        byte[][] stack = classes[sizeClass];
+        synchronized (stack) {
+            int count = classCounts[sizeClass];
+            if (count < maxBuffersPerClass && retainedBytes.addAndGet(buffer.length) <= maxRetainedBytes) {
+                stack[count] = buffer;
+                classCounts[sizeClass] = count + 1;
+                returns.increment();
+                return;
+            }
+            if (count < maxBuffersPerClass) retainedBytes.addAndGet(-buffer.length);
+        }
+        discards.increment();
+    }
+
+    /**
+     * Drops every pooled array, the metrics are kept.
+     */
+    public void clear() {
+        for (int i = 0; i < classes.length; i++) {
+            byte[][] stack = classes[i];
+            synchronized (stack) {
+                for (int j = 0; j < classCounts[i]; j++) {
+                    retainedBytes.addAndGet(-stack[j].length);
+                    stack[j] = null;
+                }
+                classCounts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Gets how many acquires were served from the pool.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets how many acquires had to allocate a new array.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the fraction of acquires served from the pool, or 0 if nothing was acquired yet.
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Gets how many released arrays were kept.
+     */
+    public long getReturns() {
+        return returns.sum();
+    }
+
+    /**
+     * Gets how many released arrays were dropped because they did not fit a size class or the pool was full.
+     */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    /**
+     * Gets how many bytes the pooled arrays take up.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    public int getMaxBuffersPerClass() {
+        return maxBuffersPerClass;
+    }
+
+    public long getMaxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Sets the hit, miss, return & discard counts back to 0.
+     */
+    public void resetMetrics() {
+        hits.reset();
+        misses.reset();
+        returns.reset();
+        discards.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool{hits=" + getHits() + ", misses=" + getMisses() + ", returns=" + getReturns() + ", discards=" + getDiscards() + ", retainedBytes=" + getRetainedBytes() + "}";
+    }
+
+}
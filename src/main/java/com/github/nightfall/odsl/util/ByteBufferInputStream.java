@@ -0,0 +1,147 @@
+package com.github.nightfall.odsl.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An InputStream over a ByteBuffer, which lets the deserializers read heap arrays & memory mapped files the same way.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    final ByteBuffer buffer;
+    int mark;
+
+    /**
+     * Maps a whole file into memory as read-only, the mapping stays valid after the file is closed.
+     *
+     * @param path The file being mapped.
+     */
+    public static MappedByteBuffer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new RuntimeException("cannot map \"" + path + "\" since it is larger than 2GB.");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Creates a stream over the remaining bytes of a buffer, without changing the buffer's position.
+     *
+     * @param buffer The buffer being read.
+     */
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) return 0;
+        if (!buffer.hasRemaining()) return -1;
+
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        if (n <= 0) return 0;
+
+        int count = (int) Math.min(n, buffer.remaining());
+        position(buffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        position(mark);
+    }
+
+    /**
+     * Gets the position of the stream, counted from the start of the buffer it was made with.
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Moves the stream to a position, counted from the start of the buffer it was made with.
+     */
+    public void position(int position) {
+        ((Buffer) buffer).position(position);
+    }
+
+    /**
+     * Gets the total amount of bytes this stream covers.
+     */
+    public int length() {
+        return buffer.limit();
+    }
+
+    /**
+     * Creates a stream over the same bytes with a position of its own, starting at 0.
+     */
+    public ByteBufferInputStream duplicate() {
+        ByteBuffer duplicate = buffer.duplicate();
+        ((Buffer) duplicate).position(0);
+        return new ByteBufferInputStream(duplicate);
+    }
+
+    /**
+     * Creates a read-only view of the next bytes without copying them, and moves past them.
+     *
+     * @param length The amount of bytes in the view.
+     */
+    public ByteBuffer slice(int length) throws EOFException {
+        if (length < 0 || length > buffer.remaining()) throw new EOFException();
+
+        ByteBuffer slice = buffer.duplicate();
+        ((Buffer) slice).limit(slice.position() + length);
+        position(buffer.position() + length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates a read-only view of the next elements without copying them, and moves past them.
+     *
+     * @param count The amount of elements in the view.
+     * @param elementSize The amount of bytes in each element.
+     */
+    public ByteBuffer slice(int count, int elementSize) throws IOException {
+        // Taken as a long, so a count whose byte length overflows an int can't wrap into a wrong or empty view.
+        long length = (long) count * elementSize;
+        if (length > Integer.MAX_VALUE) throw new IOException("cannot view " + count + " elements of " + elementSize + " bytes since they are past the 2GB a buffer can hold.");
+
+        return slice((int) length);
+    }
+
+}
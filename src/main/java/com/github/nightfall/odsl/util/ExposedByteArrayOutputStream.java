@@ -0,0 +1,264 @@
+package com.github.nightfall.odsl.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * A ByteArrayOutputStream that exposes its backing buffer so serializers can back-patch
+ * length slots and splice bytes in place instead of copying the whole stream out.
+ * <p>
+ * Bytes only known once the bytes after them are written, like the length of a nested object, go in through
+ * {@link #beginInsert()}. Inserts can be nested & are all moved into place once the outermost one ends, so every
+ * byte is moved at most once no matter how deeply they are nested.
+ * <p>
+ * A stream made with a {@link BufferPool} borrows its buffer from the pool, gives the old buffer back
+ * each time it grows, and gives its last buffer back on {@link #release()}.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final int[] EMPTY_INTS = new int[0];
+
+    final BufferPool pool;
+
+    // The position of each insert, the bytes of all inserts put in before it & where its own bytes are in insertBytes.
+    private int[] insertPositions = EMPTY_INTS;
+    private int[] insertedBefore = EMPTY_INTS;
+    private int[] insertOffsets = EMPTY_INTS;
+    private int[] insertLengths = EMPTY_INTS;
+    private int insertCount;
+    private int openInserts;
+    private byte[] insertBytes = EMPTY;
+    private int insertedSize;
+
+    private long movedBytes;
+
+    public ExposedByteArrayOutputStream() {
+        super();
+        pool = null;
+    }
+
+    public ExposedByteArrayOutputStream(int size) {
+        super(size);
+        pool = null;
+    }
+
+    /**
+     * Creates a stream that borrows its buffer from a pool, nothing is borrowed until the first write.
+     */
+    public ExposedByteArrayOutputStream(BufferPool pool) {
+        super(0);
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the pool the buffer is borrowed from, or null if the stream allocates its own.
+     */
+    public BufferPool getPool() {
+        return pool;
+    }
+
+    // ByteArrayOutputStream grows privately, so writes are overridden to grow through the pool.
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) throw new OutOfMemoryError("stream cannot grow past " + Integer.MAX_VALUE + " bytes.");
+        if (minCapacity <= buf.length) return;
+
+        int newCapacity = Math.max(buf.length << 1, Math.max(minCapacity, 32));
+        if (newCapacity < 0) newCapacity = minCapacity;
+
+        if (pool == null) {
+            buf = Arrays.copyOf(buf, newCapacity);
+            return;
+        }
+
+        byte[] newBuf = pool.acquire(newCapacity);
+        System.arraycopy(buf, 0, newBuf, 0, count);
+        if (buf.length > 0) pool.release(buf);
+        buf = newBuf;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) throw new IndexOutOfBoundsException("range " + off + ".." + (off + len) + " is out of bounds for length " + b.length);
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * Empties the stream & drops the inserts that were not ended, keeping the buffer.
+     */
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        clearInserts();
+    }
+
+    /**
+     * Empties the stream & gives its buffer back to the pool, a later write borrows a new one.
+     * Streams without a pool just drop their buffer.
+     */
+    public synchronized void release() {
+        if (pool != null && buf.length > 0) pool.release(buf);
+        buf = EMPTY;
+        count = 0;
+        clearInserts();
+        insertBytes = EMPTY;
+    }
+
+    /**
+     * Gets the backing buffer, only the first {@link #size()} bytes of it are valid.
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+
+    /**
+     * Shrinks the stream to the given size, keeping the buffer's capacity.
+     *
+     * @param size The new size, which cannot be larger than the current size.
+     */
+    public void setSize(int size) {
+        if (size < 0 || size > count) throw new IndexOutOfBoundsException("size " + size + " is out of range 0.." + count);
+        count = size;
+    }
+
+    /**
+     * Overwrites a big-endian integer that was already written.
+     *
+     * @param position The position of the integer.
+     * @param v The integer to write.
+     */
+    public void writeIntAt(int position, int v) {
+        if (position < 0 || position + Integer.BYTES > count) throw new IndexOutOfBoundsException("position " + position + " is out of range 0.." + (count - Integer.BYTES));
+        buf[position] = (byte) (v >>> 24);
+        buf[position + 1] = (byte) (v >>> 16);
+        buf[position + 2] = (byte) (v >>> 8);
+        buf[position + 3] = (byte) v;
+    }
+
+    /**
+     * Inserts bytes at a position, moving everything after it forward.
+     *
+     * @param position The position the bytes are inserted at.
+     * @param bytes The bytes being inserted.
+     */
+    public void insert(int position, byte[] bytes) {
+        insert(position, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Inserts part of an array at a position, moving everything after it forward.
+     *
+     * @param position The position the bytes are inserted at.
+     * @param bytes The array holding the bytes being inserted.
+     * @param offset The offset of the first byte being inserted.
+     * @param length The amount of bytes being inserted.
+     */
+    public void insert(int position, byte[] bytes, int offset, int length) {
+        if (position < 0 || position > count) throw new IndexOutOfBoundsException("position " + position + " is out of range 0.." + count);
+
+        int oldCount = count;
+        // Grows the buffer through the regular write path, then moves the tail over the new bytes.
+        write(bytes, offset, length);
+        System.arraycopy(buf, position, buf, position + length, oldCount - position);
+        System.arraycopy(bytes, offset, buf, position, length);
+        movedBytes += oldCount - position;
+    }
+
+    /**
+     * Starts an insert at the current position, whose bytes are given once everything after it is written.
+     * Inserts have to be ended in the reverse order they were begun, and until the outermost one ends
+     * {@link #size()} & the buffer leave out the bytes of every insert.
+     *
+     * @return The insert, which is passed to the other insert methods.
+     */
+    public int beginInsert() {
+        if (insertCount == insertPositions.length) {
+            int capacity = Math.max(insertCount << 1, 8);
+            insertPositions = Arrays.copyOf(insertPositions, capacity);
+            insertedBefore = Arrays.copyOf(insertedBefore, capacity);
+            insertOffsets = Arrays.copyOf(insertOffsets, capacity);
+            insertLengths = Arrays.copyOf(insertLengths, capacity);
+        }
+        insertPositions[insertCount] = count;
+        insertedBefore[insertCount] = insertedSize;
+        insertOffsets[insertCount] = insertedSize;
+        insertLengths[insertCount] = 0;
+        openInserts++;
+        return insertCount++;
+    }
+
+    /**
+     * Gets the size of everything written since an insert began, counting the bytes of the inserts ended since.
+     */
+    public int sizeSince(int insert) {
+        return count - insertPositions[insert] + insertedSize - insertedBefore[insert];
+    }
+
+    /**
+     * Adds bytes to an insert that was not ended yet, the bytes of one insert have to be added without adding
+     * to another insert in between.
+     *
+     * @param insert The insert from {@link #beginInsert()}.
+     * @param bytes The array holding the bytes being added.
+     * @param offset The offset of the first byte being added.
+     * @param length The amount of bytes being added.
+     */
+    public void writeInsert(int insert, byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) throw new IndexOutOfBoundsException("range " + offset + ".." + (offset + length) + " is out of bounds for length " + bytes.length);
+        if (insertLengths[insert] == 0) insertOffsets[insert] = insertedSize;
+        else if (insertOffsets[insert] + insertLengths[insert] != insertedSize) throw new IllegalStateException("cannot add to insert " + insert + " since another insert was added to after it.");
+
+        if (insertedSize + length > insertBytes.length) insertBytes = Arrays.copyOf(insertBytes, Math.max(insertBytes.length << 1, Math.max(insertedSize + length, 32)));
+        System.arraycopy(bytes, offset, insertBytes, insertedSize, length);
+        insertLengths[insert] += length;
+        insertedSize += length;
+    }
+
+    /**
+     * Ends an insert, once the outermost insert ends the bytes of all of them are put in place in a single pass.
+     */
+    public void endInsert(int insert) {
+        if (openInserts == 0 || insert >= insertCount) throw new IllegalStateException("cannot end insert " + insert + " since it is not open.");
+        if (--openInserts > 0) return;
+
+        // Going back to front moves each byte straight to where it ends up, past the bytes of every insert before it.
+        ensureCapacity(count + insertedSize);
+        int end = count;
+        int shift = insertedSize;
+        for (int i = insertCount - 1; i >= 0; i--) {
+            int position = insertPositions[i];
+            System.arraycopy(buf, position, buf, position + shift, end - position);
+            movedBytes += end - position;
+            shift -= insertLengths[i];
+            System.arraycopy(insertBytes, insertOffsets[i], buf, position + shift, insertLengths[i]);
+            end = position;
+        }
+        count += insertedSize;
+        clearInserts();
+    }
+
+    private void clearInserts() {
+        insertCount = 0;
+        openInserts = 0;
+        insertedSize = 0;
+    }
+
+    /**
+     * Gets how many already written bytes were moved by inserts since the stream was made.
+     */
+    public long getMovedBytes() {
+        return movedBytes;
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.github.nightfall.odsl.util;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A per class cache of factories for the objects deserializers create, so reading an array of objects
+ * looks up & checks the no argument constructor once per class rather than once per element.
+ * <p>
+ * A factory is a registered {@link Supplier} if there is one, otherwise a Supplier generated over the
+ * class's no argument constructor.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class Instantiators {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final Map<Class<?>, Supplier<?>> REGISTERED = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Factory> FACTORIES = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> type) {
+            Supplier<?> supplier = REGISTERED.get(type);
+            if (supplier != null) return new Factory(supplier, null);
+
+            try {
+                return new Factory(generate(type), null);
+            } catch (ReflectiveOperationException e) {
+                return new Factory(null, e);
+            }
+        }
+    };
+
+    private Instantiators() {}
+
+    /**
+     * Makes deserializers create the given class with a supplier instead of its constructor,
+     * which also lets classes without a no argument constructor be read.
+     *
+     * @param type The class the supplier creates.
+     * @param supplier The supplier, it is called from any thread that deserializes the class.
+     */
+    public static <T> void register(Class<T> type, Supplier<? extends T> supplier) {
+        REGISTERED.put(type, supplier);
+        FACTORIES.remove(type);
+    }
+
+    /**
+     * Removes the supplier registered for a class, making deserializers go back to its constructor.
+     */
+    public static void unregister(Class<?> type) {
+        REGISTERED.remove(type);
+        FACTORIES.remove(type);
+    }
+
+    /**
+     * Creates a new instance of a class, the same as calling its no argument constructor.
+     *
+     * @param type The class to create.
+     * @throws ReflectiveOperationException if the class has no usable no argument constructor,
+     *                                      or an {@link InvocationTargetException} if creating it threw.
+     */
+    public static <T> T newInstance(Class<T> type) throws ReflectiveOperationException {
+        Factory factory = FACTORIES.get(type);
+        if (factory.failure != null) throw factory.failure;
+
+        try {
+            // The factory of a class only creates instances of that class.
+            @SuppressWarnings("unchecked") T instance = (T) factory.supplier.get();
+            return instance;
+        } catch (RuntimeException e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private static Supplier<?> generate(Class<?> type) throws ReflectiveOperationException {
+        if (Modifier.isAbstract(type.getModifiers())) throw new InstantiationException("cannot create class of type \"" + type.getName() + "\" since it is abstract.");
+
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+
+        // A generated Supplier can only name the class if the class is public & visible from this class's loader.
+        if (Modifier.isPublic(type.getModifiers()) && Modifier.isPublic(constructor.getModifiers()) && isVisible(type)) {
+            try {
+                return (Supplier<?>) LambdaMetafactory.metafactory(
+                        LOOKUP, "get", MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class), handle, MethodType.methodType(type)
+                ).getTarget().invoke();
+            } catch (Throwable ignore) {
+                // Falls back to calling the handle below.
+            }
+        }
+
+        MethodHandle erased = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return erased.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException("failed to create class of type \"" + type.getName() + "\".", e);
+            }
+        };
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, Instantiators.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static class Factory {
+
+        final Supplier<?> supplier;
+        final ReflectiveOperationException failure;
+
+        Factory(Supplier<?> supplier, ReflectiveOperationException failure) {
+            this.supplier = supplier;
+            this.failure = failure;
+        }
+
+    }
+
+}
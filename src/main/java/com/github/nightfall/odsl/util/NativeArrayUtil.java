@@ -4,8 +4,10 @@ import org.jetbrains.annotations.Contract;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -16,6 +18,15 @@ import java.util.List;
  */
 public class NativeArrayUtil {
 
+    /**
+     * Creates an array of a class, the same as {@link Array#newInstance(Class, int)} but typed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T[] newArray(Class<T> type, int length) {
+        // Array.newInstance creates an array whose component type is the given class.
+        return (T[]) Array.newInstance(type, length);
+    }
+
     /**
      * Converts a Byte[] array to a native byte[] array.
      */
@@ -176,6 +187,26 @@ public class NativeArrayUtil {
         return pArray;
     }
 
+    /**
+     * Converts a boolean[] array to a BitSet with a bit set for each true element.
+     */
+    @Contract(pure = true)
+    public static BitSet toBitSet(boolean[] array) {
+        BitSet bits = new BitSet(array.length);
+        for (int i = 0; i < array.length; i++) if (array[i]) bits.set(i);
+        return bits;
+    }
+
+    /**
+     * Converts the first length bits of a BitSet to a native boolean[] array.
+     */
+    @Contract(pure = true)
+    public static boolean[] toNativeArray(BitSet bits, int length) {
+        boolean[] pArray = new boolean[length];
+        for (int i = bits.nextSetBit(0); i >= 0 && i < length; i = bits.nextSetBit(i + 1)) pArray[i] = true;
+        return pArray;
+    }
+
     private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
     private static final int DEFAULT_BUFFER_SIZE = 8192;
 
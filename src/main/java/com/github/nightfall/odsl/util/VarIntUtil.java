@@ -0,0 +1,137 @@
+package com.github.nightfall.odsl.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A util for writing & reading LEB128 varints, seven bits per byte with the high bit marking that another byte follows.
+ * Values that can be negative are zigzag encoded first, so -1 is written as 1 and 1 as 2, keeping small negatives small.
+ *
+ * @author Mr Zombii
+ * @since 1.0.3
+ */
+public class VarIntUtil {
+
+    /**
+     * The most bytes an int varint takes.
+     */
+    public static final int MAX_VAR_INT_SIZE = 5;
+
+    /**
+     * The most bytes a long varint takes.
+     */
+    public static final int MAX_VAR_LONG_SIZE = 10;
+
+    /**
+     * Writes an int as an unsigned varint, negative ints always take five bytes.
+     */
+    public static void writeUnsignedVarInt(DataOutput out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    /**
+     * Writes a long as an unsigned varint, negative longs always take ten bytes.
+     */
+    public static void writeUnsignedVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * Writes an int as a zigzag encoded varint.
+     */
+    public static void writeVarInt(DataOutput out, int v) throws IOException {
+        writeUnsignedVarInt(out, (v << 1) ^ (v >> 31));
+    }
+
+    /**
+     * Writes a long as a zigzag encoded varint.
+     */
+    public static void writeVarLong(DataOutput out, long v) throws IOException {
+        writeUnsignedVarLong(out, (v << 1) ^ (v >> 63));
+    }
+
+    /**
+     * Writes an unsigned varint padded to exactly the given amount of bytes, which decodes to the same value
+     * as the shortest form. Used to back-patch a length into a slot reserved before the length was known.
+     *
+     * @param buffer The array the varint is written into.
+     * @param position The position of the first byte.
+     * @param v The value, which has to fit in the given amount of bytes.
+     * @param size The amount of bytes to fill, from 1 to {@link #MAX_VAR_INT_SIZE}.
+     */
+    public static void writePaddedUnsignedVarInt(byte[] buffer, int position, int v, int size) {
+        if (size < MAX_VAR_INT_SIZE && (v >>> (7 * size)) != 0) throw new RuntimeException("cannot fit " + v + " in a " + size + " byte varint.");
+
+        for (int i = 0; i < size - 1; i++) {
+            buffer[position + i] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position + size - 1] = (byte) v;
+    }
+
+    /**
+     * Gets how many bytes an int takes as an unsigned varint.
+     */
+    public static int unsignedVarIntSize(int v) {
+        // Every 7 significant bits take a byte, 0 still takes one.
+        return (31 - Integer.numberOfLeadingZeros(v | 1)) / 7 + 1;
+    }
+
+    /**
+     * Reads an unsigned varint int.
+     */
+    public static int readUnsignedVarInt(DataInput in) throws IOException {
+        // Unrolled since nearly every varint is one or two bytes, so most reads take the first exits.
+        int b = in.readByte();
+        if (b >= 0) return b;
+        int v = b & 0x7F;
+        if ((b = in.readByte()) >= 0) return v | b << 7;
+        v |= (b & 0x7F) << 7;
+        if ((b = in.readByte()) >= 0) return v | b << 14;
+        v |= (b & 0x7F) << 14;
+        if ((b = in.readByte()) >= 0) return v | b << 21;
+        v |= (b & 0x7F) << 21;
+        b = in.readByte();
+        if ((b & 0xF0) != 0) throw new IOException("malformed varint, it is longer than an int.");
+        return v | b << 28;
+    }
+
+    /**
+     * Reads an unsigned varint long.
+     */
+    public static long readUnsignedVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new IOException("malformed varint, it is longer than a long.");
+    }
+
+    /**
+     * Reads a zigzag encoded varint int.
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int v = readUnsignedVarInt(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Reads a zigzag encoded varint long.
+     */
+    public static long readVarLong(DataInput in) throws IOException {
+        long v = readUnsignedVarLong(in);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+}
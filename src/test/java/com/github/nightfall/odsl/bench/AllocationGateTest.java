@@ -0,0 +1,59 @@
+package com.github.nightfall.odsl.bench;
+
+import com.github.nightfall.odsl.bench.payload.PayloadShape;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class AllocationGateTest {
+
+    static Properties baseline(String key, String bytes) {
+        Properties baseline = new Properties();
+        baseline.setProperty(key, bytes);
+        return baseline;
+    }
+
+    @Test
+    void allocationWithinToleranceOrNoisePasses() {
+        assertEquals(0, AllocationGate.check(Collections.singletonMap("a.SHAPE", 10_900.0), baseline("a.SHAPE", "10000"), 0.10));
+        assertEquals(0, AllocationGate.check(Collections.singletonMap("a.SHAPE", 60.0), baseline("a.SHAPE", "0"), 0.10));
+    }
+
+    @Test
+    void allocationGrowthFails() {
+        assertEquals(1, AllocationGate.check(Collections.singletonMap("a.SHAPE", 11_200.0), baseline("a.SHAPE", "10000"), 0.10));
+        assertEquals(1, AllocationGate.check(Collections.singletonMap("a.SHAPE", 100.0), baseline("a.SHAPE", "0"), 0.10));
+    }
+
+    @Test
+    void missingBaselineFails() {
+        assertEquals(1, AllocationGate.check(Collections.singletonMap("b.SHAPE", 1.0), baseline("a.SHAPE", "10000"), 0.10));
+    }
+
+    // The baseline is a resource of the jmh source set, so it is found wherever the tests are run from.
+    @Test
+    void everyBenchmarkHasABaseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = AllocationGateTest.class.getResourceAsStream("/allocation-baseline.properties")) {
+            assertNotNull(in, "allocation-baseline.properties");
+            baseline.load(in);
+        }
+
+        for (Method method : AllocationBenchmark.class.getMethods()) {
+            if (!method.isAnnotationPresent(Benchmark.class)) continue;
+            for (PayloadShape shape : PayloadShape.values()) {
+                String key = method.getName() + "." + shape;
+                assertNotNull(baseline.getProperty(key), key);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.github.nightfall.odsl.bench.payload;
+
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The payloads have no equals, so a payload read back is checked by writing it again & comparing the bytes.
+ */
+class PayloadShapeTest {
+
+    static byte[] named(BenchPayload payload) throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    static byte[] keyless(BenchPayload payload) throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        payload.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @ParameterizedTest
+    @EnumSource(PayloadShape.class)
+    void payloadsAreTheSameEveryRun(PayloadShape shape) throws IOException {
+        assertArrayEquals(named(shape.create()), named(shape.create()));
+        assertTrue(shape.create().getFieldCount() > 0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PayloadShape.class)
+    void namedPayloadsRoundTrip(PayloadShape shape) throws IOException {
+        byte[] bytes = named(shape.create());
+        BenchPayload read = shape.newInstance();
+        read.read(new NamedBinaryDeserializer(bytes));
+        assertArrayEquals(bytes, named(read));
+    }
+
+    @ParameterizedTest
+    @EnumSource(PayloadShape.class)
+    void keylessPayloadsRoundTrip(PayloadShape shape) throws IOException {
+        byte[] bytes = keyless(shape.create());
+        BenchPayload read = shape.newInstance();
+        read.read(new KeylessBinaryDeserializer(bytes));
+        assertArrayEquals(bytes, keyless(read));
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.github.nightfall.odsl.io.compression;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompressionCodecsTest {
+
+    @BeforeAll
+    static void register() {
+        CompatDocument.register();
+    }
+
+    static List<ICompressionCodec> codecs() {
+        return Arrays.asList(
+                CompressionCodecs.NONE, CompressionCodecs.DEFLATE, CompressionCodecs.LZ4, CompressionCodecs.GZIP,
+                CompressionCodecs.PARALLEL_LZ4, CompressionCodecs.PARALLEL_DEFLATE,
+                new DeflateCodec(Deflater.BEST_COMPRESSION, Deflater.FILTERED)
+        );
+    }
+
+    static List<byte[]> payloads() throws IOException {
+        List<byte[]> payloads = new ArrayList<>();
+        payloads.add(new byte[0]);
+        payloads.add(new byte[]{42});
+
+        Random random = new Random(10);
+        byte[] noise = new byte[100_000];
+        random.nextBytes(noise);
+        payloads.add(noise);
+
+        // Repeats at many distances & run lengths, including overlapping matches.
+        byte[] repetitive = new byte[1 << 20];
+        for (int i = 0; i < repetitive.length; i++) repetitive[i] = (byte) (i % 251 < 200 ? i % 7 : random.nextInt());
+        payloads.add(repetitive);
+
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        payloads.add(serializer.toBytes());
+        return payloads;
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void payloadsRoundTrip(ICompressionCodec codec) throws IOException {
+        for (byte[] payload : payloads()) {
+            byte[] compressed = CompressionCodecs.compress(codec, payload);
+            assertEquals(codec.getId(), compressed[0] & 0xFF);
+            assertArrayEquals(payload, CompressionCodecs.decompress(compressed), codec + " on " + payload.length + " bytes");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void partOfAnArrayRoundTrips(ICompressionCodec codec) throws IOException {
+        byte[] payload = payloads().get(3);
+        byte[] compressed = CompressionCodecs.compress(codec, payload, 1000, 50_000);
+
+        byte[] padded = new byte[compressed.length + 20];
+        System.arraycopy(compressed, 0, padded, 7, compressed.length);
+        assertArrayEquals(Arrays.copyOfRange(payload, 1000, 51_000), CompressionCodecs.decompress(padded, 7, compressed.length));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void truncatedDataFails(ICompressionCodec codec) throws IOException {
+        if (codec == CompressionCodecs.NONE) return;
+
+        byte[] compressed = CompressionCodecs.compress(codec, payloads().get(3));
+        for (int length : new int[]{1, 2, 5, 13, compressed.length / 2, compressed.length - 1}) {
+            assertThrows(IOException.class, () -> CompressionCodecs.decompress(compressed, 0, length), codec + " truncated to " + length);
+        }
+    }
+
+    @Test
+    void unknownCodecFails() {
+        assertThrows(IOException.class, () -> CompressionCodecs.decompress(new byte[]{(byte) 250, 1, 2, 3}));
+        assertThrows(IOException.class, () -> CompressionCodecs.decompress(new byte[0]));
+        assertThrows(IOException.class, () -> INamedDeserializer.createDefault(new byte[]{(byte) 250, 1, 2, 3}, true));
+    }
+
+    @Test
+    void reservedIdsCannotBeRegistered() {
+        assertThrows(RuntimeException.class, () -> CompressionCodecs.register(new FixedIdCodec(CompressionCodecs.GZIP_MAGIC)));
+        assertThrows(RuntimeException.class, () -> CompressionCodecs.register(new FixedIdCodec(256)));
+        assertThrows(RuntimeException.class, () -> CompressionCodecs.register(new FixedIdCodec(-1)));
+    }
+
+    @Test
+    void customCodecsAreFoundByTheirId() throws IOException {
+        FixedIdCodec codec = new FixedIdCodec(200);
+        CompressionCodecs.register(codec);
+        byte[] compressed = CompressionCodecs.compress(codec, new byte[]{1, 2, 3});
+
+        assertArrayEquals(new byte[]{(byte) 200, 3, 2, 1}, compressed);
+        assertArrayEquals(new byte[]{1, 2, 3}, CompressionCodecs.decompress(compressed));
+    }
+
+    // 1.0.0 wrote plain GZIP with no header byte, which has to be read the same way & still be written by default.
+    @Test
+    void oldGzipDataIsRead() throws IOException {
+        CompatDocument.check(INamedDeserializer.createDefault(CompatDocument.resource("named.gz.bin"), true));
+        CompatDocument.check(IKeylessDeserializer.createDefault(CompatDocument.resource("keyless.gz.bin"), true));
+    }
+
+    @Test
+    void defaultCompressionIsPlainGzip() throws IOException {
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        CompatDocument.write(named);
+        assertArrayEquals(named.toBytes(), gunzip(named.toCompressedBytes()));
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        CompatDocument.write(keyless);
+        assertArrayEquals(keyless.toBytes(), gunzip(keyless.toCompressedBytes()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void serializersCompressWithCodecs(ICompressionCodec codec) throws IOException {
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        CompatDocument.write(named);
+        CompatDocument.check(INamedDeserializer.createDefault(named.toCompressedBytes(codec), true));
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        CompatDocument.write(keyless);
+        CompatDocument.check(IKeylessDeserializer.createDefault(keyless.toCompressedBytes(codec), true));
+    }
+
+    static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1; ) out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Reverses the bytes, so it is easy to tell it apart from storing them as they are.
+     */
+    static class FixedIdCodec implements ICompressionCodec {
+
+        final int id;
+
+        FixedIdCodec(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public void compress(byte[] bytes, int offset, int length, OutputStream out) throws IOException {
+            for (int i = offset + length - 1; i >= offset; i--) out.write(bytes[i]);
+        }
+
+        @Override
+        public byte[] decompress(byte[] bytes, int offset, int length) {
+            byte[] result = new byte[length];
+            for (int i = 0; i < length; i++) result[i] = bytes[offset + length - 1 - i];
+            return result;
+        }
+
+    }
+
+}
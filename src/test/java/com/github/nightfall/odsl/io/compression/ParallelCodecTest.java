@@ -0,0 +1,102 @@
+package com.github.nightfall.odsl.io.compression;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelCodecTest {
+
+    static final int BLOCK_SIZE = 4096;
+
+    static ForkJoinPool single;
+    static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPools() {
+        single = new ForkJoinPool(1);
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPools() {
+        single.shutdown();
+        pool.shutdown();
+    }
+
+    static byte[] payload(int length) {
+        Random random = new Random(length);
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) payload[i] = (byte) (i % 97 < 80 ? i % 11 : random.nextInt());
+        return payload;
+    }
+
+    // Lengths below, at & around multiples of the block size.
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, BLOCK_SIZE * 64, BLOCK_SIZE * 64 + 17})
+    void parallelFramesMatchSequentialFrames(int length) throws IOException {
+        byte[] payload = payload(length);
+        for (ICompressionCodec blockCodec : new ICompressionCodec[]{CompressionCodecs.LZ4, CompressionCodecs.DEFLATE}) {
+            byte[] sequential = CompressionCodecs.compress(new ParallelCodec(blockCodec, BLOCK_SIZE, single), payload);
+            byte[] parallel = CompressionCodecs.compress(new ParallelCodec(blockCodec, BLOCK_SIZE, pool), payload);
+            assertArrayEquals(sequential, parallel);
+
+            assertArrayEquals(payload, CompressionCodecs.decompress(parallel));
+            assertArrayEquals(payload, new ParallelCodec(CompressionCodecs.NONE, 1, single).decompress(parallel, 1, parallel.length - 1));
+        }
+    }
+
+    @Test
+    void truncatedFramesFail() throws IOException {
+        byte[] compressed = CompressionCodecs.compress(new ParallelCodec(CompressionCodecs.LZ4, BLOCK_SIZE, pool), payload(BLOCK_SIZE * 16));
+        for (int length : new int[]{1, 5, 13, 40, compressed.length / 2, compressed.length - 1}) {
+            assertThrows(IOException.class, () -> CompressionCodecs.decompress(compressed, 0, length), "truncated to " + length);
+        }
+    }
+
+    @Test
+    void corruptBlockFailsWithoutBreakingThePool() throws IOException {
+        ParallelCodec codec = new ParallelCodec(CompressionCodecs.LZ4, BLOCK_SIZE, pool);
+        byte[] payload = payload(BLOCK_SIZE * 16);
+        byte[] compressed = CompressionCodecs.compress(codec, payload);
+
+        // Point the header byte of the middle block at a codec that does not exist.
+        int blockOffset = 1 + Integer.BYTES * (3 + 16);
+        for (int i = 0; i < 8; i++) blockOffset += CompressionCodecs.readInt(compressed, 1 + Integer.BYTES * (3 + i));
+        byte[] corrupt = compressed.clone();
+        corrupt[blockOffset] = (byte) 250;
+        assertThrows(IOException.class, () -> CompressionCodecs.decompress(corrupt));
+
+        byte[] wrongCount = compressed.clone();
+        wrongCount[1 + Integer.BYTES * 3 - 1]++;
+        assertThrows(IOException.class, () -> CompressionCodecs.decompress(wrongCount));
+
+        assertArrayEquals(payload, codec.decompress(compressed, 1, compressed.length - 1));
+    }
+
+    @Test
+    void invalidSettingsFail() {
+        assertThrows(RuntimeException.class, () -> new ParallelCodec(CompressionCodecs.PARALLEL_LZ4));
+        assertThrows(RuntimeException.class, () -> new ParallelCodec(CompressionCodecs.LZ4, 0));
+    }
+
+    @Test
+    void blocksCanBeDecompressedOnTheirOwn() throws IOException {
+        byte[] payload = payload(BLOCK_SIZE * 3);
+        byte[] compressed = CompressionCodecs.compress(new ParallelCodec(CompressionCodecs.DEFLATE, BLOCK_SIZE, pool), payload);
+
+        int blockOffset = 1 + Integer.BYTES * 6;
+        int blockLength = CompressionCodecs.readInt(compressed, 1 + Integer.BYTES * 3);
+        assertArrayEquals(Arrays.copyOf(payload, BLOCK_SIZE), CompressionCodecs.decompress(compressed, blockOffset, blockLength));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.nightfall.odsl.io.custom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomTypeIdsTest {
+
+    interface Animal {}
+
+    static class Dog implements Animal {}
+
+    static class Puppy extends Dog {}
+
+    static class Cat implements Animal {}
+
+    // Ids far above any other test's keep these classes from taking ids the typed object tests expect to be free.
+    static final int FIRST = 1000;
+
+    @Test
+    void classesKeepTheirId() {
+        try {
+            CustomTypeIds.register(Dog.class, FIRST);
+            assertEquals(FIRST, CustomTypeIds.register(Dog.class));
+            CustomTypeIds.register(Dog.class, FIRST);
+            assertSame(Dog.class, CustomTypeIds.getType(FIRST));
+            assertTrue(CustomTypeIds.size() > FIRST);
+
+            assertThrows(RuntimeException.class, () -> CustomTypeIds.register(Dog.class, FIRST + 1));
+            assertThrows(RuntimeException.class, () -> CustomTypeIds.register(Cat.class, FIRST));
+        } finally {
+            CustomTypeIds.unregister(Dog.class);
+        }
+        assertNull(CustomTypeIds.getType(FIRST));
+        assertEquals(-1, CustomTypeIds.getId(Dog.class));
+        CustomTypeIds.unregister(Dog.class);
+    }
+
+    @Test
+    void unregisteringFreesTheId() {
+        int dog = CustomTypeIds.register(Dog.class);
+        try {
+            CustomTypeIds.unregister(Dog.class);
+            assertEquals(dog, CustomTypeIds.register(Cat.class));
+        } finally {
+            CustomTypeIds.unregister(Dog.class);
+            CustomTypeIds.unregister(Cat.class);
+        }
+    }
+
+    // Subclasses & implementations without an id of their own are written with their nearest supertype's.
+    @Test
+    void supertypesGiveTheirId() {
+        try {
+            CustomTypeIds.register(Animal.class, FIRST);
+            assertEquals(FIRST, CustomTypeIds.getId(Puppy.class));
+
+            CustomTypeIds.register(Dog.class, FIRST + 1);
+            assertEquals(FIRST + 1, CustomTypeIds.getId(Puppy.class));
+            assertEquals(FIRST, CustomTypeIds.getId(Cat.class));
+        } finally {
+            CustomTypeIds.unregister(Animal.class);
+            CustomTypeIds.unregister(Dog.class);
+        }
+        assertEquals(-1, CustomTypeIds.getId(Puppy.class));
+    }
+
+    @Test
+    void invalidIdsFail() {
+        assertThrows(RuntimeException.class, () -> CustomTypeIds.register(Dog.class, -1));
+        assertThrows(RuntimeException.class, () -> CustomTypeIds.register(Dog[].class));
+        assertNull(CustomTypeIds.getType(-1));
+        assertNull(CustomTypeIds.getType(Integer.MAX_VALUE));
+
+        RuntimeException unknown = assertThrows(RuntimeException.class, () -> CustomTypeIds.getNamedDeserializer(Integer.MAX_VALUE));
+        assertTrue(unknown.getMessage().contains("no class being registered"), unknown.getMessage());
+        assertThrows(RuntimeException.class, () -> CustomTypeIds.getKeylessDeserializer(-1));
+
+        try {
+            CustomTypeIds.register(Dog.class, FIRST);
+            assertThrows(RuntimeException.class, () -> CustomTypeIds.getNamedDeserializer(FIRST));
+            assertThrows(RuntimeException.class, () -> CustomTypeIds.getKeylessDeserializer(FIRST));
+        } finally {
+            CustomTypeIds.unregister(Dog.class);
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.github.nightfall.odsl.io.custom;
+
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerializerRegistryTest {
+
+    interface Shape {}
+
+    interface Round extends Shape {}
+
+    static class Base {}
+
+    static class Circle extends Base implements Round {}
+
+    static class Ball extends Circle implements Serializable {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    void registrationsReplaceEachOther() {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        assertNull(registry.put(Base.class, "a"));
+        assertEquals("a", registry.put(Base.class, "b"));
+        assertEquals("b", registry.putIfAbsent(Base.class, "c"));
+        assertEquals("b", registry.getExact(Base.class));
+
+        assertEquals("b", registry.remove(Base.class));
+        assertNull(registry.remove(Base.class));
+        assertNull(registry.get(Base.class));
+        assertNull(registry.putIfAbsent(Base.class, "c"));
+        assertEquals("c", registry.get(Base.class));
+    }
+
+    // Superclasses nearest first win over any interface, then interfaces are searched breadth first.
+    @Test
+    void supertypesAreResolved() {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        registry.put(Shape.class, "shape");
+        assertEquals("shape", registry.get(Ball.class));
+        assertEquals("shape", registry.get(Round.class));
+        assertNull(registry.getExact(Ball.class));
+        assertFalse(registry.contains(Base.class));
+
+        registry.put(Round.class, "round");
+        assertEquals("round", registry.get(Ball.class));
+
+        registry.put(Base.class, "base");
+        assertEquals("base", registry.get(Ball.class));
+
+        registry.put(Circle.class, "circle");
+        assertEquals("circle", registry.get(Ball.class));
+        assertEquals("base", registry.get(Base.class));
+        assertNull(registry.get(String.class));
+    }
+
+    // A resolution is cached per class, so it has to be dropped when a registration changes what it would find.
+    @Test
+    void cachedResolutionsFollowRegistrations() {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        registry.put(Base.class, "base");
+        assertEquals("base", registry.get(Ball.class));
+
+        registry.put(Ball.class, "ball");
+        assertEquals("ball", registry.get(Ball.class));
+
+        registry.remove(Ball.class);
+        registry.remove(Base.class);
+        assertNull(registry.get(Ball.class));
+    }
+
+    @Test
+    void snapshotsDoNotChange() {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        registry.put(Base.class, "base");
+        Map<Class<?>, String> snapshot = registry.snapshot();
+
+        registry.put(Circle.class, "circle");
+        registry.remove(Base.class);
+        assertEquals(1, snapshot.size());
+        assertEquals("base", snapshot.get(Base.class));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put(Ball.class, "ball"));
+    }
+
+    @Test
+    void mapViewsWriteTheRegistry() {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        HashMap<Class<?>, String> map = registry.asHashMap();
+
+        map.put(Base.class, "base");
+        assertEquals("base", registry.get(Circle.class));
+        assertEquals(1, map.size());
+        assertTrue(map.containsValue("base"));
+
+        assertEquals("circle", map.computeIfAbsent(Circle.class, type -> "circle"));
+        assertEquals("base", map.computeIfAbsent(Base.class, type -> "other"));
+        assertEquals("base!", map.merge(Base.class, "!", String::concat));
+        assertFalse(map.remove(Base.class, "base"));
+        assertTrue(map.replace(Base.class, "base!", "base"));
+        assertNull(map.compute(Circle.class, (type, value) -> null));
+        assertNull(registry.getExact(Circle.class));
+        assertThrows(UnsupportedOperationException.class, () -> map.keySet().clear());
+
+        Map<Class<?>, String> copy = new HashMap<>(map);
+        map.clear();
+        assertTrue(registry.snapshot().isEmpty());
+        assertEquals("base", copy.get(Base.class));
+    }
+
+    // Readers never lock, so each read has to see either the old or the new serializer & never anything torn.
+    @Test
+    void readsDuringRegistration() throws Exception {
+        SerializerRegistry<String> registry = new SerializerRegistry<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20000; i++) {
+                        String serializer = registry.get(Ball.class);
+                        assertTrue(serializer == null || serializer.startsWith("base") || serializer.equals("round"), serializer);
+                    }
+                    return null;
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2000; i++) {
+                    registry.put(Base.class, "base" + i);
+                    if (i % 2 == 0) registry.remove(Base.class);
+                    else registry.put(Round.class, "round");
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals("base1999", registry.get(Ball.class));
+    }
+
+    public static class Vec3 extends CompatDocument.Vec {
+
+        public Vec3(double x, double y) {
+            super(x, y);
+        }
+
+    }
+
+    // A subclass without its own serializer is written by its superclass's, & so reads back as the superclass.
+    @Test
+    void subclassesAreWrittenWithTheirSuperclassSerializer() throws IOException {
+        CompatDocument.register();
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeCustomObject("vec", new Vec3(1, 2));
+        assertEquals(new CompatDocument.Vec(1, 2), INamedDeserializer.createDefault(serializer.toBytes(), false).readCustomObject("vec", CompatDocument.Vec.class));
+    }
+
+}
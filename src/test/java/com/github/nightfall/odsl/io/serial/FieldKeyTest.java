@@ -0,0 +1,37 @@
+package com.github.nightfall.odsl.io.serial;
+
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldKeyTest {
+
+    @Test
+    void keysAreEncodedLikeWriteUTF() throws IOException {
+        for (String name : new String[]{"", "x", "position", "é中\0"}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(name);
+
+            FieldKey key = INamedSerializer.key(name);
+            assertEquals(name, key.getName());
+            assertEquals(name, key.toString());
+            assertArrayEquals(bytes.toByteArray(), key.getEncoded());
+        }
+    }
+
+    @Test
+    void tooLongNamesFail() {
+        char[] name = new char[70_000];
+        Arrays.fill(name, 'k');
+        assertThrows(RuntimeException.class, () -> new FieldKey(new String(name)));
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.github.nightfall.odsl.io.serial;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks the current readers & writers against files written by 1.0.0, see {@link CompatDocument} & {@link NestedDocument}.
+ */
+class FormatCompatibilityTest {
+
+    @BeforeAll
+    static void register() {
+        CompatDocument.register();
+    }
+
+    @Test
+    void namedWriterMatchesOldFormat() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        assertArrayEquals(CompatDocument.resource("named.bin"), serializer.toBytes());
+    }
+
+    @Test
+    void keylessWriterMatchesOldFormat() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        CompatDocument.write(serializer);
+        assertArrayEquals(CompatDocument.resource("keyless.bin"), serializer.toBytes());
+    }
+
+    @Test
+    void namedIntArraysRoundTrip() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeIntArray("ints", CompatDocument.INTS);
+        serializer.writeIntArray("none", new int[0]);
+
+        INamedDeserializer deserializer = INamedDeserializer.createDefault(serializer.toBytes(), false);
+        assertArrayEquals(CompatDocument.INTS, deserializer.readIntArrayAsNative("ints"));
+        assertArrayEquals(new int[0], deserializer.readIntArrayAsNative("none"));
+    }
+
+    @Test
+    void namedReaderReadsOldData() throws IOException {
+        CompatDocument.check(INamedDeserializer.createDefault(CompatDocument.resource("named.bin"), false));
+    }
+
+    @Test
+    void keylessReaderReadsOldData() throws IOException {
+        CompatDocument.check(IKeylessDeserializer.createDefault(CompatDocument.resource("keyless.bin"), false));
+    }
+
+    @Test
+    void nestedObjectsMatchOldFormat() throws IOException {
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        NestedDocument.write(named);
+        assertArrayEquals(CompatDocument.resource("nested.bin"), named.toBytes());
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        NestedDocument.write(keyless);
+        assertArrayEquals(CompatDocument.resource("keyless-nested.bin"), keyless.toBytes());
+    }
+
+    @Test
+    void readersReadOldNestedObjects() throws IOException {
+        NestedDocument.check(INamedDeserializer.createDefault(CompatDocument.resource("nested.bin"), false));
+        NestedDocument.check(INamedDeserializer.createLazy(CompatDocument.resource("nested.bin"), false));
+        NestedDocument.check(IKeylessDeserializer.createDefault(CompatDocument.resource("keyless-nested.bin"), false));
+    }
+
+    @Test
+    void stringSchemaMatchesOldFormat() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.writeStrings(serializer);
+        assertArrayEquals(CompatDocument.resource("strings.bin"), serializer.toBytes());
+
+        CompatDocument.checkStrings(INamedDeserializer.createDefault(CompatDocument.resource("strings.bin"), false));
+        CompatDocument.checkStrings(INamedDeserializer.createLazy(CompatDocument.resource("strings.bin"), false));
+    }
+
+}
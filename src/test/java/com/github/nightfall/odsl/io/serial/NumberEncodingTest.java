@@ -0,0 +1,164 @@
+package com.github.nightfall.odsl.io.serial;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingNamedSerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NumberEncodingTest {
+
+    // Values on both sides of every width, negatives included since FIXED used to give them all one byte.
+    static final int[] INTS = {0, 1, -1, 127, 128, -128, -129, 300, -300, Short.MAX_VALUE, Short.MAX_VALUE + 1, Short.MIN_VALUE, Short.MIN_VALUE - 1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    static final long[] LONGS = {0, -1, -300, Integer.MIN_VALUE - 1L, Integer.MAX_VALUE + 1L, Long.MAX_VALUE, Long.MIN_VALUE};
+    static final short[] SHORTS = {0, -1, 127, -129, -300, Short.MAX_VALUE, Short.MIN_VALUE};
+
+    static void writeNumbers(INamedSerializer out) throws IOException {
+        for (int i = 0; i < INTS.length; i++) out.writeInt("int" + i, INTS[i]);
+        for (int i = 0; i < LONGS.length; i++) out.writeLong("long" + i, LONGS[i]);
+        for (int i = 0; i < SHORTS.length; i++) out.writeShort("short" + i, SHORTS[i]);
+        out.writeIntArray("intArray", INTS);
+        out.writeLongArray("longArray", LONGS);
+        out.writeShortArray("shortArray", SHORTS);
+    }
+
+    static void checkNumbers(INamedDeserializer in) {
+        for (int i = 0; i < INTS.length; i++) assertEquals(INTS[i], in.readInt("int" + i));
+        for (int i = 0; i < LONGS.length; i++) assertEquals(LONGS[i], in.readLong("long" + i));
+        for (int i = 0; i < SHORTS.length; i++) assertEquals(SHORTS[i], in.readShort("short" + i));
+        assertArrayEquals(INTS, in.readIntArrayAsNative("intArray"));
+        assertArrayEquals(LONGS, in.readLongArrayAsNative("longArray"));
+        assertArrayEquals(SHORTS, in.readShortArrayAsNative("shortArray"));
+    }
+
+    static void writeNumbers(IKeylessSerializer out) throws IOException {
+        for (int v : INTS) out.writeInt(v);
+        for (long v : LONGS) out.writeLong(v);
+        for (short v : SHORTS) out.writeShort(v);
+        out.writeIntArray(INTS);
+    }
+
+    static void checkNumbers(IKeylessDeserializer in) throws IOException {
+        for (int v : INTS) assertEquals(v, in.readInt());
+        for (long v : LONGS) assertEquals(v, in.readLong());
+        for (short v : SHORTS) assertEquals(v, in.readShort());
+        assertArrayEquals(INTS, in.readIntArrayAsNative());
+    }
+
+    static byte[] named(NumberEncoding numberEncoding) throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer(numberEncoding);
+        writeNumbers(serializer);
+        CompatDocument.write(serializer);
+        NestedDocument.write(serializer);
+        return serializer.toBytes();
+    }
+
+    static byte[] keyless(NumberEncoding numberEncoding) throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer(numberEncoding);
+        writeNumbers(serializer);
+        CompatDocument.write(serializer);
+        NestedDocument.write(serializer);
+        return serializer.toBytes();
+    }
+
+    static void checkKeyless(IKeylessDeserializer in) throws IOException {
+        checkNumbers(in);
+        CompatDocument.check(in);
+        NestedDocument.check(in);
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void namedDataRoundTrips(NumberEncoding numberEncoding) throws IOException {
+        byte[] bytes = named(numberEncoding);
+        for (boolean isLazy : new boolean[]{false, true}) {
+            // The encoding is read from the data, so the deserializer is not told.
+            INamedDeserializer in = new NamedBinaryDeserializer(bytes, isLazy);
+            checkNumbers(in);
+            CompatDocument.check(in);
+            NestedDocument.check(in);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void keylessDataRoundTrips(NumberEncoding numberEncoding) throws IOException {
+        checkKeyless(new KeylessBinaryDeserializer(keyless(numberEncoding), numberEncoding));
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void streamedDataMatches(NumberEncoding numberEncoding) throws IOException {
+        ByteArrayOutputStream keyless = new ByteArrayOutputStream();
+        try (StreamingKeylessSerializer serializer = new StreamingKeylessSerializer(keyless, 16, numberEncoding)) {
+            writeNumbers(serializer);
+            CompatDocument.write(serializer);
+            NestedDocument.write(serializer);
+        }
+        assertArrayEquals(keyless(numberEncoding), keyless.toByteArray());
+
+        ByteArrayOutputStream named = new ByteArrayOutputStream();
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(named, 16, numberEncoding)) {
+            writeNumbers(serializer);
+            CompatDocument.write(serializer);
+            NestedDocument.write(serializer);
+        }
+        INamedDeserializer in = new NamedBinaryDeserializer(named.toByteArray(), false);
+        checkNumbers(in);
+        CompatDocument.check(in);
+        NestedDocument.check(in);
+    }
+
+    // FIXED has to stay readable by versions before 1.0.3, which is checked against their files in FormatCompatibilityTest.
+    @Test
+    void varintsAreSmaller() throws IOException {
+        assertTrue(named(NumberEncoding.VARINT).length < named(NumberEncoding.FIXED).length);
+        assertTrue(keyless(NumberEncoding.VARINT).length < keyless(NumberEncoding.FIXED).length);
+    }
+
+    @Test
+    void truncatedVarintDataFails() throws IOException {
+        byte[] named = named(NumberEncoding.VARINT);
+        for (int length : new int[]{1, 5, named.length / 2, named.length - 1}) {
+            byte[] truncated = Arrays.copyOf(named, length);
+            assertThrows(IOException.class, () -> new NamedBinaryDeserializer(truncated, false), "truncated to " + length);
+        }
+
+        // Nested keyless objects cut short are returned part read, as they always were, so only the numbers are cut here.
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer(NumberEncoding.VARINT);
+        writeNumbers(serializer);
+        byte[] keyless = serializer.toBytes();
+        for (int length = 0; length < keyless.length; length++) {
+            IKeylessDeserializer in = new KeylessBinaryDeserializer(Arrays.copyOf(keyless, length), NumberEncoding.VARINT);
+            assertThrows(EOFException.class, () -> checkNumbers(in), "truncated to " + length);
+        }
+    }
+
+    @Test
+    void unknownEncodingIdsFail() {
+        assertEquals(NumberEncoding.VARINT, NumberEncoding.fromId(NumberEncoding.VARINT.ordinal()));
+        assertThrows(RuntimeException.class, () -> NumberEncoding.fromId(NumberEncoding.values().length));
+        assertThrows(RuntimeException.class, () -> NumberEncoding.fromId(-1));
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.github.nightfall.odsl.io.serial;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StringPaletteTest {
+
+    static final String[] ARRAY = {"stone", "air", "stone", "dirt", "air", "air", "stone"};
+
+    @Test
+    void stringsAreInTheOrderFirstSeen() {
+        StringPalette palette = StringPalette.of(ARRAY);
+        assertArrayEquals(new String[]{"stone", "air", "dirt"}, palette.getPalette());
+        assertArrayEquals(new int[]{0, 1, 0, 2, 1, 1, 0}, palette.getIndices());
+        assertEquals(ARRAY.length, palette.size());
+        assertEquals("dirt", palette.get(3));
+        assertEquals(2, palette.getIndex(3));
+        assertArrayEquals(ARRAY, palette.toArray());
+    }
+
+    @Test
+    void tooManyStringsGiveNull() {
+        assertNull(StringPalette.of(ARRAY, 2));
+        assertArrayEquals(ARRAY, StringPalette.of(ARRAY, 3).toArray());
+        assertEquals(0, StringPalette.of(new String[0], 0).size());
+    }
+
+}
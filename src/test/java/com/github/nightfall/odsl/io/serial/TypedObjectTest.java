@@ -0,0 +1,326 @@
+package com.github.nightfall.odsl.io.serial;
+
+import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
+import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.custom.TypedCustomObject;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryReader;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingNamedSerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.CompatDocument.Vec;
+import com.github.nightfall.odsl.util.VarIntUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypedObjectTest {
+
+    public static class Label {
+
+        public final String text;
+
+        public Label(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Label && ((Label) o).text.equals(text);
+        }
+
+        @Override
+        public int hashCode() {
+            return text.hashCode();
+        }
+
+    }
+
+    public static class LabelSerializer implements INamedCustomSerializable<Label>, IKeylessCustomSerializable<Label> {
+
+        @Override
+        public Label read(INamedDeserializer in) {
+            return new Label(in.readString("text"));
+        }
+
+        @Override
+        public void write(INamedSerializer out, Label obj) throws IOException {
+            out.writeString("text", obj.text);
+        }
+
+        @Override
+        public Label read(IKeylessDeserializer in) throws IOException {
+            return new Label(in.readString());
+        }
+
+        @Override
+        public void write(IKeylessSerializer out, Label obj) throws IOException {
+            out.writeString(obj.text);
+        }
+
+        @Override
+        public Class<Label> getSerializableType() {
+            return Label.class;
+        }
+
+    }
+
+    // Has no id or serializer of its own, so it is written as the Vec it extends.
+    public static class Vec3 extends Vec {
+
+        public Vec3(double x, double y) {
+            super(x, y);
+        }
+
+    }
+
+    static final int VEC_ID = 5, LABEL_ID = 9;
+    static final Object[] MIXED = {new Vec(1, 2), new Label("a"), new Label("b"), new Vec(-3, 0.5)};
+
+    @BeforeAll
+    static void register() {
+        CompatDocument.register();
+        LabelSerializer serializer = new LabelSerializer();
+        INamedSerializer.registerSerializer(serializer);
+        INamedDeserializer.registerDeserializer(serializer);
+        IKeylessSerializer.registerSerializer(serializer);
+        IKeylessDeserializer.registerDeserializer(serializer);
+        CustomTypeIds.register(Vec.class, VEC_ID);
+        CustomTypeIds.register(Label.class, LABEL_ID);
+    }
+
+    static void write(INamedSerializer out) throws IOException {
+        out.writeTypedObject("vec", new Vec(4, 5));
+        out.writeTypedObject("label", new Label("hi"));
+        out.writeTypedObject("vec3", new Vec3(6, 7));
+        out.writeTypedObjectArray("mixed", MIXED);
+        out.writeCustomObject("untyped", new Vec(8, 9));
+        out.writeString("last", "end");
+    }
+
+    static void check(INamedDeserializer in) {
+        assertEquals(new Vec(4, 5), in.readTypedObject("vec"));
+        assertEquals(new Label("hi"), in.readTypedObject("label"));
+        assertEquals(new Vec(6, 7), in.<Object>readTypedObject("vec3"));
+        // Typed objects don't need their class named, but naming it works too.
+        assertEquals(new Label("hi"), in.readCustomObject("label", Label.class));
+        assertArrayEquals(MIXED, in.readCustomObjectArray("mixed", Object.class));
+        assertEquals(new Vec(8, 9), in.readCustomObject("untyped", Vec.class));
+        assertEquals("end", in.readString("last"));
+    }
+
+    static byte[] named() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        write(serializer);
+        return serializer.toBytes();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void namedObjectsRoundTrip(boolean isLazy) throws IOException {
+        check(new NamedBinaryDeserializer(named(), isLazy));
+        assertThrows(RuntimeException.class, () -> new NamedBinaryDeserializer(named(), isLazy).readTypedObject("untyped"));
+
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeTypedObjectArray("empty", new Object[0]);
+        assertEquals(0, new NamedBinaryDeserializer(serializer.toBytes(), isLazy).readCustomObjectArray("empty", Label.class).length);
+    }
+
+    @Test
+    void streamedObjectsRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(out, 16)) {
+            write(serializer);
+        }
+        check(new NamedBinaryDeserializer(out.toByteArray(), false));
+    }
+
+    @Test
+    void compoundObjectsKeepTheirTypes() throws IOException {
+        CompoundObject written = new CompoundObject();
+        write(written);
+        check(written);
+
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeCompoundObject("compound", written);
+        CompoundObject read = new NamedBinaryDeserializer(serializer.toBytes(), false).readCompoundObject("compound");
+        check(read);
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> read.readTypedObject("missing"));
+        assertTrue(missing.getMessage().contains("\"missing\""), missing.getMessage());
+    }
+
+    @Test
+    void readerSkipsTypedFields() throws IOException {
+        NamedBinaryReader reader = new NamedBinaryReader(new ByteArrayInputStream(named()));
+        assertTrue(reader.skipTo("label"));
+        NamedBinaryReader label = reader.enterObject();
+        assertEquals(LABEL_ID, label.getTypeId());
+        assertTrue(label.skipTo("text"));
+        assertEquals("hi", label.readValue());
+
+        assertTrue(reader.skipTo("mixed"));
+        assertTrue(reader.skipTo("last"));
+        assertEquals("end", reader.readValue());
+    }
+
+    @Test
+    void keylessObjectsRoundTrip() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        serializer.writeTypedObject(new Label("hi"));
+        serializer.writeTypedObject(new Vec3(6, 7));
+        serializer.writeTypedObjectArray(MIXED);
+        serializer.writeInt(42);
+
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(serializer.toBytes());
+        assertEquals(new Label("hi"), in.readTypedObject());
+        assertEquals(new Vec(6, 7), in.readTypedObject());
+        assertArrayEquals(MIXED, in.readTypedObjectArray(Object.class));
+        assertEquals(42, in.readInt());
+    }
+
+    // Untyped objects are written exactly as 1.0.0 wrote them, which FormatCompatibilityTest checks against its files.
+    @Test
+    void typedObjectsCostOnlyTheirId() throws IOException {
+        NamedBinarySerializer untyped = new NamedBinarySerializer();
+        untyped.writeCustomObject("v", new Vec(1, 2));
+        NamedBinarySerializer typed = new NamedBinarySerializer();
+        typed.writeTypedObject("v", new Vec(1, 2));
+        assertEquals(untyped.size() + VarIntUtil.unsignedVarIntSize(VEC_ID), typed.size());
+    }
+
+    @Test
+    void classesWithoutAnIdFail() {
+        assertThrows(RuntimeException.class, () -> new NamedBinarySerializer().writeTypedObject("s", "no id"));
+        assertThrows(RuntimeException.class, () -> new NamedBinarySerializer().writeTypedObjectArray("s", new Object[]{new Vec(1, 1), "no id"}));
+        assertThrows(RuntimeException.class, () -> new KeylessBinarySerializer().writeTypedObject("no id"));
+    }
+
+    // The id is only known to the side that wrote it, a reader without it fails naming the id.
+    // A field that was never written fails naming it, rather than with a NullPointerException.
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void missingFieldsFail(boolean isLazy) throws IOException {
+        INamedDeserializer in = new NamedBinaryDeserializer(named(), isLazy);
+        assertMissing(assertThrows(RuntimeException.class, () -> in.readCustomObject("missing", Vec.class)));
+        assertMissing(assertThrows(RuntimeException.class, () -> in.readTypedObject("missing")));
+        assertMissing(assertThrows(RuntimeException.class, () -> in.readCustomObjectArray("missing", Vec.class)));
+    }
+
+    static void assertMissing(RuntimeException e) {
+        assertTrue(e.getMessage().contains("\"missing\"") && e.getMessage().contains("not existing"), e.getMessage());
+    }
+
+    @Test
+    void unknownTypeIdsFail() throws IOException {
+        Object[] labels = {new Label("a"), new Label("b")};
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        named.writeTypedObject("label", labels[0]);
+        named.writeTypedObjectArray("labels", labels);
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        keyless.writeTypedObject(labels[0]);
+        KeylessBinarySerializer keylessArray = new KeylessBinarySerializer();
+        keylessArray.writeTypedObjectArray(labels);
+
+        CustomTypeIds.unregister(Label.class);
+        try {
+            INamedDeserializer in = new NamedBinaryDeserializer(named.toBytes(), false);
+            assertUnknownId(assertThrows(RuntimeException.class, () -> in.readTypedObject("label")));
+            assertUnknownId(assertThrows(RuntimeException.class, () -> in.readCustomObjectArray("labels", Object.class)));
+
+            assertUnknownId(assertThrows(RuntimeException.class, () -> new KeylessBinaryDeserializer(keyless.toBytes()).readTypedObject()));
+            assertUnknownId(assertThrows(RuntimeException.class, () -> new KeylessBinaryDeserializer(keylessArray.toBytes()).readTypedObjectArray(Object.class)));
+        } finally {
+            CustomTypeIds.register(Label.class, LABEL_ID);
+        }
+    }
+
+    // Ids far past any registered one come from damaged data, & must not be used to size the dispatch table.
+    @Test
+    void hugeTypeIdsFail() throws IOException {
+        for (int typeId : new int[]{CustomTypeIds.size(), 1 << 20, Integer.MAX_VALUE}) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(1);
+            VarIntUtil.writeUnsignedVarInt(out, typeId);
+            out.writeInt(0);
+
+            IKeylessDeserializer in = new KeylessBinaryDeserializer(bytes.toByteArray());
+            assertUnknownId(assertThrows(RuntimeException.class, () -> in.readTypedObjectArray(Object.class)));
+        }
+    }
+
+    static void assertUnknownId(RuntimeException e) {
+        assertTrue(e.getMessage().contains("no class being registered") || e.getMessage().contains("not being registered"), e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void truncatedTypedDataFails(boolean isLazy) throws IOException {
+        byte[] bytes = named();
+        for (int length : new int[]{1, 10, bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> new NamedBinaryDeserializer(truncated, isLazy), "truncated to " + length);
+        }
+    }
+
+    // Serializers outside this library write typed objects as TypedCustomObjects through their plain object methods.
+    @Test
+    void typedObjectsFallBackToHolders() throws IOException {
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        INamedSerializer namedOut = delegate(INamedSerializer.class, named);
+        namedOut.writeTypedObject("label", new Label("hi"));
+        namedOut.writeTypedObjectArray("mixed", new Object[]{new Vec(1, 2), new Label("x")});
+
+        INamedDeserializer namedIn = delegate(INamedDeserializer.class, new NamedBinaryDeserializer(named.toBytes(), false));
+        assertEquals(new Label("hi"), namedIn.readTypedObject("label"));
+        assertArrayEquals(new Object[]{new Vec(1, 2), new Label("x")}, TypedCustomObject.unwrap(namedIn.readNamedObjectArray("mixed", TypedCustomObject.class), Object.class));
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        IKeylessSerializer keylessOut = delegate(IKeylessSerializer.class, keyless);
+        keylessOut.writeTypedObject(new Vec3(3, 4));
+        keylessOut.writeTypedObjectArray(new Object[]{new Label("y"), new Vec(5, 6)});
+
+        IKeylessDeserializer keylessIn = delegate(IKeylessDeserializer.class, new KeylessBinaryDeserializer(keyless.toBytes()));
+        assertEquals(new Vec(3, 4), keylessIn.readTypedObject());
+        assertArrayEquals(new Object[]{new Label("y"), new Vec(5, 6)}, keylessIn.readTypedObjectArray(Object.class));
+    }
+
+    /**
+     * Runs the interface's default methods & sends every other call to the given implementation.
+     */
+    static <T> T delegate(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+}
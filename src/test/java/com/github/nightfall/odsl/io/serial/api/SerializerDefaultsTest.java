@@ -0,0 +1,102 @@
+package com.github.nightfall.odsl.io.serial.api;
+
+import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.serial.FieldKey;
+import com.github.nightfall.odsl.io.serial.impl.KeylessBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the interface defaults, which implementations from outside this library only get through, on proxies.
+ */
+class SerializerDefaultsTest {
+
+    static final byte[] BYTES = {1, 2, 3, 4, 5};
+
+    /**
+     * Creates a proxy that runs the default methods of the interface & sends every other call to the handler.
+     */
+    static <T> T implementation(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+            return handler.invoke(proxy, method, args);
+        }));
+    }
+
+    static <T> T returningBytes(Class<T> type) {
+        return implementation(type, (proxy, method, args) -> {
+            if (method.getName().equals("toBytes")) return BYTES.clone();
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    void namedOutputFallsBackToBytes() throws IOException {
+        INamedSerializer serializer = returningBytes(INamedSerializer.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.writeTo(out);
+        assertArrayEquals(BYTES, out.toByteArray());
+        assertEquals(BYTES.length, serializer.size());
+    }
+
+    @Test
+    void keylessOutputFallsBackToBytes() throws IOException {
+        IKeylessSerializer serializer = returningBytes(IKeylessSerializer.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.writeTo(out);
+        assertArrayEquals(BYTES, out.toByteArray());
+        assertEquals(BYTES.length, serializer.size());
+    }
+
+    // Serializers from outside this library are only reused when they say so, but releasing them is always safe.
+    @Test
+    void reuseIsOptIn() {
+        INamedSerializer named = returningBytes(INamedSerializer.class);
+        assertFalse(named instanceof IResettableSerializer);
+        named.release();
+
+        IKeylessSerializer keyless = returningBytes(IKeylessSerializer.class);
+        assertFalse(keyless instanceof IResettableSerializer);
+        keyless.release();
+
+        assertTrue(IResettableSerializer.class.isAssignableFrom(NamedBinarySerializer.class));
+        assertTrue(IResettableSerializer.class.isAssignableFrom(KeylessBinarySerializer.class));
+        assertTrue(IResettableSerializer.class.isAssignableFrom(CompoundObject.class));
+    }
+
+    // Serializers that do not encode keys themselves still get every keyed write, by name.
+    @Test
+    void keysFallBackToNames() throws IOException {
+        List<String> calls = new ArrayList<>();
+        INamedSerializer serializer = implementation(INamedSerializer.class, (proxy, method, args) -> {
+            calls.add(method.getName() + " " + args[0] + " " + args[1]);
+            return null;
+        });
+        FieldKey key = INamedSerializer.key("x");
+        serializer.writeByte(key, (byte) 1);
+        serializer.writeShort(key, (short) 2);
+        serializer.writeInt(key, 3);
+        serializer.writeLong(key, 4);
+        serializer.writeFloat(key, 5);
+        serializer.writeDouble(key, 6);
+        serializer.writeBoolean(key, true);
+        serializer.writeChar(key, 'c');
+        serializer.writeString(key, "s");
+        assertEquals(Arrays.asList("writeByte x 1", "writeShort x 2", "writeInt x 3", "writeLong x 4", "writeFloat x 5.0",
+                "writeDouble x 6.0", "writeBoolean x true", "writeChar x c", "writeString x s"), calls);
+    }
+
+}
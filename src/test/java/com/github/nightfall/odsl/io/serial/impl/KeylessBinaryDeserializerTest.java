@@ -0,0 +1,142 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeylessBinaryDeserializerTest {
+
+    static void writeArrays(IKeylessSerializer serializer) throws IOException {
+        serializer.writeByteArray(CompatDocument.BYTES);
+        serializer.writeShortArray(NamedBinaryDeserializerTest.LONG_SHORTS);
+        serializer.writeIntArray(CompatDocument.INTS);
+        serializer.writeLongArray(CompatDocument.LONGS);
+        serializer.writeFloatArray(CompatDocument.FLOATS);
+        serializer.writeDoubleArray(CompatDocument.DOUBLES);
+        serializer.writeBooleanArray(CompatDocument.BOOLEANS);
+        serializer.writeCharArray(CompatDocument.CHARS);
+    }
+
+    static byte[] arrays() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        writeArrays(serializer);
+        return serializer.toBytes();
+    }
+
+    @Test
+    void nativeArraysRoundTrip() throws IOException {
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(arrays());
+        assertArrayEquals(CompatDocument.BYTES, in.readByteArrayAsNative());
+        assertArrayEquals(NamedBinaryDeserializerTest.LONG_SHORTS, in.readShortArrayAsNative());
+        assertArrayEquals(CompatDocument.INTS, in.readIntArrayAsNative());
+        assertArrayEquals(CompatDocument.LONGS, in.readLongArrayAsNative());
+        assertArrayEquals(CompatDocument.FLOATS, in.readFloatArrayAsNative());
+        assertArrayEquals(CompatDocument.DOUBLES, in.readDoubleArrayAsNative());
+        assertArrayEquals(CompatDocument.BOOLEANS, in.readBooleanArrayAsNative());
+        assertArrayEquals(CompatDocument.CHARS, in.readCharArrayAsNative());
+    }
+
+    @Test
+    void boxedArraysMatchNativeArrays() throws IOException {
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(arrays());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.BYTES), in.readByteArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(NamedBinaryDeserializerTest.LONG_SHORTS), in.readShortArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.INTS), in.readIntArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.LONGS), in.readLongArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.FLOATS), in.readFloatArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.DOUBLES), in.readDoubleArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.BOOLEANS), in.readBooleanArray());
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.CHARS), in.readCharArray());
+    }
+
+    @Test
+    void truncatedArrayFails() throws IOException {
+        byte[] truncated = Arrays.copyOf(arrays(), 40);
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(truncated);
+        in.readByteArrayAsNative();
+
+        assertThrows(EOFException.class, in::readShortArrayAsNative);
+    }
+
+    @Test
+    void mappedFilesReadLikeBytes(@TempDir Path directory) throws IOException {
+        CompatDocument.register();
+        Path file = directory.resolve("keyless.bin");
+        Files.write(file, CompatDocument.resource("keyless.bin"));
+        CompatDocument.check(IKeylessDeserializer.createMapped(file));
+
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        NestedDocument.write(serializer);
+        Files.write(file, serializer.toBytes());
+        NestedDocument.check(IKeylessDeserializer.createMapped(file));
+    }
+
+    @Test
+    void bufferViewsShareTheSourceBytes() throws IOException {
+        KeylessBinaryDeserializer in = new KeylessBinaryDeserializer(ByteBuffer.wrap(arrays()));
+
+        ByteBuffer byteView = in.readByteArrayAsBuffer();
+        assertTrue(byteView.isReadOnly());
+        byte[] byteArray = new byte[byteView.remaining()];
+        byteView.get(byteArray);
+        assertArrayEquals(CompatDocument.BYTES, byteArray);
+
+        ShortBuffer shortView = in.readShortArrayAsBuffer();
+        short[] shortArray = new short[shortView.remaining()];
+        shortView.get(shortArray);
+        assertArrayEquals(NamedBinaryDeserializerTest.LONG_SHORTS, shortArray);
+
+        IntBuffer intView = in.readIntArrayAsBuffer();
+        int[] intArray = new int[intView.remaining()];
+        intView.get(intArray);
+        assertArrayEquals(CompatDocument.INTS, intArray);
+
+        // The views leave the stream after the array, so reading carries on as normal.
+        assertArrayEquals(CompatDocument.LONGS, in.readLongArrayAsNative());
+        FloatBuffer floatView = in.readFloatArrayAsBuffer();
+        float[] floatArray = new float[floatView.remaining()];
+        floatView.get(floatArray);
+        assertArrayEquals(CompatDocument.FLOATS, floatArray);
+        assertArrayEquals(CompatDocument.DOUBLES, in.readDoubleArrayAsNative());
+        assertArrayEquals(CompatDocument.BOOLEANS, in.readBooleanArrayAsNative());
+        assertEquals(new String(CompatDocument.CHARS), in.readCharArrayAsBuffer().toString());
+    }
+
+    @Test
+    void truncatedBufferViewFails() throws IOException {
+        KeylessBinaryDeserializer in = new KeylessBinaryDeserializer(Arrays.copyOf(arrays(), 40));
+        in.readByteArrayAsBuffer();
+
+        assertThrows(EOFException.class, in::readShortArrayAsBuffer);
+    }
+
+    // Lengths whose byte size wraps past an int, 1 << 29 longs would have become an empty view.
+    @Test
+    void hugeBufferViewsFail() {
+        for (int length : new int[]{1 << 28, 1 << 29, Integer.MAX_VALUE}) {
+            KeylessBinaryDeserializer in = new KeylessBinaryDeserializer(ByteBuffer.allocate(64).putInt(0, length));
+            IOException failure = assertThrows(IOException.class, in::readLongArrayAsBuffer);
+            assertTrue(failure.getMessage().contains("2GB"), failure.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.StringPalette;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import com.github.nightfall.odsl.util.ArrayEncodingUtilTest;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeylessBinarySerializerTest {
+
+    @Test
+    void outputCanBeTakenRepeatedly() throws IOException {
+        CompatDocument.register();
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        CompatDocument.write(serializer);
+        byte[] bytes = serializer.toBytes();
+        assertArrayEquals(bytes, serializer.toBytes());
+        assertEquals(bytes.length, serializer.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.writeTo(out);
+        assertArrayEquals(bytes, out.toByteArray());
+
+        serializer.writeString("later");
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(serializer.toBytes());
+        CompatDocument.check(in);
+        assertEquals("later", in.readString());
+    }
+
+    static byte[] document() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        CompatDocument.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Test
+    void clearedSerializersWriteLikeNewOnes() throws IOException {
+        CompatDocument.register();
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        NestedDocument.write(serializer);
+        byte[] buffer = serializer.byteStream.getBuffer();
+
+        serializer.clear();
+        assertEquals(0, serializer.size());
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+        assertSame(buffer, serializer.byteStream.getBuffer());
+
+        serializer.release();
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+
+        serializer.doBooleanPacking = true;
+        serializer.reset();
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+    }
+
+    // Int lengths are back-patched where they were reserved, varint ones go in with a single move of the outermost object.
+    @Test
+    void deepNestingMovesEachByteOnce() throws IOException {
+        NestedDocument.Padded deep = null;
+        for (int i = 0; i < 500; i++) deep = new NestedDocument.Padded(100 + i % 300, null, deep);
+        for (NumberEncoding numberEncoding : NumberEncoding.values()) {
+            KeylessBinarySerializer serializer = new KeylessBinarySerializer(numberEncoding);
+            serializer.writeKeylessObject(deep);
+            serializer.writeKeylessObject(deep);
+
+            byte[] bytes = serializer.toBytes();
+            if (numberEncoding == NumberEncoding.FIXED) assertEquals(0, serializer.byteStream.getMovedBytes());
+            else assertTrue(serializer.byteStream.getMovedBytes() <= bytes.length, serializer.byteStream.getMovedBytes() + " bytes moved for " + bytes.length + " bytes");
+            assertEquals(deep, new KeylessBinaryDeserializer(bytes, numberEncoding).readKeylessObject(NestedDocument.Padded.class));
+        }
+    }
+
+    @Test
+    void packedBooleansRoundTrip() throws IOException {
+        boolean[] booleans = new boolean[1001];
+        for (int i = 0; i < booleans.length; i++) booleans[i] = i % 5 == 0;
+        BitSet bits = NativeArrayUtil.toBitSet(booleans);
+
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        serializer.writePackedBooleanArray(booleans);
+        serializer.writePackedBooleanArray(bits, 9);
+        serializer.writeBooleanArray(booleans);
+        serializer.writeString("end");
+        byte[] bytes = serializer.toBytes();
+        assertEquals(4 + 126 + 4 + 2 + 4 + 1001 + 5, bytes.length);
+
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(bytes);
+        assertArrayEquals(booleans, in.readPackedBooleanArrayAsNative());
+        assertEquals(bits.get(0, 9), in.readPackedBooleanArrayAsBitSet());
+        assertArrayEquals(booleans, in.readBooleanArrayAsNative());
+        assertEquals("end", in.readString());
+    }
+
+    @Test
+    void encodedArraysRoundTrip() throws IOException {
+        List<long[]> arrays = ArrayEncodingUtilTest.longArrays();
+        for (NumberEncoding numberEncoding : NumberEncoding.values()) {
+            KeylessBinarySerializer serializer = new KeylessBinarySerializer(numberEncoding);
+            for (long[] array : arrays) {
+                serializer.writeEncodedLongArray(array);
+                serializer.writeEncodedIntArray(ArrayEncodingUtilTest.toInts(array));
+            }
+            serializer.writeString("end");
+
+            IKeylessDeserializer in = new KeylessBinaryDeserializer(serializer.toBytes(), numberEncoding);
+            for (long[] array : arrays) {
+                assertArrayEquals(array, in.readEncodedLongArrayAsNative());
+                assertArrayEquals(ArrayEncodingUtilTest.toInts(array), in.readEncodedIntArrayAsNative());
+            }
+            assertEquals("end", in.readString());
+        }
+    }
+
+    @Test
+    void unknownArrayEncodingFails() throws IOException {
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        serializer.writeEncodedIntArray(new int[100]);
+        byte[] bytes = serializer.toBytes();
+        bytes[0] = (byte) ArrayEncoding.values().length;
+        assertThrows(RuntimeException.class, () -> new KeylessBinaryDeserializer(bytes).readEncodedIntArrayAsNative());
+    }
+
+    @Test
+    void paletteArraysRoundTrip() throws IOException {
+        String[] blocks = new String[1000];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = "block" + i % 5;
+
+        KeylessBinarySerializer serializer = new KeylessBinarySerializer();
+        serializer.writePaletteStringArray(blocks);
+        serializer.writePaletteStringArray(new String[0]);
+        serializer.writeString("end");
+
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(serializer.toBytes());
+        StringPalette palette = in.readPaletteStringArray();
+        assertEquals(5, palette.getPalette().length);
+        assertArrayEquals(blocks, palette.toArray());
+        assertEquals(0, in.readPaletteStringArray().size());
+        assertEquals("end", in.readString());
+    }
+
+}
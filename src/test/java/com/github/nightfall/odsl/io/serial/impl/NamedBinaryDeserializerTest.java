@@ -0,0 +1,275 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.CompoundObject;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamedBinaryDeserializerTest {
+
+    static final short[] LONG_SHORTS = new short[300];
+    static {
+        for (int i = 0; i < LONG_SHORTS.length; i++) LONG_SHORTS[i] = (short) (i * 211);
+    }
+
+    static byte[] arrays() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        writeArrays(serializer);
+        serializer.writeRawObjectArray("blobs", new CompatDocument.Blob[]{new CompatDocument.Blob(1), new CompatDocument.Blob(2)});
+        return serializer.toBytes();
+    }
+
+    static void writeArrays(INamedSerializer serializer) throws IOException {
+        serializer.writeByteArray("bytes", CompatDocument.BYTES);
+        serializer.writeShortArray("shorts", LONG_SHORTS);
+        serializer.writeIntArray("ints", CompatDocument.INTS);
+        serializer.writeLongArray("longs", CompatDocument.LONGS);
+        serializer.writeFloatArray("floats", CompatDocument.FLOATS);
+        serializer.writeDoubleArray("doubles", CompatDocument.DOUBLES);
+        serializer.writeBooleanArray("booleans", CompatDocument.BOOLEANS);
+        serializer.writeCharArray("chars", CompatDocument.CHARS);
+        serializer.writeShort("smallShort", (short) 3);
+        serializer.writeInt("smallInt", 5);
+        serializer.writeLong("smallLong", -6);
+    }
+
+    static void checkArrays(INamedDeserializer in) {
+        assertArrayEquals(CompatDocument.BYTES, in.readByteArrayAsNative("bytes"));
+        assertArrayEquals(LONG_SHORTS, in.readShortArrayAsNative("shorts"));
+        assertArrayEquals(CompatDocument.INTS, in.readIntArrayAsNative("ints"));
+        assertArrayEquals(CompatDocument.LONGS, in.readLongArrayAsNative("longs"));
+        assertArrayEquals(CompatDocument.FLOATS, in.readFloatArrayAsNative("floats"));
+        assertArrayEquals(CompatDocument.DOUBLES, in.readDoubleArrayAsNative("doubles"));
+        assertArrayEquals(CompatDocument.BOOLEANS, in.readBooleanArrayAsNative("booleans"));
+        assertArrayEquals(CompatDocument.CHARS, in.readCharArrayAsNative("chars"));
+        assertEquals(3, in.readShort("smallShort"));
+        assertEquals(5, in.readInt("smallInt"));
+        assertEquals(-6, in.readLong("smallLong"));
+    }
+
+    @Test
+    void nativeArraysRoundTrip() throws IOException {
+        INamedDeserializer in = INamedDeserializer.createDefault(arrays(), false);
+        checkArrays(in);
+        assertArrayEquals(new CompatDocument.Blob[]{new CompatDocument.Blob(1), new CompatDocument.Blob(2)}, in.readRawObjectArray("blobs", CompatDocument.Blob.class));
+    }
+
+    @Test
+    void boxedArraysMatchNativeArrays() throws IOException {
+        INamedDeserializer in = INamedDeserializer.createDefault(arrays(), false);
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(LONG_SHORTS), in.readShortArray("shorts"));
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.INTS), in.readIntArray("ints"));
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.LONGS), in.readLongArray("longs"));
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.BOOLEANS), in.readBooleanArray("booleans"));
+        assertEquals(Arrays.asList(NativeArrayUtil.toObjectLikeArray(CompatDocument.CHARS)), in.readCharArrayAsList("chars"));
+    }
+
+    @Test
+    void compoundObjectReadsNativeArrays() throws IOException {
+        CompoundObject written = new CompoundObject();
+        writeArrays(written);
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeNamedObject("compound", written);
+
+        CompoundObject compound = INamedDeserializer.createDefault(serializer.toBytes(), false).readNamedObject("compound", CompoundObject.class);
+        checkArrays(compound);
+        assertArrayEquals(NativeArrayUtil.toObjectLikeArray(CompatDocument.INTS), compound.readIntArray("ints"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void truncatedDataFails(boolean isLazy) throws IOException {
+        byte[] bytes = arrays();
+        for (int length : new int[]{1, 10, bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> new NamedBinaryDeserializer(truncated, isLazy), "truncated to " + length);
+        }
+    }
+
+    static byte[] document() throws IOException {
+        CompatDocument.register();
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        return serializer.toBytes();
+    }
+
+    @Test
+    void lazyReadsEveryType() throws IOException {
+        CompatDocument.check(INamedDeserializer.createLazy(document(), false));
+        CompatDocument.check(INamedDeserializer.createLazy(CompatDocument.resource("named.bin"), false));
+    }
+
+    @Test
+    void lazySkipsToAnyField() throws IOException {
+        INamedDeserializer in = INamedDeserializer.createLazy(document(), false);
+        assertEquals("end", in.readString("last"));
+        assertEquals(new CompatDocument.Vec(1.5, 2.5), in.readCustomObject("vec", CompatDocument.Vec.class));
+        assertEquals(new CompatDocument.Point(1, 2), in.readNamedObject("point", CompatDocument.Point.class));
+        assertEquals("hello", in.readString("string"));
+        assertArrayEquals(CompatDocument.LONGS, in.readLongArrayAsNative("longs"));
+        assertArrayEquals(CompatDocument.LONGS, in.readLongArrayAsNative("longs"));
+    }
+
+    @Test
+    void lazyChildrenAreLazy() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeNamedObject("outer", new Nested(3));
+        INamedDeserializer in = INamedDeserializer.createLazy(serializer.toBytes(), false);
+
+        Nested outer = in.readNamedObject("outer", Nested.class);
+        assertEquals(3, outer.depth);
+        assertTrue(outer.wasLazy);
+        assertTrue(outer.child.child.wasLazy);
+    }
+
+    // Threads read the same fields of the same lazy deserializers, none of them may see another one's position.
+    // Keyless & raw fields are left out, since reading one uses up its stream in either mode.
+    @Test
+    void lazyReadsFromSeveralThreads() throws Exception {
+        byte[] document = document();
+        byte[] arrays = arrays();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                INamedDeserializer documentIn = INamedDeserializer.createLazy(document, false);
+                NamedBinaryDeserializer arraysIn = new NamedBinaryDeserializer(arrays, true);
+
+                List<Future<?>> reads = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    reads.add(executor.submit(() -> {
+                        assertEquals("end", documentIn.readString("last"));
+                        assertEquals(new CompatDocument.Point(1, 2), documentIn.readNamedObject("point", CompatDocument.Point.class));
+                        assertEquals(new CompatDocument.Vec(1.5, 2.5), documentIn.readCustomObject("vec", CompatDocument.Vec.class));
+                        assertEquals("hello", documentIn.readString("string"));
+                        assertArrayEquals(CompatDocument.LONGS, documentIn.readLongArrayAsNative("longs"));
+                    }));
+                    reads.add(executor.submit(() -> {
+                        assertEquals(CompatDocument.INTS.length, arraysIn.readIntArrayAsBuffer("ints").remaining());
+                        checkArrays(arraysIn);
+                    }));
+                }
+                for (Future<?> read : reads) read.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void mappedFilesReadLikeBytes(boolean isLazy, @TempDir Path directory) throws IOException {
+        Path file = directory.resolve("named.bin");
+        Files.write(file, CompatDocument.resource("named.bin"));
+        CompatDocument.check(INamedDeserializer.createMapped(file, isLazy));
+
+        Files.write(file, arrays());
+        checkArrays(INamedDeserializer.createMapped(file, isLazy));
+
+        Files.write(file, Arrays.copyOf(arrays(), 50));
+        assertThrows(IOException.class, () -> INamedDeserializer.createMapped(file, isLazy));
+    }
+
+    // The data starts part way into a larger buffer, so offsets relative to the wrong start would show up.
+    @Test
+    void bufferViewsShareTheSourceBytes() throws IOException {
+        byte[] bytes = arrays();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 20);
+        ((Buffer) buffer.position(13)).mark();
+        buffer.put(bytes).reset();
+        ((Buffer) buffer).limit(13 + bytes.length);
+        NamedBinaryDeserializer in = new NamedBinaryDeserializer(buffer, true);
+
+        ByteBuffer byteView = in.readByteArrayAsBuffer("bytes");
+        assertTrue(byteView.isReadOnly());
+        byte[] byteArray = new byte[byteView.remaining()];
+        byteView.get(byteArray);
+        assertArrayEquals(CompatDocument.BYTES, byteArray);
+
+        ShortBuffer shortView = in.readShortArrayAsBuffer("shorts");
+        short[] shortArray = new short[shortView.remaining()];
+        shortView.get(shortArray);
+        assertArrayEquals(LONG_SHORTS, shortArray);
+
+        IntBuffer intView = in.readIntArrayAsBuffer("ints");
+        int[] intArray = new int[intView.remaining()];
+        intView.get(intArray);
+        assertArrayEquals(CompatDocument.INTS, intArray);
+
+        LongBuffer longView = in.readLongArrayAsBuffer("longs");
+        long[] longArray = new long[longView.remaining()];
+        longView.get(longArray);
+        assertArrayEquals(CompatDocument.LONGS, longArray);
+
+        DoubleBuffer doubleView = in.readDoubleArrayAsBuffer("doubles");
+        double[] doubleArray = new double[doubleView.remaining()];
+        doubleView.get(doubleArray);
+        assertArrayEquals(CompatDocument.DOUBLES, doubleArray);
+
+        CharBuffer charView = in.readCharArrayAsBuffer("chars");
+        assertEquals(new String(CompatDocument.CHARS), charView.toString());
+
+        assertNull(in.readIntArrayAsBuffer("missing"));
+        assertThrows(RuntimeException.class, () -> in.readIntArrayAsBuffer("longs"));
+        assertThrows(RuntimeException.class, () -> new NamedBinaryDeserializer(bytes, false).readIntArrayAsBuffer("ints"));
+        checkArrays(in);
+    }
+
+    public static class Nested implements INamedSerializable {
+
+        public int depth;
+        public Nested child;
+        public boolean wasLazy;
+
+        public Nested() {}
+
+        Nested(int depth) {
+            this.depth = depth;
+            if (depth > 0) child = new Nested(depth - 1);
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            wasLazy = ((NamedBinaryDeserializer) in).isLazy;
+            depth = in.readInt("depth");
+            if (depth > 0) child = in.readNamedObject("child", Nested.class);
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("depth", depth);
+            if (child != null) out.writeNamedObject("child", child);
+            out.writeString("padding", "skipped when lazy");
+        }
+
+    }
+
+}
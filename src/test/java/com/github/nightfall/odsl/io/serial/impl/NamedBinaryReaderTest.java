@@ -0,0 +1,151 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamedBinaryReaderTest {
+
+    @BeforeAll
+    static void register() {
+        CompatDocument.register();
+    }
+
+    static NamedBinaryReader reader(byte[] bytes) {
+        return new NamedBinaryReader(new ByteArrayInputStream(bytes));
+    }
+
+    static boolean isObject(SerializationType type) {
+        switch (type.getBaseType()) {
+            case NAMED_OBJECT_sBYTE: case NAMED_OBJECT_ARRAY_sBYTE:
+            case UNNAMED_OBJECT_sBYTE: case UNNAMED_OBJECT_ARRAY_sBYTE:
+            case RAW_OBJECT_sBYTE: case RAW_OBJECT_ARRAY_sBYTE:
+            case CUSTOM_OBJECT_sBYTE: case CUSTOM_OBJECT_ARRAY_sBYTE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Covers data with a string schema, written by 1.0.0, data with inline strings, written by the streaming serializer, varint & packed boolean data.
+    static List<byte[]> documents() throws IOException {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(streamed)) {
+            CompatDocument.write(serializer);
+        }
+        ByteArrayOutputStream varints = new ByteArrayOutputStream();
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(varints, 64, NumberEncoding.VARINT)) {
+            CompatDocument.write(serializer);
+        }
+        NamedBinarySerializer serializer = new NamedBinarySerializer(NumberEncoding.VARINT);
+        serializer.doBooleanPacking = true;
+        CompatDocument.write(serializer);
+        return Arrays.asList(CompatDocument.resource("named.bin"), streamed.toByteArray(), varints.toByteArray(), serializer.toBytes());
+    }
+
+    @Test
+    void valuesMatchTheDeserializer() throws IOException {
+        for (byte[] bytes : documents()) {
+            INamedDeserializer deserializer = INamedDeserializer.createDefault(bytes, false);
+            List<String> names = new ArrayList<>();
+            try (NamedBinaryReader reader = reader(bytes)) {
+                while (reader.next()) {
+                    names.add(reader.getName());
+                    if (isObject(reader.getType())) continue;
+                    Object value = reader.readValue();
+                    assertTrue(Objects.deepEquals(deserializer.getObject(reader.getName()), value), reader.getName());
+                }
+            }
+            assertEquals(deserializer.getObjectCount(), names.size());
+            assertEquals("last", names.get(names.size() - 1));
+        }
+    }
+
+    @Test
+    void skipToFindsLaterFields() throws IOException {
+        for (byte[] bytes : documents()) {
+            try (NamedBinaryReader reader = new NamedBinaryReader(Channels.newChannel(new ByteArrayInputStream(bytes)), 7)) {
+                assertTrue(reader.skipTo("longs"));
+                assertArrayEquals(CompatDocument.LONGS, (long[]) reader.readValue());
+                assertTrue(reader.skipTo("last"));
+                assertEquals("end", reader.readValue());
+                assertFalse(reader.skipTo("byte"));
+            }
+        }
+    }
+
+    @Test
+    void nestedObjectsCanBeEntered() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        NestedDocument.write(serializer);
+        CompatDocument.write(serializer);
+
+        try (NamedBinaryReader reader = reader(serializer.toBytes())) {
+            assertTrue(reader.skipTo("deep"));
+            NamedBinaryReader outer = reader.enterObject();
+            assertTrue(outer.skipTo("child"));
+            NamedBinaryReader middle = outer.enterObject();
+            assertTrue(middle.skipTo("label"));
+            assertEquals("middle", middle.readValue());
+
+            // Moving on leaves the partly walked children behind.
+            assertTrue(reader.next());
+            assertEquals("array", reader.getName());
+            assertTrue(reader.skipTo("point"));
+            NamedBinaryReader point = reader.enterObject();
+            assertTrue(point.next());
+            assertEquals("x", point.getName());
+            assertEquals(1, point.readValue());
+            assertTrue(point.next());
+            assertEquals(2, point.readValue());
+            assertFalse(point.next());
+            assertTrue(reader.skipTo("last"));
+        }
+    }
+
+    @Test
+    void misuseFails() throws IOException {
+        try (NamedBinaryReader reader = reader(CompatDocument.resource("named.bin"))) {
+            assertThrows(RuntimeException.class, reader::readValue);
+            assertTrue(reader.next());
+            assertThrows(RuntimeException.class, reader::enterObject);
+            reader.readValue();
+            assertThrows(RuntimeException.class, reader::readValue);
+        }
+    }
+
+    @Test
+    void unknownTypeIdFails() {
+        NamedBinaryReader reader = reader(new byte[]{(byte) 250, 0, 1, 'a'});
+        assertThrows(RuntimeException.class, reader::next);
+    }
+
+    @Test
+    void truncatedDataFails() throws IOException {
+        byte[] bytes = CompatDocument.resource("named.bin");
+        NamedBinaryReader reader = reader(Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> {
+            while (reader.next()) reader.skip();
+        });
+    }
+
+}
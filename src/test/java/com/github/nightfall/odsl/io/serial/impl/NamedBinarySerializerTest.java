@@ -0,0 +1,410 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.FieldKey;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.StringPalette;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import com.github.nightfall.odsl.util.ArrayEncodingUtil;
+import com.github.nightfall.odsl.util.ArrayEncodingUtilTest;
+import com.github.nightfall.odsl.util.NativeArrayUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NamedBinarySerializerTest {
+
+    static INamedDeserializer read(byte[] bytes, boolean isLazy) throws IOException {
+        return new NamedBinaryDeserializer(bytes, isLazy);
+    }
+
+    // Bodies over 32767 bytes are the only ones given an int length.
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void largeNestedBodiesRoundTrip(boolean isLazy) throws IOException {
+        NestedDocument.Padded large = new NestedDocument.Padded(Short.MAX_VALUE + 1, "large", new NestedDocument.Padded(Short.MAX_VALUE - 20, "child", null));
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeNamedObject("large", large);
+        serializer.writeKeylessObject("keyless", large);
+        serializer.writeString("last", "end");
+
+        INamedDeserializer in = read(serializer.toBytes(), isLazy);
+        assertEquals(large, in.readNamedObject("large", NestedDocument.Padded.class));
+        assertEquals(large, in.readKeylessObject("keyless", NestedDocument.Padded.class));
+        assertEquals("end", in.readString("last"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void deepNestingRoundTrips(boolean isLazy) throws IOException {
+        NestedDocument.Padded deep = null;
+        for (int i = 0; i < 64; i++) deep = new NestedDocument.Padded(i * 7, i % 3 == 0 ? "depth" + i : null, deep);
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeNamedObject("deep", deep);
+
+        assertEquals(deep, read(serializer.toBytes(), isLazy).readNamedObject("deep", NestedDocument.Padded.class));
+    }
+
+    // Splicing each level's length & string schema in as it ended moved every byte once per level above it.
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void deepNestingMovesEachByteOnce(NumberEncoding numberEncoding) throws IOException {
+        NestedDocument.Padded deep = null;
+        for (int i = 0; i < 500; i++) deep = new NestedDocument.Padded(100 + i % 300, i % 2 == 0 ? "depth" + i : null, deep);
+        NamedBinarySerializer serializer = new NamedBinarySerializer(numberEncoding);
+        serializer.writeNamedObject("deep", deep);
+        serializer.writeNamedObject("deep", deep);
+
+        byte[] bytes = serializer.toBytes();
+        assertTrue(serializer.byteStream.getMovedBytes() <= bytes.length, serializer.byteStream.getMovedBytes() + " bytes moved for " + bytes.length + " bytes");
+        assertEquals(deep, read(bytes, false).readNamedObject("deep", NestedDocument.Padded.class));
+    }
+
+    // Enough strings for the schema indices to need a byte, a short & an int.
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void manyStringsRoundTrip(boolean isLazy) throws IOException {
+        int count = Short.MAX_VALUE * 2 + 10;
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        for (int i = 0; i < count; i++) serializer.writeString("field" + i, "value" + i % (count - 5));
+        byte[] bytes = serializer.toBytes();
+
+        INamedDeserializer in = read(bytes, isLazy);
+        for (int i = count - 1; i >= 0; i--) assertEquals("value" + i % (count - 5), in.readString("field" + i));
+    }
+
+    static byte[] repeated(String string, int count) throws IOException {
+        String[] array = new String[count];
+        Arrays.fill(array, string);
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeStringArray("array", array);
+        return serializer.toBytes();
+    }
+
+    @Test
+    void repeatedStringsAreStoredOnce() throws IOException {
+        String string = "a fairly long string to repeat";
+        byte[] bytes = repeated(string, 100);
+        assertEquals(repeated("s", 100).length + string.length() - 1, bytes.length);
+
+        String[] array = read(bytes, false).readStringArray("array");
+        assertEquals(100, array.length);
+        for (String s : array) assertEquals(string, s);
+    }
+
+    @Test
+    void outputCanBeTakenRepeatedly() throws IOException {
+        CompatDocument.register();
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        byte[] bytes = serializer.toBytes();
+        assertArrayEquals(bytes, serializer.toBytes());
+        assertEquals(bytes.length, serializer.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.writeTo(out);
+        assertArrayEquals(bytes, out.toByteArray());
+
+        // Fields written after the output was taken are still read back with the schema they add to.
+        serializer.writeString("later", "a string added later");
+        INamedDeserializer in = read(serializer.toBytes(), false);
+        CompatDocument.check(in);
+        assertEquals("a string added later", in.readString("later"));
+    }
+
+    static byte[] document() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        return serializer.toBytes();
+    }
+
+    // Anything left over from the first write, like its strings or keys, would change the second one.
+    @Test
+    void clearedSerializersWriteLikeNewOnes() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        NestedDocument.write(serializer);
+        byte[] buffer = serializer.byteStream.getBuffer();
+
+        serializer.clear();
+        assertEquals(0, serializer.size());
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+        assertSame(buffer, serializer.byteStream.getBuffer());
+
+        serializer.release();
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+    }
+
+    @Test
+    void resetTurnsTheOptionsBackOff() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doStringArray = false;
+        serializer.doArrayEncoding = true;
+        serializer.doBooleanPacking = true;
+        serializer.doKeySchema = true;
+        serializer.parallelThreshold = 1;
+        CompatDocument.write(serializer);
+        assertNotEquals(document().length, serializer.size());
+
+        serializer.reset();
+        CompatDocument.write(serializer);
+        assertArrayEquals(document(), serializer.toBytes());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void packedBooleansRoundTrip(boolean isLazy) throws IOException {
+        boolean[] large = new boolean[100_003];
+        for (int i = 0; i < large.length; i++) large[i] = i % 3 == 0 || i % 7 == 0;
+        BitSet bits = NativeArrayUtil.toBitSet(large);
+
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doBooleanPacking = true;
+        CompatDocument.write(serializer);
+        serializer.writeBooleanArray("large", large);
+        serializer.writeBooleanArray("bits", bits, 13);
+        serializer.writeBooleanArray("empty", new boolean[0]);
+        byte[] bytes = serializer.toBytes();
+        assertTrue(bytes.length < document().length + large.length / 8 + 100);
+
+        INamedDeserializer in = read(bytes, isLazy);
+        assertEquals(NativeArrayUtil.toBitSet(CompatDocument.BOOLEANS), in.readBooleanArrayAsBitSet("booleans"));
+        CompatDocument.check(in);
+        assertEquals(bits, in.readBooleanArrayAsBitSet("large"));
+        assertArrayEquals(large, in.readBooleanArrayAsNative("large"));
+        assertEquals(bits.get(0, 13), in.readBooleanArrayAsBitSet("bits"));
+        assertArrayEquals(new boolean[0], in.readBooleanArrayAsNative("empty"));
+
+        // Unpacked arrays, like those written before 1.0.3, are read as a BitSet too.
+        assertEquals(NativeArrayUtil.toBitSet(CompatDocument.BOOLEANS), read(document(), isLazy).readBooleanArrayAsBitSet("booleans"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void encodedArraysRoundTrip(boolean isLazy) throws IOException {
+        List<long[]> arrays = ArrayEncodingUtilTest.longArrays();
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doArrayEncoding = true;
+        for (int i = 0; i < arrays.size(); i++) {
+            serializer.writeLongArray("longs" + i, arrays.get(i));
+            serializer.writeIntArray("ints" + i, ArrayEncodingUtilTest.toInts(arrays.get(i)));
+        }
+        serializer.writeString("last", "end");
+        byte[] bytes = serializer.toBytes();
+
+        INamedDeserializer in = read(bytes, isLazy);
+        assertEquals("end", in.readString("last"));
+        for (int i = arrays.size() - 1; i >= 0; i--) {
+            assertArrayEquals(arrays.get(i), in.readLongArrayAsNative("longs" + i));
+            assertArrayEquals(ArrayEncodingUtilTest.toInts(arrays.get(i)), in.readIntArrayAsNative("ints" + i));
+        }
+
+        // Each array is tagged with the encoding choose() picked, & the pull reader decodes it the same.
+        try (NamedBinaryReader reader = new NamedBinaryReader(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < arrays.size(); i++) {
+                assertTrue(reader.next());
+                assertEquals(ArrayEncodingUtil.choose(arrays.get(i)), ArrayEncoding.fromArrayType(reader.getType()));
+                assertArrayEquals(arrays.get(i), (long[]) reader.readValue());
+                assertTrue(reader.next());
+                assertEquals(ArrayEncodingUtil.choose(ArrayEncodingUtilTest.toInts(arrays.get(i))), ArrayEncoding.fromArrayType(reader.getType()));
+                reader.skip();
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void paletteArraysRoundTrip(boolean isLazy) throws IOException {
+        String[] blocks = new String[4096];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = i % 11 == 0 ? "minecraft:stone" : "minecraft:air" + i % 3;
+        String[] distinct = new String[40];
+        for (int i = 0; i < distinct.length; i++) distinct[i] = "unique" + i;
+
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doArrayEncoding = true;
+        serializer.writeStringArray("blocks", blocks);
+        serializer.writeStringArray("distinct", distinct);
+        serializer.writePaletteStringArray("explicit", StringPalette.of(distinct));
+        byte[] bytes = serializer.toBytes();
+
+        INamedDeserializer in = read(bytes, isLazy);
+        StringPalette palette = in.readStringArrayAsPalette("blocks");
+        assertEquals(4, palette.getPalette().length);
+        assertArrayEquals(blocks, palette.toArray());
+        assertArrayEquals(blocks, in.readStringArray("blocks"));
+        assertArrayEquals(distinct, in.readStringArray("distinct"));
+        assertArrayEquals(distinct, in.readStringArrayAsPalette("distinct").toArray());
+        assertArrayEquals(distinct, in.readStringArray("explicit"));
+
+        try (NamedBinaryReader reader = new NamedBinaryReader(new ByteArrayInputStream(bytes))) {
+            assertTrue(reader.skipTo("blocks"));
+            assertEquals(SerializationType.PALETTE_STRING_ARRAY_sBYTE, reader.getType().getBaseType());
+            assertArrayEquals(blocks, ((StringPalette) reader.readValue()).toArray());
+            assertTrue(reader.next());
+            assertEquals(SerializationType.STRING_ARRAY_sBYTE, reader.getType().getBaseType());
+        }
+    }
+
+    static final FieldKey BYTE = INamedSerializer.key("byte");
+    static final FieldKey SHORT = INamedSerializer.key("short");
+    static final FieldKey INT = INamedSerializer.key("int");
+    static final FieldKey LONG = INamedSerializer.key("long");
+    static final FieldKey FLOAT = INamedSerializer.key("float");
+    static final FieldKey DOUBLE = INamedSerializer.key("double");
+    static final FieldKey BOOLEAN = INamedSerializer.key("boolean");
+    static final FieldKey CHAR = INamedSerializer.key("char");
+    static final FieldKey STRING = INamedSerializer.key("string");
+
+    static void writeKeys(INamedSerializer out, int i) throws IOException {
+        out.writeByte(BYTE, (byte) i);
+        out.writeShort(SHORT, (short) -i);
+        out.writeInt(INT, i * 1000);
+        out.writeLong(LONG, -i * 100_000L);
+        out.writeFloat(FLOAT, i / 2f);
+        out.writeDouble(DOUBLE, i / 3d);
+        out.writeBoolean(BOOLEAN, i % 2 == 0);
+        out.writeChar(CHAR, (char) ('a' + i));
+        out.writeString(STRING, "value" + i);
+    }
+
+    static void writeNames(INamedSerializer out, int i) throws IOException {
+        out.writeByte("byte", (byte) i);
+        out.writeShort("short", (short) -i);
+        out.writeInt("int", i * 1000);
+        out.writeLong("long", -i * 100_000L);
+        out.writeFloat("float", i / 2f);
+        out.writeDouble("double", i / 3d);
+        out.writeBoolean("boolean", i % 2 == 0);
+        out.writeChar("char", (char) ('a' + i));
+        out.writeString("string", "value" + i);
+    }
+
+    static void checkKeys(INamedDeserializer in, int i) {
+        assertEquals((byte) i, in.readByte("byte"));
+        assertEquals((short) -i, in.readShort("short"));
+        assertEquals(i * 1000, in.readInt("int"));
+        assertEquals(-i * 100_000L, in.readLong("long"));
+        assertEquals(i / 2f, in.readFloat("float"));
+        assertEquals(i / 3d, in.readDouble("double"));
+        assertEquals(i % 2 == 0, in.readBoolean("boolean"));
+        assertEquals((char) ('a' + i), in.readChar("char"));
+        assertEquals("value" + i, in.readString("string"));
+    }
+
+    public static class Keyed implements INamedSerializable {
+
+        public int i;
+
+        public Keyed() {}
+
+        Keyed(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            i = in.readInt("int") / 1000;
+            checkKeys(in, i);
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            writeKeys(out, i);
+        }
+
+    }
+
+    @Test
+    void keysWriteTheSameBytesAsNames() throws IOException {
+        NamedBinarySerializer keys = new NamedBinarySerializer();
+        writeKeys(keys, 3);
+        NamedBinarySerializer names = new NamedBinarySerializer();
+        writeNames(names, 3);
+        assertArrayEquals(names.toBytes(), keys.toBytes());
+    }
+
+    // Nested objects share the outer key schema, so each name is written once however many objects use it.
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void keySchemaRoundTrips(boolean isLazy) throws IOException {
+        Keyed[] array = new Keyed[200];
+        for (int i = 0; i < array.length; i++) array[i] = new Keyed(i);
+
+        NamedBinarySerializer plain = new NamedBinarySerializer();
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.doKeySchema = true;
+        for (NamedBinarySerializer out : new NamedBinarySerializer[]{plain, serializer}) {
+            writeKeys(out, 5);
+            out.writeNamedObjectArray("array", array);
+            out.writeNamedObject("single", new Keyed(7));
+            CompatDocument.writeStrings(out);
+            out.writeString("last", "end");
+        }
+        byte[] bytes = serializer.toBytes();
+        assertTrue(bytes.length < plain.toBytes().length - array.length * 40);
+
+        INamedDeserializer in = read(bytes, isLazy);
+        CompatDocument.checkStrings(in);
+        assertEquals(7, in.readNamedObject("single", Keyed.class).i);
+        Keyed[] read = in.readNamedObjectArray("array", Keyed.class);
+        for (int i = 0; i < array.length; i++) assertEquals(i, read[i].i);
+        checkKeys(in, 5);
+
+        try (NamedBinaryReader reader = new NamedBinaryReader(new ByteArrayInputStream(bytes))) {
+            assertTrue(reader.next());
+            assertEquals("byte", reader.getName());
+            assertEquals((byte) 5, reader.readValue());
+            assertTrue(reader.skipTo("single"));
+            try (NamedBinaryReader child = reader.enterObject()) {
+                assertTrue(child.skipTo("string"));
+                assertEquals("value7", child.readValue());
+            }
+            assertTrue(reader.skipTo("last"));
+        }
+    }
+
+    // Names written both inline & as keys could not be read, so the setting is fixed by the first name until the serializer is cleared.
+    @Test
+    void keySchemaCannotChangeLate() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeInt("first", 1);
+        serializer.doKeySchema = true;
+        assertThrows(RuntimeException.class, () -> serializer.writeInt("second", 2));
+        assertThrows(RuntimeException.class, () -> serializer.writeNamedObject("third", new Keyed(3)));
+
+        serializer.clear();
+        serializer.writeInt("first", 1);
+        serializer.doKeySchema = false;
+        assertThrows(RuntimeException.class, () -> serializer.writeInt(INT, 2));
+
+        // A cleared serializer can pick either again.
+        serializer.clear();
+        serializer.writeInt("first", 1);
+        serializer.writeNamedObject("nested", new Keyed(4));
+        INamedDeserializer in = read(serializer.toBytes(), false);
+        assertEquals(1, in.readInt("first"));
+        assertEquals(4, in.readNamedObject("nested", Keyed.class).i);
+    }
+
+}
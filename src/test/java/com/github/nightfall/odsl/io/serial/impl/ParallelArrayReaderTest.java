@@ -0,0 +1,197 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.objects.ParallelDocument;
+import com.github.nightfall.odsl.objects.ParallelDocument.Entity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelArrayReaderTest {
+
+    // Keeps the threads that read it, which is how the tests see where the elements were decoded.
+    public static class Recorded extends Entity {
+
+        static final Set<Thread> THREADS = ConcurrentHashMap.newKeySet();
+
+        public Recorded() {}
+
+        @Override
+        public void read(INamedDeserializer in) {
+            THREADS.add(Thread.currentThread());
+            super.read(in);
+            if (id == FAILING_ID) throw new IllegalStateException("entity " + id);
+        }
+
+    }
+
+    static int FAILING_ID = -1;
+
+    static ForkJoinPool forkJoinPool;
+    static ExecutorService fixedPool;
+
+    @BeforeAll
+    static void start() {
+        ParallelDocument.register();
+        forkJoinPool = new ForkJoinPool(4);
+        fixedPool = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterAll
+    static void stop() {
+        forkJoinPool.shutdown();
+        fixedPool.shutdown();
+    }
+
+    @Test
+    void everyElementIsReadOnce() throws IOException {
+        for (int length : new int[]{1, 2, 15, 16, 17, 4001}) {
+            AtomicInteger[] reads = new AtomicInteger[length];
+            for (int i = 0; i < length; i++) reads[i] = new AtomicInteger();
+
+            ParallelArrayReader.read(fixedPool, length, (start, end) -> {
+                for (int i = start; i < end; i++) reads[i].incrementAndGet();
+            });
+            for (int i = 0; i < length; i++) assertEquals(1, reads[i].get(), "element " + i + " of " + length);
+        }
+    }
+
+    // The caller fills its result from every chunk, so a failure may only reach it once none of them is still running.
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3})
+    void failingChunksAreJoined(int failingChunk) {
+        int length = 4000;
+        int failingStart = (int) ((long) length * failingChunk / ParallelArrayWriter.chunkCount(fixedPool, length));
+        AtomicInteger running = new AtomicInteger();
+        Exception failure = failingChunk == 0 ? new IOException("chunk") : new IllegalStateException("chunk");
+
+        Exception thrown = assertThrows(Exception.class, () -> ParallelArrayReader.read(fixedPool, length, (start, end) -> {
+            running.incrementAndGet();
+            try {
+                if (start == failingStart) {
+                    if (failure instanceof IOException) throw (IOException) failure;
+                    throw (IllegalStateException) failure;
+                }
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }));
+
+        assertSame(failure, thrown);
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    void interruptedCallersStillJoin() {
+        AtomicInteger running = new AtomicInteger();
+        try {
+            Thread.currentThread().interrupt();
+            IOException thrown = assertThrows(IOException.class, () -> ParallelArrayReader.read(fixedPool, 4000, (start, end) -> {
+                running.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }));
+
+            assertTrue(thrown.getMessage().startsWith("interrupted"), thrown.getMessage());
+            assertTrue(Thread.interrupted());
+            assertEquals(0, running.get());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void parallelReadsMatchSequential(NumberEncoding numberEncoding) throws IOException {
+        byte[] bytes = ParallelDocument.named(numberEncoding, null, false);
+        for (boolean isLazy : new boolean[]{false, true}) {
+            for (ExecutorService executor : new ExecutorService[]{forkJoinPool, fixedPool}) {
+                ParallelDocument.check(new NamedBinaryDeserializer(ByteBuffer.wrap(bytes), isLazy, executor, 100));
+            }
+        }
+        ParallelDocument.check(INamedDeserializer.createParallel(bytes, false, forkJoinPool));
+    }
+
+    @Test
+    void thresholdIsHonoured() throws IOException {
+        byte[] bytes = ParallelDocument.named(NumberEncoding.FIXED, null, false);
+        try {
+            Recorded.THREADS.clear();
+            INamedDeserializer.createParallel(bytes, false, fixedPool, ParallelDocument.LENGTH + 1).readNamedObjectArray("entities", Recorded.class);
+            assertEquals(Collections.singleton(Thread.currentThread()), Recorded.THREADS);
+
+            Recorded.THREADS.clear();
+            Recorded[] read = INamedDeserializer.createParallel(bytes, false, fixedPool, ParallelDocument.LENGTH).readNamedObjectArray("entities", Recorded.class);
+            assertFalse(Recorded.THREADS.contains(Thread.currentThread()));
+            assertArrayEquals(ParallelDocument.ENTITIES, read);
+        } finally {
+            Recorded.THREADS.clear();
+        }
+    }
+
+    // An element that fails fails the array read the same way it would on the calling thread.
+    @Test
+    void failingElementsFailTheRead() throws IOException {
+        byte[] bytes = ParallelDocument.named(NumberEncoding.FIXED, null, false);
+        try {
+            FAILING_ID = 4000;
+            for (ExecutorService executor : new ExecutorService[]{null, forkJoinPool}) {
+                INamedDeserializer in = new NamedBinaryDeserializer(ByteBuffer.wrap(bytes), false, executor, 100);
+                IllegalStateException failure = assertThrows(IllegalStateException.class, () -> in.readNamedObjectArray("entities", Recorded.class));
+                assertEquals("entity 4000", failure.getMessage());
+            }
+        } finally {
+            FAILING_ID = -1;
+            Recorded.THREADS.clear();
+        }
+    }
+
+    @Test
+    void truncatedDataFails() throws IOException {
+        byte[] bytes = ParallelDocument.named(NumberEncoding.FIXED, null, false);
+        for (boolean isLazy : new boolean[]{false, true}) {
+            for (int length : new int[]{10, bytes.length / 3, bytes.length / 2, bytes.length - 1}) {
+                ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, length));
+                assertThrows(IOException.class, () -> new NamedBinaryDeserializer(truncated, isLazy, forkJoinPool, 100), "truncated to " + length);
+            }
+        }
+    }
+
+    @Test
+    void parallelReadsOfParallelWrites() throws IOException {
+        byte[] bytes = ParallelDocument.named(NumberEncoding.VARINT, forkJoinPool, false);
+        assertArrayEquals(ParallelDocument.named(NumberEncoding.VARINT, null, false), bytes);
+        ParallelDocument.check(new NamedBinaryDeserializer(ByteBuffer.wrap(bytes), false, forkJoinPool, 100));
+    }
+
+}
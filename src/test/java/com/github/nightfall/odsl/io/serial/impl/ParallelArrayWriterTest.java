@@ -0,0 +1,285 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.objects.ParallelDocument;
+import com.github.nightfall.odsl.objects.ParallelDocument.Entity;
+import com.github.nightfall.odsl.objects.ParallelDocument.Marker;
+import com.github.nightfall.odsl.util.BufferPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelArrayWriterTest {
+
+    /**
+     * Counts the buffers that were acquired & not released yet.
+     */
+    static class CountingPool extends BufferPool {
+
+        final AtomicInteger held = new AtomicInteger();
+
+        @Override
+        public byte[] acquire(int size) {
+            held.incrementAndGet();
+            return super.acquire(size);
+        }
+
+        @Override
+        public void release(byte[] buffer) {
+            held.decrementAndGet();
+            super.release(buffer);
+        }
+
+    }
+
+    static ForkJoinPool forkJoinPool;
+    static ExecutorService fixedPool;
+
+    @BeforeAll
+    static void start() {
+        ParallelDocument.register();
+        forkJoinPool = new ForkJoinPool(4);
+        fixedPool = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterAll
+    static void stop() {
+        forkJoinPool.shutdown();
+        fixedPool.shutdown();
+    }
+
+    static Integer[] elements(int length) {
+        Integer[] elements = new Integer[length];
+        for (int i = 0; i < length; i++) elements[i] = i;
+        return elements;
+    }
+
+    @Test
+    void chunksAreWrittenInOrder() throws IOException {
+        for (int length : new int[]{1, 2, 15, 16, 17, 4001}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ParallelArrayWriter.write(fixedPool, elements(length), buffer -> buffer, (buffer, element) -> {
+                buffer.write(element >> 8);
+                buffer.write(element);
+            }, out);
+
+            byte[] bytes = out.toByteArray();
+            assertEquals(length * 2, bytes.length);
+            for (int i = 0; i < length; i++) assertEquals(i, (bytes[i * 2] & 0xFF) << 8 | bytes[i * 2 + 1] & 0xFF);
+        }
+    }
+
+    @Test
+    void chunksAreSizedByTheExecutor() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertEquals(3 * ParallelArrayWriter.CHUNKS_PER_THREAD, ParallelArrayWriter.chunkCount(pool, 100_000));
+            assertEquals(5, ParallelArrayWriter.chunkCount(pool, 5));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // The failure of the first failing chunk reaches the caller as it was thrown, but only once no chunk is using
+    // the array or a buffer anymore.
+    @ParameterizedTest
+    @ValueSource(ints = {0, 10, 1999, 3999})
+    void failingChunksAreJoinedAndReleased(int failAt) {
+        BufferPool shared = BufferPool.shared();
+        CountingPool pool = new CountingPool();
+        AtomicInteger running = new AtomicInteger();
+        try {
+            BufferPool.setShared(pool);
+            IOException failure = new IOException("failed at " + failAt);
+            IOException thrown = assertThrows(IOException.class, () -> ParallelArrayWriter.write(fixedPool, elements(4000), buffer -> buffer, (buffer, element) -> {
+                running.incrementAndGet();
+                try {
+                    if (element == failAt) throw failure;
+                    buffer.write(new byte[100]);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, new ByteArrayOutputStream()));
+
+            assertSame(failure, thrown);
+            assertEquals(0, running.get());
+            assertEquals(0, pool.held.get());
+        } finally {
+            BufferPool.setShared(shared);
+        }
+    }
+
+    @Test
+    void uncheckedFailuresKeepTheirType() {
+        IllegalStateException failure = new IllegalStateException("element");
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> ParallelArrayWriter.write(fixedPool, elements(100), buffer -> buffer, (buffer, element) -> {
+            if (element == 50) throw failure;
+        }, new ByteArrayOutputStream())));
+    }
+
+    // An interrupted caller stops waiting for the output, but still waits for the chunks & keeps its interrupt.
+    // The chunks are slow so they are still running once the caller waits for them.
+    @Test
+    void interruptedCallersStillJoin() {
+        BufferPool shared = BufferPool.shared();
+        CountingPool pool = new CountingPool();
+        AtomicInteger running = new AtomicInteger();
+        try {
+            BufferPool.setShared(pool);
+            Thread.currentThread().interrupt();
+            IOException thrown = assertThrows(IOException.class, () -> ParallelArrayWriter.write(fixedPool, elements(400), buffer -> buffer, (buffer, element) -> {
+                running.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                    buffer.write(new byte[10]);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, new ByteArrayOutputStream()));
+
+            assertTrue(thrown.getMessage().startsWith("interrupted"), thrown.getMessage());
+            assertTrue(Thread.interrupted());
+            assertEquals(0, running.get());
+            assertEquals(0, pool.held.get());
+        } finally {
+            Thread.interrupted();
+            BufferPool.setShared(shared);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void namedParallelOutputMatchesSequential(NumberEncoding numberEncoding) throws IOException {
+        for (boolean isStreaming : new boolean[]{false, true}) {
+            byte[] sequential = ParallelDocument.named(numberEncoding, null, isStreaming);
+            ParallelDocument.check(new NamedBinaryDeserializer(sequential, false));
+
+            for (ExecutorService executor : new ExecutorService[]{forkJoinPool, fixedPool, ForkJoinPool.commonPool()}) {
+                assertArrayEquals(sequential, ParallelDocument.named(numberEncoding, executor, isStreaming), executor + (isStreaming ? " streaming" : ""));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(NumberEncoding.class)
+    void keylessParallelOutputMatchesSequential(NumberEncoding numberEncoding) throws IOException {
+        byte[][] outputs = new byte[2][];
+        for (int i = 0; i < outputs.length; i++) {
+            KeylessBinarySerializer serializer = new KeylessBinarySerializer(numberEncoding);
+            serializer.parallelExecutor = i == 0 ? null : forkJoinPool;
+            serializer.parallelThreshold = 100;
+            serializer.writeNamedObjectArray(ParallelDocument.ENTITIES);
+            serializer.writeKeylessObjectArray(ParallelDocument.ENTITIES);
+            serializer.writeCustomObjectArray(ParallelDocument.MARKERS);
+            serializer.writeTypedObjectArray(ParallelDocument.MARKERS);
+            serializer.writeInt(5);
+            outputs[i] = serializer.toBytes();
+        }
+        assertArrayEquals(outputs[0], outputs[1]);
+
+        IKeylessDeserializer in = new KeylessBinaryDeserializer(outputs[1], numberEncoding);
+        assertArrayEquals(ParallelDocument.ENTITIES, in.readNamedObjectArray(Entity.class));
+        assertArrayEquals(ParallelDocument.ENTITIES, in.readKeylessObjectArray(Entity.class));
+        assertArrayEquals(ParallelDocument.MARKERS, in.readCustomObjectArray(Marker.class));
+        assertArrayEquals(ParallelDocument.MARKERS, in.readTypedObjectArray(Marker.class));
+        assertEquals(5, in.readInt());
+    }
+
+    // Chunks add names to the shared key schema in whatever order they run, so only the data read back is the same.
+    @Test
+    void parallelKeySchemasRoundTrip() throws IOException {
+        for (int run = 0; run < 5; run++) {
+            NamedBinarySerializer serializer = new NamedBinarySerializer();
+            serializer.doKeySchema = true;
+            serializer.parallelExecutor = forkJoinPool;
+            serializer.parallelThreshold = 100;
+            ParallelDocument.write(serializer, ParallelDocument.MARKERS);
+            ParallelDocument.check(new NamedBinaryDeserializer(serializer.toBytes(), run % 2 == 0));
+        }
+    }
+
+    @Test
+    void arraysUnderTheThresholdStayOnTheCaller() throws IOException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        try {
+            NamedBinarySerializer serializer = new NamedBinarySerializer();
+            serializer.parallelExecutor = executor;
+            serializer.parallelThreshold = 100;
+            serializer.writeNamedObjectArray("small", Arrays.copyOf(ParallelDocument.ENTITIES, 99));
+            serializer.writeNamedObjectArray("single", Arrays.copyOf(ParallelDocument.ENTITIES, 1));
+            assertEquals(0, executor.getTaskCount());
+
+            serializer.writeNamedObjectArray("large", Arrays.copyOf(ParallelDocument.ENTITIES, 100));
+            assertTrue(executor.getTaskCount() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // An element that fails fails the array write the same way it would on the calling thread.
+    @Test
+    void failingElementsFailTheWrite() {
+        Marker[] markers = ParallelDocument.MARKERS.clone();
+        markers[4000] = new Marker(-1);
+        for (boolean isTyped : new boolean[]{false, true}) {
+            NamedBinarySerializer serializer = new NamedBinarySerializer();
+            serializer.parallelExecutor = forkJoinPool;
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () -> {
+                if (isTyped) serializer.writeTypedObjectArray("markers", markers);
+                else serializer.writeCustomObjectArray("markers", markers);
+            });
+            assertEquals("marker -1", failure.getMessage());
+        }
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        keyless.parallelExecutor = forkJoinPool;
+        assertThrows(IllegalStateException.class, () -> keyless.writeCustomObjectArray(markers));
+
+        Object[] unregistered = new Object[2000];
+        Arrays.fill(unregistered, "no serializer");
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.parallelExecutor = forkJoinPool;
+        RuntimeException failure = assertThrows(RuntimeException.class, () -> serializer.writeCustomObjectArray("strings", unregistered));
+        assertTrue(failure.getMessage().startsWith("cannot serialize"), failure.getMessage());
+    }
+
+    @Test
+    void resetTurnsParallelWritesOff() {
+        NamedBinarySerializer named = new NamedBinarySerializer();
+        named.parallelExecutor = forkJoinPool;
+        named.parallelThreshold = 5;
+        named.reset();
+        assertNull(named.parallelExecutor);
+        assertEquals(NamedBinarySerializer.DEFAULT_PARALLEL_THRESHOLD, named.parallelThreshold);
+
+        KeylessBinarySerializer keyless = new KeylessBinarySerializer();
+        keyless.parallelExecutor = forkJoinPool;
+        keyless.reset();
+        assertNull(keyless.parallelExecutor);
+    }
+
+}
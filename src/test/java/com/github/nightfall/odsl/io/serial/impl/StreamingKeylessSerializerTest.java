@@ -0,0 +1,48 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingKeylessSerializerTest {
+
+    // The keyless format has no schema, so streaming it gives the same bytes as writing it in memory.
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16, StreamingNamedSerializer.DEFAULT_BUFFER_SIZE})
+    void streamedBytesMatchInMemoryBytes(int bufferSize) throws IOException {
+        CompatDocument.register();
+        KeylessBinarySerializer expected = new KeylessBinarySerializer();
+        CompatDocument.write(expected);
+        NestedDocument.write(expected);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingKeylessSerializer serializer = new StreamingKeylessSerializer(out, bufferSize)) {
+            CompatDocument.write(serializer);
+            NestedDocument.write(serializer);
+        }
+        assertArrayEquals(expected.toBytes(), out.toByteArray());
+
+        KeylessBinaryDeserializer in = new KeylessBinaryDeserializer(out.toByteArray());
+        CompatDocument.check(in);
+        NestedDocument.check(in);
+    }
+
+    @Test
+    void writtenDataCannotBeTaken() throws IOException {
+        try (StreamingKeylessSerializer serializer = new StreamingKeylessSerializer(new ByteArrayOutputStream())) {
+            serializer.writeInt(1);
+            assertThrows(UnsupportedOperationException.class, serializer::toBytes);
+            assertThrows(UnsupportedOperationException.class, () -> serializer.writeTo(new ByteArrayOutputStream()));
+            assertThrows(UnsupportedOperationException.class, serializer::clear);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingNamedSerializerTest {
+
+    @BeforeAll
+    static void register() {
+        CompatDocument.register();
+    }
+
+    static byte[] stream(int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(out, bufferSize)) {
+            CompatDocument.write(serializer);
+            NestedDocument.write(serializer);
+            CompatDocument.writeStrings(serializer);
+        }
+        return out.toByteArray();
+    }
+
+    static void check(INamedDeserializer in) {
+        CompatDocument.check(in);
+        NestedDocument.check(in);
+        CompatDocument.checkStrings(in);
+    }
+
+    // Buffers smaller than most fields make every write go past the buffer.
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16, StreamingNamedSerializer.DEFAULT_BUFFER_SIZE})
+    void streamedDataRoundTrips(int bufferSize) throws IOException {
+        byte[] bytes = stream(bufferSize);
+        check(new NamedBinaryDeserializer(bytes, false));
+        check(new NamedBinaryDeserializer(bytes, true));
+    }
+
+    @Test
+    void channelGetsTheStreamedBytes(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("streamed.bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             StreamingNamedSerializer serializer = new StreamingNamedSerializer(channel)) {
+            CompatDocument.write(serializer);
+            NestedDocument.write(serializer);
+            CompatDocument.writeStrings(serializer);
+            serializer.flush();
+            assertEquals(Files.size(file), serializer.size());
+        }
+        assertArrayEquals(stream(StreamingNamedSerializer.DEFAULT_BUFFER_SIZE), Files.readAllBytes(file));
+    }
+
+    @Test
+    void writtenDataCannotBeTaken() throws IOException {
+        try (StreamingNamedSerializer serializer = new StreamingNamedSerializer(new ByteArrayOutputStream())) {
+            serializer.writeInt("int", 1);
+            assertThrows(UnsupportedOperationException.class, serializer::toBytes);
+            assertThrows(UnsupportedOperationException.class, () -> serializer.writeTo(new ByteArrayOutputStream()));
+            assertThrows(UnsupportedOperationException.class, serializer::clear);
+        }
+    }
+
+}
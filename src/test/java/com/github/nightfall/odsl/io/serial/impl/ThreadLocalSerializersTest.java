@@ -0,0 +1,55 @@
+package com.github.nightfall.odsl.io.serial.impl;
+
+import com.github.nightfall.odsl.objects.CompatDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ThreadLocalSerializersTest {
+
+    @Test
+    void eachThreadReusesItsOwnSerializer() throws Exception {
+        NamedBinarySerializer named = ThreadLocalSerializers.named();
+        CompatDocument.write(named);
+        named.doBooleanPacking = true;
+        assertSame(named, ThreadLocalSerializers.named());
+        CompatDocument.write(named);
+        assertArrayEquals(NamedBinarySerializerTest.document(), named.toBytes());
+
+        KeylessBinarySerializer keyless = ThreadLocalSerializers.keyless();
+        CompatDocument.write(keyless);
+        assertSame(keyless, ThreadLocalSerializers.keyless());
+        CompatDocument.write(keyless);
+        assertArrayEquals(KeylessBinarySerializerTest.document(), keyless.toBytes());
+
+        assertNotSame(named, CompletableFuture.supplyAsync(ThreadLocalSerializers::named).get());
+        assertNotSame(keyless, CompletableFuture.supplyAsync(ThreadLocalSerializers::keyless).get());
+    }
+
+    @Test
+    void grownSerializersAreReplaced() throws IOException {
+        int maxRetainedCapacity = ThreadLocalSerializers.maxRetainedCapacity;
+        try {
+            ThreadLocalSerializers.maxRetainedCapacity = 64;
+            NamedBinarySerializer named = ThreadLocalSerializers.named();
+            named.writeByteArray("large", new byte[128]);
+            assertNotSame(named, ThreadLocalSerializers.named());
+
+            KeylessBinarySerializer keyless = ThreadLocalSerializers.keyless();
+            keyless.writeByteArray(new byte[128]);
+            assertNotSame(keyless, ThreadLocalSerializers.keyless());
+
+            NamedBinarySerializer small = ThreadLocalSerializers.named();
+            small.writeInt("small", 1);
+            assertSame(small, ThreadLocalSerializers.named());
+        } finally {
+            ThreadLocalSerializers.maxRetainedCapacity = maxRetainedCapacity;
+        }
+    }
+
+}
@@ -0,0 +1,364 @@
+package com.github.nightfall.odsl.objects;
+
+import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IDataStreamSerializable;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A document using every type the 1.0.0 format has, written only through methods 1.0.0 already had.
+ * The files in src/test/resources/compat were written from it by 1.0.0, so newer versions can be checked
+ * against them for reading old data & for writing the same bytes by default.
+ */
+public class CompatDocument {
+
+    public static final byte[] BYTES = {0, 1, -1, Byte.MIN_VALUE, Byte.MAX_VALUE};
+    public static final short[] SHORTS = {0, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+    public static final int[] INTS = {0, 7, 1 << 20, Integer.MAX_VALUE, 100_000};
+    public static final long[] LONGS = {0, 9, 1L << 40, Long.MAX_VALUE};
+    public static final float[] FLOATS = {0f, 1.5f, -2.25f, Float.MAX_VALUE, Float.NaN};
+    public static final double[] DOUBLES = {0d, Math.PI, -1e300, Double.MIN_VALUE};
+    public static final boolean[] BOOLEANS = {true, false, false, true, true, true, false, true, true, false};
+    public static final char[] CHARS = {'a', 'Z', '\u00e9', '\u4e2d'};
+    public static final String[] STRINGS = {"alpha", "beta", "alpha", "", "gamma", "beta"};
+
+    private CompatDocument() {}
+
+    /** Reads a file from src/test/resources/compat. */
+    public static byte[] resource(String name) throws IOException {
+        try (InputStream in = CompatDocument.class.getResourceAsStream("/compat/" + name)) {
+            if (in == null) throw new IOException("missing test resource " + name);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read; (read = in.read(buffer)) != -1; ) out.write(buffer, 0, read);
+            return out.toByteArray();
+        }
+    }
+
+    private static boolean registered;
+
+    static {
+        register();
+    }
+
+    /**
+     * Registers the serializer of {@link Vec}, which already happens when this class is loaded & only happens once.
+     */
+    public static synchronized void register() {
+        if (registered) return;
+        registered = true;
+        INamedSerializer.registerSerializer(new VecSerializer());
+        INamedDeserializer.registerDeserializer(new VecSerializer());
+        IKeylessSerializer.registerSerializer(new VecSerializer());
+        IKeylessDeserializer.registerDeserializer(new VecSerializer());
+    }
+
+    public static void write(INamedSerializer out) throws IOException {
+        out.writeByte("byte", (byte) -5);
+        out.writeShort("short", (short) 1234);
+        out.writeInt("small", 7);
+        out.writeInt("int", 70_000);
+        out.writeLong("long", 1L << 50);
+        out.writeFloat("float", 3.5f);
+        out.writeDouble("double", -0.125);
+        out.writeBoolean("boolean", true);
+        out.writeChar("char", 'q');
+        out.writeString("string", "hello");
+
+        out.writeByteArray("bytes", BYTES);
+        out.writeShortArray("shorts", SHORTS);
+        // 1.0.0 wrote named int arrays as shorts that it read back as ints, so no file of it has a readable one.
+        out.writeLongArray("longs", LONGS);
+        out.writeFloatArray("floats", FLOATS);
+        out.writeDoubleArray("doubles", DOUBLES);
+        out.writeBooleanArray("booleans", BOOLEANS);
+        out.writeCharArray("chars", CHARS);
+        out.writeStringArray("strings", STRINGS);
+
+        out.writeNamedObject("point", new Point(1, 2));
+        out.writeNamedObjectArray("points", new Point[]{new Point(3, 4), new Point(5, 6)});
+        out.writeKeylessObject("keylessPoint", new Point(7, 8));
+        out.writeKeylessObjectArray("keylessPoints", new Point[]{new Point(9, 10)});
+        out.writeRawObject("blob", new Blob(11));
+        out.writeRawObjectArray("blobs", new Blob[]{new Blob(12), new Blob(13)});
+        out.writeCustomObject("vec", new Vec(1.5, 2.5));
+        out.writeCustomObjectArray("vecs", new Vec[]{new Vec(3, 4), new Vec(5, 6)});
+        out.writeString("last", "end");
+    }
+
+    public static void check(INamedDeserializer in) {
+        assertEquals(-5, in.readByte("byte"));
+        assertEquals(1234, in.readShort("short"));
+        assertEquals(7, in.readInt("small"));
+        assertEquals(70_000, in.readInt("int"));
+        assertEquals(1L << 50, in.readLong("long"));
+        assertEquals(3.5f, in.readFloat("float"));
+        assertEquals(-0.125, in.readDouble("double"));
+        assertEquals(true, in.readBoolean("boolean"));
+        assertEquals('q', in.readChar("char"));
+        assertEquals("hello", in.readString("string"));
+
+        assertArrayEquals(BYTES, in.readByteArrayAsNative("bytes"));
+        assertArrayEquals(SHORTS, in.readShortArrayAsNative("shorts"));
+        assertArrayEquals(LONGS, in.readLongArrayAsNative("longs"));
+        assertArrayEquals(FLOATS, in.readFloatArrayAsNative("floats"));
+        assertArrayEquals(DOUBLES, in.readDoubleArrayAsNative("doubles"));
+        assertArrayEquals(BOOLEANS, in.readBooleanArrayAsNative("booleans"));
+        assertArrayEquals(CHARS, in.readCharArrayAsNative("chars"));
+        assertArrayEquals(STRINGS, in.readStringArray("strings"));
+
+        assertEquals(new Point(1, 2), in.readNamedObject("point", Point.class));
+        assertArrayEquals(new Point[]{new Point(3, 4), new Point(5, 6)}, in.readNamedObjectArray("points", Point.class));
+        assertEquals(new Point(7, 8), in.readKeylessObject("keylessPoint", Point.class));
+        assertArrayEquals(new Point[]{new Point(9, 10)}, in.readKeylessObjectArray("keylessPoints", Point.class));
+        assertEquals(new Blob(11), in.readRawObject("blob", Blob.class));
+        assertArrayEquals(new Blob[]{new Blob(12), new Blob(13)}, in.readRawObjectArray("blobs", Blob.class));
+        assertEquals(new Vec(1.5, 2.5), in.readCustomObject("vec", Vec.class));
+        assertArrayEquals(new Vec[]{new Vec(3, 4), new Vec(5, 6)}, in.readCustomObjectArray("vecs", Vec.class));
+        assertEquals("end", in.readString("last"));
+    }
+
+    public static void write(IKeylessSerializer out) throws IOException {
+        out.writeByte((byte) -5);
+        out.writeShort((short) 1234);
+        out.writeInt(70_000);
+        out.writeLong(1L << 50);
+        out.writeFloat(3.5f);
+        out.writeDouble(-0.125);
+        out.writeBoolean(true);
+        out.writeChar('q');
+        out.writeString("hello");
+
+        out.writeByteArray(BYTES);
+        out.writeShortArray(SHORTS);
+        out.writeIntArray(INTS);
+        out.writeLongArray(LONGS);
+        out.writeFloatArray(FLOATS);
+        out.writeDoubleArray(DOUBLES);
+        out.writeBooleanArray(BOOLEANS);
+        out.writeCharArray(CHARS);
+        out.writeStringArray(STRINGS);
+
+        out.writeKeylessObject(new Point(1, 2));
+        out.writeKeylessObjectArray(new Point[]{new Point(3, 4), new Point(5, 6)});
+        out.writeNamedObject(new Point(7, 8));
+        out.writeNamedObjectArray(new Point[]{new Point(9, 10)});
+        out.writeRawObject(new Blob(11));
+        out.writeRawObjectArray(new Blob[]{new Blob(12), new Blob(13)});
+        out.writeCustomObject(new Vec(1.5, 2.5));
+        out.writeCustomObjectArray(new Vec[]{new Vec(3, 4), new Vec(5, 6)});
+        out.writeString("end");
+    }
+
+    public static void check(IKeylessDeserializer in) throws IOException {
+        assertEquals(-5, in.readByte());
+        assertEquals(1234, in.readShort());
+        assertEquals(70_000, in.readInt());
+        assertEquals(1L << 50, in.readLong());
+        assertEquals(3.5f, in.readFloat());
+        assertEquals(-0.125, in.readDouble());
+        assertEquals(true, in.readBoolean());
+        assertEquals('q', in.readChar());
+        assertEquals("hello", in.readString());
+
+        assertArrayEquals(BYTES, in.readByteArrayAsNative());
+        assertArrayEquals(SHORTS, in.readShortArrayAsNative());
+        assertArrayEquals(INTS, in.readIntArrayAsNative());
+        assertArrayEquals(LONGS, in.readLongArrayAsNative());
+        assertArrayEquals(FLOATS, in.readFloatArrayAsNative());
+        assertArrayEquals(DOUBLES, in.readDoubleArrayAsNative());
+        assertArrayEquals(BOOLEANS, in.readBooleanArrayAsNative());
+        assertArrayEquals(CHARS, in.readCharArrayAsNative());
+        assertArrayEquals(STRINGS, in.readStringArray());
+
+        assertEquals(new Point(1, 2), in.readKeylessObject(Point.class));
+        assertArrayEquals(new Point[]{new Point(3, 4), new Point(5, 6)}, in.readKeylessObjectArray(Point.class));
+        assertEquals(new Point(7, 8), in.readNamedObject(Point.class));
+        assertArrayEquals(new Point[]{new Point(9, 10)}, in.readNamedObjectArray(Point.class));
+        assertEquals(new Blob(11), in.readRawObject(Blob.class));
+        assertArrayEquals(new Blob[]{new Blob(12), new Blob(13)}, in.readRawObjectArray(Blob.class));
+        assertEquals(new Vec(1.5, 2.5), in.readCustomObject(Vec.class));
+        assertArrayEquals(new Vec[]{new Vec(3, 4), new Vec(5, 6)}, in.readCustomObjectArray(Vec.class));
+        assertEquals("end", in.readString());
+    }
+
+    public static final int DISTINCT_STRINGS = 300;
+
+    static String string(int i) {
+        return "string" + (i * 7919 % DISTINCT_STRINGS);
+    }
+
+    /**
+     * Writes enough distinct strings for their indices to need more than a byte, each used several times.
+     */
+    public static void writeStrings(INamedSerializer out) throws IOException {
+        for (int i = 0; i < DISTINCT_STRINGS * 2; i++) out.writeString("field" + i, string(i));
+        String[] array = new String[DISTINCT_STRINGS];
+        for (int i = 0; i < array.length; i++) array[i] = string(array.length - i);
+        out.writeStringArray("stringTable", array);
+    }
+
+    public static void checkStrings(INamedDeserializer in) {
+        for (int i = 0; i < DISTINCT_STRINGS * 2; i++) assertEquals(string(i), in.readString("field" + i));
+        String[] array = in.readStringArray("stringTable");
+        assertEquals(DISTINCT_STRINGS, array.length);
+        for (int i = 0; i < array.length; i++) assertEquals(string(array.length - i), array[i]);
+    }
+
+    public static class Point implements INamedSerializable, IKeylessSerializable {
+
+        public int x, y;
+
+        public Point() {}
+
+        public Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            x = in.readInt("x");
+            y = in.readInt("y");
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("x", x);
+            out.writeInt("y", y);
+        }
+
+        @Override
+        public void read(IKeylessDeserializer in) throws IOException {
+            x = in.readInt();
+            y = in.readInt();
+        }
+
+        @Override
+        public void write(IKeylessSerializer out) throws IOException {
+            out.writeInt(x);
+            out.writeInt(y);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point) o).x == x && ((Point) o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+
+        @Override
+        public String toString() {
+            return "Point(" + x + ", " + y + ")";
+        }
+
+    }
+
+    public static class Blob implements IDataStreamSerializable {
+
+        public int value;
+
+        public Blob() {}
+
+        public Blob(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public void read(DataInputStream in) throws IOException {
+            value = in.readInt();
+        }
+
+        @Override
+        public void write(DataOutputStream out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Blob && ((Blob) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+    }
+
+    public static class Vec {
+
+        public final double x, y;
+
+        public Vec(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Vec && ((Vec) o).x == x && ((Vec) o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(x) * 31 + Double.hashCode(y);
+        }
+
+        @Override
+        public String toString() {
+            return "Vec(" + x + ", " + y + ")";
+        }
+
+    }
+
+    public static class VecSerializer implements INamedCustomSerializable<Vec>, IKeylessCustomSerializable<Vec> {
+
+        @Override
+        public Vec read(INamedDeserializer in) {
+            return new Vec(in.readDouble("x"), in.readDouble("y"));
+        }
+
+        @Override
+        public void write(INamedSerializer out, Vec obj) throws IOException {
+            out.writeDouble("x", obj.x);
+            out.writeDouble("y", obj.y);
+        }
+
+        @Override
+        public Vec read(IKeylessDeserializer in) throws IOException {
+            return new Vec(in.readDouble(), in.readDouble());
+        }
+
+        @Override
+        public void write(IKeylessSerializer out, Vec obj) throws IOException {
+            out.writeDouble(obj.x);
+            out.writeDouble(obj.y);
+        }
+
+        @Override
+        public Class<Vec> getSerializableType() {
+            return Vec.class;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.github.nightfall.odsl.objects;
+
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Nested objects with bodies on both sides of the one byte length limit, with & without strings of their own.
+ * Like {@link CompatDocument} it only uses 1.0.0 methods & the files in src/test/resources/compat were written from it by 1.0.0.
+ */
+public class NestedDocument {
+
+    static final int MIN_PADDING = 100;
+    static final int MAX_PADDING = 140;
+
+    private NestedDocument() {}
+
+    static Padded padded(int length) {
+        return new Padded(length, length % 2 == 0 ? "label" + length : null, null);
+    }
+
+    static Padded deep() {
+        return new Padded(300, "outer", new Padded(120, "middle", new Padded(4, null, new Padded(0, "leaf", null))));
+    }
+
+    static Padded[] array() {
+        return new Padded[]{padded(10), padded(126), padded(127), padded(128), deep()};
+    }
+
+    public static void write(INamedSerializer out) throws IOException {
+        for (int i = MIN_PADDING; i <= MAX_PADDING; i++) {
+            out.writeNamedObject("named" + i, padded(i));
+            out.writeKeylessObject("keyless" + i, padded(i));
+        }
+        out.writeNamedObject("deep", deep());
+        out.writeNamedObjectArray("array", array());
+        out.writeString("last", "end");
+    }
+
+    public static void check(INamedDeserializer in) {
+        for (int i = MIN_PADDING; i <= MAX_PADDING; i++) {
+            assertEquals(padded(i), in.readNamedObject("named" + i, Padded.class));
+            assertEquals(padded(i), in.readKeylessObject("keyless" + i, Padded.class));
+        }
+        assertEquals(deep(), in.readNamedObject("deep", Padded.class));
+        assertArrayEquals(array(), in.readNamedObjectArray("array", Padded.class));
+        assertEquals("end", in.readString("last"));
+    }
+
+    public static void write(IKeylessSerializer out) throws IOException {
+        for (int i = MIN_PADDING; i <= MAX_PADDING; i++) {
+            out.writeNamedObject(padded(i));
+            out.writeKeylessObject(padded(i));
+        }
+        out.writeNamedObject(deep());
+        out.writeNamedObjectArray(array());
+        out.writeString("end");
+    }
+
+    public static void check(IKeylessDeserializer in) throws IOException {
+        for (int i = MIN_PADDING; i <= MAX_PADDING; i++) {
+            assertEquals(padded(i), in.readNamedObject(Padded.class));
+            assertEquals(padded(i), in.readKeylessObject(Padded.class));
+        }
+        assertEquals(deep(), in.readNamedObject(Padded.class));
+        assertArrayEquals(array(), in.readNamedObjectArray(Padded.class));
+        assertEquals("end", in.readString());
+    }
+
+    public static class Padded implements INamedSerializable, IKeylessSerializable {
+
+        public byte[] padding;
+        public String label;
+        public Padded child;
+
+        public Padded() {}
+
+        public Padded(int length, String label, Padded child) {
+            this.padding = new byte[length];
+            for (int i = 0; i < length; i++) padding[i] = (byte) (i * 31);
+            this.label = label;
+            this.child = child;
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            padding = in.readByteArrayAsNative("padding");
+            if (in.readBoolean("hasLabel")) label = in.readString("label");
+            if (in.readBoolean("hasChild")) child = in.readNamedObject("child", Padded.class);
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeByteArray("padding", padding);
+            out.writeBoolean("hasLabel", label != null);
+            if (label != null) out.writeString("label", label);
+            out.writeBoolean("hasChild", child != null);
+            if (child != null) out.writeNamedObject("child", child);
+        }
+
+        @Override
+        public void read(IKeylessDeserializer in) throws IOException {
+            padding = in.readByteArrayAsNative();
+            if (in.readBoolean()) label = in.readString();
+            if (in.readBoolean()) child = in.readKeylessObject(Padded.class);
+        }
+
+        @Override
+        public void write(IKeylessSerializer out) throws IOException {
+            out.writeByteArray(padding);
+            out.writeBoolean(label != null);
+            if (label != null) out.writeString(label);
+            out.writeBoolean(child != null);
+            if (child != null) out.writeKeylessObject(child);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Padded)) return false;
+            Padded other = (Padded) o;
+            return Arrays.equals(padding, other.padding) && Objects.equals(label, other.label) && Objects.equals(child, other.child);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(padding), label, child);
+        }
+
+        @Override
+        public String toString() {
+            return "Padded{" + padding.length + ", " + label + ", " + child + "}";
+        }
+
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.github.nightfall.odsl.objects;
+
+import com.github.nightfall.odsl.io.custom.CustomTypeIds;
+import com.github.nightfall.odsl.io.custom.IKeylessCustomSerializable;
+import com.github.nightfall.odsl.io.custom.INamedCustomSerializable;
+import com.github.nightfall.odsl.io.serial.NumberEncoding;
+import com.github.nightfall.odsl.io.serial.api.IKeylessDeserializer;
+import com.github.nightfall.odsl.io.serial.api.IKeylessSerializer;
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.impl.StreamingNamedSerializer;
+import com.github.nightfall.odsl.io.serial.obj.IKeylessSerializable;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Object arrays long enough to be split into chunks, written & read by the parallel array tests.
+ */
+public class ParallelDocument {
+
+    public static final int LENGTH = 5003;
+    public static final Entity[] ENTITIES = new Entity[LENGTH];
+    public static final Marker[] MARKERS = new Marker[LENGTH];
+
+    private static boolean registered;
+
+    static {
+        for (int i = 0; i < LENGTH; i++) {
+            ENTITIES[i] = new Entity(i);
+            MARKERS[i] = new Marker(i);
+        }
+        register();
+    }
+
+    private ParallelDocument() {}
+
+    /**
+     * Registers the serializer & type id of {@link Marker}, which already happens when this class is loaded & only happens once.
+     */
+    public static synchronized void register() {
+        if (registered) return;
+        registered = true;
+        MarkerSerializer serializer = new MarkerSerializer();
+        INamedSerializer.registerSerializer(serializer);
+        INamedDeserializer.registerDeserializer(serializer);
+        IKeylessSerializer.registerSerializer(serializer);
+        IKeylessDeserializer.registerDeserializer(serializer);
+        CustomTypeIds.register(Marker.class);
+    }
+
+    public static void write(NamedBinarySerializer out, Object[] markers) throws IOException {
+        out.writeInt("first", 1);
+        out.writeNamedObjectArray("entities", ENTITIES);
+        out.writeKeylessObjectArray("keyless", ENTITIES);
+        out.writeCustomObjectArray("markers", markers);
+        out.writeTypedObjectArray("typed", markers);
+        out.writeNamedObjectArray("small", Arrays.copyOf(ENTITIES, 5));
+        out.writeString("last", "end");
+    }
+
+    public static void check(INamedDeserializer in) {
+        assertEquals(1, in.readInt("first"));
+        assertArrayEquals(ENTITIES, in.readNamedObjectArray("entities", Entity.class));
+        assertArrayEquals(ENTITIES, in.readKeylessObjectArray("keyless", Entity.class));
+        assertArrayEquals(MARKERS, in.readCustomObjectArray("markers", Marker.class));
+        assertArrayEquals(MARKERS, in.readCustomObjectArray("typed", Marker.class));
+        assertArrayEquals(Arrays.copyOf(ENTITIES, 5), in.readNamedObjectArray("small", Entity.class));
+        assertEquals("end", in.readString("last"));
+    }
+
+    /** Writes the document with a threshold of 100, on the calling thread when the executor is null. */
+    public static byte[] named(NumberEncoding numberEncoding, ExecutorService executor, boolean isStreaming) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NamedBinarySerializer serializer = isStreaming ? new StreamingNamedSerializer(out, 64, numberEncoding) : new NamedBinarySerializer(numberEncoding);
+        serializer.parallelExecutor = executor;
+        serializer.parallelThreshold = 100;
+        write(serializer, MARKERS);
+
+        if (!isStreaming) return serializer.toBytes();
+        ((StreamingNamedSerializer) serializer).close();
+        return out.toByteArray();
+    }
+
+    public static class Entity implements INamedSerializable, IKeylessSerializable {
+
+        public int id;
+        public String name;
+        public long[] position;
+
+        public Entity() {}
+
+        Entity(int id) {
+            this.id = id;
+            name = "entity" + id % 50;
+            position = new long[]{id, id * 2L, -id};
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            id = in.readInt("id");
+            name = in.readString("name");
+            position = in.readLongArrayAsNative("position");
+        }
+
+        // A field name only some elements have, so chunks add different names to the key schema.
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("id", id);
+            out.writeString("name", name);
+            out.writeLongArray("position", position);
+            out.writeString("tag" + id % 7, "t");
+        }
+
+        @Override
+        public void read(IKeylessDeserializer in) throws IOException {
+            id = in.readInt();
+            name = in.readString();
+            position = in.readLongArrayAsNative();
+        }
+
+        @Override
+        public void write(IKeylessSerializer out) throws IOException {
+            out.writeInt(id);
+            out.writeString(name);
+            out.writeLongArray(position);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entity && ((Entity) o).id == id && ((Entity) o).name.equals(name) && Arrays.equals(((Entity) o).position, position);
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+    }
+
+    public static class Marker {
+
+        public final int value;
+
+        public Marker(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Marker && ((Marker) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+    }
+
+    // Fails on a negative value, which is how the tests make a single element fail.
+    public static class MarkerSerializer implements INamedCustomSerializable<Marker>, IKeylessCustomSerializable<Marker> {
+
+        @Override
+        public Marker read(INamedDeserializer in) {
+            return new Marker(in.readInt("value"));
+        }
+
+        @Override
+        public void write(INamedSerializer out, Marker obj) throws IOException {
+            if (obj.value < 0) throw new IllegalStateException("marker " + obj.value);
+            out.writeInt("value", obj.value);
+        }
+
+        @Override
+        public Marker read(IKeylessDeserializer in) throws IOException {
+            return new Marker(in.readInt());
+        }
+
+        @Override
+        public void write(IKeylessSerializer out, Marker obj) throws IOException {
+            if (obj.value < 0) throw new IllegalStateException("marker " + obj.value);
+            out.writeInt(obj.value);
+        }
+
+        @Override
+        public Class<Marker> getSerializableType() {
+            return Marker.class;
+        }
+
+    }
+
+}
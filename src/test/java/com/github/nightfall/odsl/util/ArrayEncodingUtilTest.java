@@ -0,0 +1,199 @@
+package com.github.nightfall.odsl.util;
+
+import com.github.nightfall.odsl.io.serial.ArrayEncoding;
+import com.github.nightfall.odsl.io.serial.SerializationType;
+import com.github.nightfall.odsl.io.serial.StringPalette;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArrayEncodingUtilTest {
+
+    public static List<long[]> longArrays() {
+        Random random = new Random(18);
+        List<long[]> arrays = new ArrayList<>();
+        arrays.add(new long[0]);
+        arrays.add(new long[]{Long.MIN_VALUE});
+        arrays.add(new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0, -1, Long.MAX_VALUE, Long.MIN_VALUE});
+        arrays.add(new long[100]);
+
+        long[] sorted = new long[5000];
+        for (int i = 1; i < sorted.length; i++) sorted[i] = sorted[i - 1] + random.nextInt(10);
+        arrays.add(sorted);
+
+        long[] clustered = new long[3000];
+        for (int i = 0; i < clustered.length; i++) clustered[i] = -1_000_000 + random.nextInt(500);
+        arrays.add(clustered);
+
+        long[] runs = new long[2000];
+        for (int i = 0; i < runs.length; i++) runs[i] = i / 300 % 2 == 0 ? 7 : Integer.MIN_VALUE;
+        arrays.add(runs);
+
+        long[] noise = new long[1000];
+        for (int i = 0; i < noise.length; i++) noise[i] = random.nextLong();
+        arrays.add(noise);
+        return arrays;
+    }
+
+    public static int[] toInts(long[] longs) {
+        int[] ints = new int[longs.length];
+        for (int i = 0; i < ints.length; i++) ints[i] = (int) longs[i];
+        return ints;
+    }
+
+    static DataInputStream in(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    // Every encoding has to read back anything it is given, even arrays choose() would never give it.
+    @ParameterizedTest
+    @EnumSource(ArrayEncoding.class)
+    void everyEncodingRoundTrips(ArrayEncoding encoding) throws IOException {
+        for (long[] longs : longArrays()) {
+            int[] ints = toInts(longs);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ArrayEncodingUtil.write(out, encoding, ints);
+            ArrayEncodingUtil.write(out, encoding, longs);
+            out.write(42);
+
+            DataInputStream in = in(out.toByteArray());
+            assertArrayEquals(ints, ArrayEncodingUtil.readInts(in, encoding, ints.length), encoding + " ints of " + ints.length);
+            assertArrayEquals(longs, ArrayEncodingUtil.readLongs(in, encoding, longs.length), encoding + " longs of " + longs.length);
+            assertEquals(42, in.read());
+        }
+    }
+
+    // Encoded arrays start with the size of their elements, which is what lets the lazy deserializer & the pull reader skip them.
+    @ParameterizedTest
+    @EnumSource(value = ArrayEncoding.class, names = "PLAIN", mode = EnumSource.Mode.EXCLUDE)
+    void encodedArraysStartWithTheirSize(ArrayEncoding encoding) throws IOException {
+        for (long[] longs : longArrays()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ArrayEncodingUtil.write(out, encoding, longs);
+            DataInputStream in = in(out.toByteArray());
+            long size = VarIntUtil.readUnsignedVarLong(in);
+            assertEquals(in.available(), size);
+        }
+    }
+
+    @Test
+    void chooseFindsTheSmallestEncoding() {
+        List<long[]> arrays = longArrays();
+        assertEquals(ArrayEncoding.PLAIN, ArrayEncodingUtil.choose(arrays.get(2)));
+        // A single value packs into 0 bits per element, as small as one run.
+        assertEquals(ArrayEncoding.FRAME_OF_REFERENCE, ArrayEncodingUtil.choose(arrays.get(3)));
+        assertEquals(ArrayEncoding.DELTA, ArrayEncodingUtil.choose(arrays.get(4)));
+        assertEquals(ArrayEncoding.FRAME_OF_REFERENCE, ArrayEncodingUtil.choose(arrays.get(5)));
+        assertEquals(ArrayEncoding.RUN_LENGTH, ArrayEncodingUtil.choose(arrays.get(6)));
+        assertEquals(ArrayEncoding.PLAIN, ArrayEncodingUtil.choose(arrays.get(7)));
+
+        assertEquals(ArrayEncoding.DELTA, ArrayEncodingUtil.choose(toInts(arrays.get(4))));
+        assertEquals(ArrayEncoding.FRAME_OF_REFERENCE, ArrayEncodingUtil.choose(toInts(arrays.get(5))));
+        assertEquals(ArrayEncoding.PLAIN, ArrayEncodingUtil.choose(new int[ArrayEncodingUtil.MIN_ENCODED_LENGTH - 1]));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ArrayEncoding.class, names = "PLAIN", mode = EnumSource.Mode.EXCLUDE)
+    void truncatedArraysFail(ArrayEncoding encoding) throws IOException {
+        long[] longs = longArrays().get(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrayEncodingUtil.write(out, encoding, longs);
+        byte[] bytes = out.toByteArray();
+
+        for (int length : new int[]{0, 1, bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> ArrayEncodingUtil.readLongs(in(truncated), encoding, longs.length), encoding + " truncated to " + length);
+        }
+    }
+
+    // A run that claims more elements than the array has would write past its end.
+    @Test
+    void runsPastTheLengthFail() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrayEncodingUtil.write(out, ArrayEncoding.RUN_LENGTH, new int[20]);
+        assertThrows(IOException.class, () -> ArrayEncodingUtil.readInts(in(out.toByteArray()), ArrayEncoding.RUN_LENGTH, 10));
+    }
+
+    @Test
+    void typesMapToEncodings() {
+        for (ArrayEncoding encoding : ArrayEncoding.values()) {
+            assertEquals(encoding, ArrayEncoding.fromId(encoding.ordinal()));
+            assertEquals(encoding, ArrayEncoding.fromArrayType(encoding.getIntArrayType()));
+            assertEquals(encoding, ArrayEncoding.fromArrayType(encoding.getLongArrayType()));
+        }
+        assertNull(ArrayEncoding.fromArrayType(SerializationType.STRING_REGULAR));
+        assertThrows(RuntimeException.class, () -> ArrayEncoding.fromId(ArrayEncoding.values().length));
+    }
+
+    static StringPalette palette(int paletteSize, int length) {
+        String[] strings = new String[paletteSize];
+        for (int i = 0; i < paletteSize; i++) strings[i] = "block:" + i;
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i++) indices[i] = (int) ((i * 2654435761L) % paletteSize);
+        return new StringPalette(strings, indices);
+    }
+
+    static byte[] write(StringPalette palette) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrayEncodingUtil.writePalette(new DataOutputStream(out), palette);
+        return out.toByteArray();
+    }
+
+    // Palette sizes on both sides of each extra bit per index, including one string, which takes no bits at all.
+    @Test
+    void palettesRoundTrip() throws IOException {
+        for (int paletteSize : new int[]{1, 2, 3, 4, 5, 255, 256, 257, 1000}) {
+            for (int length : new int[]{1, 7, 8, 9, 5000}) {
+                StringPalette palette = palette(paletteSize, length);
+                byte[] bytes = write(palette);
+                int stringBytes = bytes.length - (int) ArrayEncodingUtil.paletteIndicesSize(length, paletteSize);
+
+                StringPalette read = ArrayEncodingUtil.readPalette(in(bytes), length);
+                assertArrayEquals(palette.getPalette(), read.getPalette());
+                assertArrayEquals(palette.getIndices(), read.getIndices());
+                if (paletteSize == 1) assertEquals(bytes.length, stringBytes);
+            }
+        }
+
+        StringPalette empty = new StringPalette(new String[0], new int[0]);
+        assertEquals(0, ArrayEncodingUtil.readPalette(in(write(empty)), 0).size());
+    }
+
+    @Test
+    void indicesOutsideThePaletteFail() throws IOException {
+        assertThrows(RuntimeException.class, () -> write(new StringPalette(new String[]{"a", "b", "c"}, new int[]{0, 3})));
+        assertThrows(RuntimeException.class, () -> write(new StringPalette(new String[]{"a"}, new int[]{0, -1})));
+
+        // Three strings take 2 bits per index, which leaves room for an index of 3.
+        byte[] bytes = write(new StringPalette(new String[]{"a", "b", "c"}, new int[]{0, 2}));
+        bytes[bytes.length - 1] |= 0b11;
+        assertThrows(IOException.class, () -> ArrayEncodingUtil.readPalette(in(bytes), 2));
+
+        assertThrows(IOException.class, () -> ArrayEncodingUtil.readPalette(in(write(new StringPalette(new String[0], new int[0]))), 5));
+    }
+
+    @Test
+    void truncatedPalettesFail() throws IOException {
+        byte[] bytes = write(palette(300, 1000));
+        for (int length : new int[]{0, 1, 20, bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> ArrayEncodingUtil.readPalette(in(truncated), 1000), "truncated to " + length);
+        }
+    }
+
+}
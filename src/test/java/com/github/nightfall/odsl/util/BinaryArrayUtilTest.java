@@ -0,0 +1,144 @@
+package com.github.nightfall.odsl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryArrayUtilTest {
+
+    // Lengths around the chunk size of each element size, so writes that span several chunks are covered.
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 1023, 1024, 1025, 2049, 4096, 8193, 20000})
+    void bulkWritesMatchDataOutputStream(int length) throws IOException {
+        Random random = new Random(length);
+        short[] shorts = new short[length];
+        int[] ints = new int[length];
+        long[] longs = new long[length];
+        float[] floats = new float[length];
+        double[] doubles = new double[length];
+        boolean[] booleans = new boolean[length];
+        char[] chars = new char[length];
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        for (int i = 0; i < length; i++) {
+            shorts[i] = (short) random.nextInt();
+            ints[i] = random.nextInt();
+            longs[i] = random.nextLong();
+            floats[i] = random.nextFloat() - 0.5f;
+            doubles[i] = random.nextGaussian();
+            booleans[i] = random.nextBoolean();
+            chars[i] = (char) random.nextInt();
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(expected);
+        for (byte v : bytes) data.writeByte(v);
+        for (short v : shorts) data.writeShort(v);
+        for (int v : ints) data.writeInt(v);
+        for (long v : longs) data.writeLong(v);
+        for (float v : floats) data.writeFloat(v);
+        for (double v : doubles) data.writeDouble(v);
+        for (boolean v : booleans) data.writeBoolean(v);
+        for (char v : chars) data.writeChar(v);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        BinaryArrayUtil.write(actual, bytes);
+        BinaryArrayUtil.write(actual, shorts);
+        BinaryArrayUtil.write(actual, ints);
+        BinaryArrayUtil.write(actual, longs);
+        BinaryArrayUtil.write(actual, floats);
+        BinaryArrayUtil.write(actual, doubles);
+        BinaryArrayUtil.write(actual, booleans);
+        BinaryArrayUtil.write(actual, chars);
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(actual.toByteArray()));
+        assertArrayEquals(bytes, BinaryArrayUtil.readBytes(in, length));
+        assertArrayEquals(shorts, BinaryArrayUtil.readShorts(in, length));
+        assertArrayEquals(ints, BinaryArrayUtil.readInts(in, length));
+        assertArrayEquals(longs, BinaryArrayUtil.readLongs(in, length));
+        assertArrayEquals(floats, BinaryArrayUtil.readFloats(in, length));
+        assertArrayEquals(doubles, BinaryArrayUtil.readDoubles(in, length));
+        assertArrayEquals(booleans, BinaryArrayUtil.readBooleans(in, length));
+        assertArrayEquals(chars, BinaryArrayUtil.readChars(in, length));
+    }
+
+    @Test
+    void truncatedArrayFails() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryArrayUtil.write(out, new long[]{1, 2, 3});
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), 20);
+
+        assertThrows(EOFException.class, () -> BinaryArrayUtil.readLongs(new DataInputStream(new ByteArrayInputStream(truncated)), 3));
+    }
+
+    @Test
+    void chunksAreCappedForHugeArrays() {
+        assertEquals(Long.BYTES, BinaryArrayUtil.chunkSize(0, Long.BYTES));
+        assertEquals(24, BinaryArrayUtil.chunkSize(3, Long.BYTES));
+        assertEquals(BinaryArrayUtil.CHUNK_SIZE, BinaryArrayUtil.chunkSize(1 << 28, Long.BYTES));
+        assertEquals(BinaryArrayUtil.CHUNK_SIZE, BinaryArrayUtil.chunkSize(Integer.MAX_VALUE, Double.BYTES));
+        assertEquals(BinaryArrayUtil.CHUNK_SIZE, BinaryArrayUtil.chunkSize(Integer.MAX_VALUE - 8, Short.BYTES));
+    }
+
+    // Lengths that leave a part filled last byte, plus one that packs into more than one chunk.
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 7, 8, 9, 63, 65, BinaryArrayUtil.CHUNK_SIZE * 8 + 3})
+    void packedBooleansRoundTrip(int length) throws IOException {
+        Random random = new Random(length);
+        boolean[] booleans = new boolean[length];
+        for (int i = 0; i < length; i++) booleans[i] = random.nextBoolean();
+        BitSet bits = NativeArrayUtil.toBitSet(booleans);
+
+        ByteArrayOutputStream fromArray = new ByteArrayOutputStream();
+        BinaryArrayUtil.writePacked(fromArray, booleans);
+        ByteArrayOutputStream fromBits = new ByteArrayOutputStream();
+        BinaryArrayUtil.writePacked(fromBits, bits, length);
+        assertEquals(BinaryArrayUtil.packedSize(length), fromArray.size());
+        assertArrayEquals(fromArray.toByteArray(), fromBits.toByteArray());
+        assertArrayEquals(Arrays.copyOf(bits.toByteArray(), fromArray.size()), fromArray.toByteArray());
+
+        byte[] packed = fromArray.toByteArray();
+        assertArrayEquals(booleans, BinaryArrayUtil.readPackedBooleans(new DataInputStream(new ByteArrayInputStream(packed)), length));
+        assertEquals(bits, BinaryArrayUtil.readPackedBitSet(new DataInputStream(new ByteArrayInputStream(packed)), length));
+    }
+
+    @Test
+    void bitsPastTheLengthAreLeftOut() throws IOException {
+        BitSet bits = new BitSet();
+        bits.set(0);
+        bits.set(4);
+        bits.set(9);
+        bits.set(40);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryArrayUtil.writePacked(out, bits, 10);
+        assertArrayEquals(new byte[]{0b10001, 0b10}, out.toByteArray());
+
+        out.reset();
+        BinaryArrayUtil.writePacked(out, bits, 5);
+        assertArrayEquals(new byte[]{0b10001}, out.toByteArray());
+    }
+
+    @Test
+    void truncatedPackedBooleansFail() {
+        byte[] truncated = new byte[2];
+        assertThrows(EOFException.class, () -> BinaryArrayUtil.readPackedBooleans(new DataInputStream(new ByteArrayInputStream(truncated)), 17));
+        assertThrows(EOFException.class, () -> BinaryArrayUtil.readPackedBitSet(new DataInputStream(new ByteArrayInputStream(truncated)), 17));
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.github.nightfall.odsl.util;
+
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.objects.CompatDocument;
+import com.github.nightfall.odsl.objects.NestedDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferPoolTest {
+
+    @Test
+    void releasedArraysAreReused() {
+        BufferPool pool = new BufferPool();
+        byte[] buffer = pool.acquire(100);
+        assertEquals(128, buffer.length);
+        assertEquals(BufferPool.MIN_BUFFER_SIZE, pool.acquire(0).length);
+
+        pool.release(buffer);
+        assertEquals(128, pool.getRetainedBytes());
+        assertSame(buffer, pool.acquire(65));
+        assertEquals(0, pool.getRetainedBytes());
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(1 / 3.0, pool.getHitRate(), 1e-9);
+    }
+
+    // An array that was never borrowed goes to the largest size class it fills, so it still covers any acquire from that class.
+    @Test
+    void foreignArraysFitTheClassBelow() {
+        BufferPool pool = new BufferPool();
+        byte[] foreign = new byte[100];
+        pool.release(foreign);
+        assertSame(foreign, pool.acquire(64));
+        assertNotSame(foreign, pool.acquire(64));
+    }
+
+    @Test
+    void limitsAreKept() {
+        BufferPool pool = new BufferPool(1000, 2, 256);
+        assertEquals(1024, pool.getMaxBufferSize());
+
+        pool.release(new byte[32]);
+        pool.release(new byte[2048]);
+        assertEquals(2000, pool.acquire(2000).length);
+        assertEquals(2, pool.getDiscards());
+
+        pool.release(new byte[64]);
+        pool.release(new byte[64]);
+        pool.release(new byte[64]);
+        assertEquals(128, pool.getRetainedBytes());
+        assertEquals(3, pool.getDiscards());
+
+        // The 128 bytes already kept leave no room for a 256 byte array.
+        pool.release(new byte[256]);
+        assertEquals(128, pool.getRetainedBytes());
+        assertEquals(2, pool.getReturns());
+        assertEquals(4, pool.getDiscards());
+    }
+
+    @Test
+    void clearKeepsTheMetrics() {
+        BufferPool pool = new BufferPool();
+        pool.release(pool.acquire(64));
+        pool.release(pool.acquire(4096));
+        pool.clear();
+        assertEquals(0, pool.getRetainedBytes());
+        assertEquals(2, pool.getReturns());
+
+        pool.acquire(64);
+        assertEquals(0, pool.getHits());
+        pool.resetMetrics();
+        assertEquals(0, pool.getMisses());
+        assertEquals(0, pool.getReturns());
+        assertEquals(0.0, pool.getHitRate());
+    }
+
+    @Test
+    void invalidSettingsFail() {
+        assertThrows(RuntimeException.class, () -> new BufferPool(32, 1, 1));
+        assertThrows(RuntimeException.class, () -> new BufferPool((1 << 30) + 1, 1, 1));
+        assertThrows(RuntimeException.class, () -> new BufferPool(64, -1, 1));
+        assertThrows(RuntimeException.class, () -> new BufferPool(64, 1, -1));
+        assertThrows(RuntimeException.class, () -> new BufferPool().acquire(-1));
+        assertThrows(RuntimeException.class, () -> BufferPool.setShared(null));
+    }
+
+    // Each thread fills the arrays it holds with its own id, so an array handed to two threads at once would be overwritten.
+    @Test
+    void arraysAreNeverSharedBetweenThreads() throws Exception {
+        BufferPool pool = new BufferPool(4096, 4, 1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                byte id = (byte) thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        byte[] buffer = pool.acquire(64 << (i % 6));
+                        Arrays.fill(buffer, id);
+                        Thread.yield();
+                        for (byte b : buffer) assertEquals(id, b);
+                        pool.release(buffer);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8000, pool.getHits() + pool.getMisses());
+        assertEquals(8000, pool.getReturns() + pool.getDiscards());
+        assertTrue(pool.getRetainedBytes() <= 4 * (64 + 128 + 256 + 512 + 1024 + 2048));
+    }
+
+    static byte[] write() throws IOException {
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        CompatDocument.write(serializer);
+        NestedDocument.write(serializer);
+        byte[] bytes = serializer.toBytes();
+        serializer.release();
+        return bytes;
+    }
+
+    @Test
+    void serializersWriteTheSameBytesWithoutPooling() throws IOException {
+        BufferPool shared = BufferPool.shared();
+        try {
+            BufferPool.setShared(new BufferPool(64, 0, 0));
+            byte[] unpooled = write();
+
+            BufferPool pool = new BufferPool();
+            BufferPool.setShared(pool);
+            assertArrayEquals(unpooled, write());
+            assertArrayEquals(unpooled, write());
+            assertTrue(pool.getHits() > 0);
+        } finally {
+            BufferPool.setShared(shared);
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.github.nightfall.odsl.util;
+
+import com.github.nightfall.odsl.io.serial.api.INamedDeserializer;
+import com.github.nightfall.odsl.io.serial.api.INamedSerializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinaryDeserializer;
+import com.github.nightfall.odsl.io.serial.impl.NamedBinarySerializer;
+import com.github.nightfall.odsl.io.serial.obj.INamedSerializable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InstantiatorsTest {
+
+    public static class Public {}
+
+    static class PackagePrivate {}
+
+    static class PackagePrivateConstructor {
+        PackagePrivateConstructor() {}
+    }
+
+    public static class PrivateConstructor {
+        private PrivateConstructor() {}
+    }
+
+    public static abstract class Abstract {}
+
+    public interface Interface {}
+
+    public static class NoEmptyConstructor implements INamedSerializable {
+
+        public final int id;
+        public int value;
+
+        public NoEmptyConstructor(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void read(INamedDeserializer in) {
+            value = in.readInt("value");
+        }
+
+        @Override
+        public void write(INamedSerializer out) throws IOException {
+            out.writeInt("value", value);
+        }
+
+    }
+
+    public static class Throwing {
+        public Throwing() {
+            throw new IllegalStateException("thrown.");
+        }
+    }
+
+    // Generated & fallback factories alike have to create a new object each call.
+    @Test
+    void everyVisibleConstructorIsUsed() throws ReflectiveOperationException {
+        for (Class<?> type : new Class<?>[]{Public.class, PackagePrivate.class, PackagePrivateConstructor.class}) {
+            Object first = Instantiators.newInstance(type);
+            assertSame(type, first.getClass());
+            assertNotSame(first, Instantiators.newInstance(type));
+        }
+    }
+
+    @Test
+    void registeredSuppliersReplaceTheConstructor() throws ReflectiveOperationException {
+        Public registered = new Public();
+        Instantiators.register(Public.class, () -> registered);
+        try {
+            assertSame(registered, Instantiators.newInstance(Public.class));
+        } finally {
+            Instantiators.unregister(Public.class);
+        }
+        assertNotSame(registered, Instantiators.newInstance(Public.class));
+    }
+
+    // The same as calling the constructor through reflection, which never made it accessible.
+    @Test
+    void privateConstructorsFail() {
+        assertThrows(IllegalAccessException.class, () -> Instantiators.newInstance(PrivateConstructor.class));
+    }
+
+    // The failure is kept with the factory, so it is the same exception the second time.
+    @Test
+    void classesWithoutAConstructorFail() {
+        InstantiationException failure = assertThrows(InstantiationException.class, () -> Instantiators.newInstance(Abstract.class));
+        assertSame(failure, assertThrows(InstantiationException.class, () -> Instantiators.newInstance(Abstract.class)));
+        assertThrows(InstantiationException.class, () -> Instantiators.newInstance(Interface.class));
+        assertThrows(NoSuchMethodException.class, () -> Instantiators.newInstance(NoEmptyConstructor.class));
+    }
+
+    @Test
+    void constructorExceptionsAreWrapped() {
+        InvocationTargetException failure = assertThrows(InvocationTargetException.class, () -> Instantiators.newInstance(Throwing.class));
+        assertSame(IllegalStateException.class, failure.getCause().getClass());
+    }
+
+    @Test
+    void firstUseFromManyThreads() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit((Callable<Object>) () -> {
+                    start.await();
+                    return Instantiators.newInstance(PackagePrivateConstructor.class);
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) assertSame(PackagePrivateConstructor.class, future.get().getClass());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // A registered supplier is what lets a class without a no argument constructor be read at all.
+    @Test
+    void deserializersUseRegisteredSuppliers() throws IOException {
+        NoEmptyConstructor[] written = new NoEmptyConstructor[3];
+        for (int i = 0; i < written.length; i++) {
+            written[i] = new NoEmptyConstructor(-1);
+            written[i].value = i * 10;
+        }
+        NamedBinarySerializer serializer = new NamedBinarySerializer();
+        serializer.writeNamedObjectArray("array", written);
+        serializer.writeNamedObject("single", written[1]);
+        byte[] bytes = serializer.toBytes();
+
+        assertNull(new NamedBinaryDeserializer(bytes, false).readNamedObject("single", NoEmptyConstructor.class));
+
+        AtomicInteger ids = new AtomicInteger();
+        Instantiators.register(NoEmptyConstructor.class, () -> new NoEmptyConstructor(ids.getAndIncrement()));
+        try {
+            INamedDeserializer in = new NamedBinaryDeserializer(bytes, false);
+            NoEmptyConstructor[] read = in.readNamedObjectArray("array", NoEmptyConstructor.class);
+            int[] values = new int[read.length];
+            for (int i = 0; i < read.length; i++) values[i] = read[i].value;
+            assertArrayEquals(new int[]{0, 10, 20}, values);
+            assertEquals(10, in.readNamedObject("single", NoEmptyConstructor.class).value);
+            assertEquals(4, ids.get());
+        } finally {
+            Instantiators.unregister(NoEmptyConstructor.class);
+        }
+    }
+
+}
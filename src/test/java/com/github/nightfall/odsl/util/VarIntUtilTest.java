@@ -0,0 +1,101 @@
+package com.github.nightfall.odsl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VarIntUtilTest {
+
+    static final int[] INTS = {0, 1, -1, 63, -64, 64, -65, 127, 128, 8191, -8192, 8192, 16383, 16384, 1 << 20, 1 << 21, 1 << 27, 1 << 28, Integer.MAX_VALUE, Integer.MIN_VALUE, -300, 300};
+    static final long[] LONGS = {0, 1, -1, 127, 128, -129, Integer.MAX_VALUE, Integer.MIN_VALUE, 1L << 35, -(1L << 35), 1L << 56, 1L << 62, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    interface Write {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    static byte[] bytes(Write write) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        write.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    static DataInputStream in(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    void intsRoundTrip() throws IOException {
+        for (int v : INTS) {
+            byte[] signed = bytes(out -> VarIntUtil.writeVarInt(out, v));
+            assertEquals(v, VarIntUtil.readVarInt(in(signed)));
+            assertEquals(v, VarIntUtil.readVarLong(in(signed)));
+
+            byte[] unsigned = bytes(out -> VarIntUtil.writeUnsignedVarInt(out, v));
+            assertEquals(VarIntUtil.unsignedVarIntSize(v), unsigned.length, "size of " + v);
+            assertEquals(v, VarIntUtil.readUnsignedVarInt(in(unsigned)));
+        }
+    }
+
+    @Test
+    void longsRoundTrip() throws IOException {
+        for (long v : LONGS) {
+            assertEquals(v, VarIntUtil.readVarLong(in(bytes(out -> VarIntUtil.writeVarLong(out, v)))));
+            assertEquals(v, VarIntUtil.readUnsignedVarLong(in(bytes(out -> VarIntUtil.writeUnsignedVarLong(out, v)))));
+        }
+        assertEquals(VarIntUtil.MAX_VAR_LONG_SIZE, bytes(out -> VarIntUtil.writeVarLong(out, Long.MIN_VALUE)).length);
+    }
+
+    // Small numbers of either sign take one byte, where a plain unsigned varint gives every negative all five.
+    @Test
+    void zigzagKeepsSmallNegativesSmall() throws IOException {
+        assertArrayEquals(new byte[]{1}, bytes(out -> VarIntUtil.writeVarInt(out, -1)));
+        assertArrayEquals(new byte[]{2}, bytes(out -> VarIntUtil.writeVarInt(out, 1)));
+        assertEquals(1, bytes(out -> VarIntUtil.writeVarInt(out, -64)).length);
+        assertEquals(2, bytes(out -> VarIntUtil.writeVarInt(out, -65)).length);
+        assertEquals(VarIntUtil.MAX_VAR_INT_SIZE, bytes(out -> VarIntUtil.writeUnsignedVarInt(out, -1)).length);
+    }
+
+    @Test
+    void paddedVarIntsReadLikeShortOnes() throws IOException {
+        for (int v : new int[]{0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1}) {
+            for (int size = VarIntUtil.unsignedVarIntSize(v); size <= VarIntUtil.MAX_VAR_INT_SIZE; size++) {
+                byte[] buffer = new byte[size];
+                VarIntUtil.writePaddedUnsignedVarInt(buffer, 0, v, size);
+                DataInputStream in = in(buffer);
+                assertEquals(v, VarIntUtil.readUnsignedVarInt(in));
+                assertEquals(-1, in.read());
+            }
+        }
+        assertThrows(RuntimeException.class, () -> VarIntUtil.writePaddedUnsignedVarInt(new byte[2], 0, 16384, 2));
+    }
+
+    @Test
+    void truncatedVarIntsFail() throws IOException {
+        byte[] bytes = bytes(out -> VarIntUtil.writeVarLong(out, Long.MIN_VALUE));
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(EOFException.class, () -> VarIntUtil.readVarLong(in(truncated)));
+            if (length < VarIntUtil.MAX_VAR_INT_SIZE) assertThrows(EOFException.class, () -> VarIntUtil.readVarInt(in(truncated)));
+        }
+    }
+
+    @Test
+    void overlongVarIntsFail() {
+        byte[] bytes = new byte[11];
+        Arrays.fill(bytes, (byte) 0x80);
+        assertThrows(IOException.class, () -> VarIntUtil.readUnsignedVarInt(in(bytes)));
+        assertThrows(IOException.class, () -> VarIntUtil.readUnsignedVarLong(in(bytes)));
+        assertThrows(IOException.class, () -> VarIntUtil.readUnsignedVarInt(in(new byte[]{-1, -1, -1, -1, 0x10})));
+    }
+
+}